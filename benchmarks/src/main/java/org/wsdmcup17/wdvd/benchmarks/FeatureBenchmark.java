@@ -0,0 +1,171 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.wsdmcup17.wdvd.extraction.FeatureListFactory;
+import org.wsdmcup17.wdvd.extraction.features.Feature;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.StatefulFeature;
+import org.wsdmcup17.wdvd.extraction.revision.implementation.RevisionImpl;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
+
+/**
+ * Measures the calculation of each feature returned by
+ * {@link FeatureListFactory#getFeatures()}. Single features can be selected
+ * with the JMH option -p feature=NAME.
+ *
+ * Every invocation calculates the feature for fresh copies of the prepared
+ * revisions, i.e., the character statistics and word tokens cached by the
+ * revisions are computed again (and are included in the measured time).
+ * Stateful features are reset to their initial state before every
+ * invocation, so that every invocation sees the revisions for the first
+ * time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class FeatureBenchmark {
+
+	static final int NUMBER_OF_REVISIONS = 1000;
+
+	@Param({
+		"revisionId", "revisionSessionId", "timestamp", "userId", "userName",
+		"itemId", "contentType", "commentTail", "alphanumericRatio",
+		"asciiRatio", "bracketRatio", "digitRatio", "latinRatio",
+		"longestCharacterSequence", "lowerCaseRatio", "nonLatinRatio",
+		"punctuationRatio", "upperCaseRatio", "whitespaceRatio",
+		"badWordRatio", "containsLanguageWord", "containsURL",
+		"languageWordRatio", "longestWord", "lowerCaseWordRatio",
+		"proportionOfLinksAdded", "proportionOfQidAdded", "upperCaseWordRatio",
+		"proportionOfLanguageAdded", "commentCommentSimilarity",
+		"commentLabelSimilarity", "commentSitelinkSimilarity",
+		"commentTailLength", "itemValue", "literalValue", "property",
+		"dataType", "cumUserUniqueItems", "isPrivilegedUser",
+		"isRegisteredUser", "userCityName", "userContinentCode",
+		"userCountryCode", "userCountyName", "userRegionCode", "userTimeZone",
+		"isAdminUser", "isAdvancedUser", "isBotUser", "isCuratorUser",
+		"userSecondsSinceFirstRevisionRegistered",
+		"userSecondsSinceFirstRevision", "logCumItemUniqueUsers", "isHuman",
+		"isLivingPerson", "numberOfAliases", "numberOfBadges",
+		"numberOfDescriptions", "numberOfLabels", "numberOfProperties",
+		"numberOfQualifiers", "numberOfReferences", "numberOfSitelinks",
+		"numberOfStatements", "commentLength", "isLatinLanguage",
+		"positionWithinSession", "revisionAction", "revisionLanguage",
+		"revisionPrevAction", "revisionSubaction", "revisionTags",
+		"minorRevision", "param1", "param3", "param4", "revisionHashTag",
+		"revisionSize"})
+	String feature;
+
+	private Feature calculatedFeature;
+	private FeatureVector vector;
+
+	// never passed to the feature, only copied
+	private List<Revision> preparedRevisions;
+	private List<Revision> revisions;
+
+	// null if the feature is stateless
+	private byte[] initialState;
+
+	@Setup
+	public void setup() throws IOException {
+		List<Feature> features = FeatureListFactory.getFeatures();
+		for (Feature f: features) {
+			if (f.getName().equals(feature)) {
+				calculatedFeature = f;
+			}
+		}
+		if (calculatedFeature == null) {
+			throw new IllegalArgumentException("Unknown feature: " + feature);
+		}
+		vector = new FeatureVector(features.size());
+
+		preparedRevisions =
+				new RevisionGenerator().generatePrepared(NUMBER_OF_REVISIONS);
+		for (Revision revision: preparedRevisions) {
+			// Generated once per revision before the features (like in the
+			// feature processors), hence shared by the copies
+			revision.getParsedComment();
+		}
+
+		if (calculatedFeature instanceof StatefulFeature) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (DataOutputStream out = new DataOutputStream(bytes)) {
+				((StatefulFeature) calculatedFeature).writeState(out);
+			}
+			initialState = bytes.toByteArray();
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void setupInvocation() throws IOException {
+		revisions = new ArrayList<>(preparedRevisions.size());
+		for (Revision revision: preparedRevisions) {
+			revisions.add(new RevisionImpl(revision));
+		}
+
+		if (initialState != null) {
+			try (DataInputStream in = new DataInputStream(
+					new ByteArrayInputStream(initialState))) {
+				((StatefulFeature) calculatedFeature).readState(in);
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUMBER_OF_REVISIONS)
+	public void calculate(Blackhole blackhole) {
+		for (Revision revision: revisions) {
+			calculatedFeature.calculate(revision, vector);
+		}
+		blackhole.consume(vector);
+	}
+
+}
@@ -0,0 +1,93 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wsdmcup17.wdvd.extraction.FeatureListFactory;
+import org.wsdmcup17.wdvd.extraction.features.Feature;
+import org.wsdmcup17.wdvd.extraction.processors.decorators.FeatureProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.output.FeatureCSVPrinter;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
+
+/**
+ * Measures the formatting of feature values as CSV (without compression).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeatureCSVPrinterBenchmark {
+
+	static final int NUMBER_OF_REVISIONS = 1000;
+
+	private List<Revision> revisions;
+	private FeatureCSVPrinter printer;
+
+	@Setup
+	public void setup() throws IOException {
+		List<Feature> features = FeatureListFactory.getFeatures();
+
+		revisions = new RevisionGenerator().generatePrepared(NUMBER_OF_REVISIONS);
+		FeatureProcessor featureProcessor = new FeatureProcessor(null, features);
+		for (Revision revision: revisions) {
+			featureProcessor.processRevision(revision);
+		}
+
+		printer = new FeatureCSVPrinter(
+				features, NullOutputStream.NULL_OUTPUT_STREAM);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		printer.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUMBER_OF_REVISIONS)
+	public void printFeatures() throws IOException {
+		for (Revision revision: revisions) {
+			printer.printFeatures(revision);
+		}
+	}
+
+}
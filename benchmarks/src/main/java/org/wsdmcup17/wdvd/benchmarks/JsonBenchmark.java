@@ -0,0 +1,105 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.wsdmcup17.wdvd.extraction.processors.decorators.JsonParsingMode;
+import org.wsdmcup17.wdvd.extraction.processors.decorators.JsonProcessor;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
+
+/**
+ * Measures the decoding of item JSON, once for single documents of different
+ * sizes and once for a stream of revisions in each parsing mode.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+	static final int NUMBER_OF_REVISIONS = 1000;
+
+	@State(Scope.Benchmark)
+	public static class Document {
+		// number of statements of the item
+		@Param({"5", "100", "5000"})
+		int size;
+
+		String json;
+
+		@Setup
+		public void setup() {
+			json = new RevisionGenerator().generateItemJson(size);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Revisions {
+		@Param({"databind", "streaming"})
+		String mode;
+
+		List<Revision> revisions;
+		JsonProcessor processor;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			revisions = new RevisionGenerator().generate(NUMBER_OF_REVISIONS);
+			processor = new JsonProcessor(
+					null, 1, JsonParsingMode.fromString(mode));
+		}
+	}
+
+	@Benchmark
+	public Object parseJson(Document document) throws Exception {
+		return JsonProcessor.parseJson(document.json);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUMBER_OF_REVISIONS)
+	public void processRevision(Revisions revisions, Blackhole blackhole) {
+		for (Revision revision: revisions.revisions) {
+			revisions.processor.processRevision(revision);
+			blackhole.consume(revision.getItemSummary());
+		}
+	}
+
+}
@@ -0,0 +1,567 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVRecord;
+import org.wikidata.wdtk.dumpfiles.DumpContentType;
+import org.wikidata.wdtk.dumpfiles.ExtendedMwRevisionDumpFileProcessor;
+import org.wikidata.wdtk.dumpfiles.MwLocalDumpFile;
+import org.wsdmcup17.wdvd.MetadataParser;
+import org.wsdmcup17.wdvd.extraction.processors.AbstractRevisionProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.RevisionProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.decorators.JsonProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.decorators.PrevTextRegexProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.decorators.TextRegexProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.preprocessing.ReceiveProcessor;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Generates a reproducible stream of synthetic Wikidata revisions.
+ *
+ * The revisions are serialized as XML dump and metadata records and then
+ * deserialized with the same classes as the data received from the server.
+ * Given the same seed, the generator always returns the same revisions, so
+ * that benchmark results are comparable across commits.
+ */
+public class RevisionGenerator {
+
+	public static final long DEFAULT_SEED = 2017;
+
+	private static final String[]
+		LANGUAGES = {"en", "de", "fr", "es", "ru", "ja", "zh", "ar", "nl",
+				"it", "pl", "sv", "uk", "he", "hi"},
+		WORDS = {"english", "deutsch", "francais", "Douglas", "Adams", "fuck",
+				"ass", "hello", "world", "Berlin", "москва", "東京", "القاهرة",
+				"QUICKSTATEMENTS", "ümlaut", "naïve", "123", "(test)", "foo-bar",
+				"www.example.com/abcdefghijkl", "http://example.org/x/y/z/123",
+				"aaaaaaa", "!!!", "Q42", "P31", "Ελληνικά", "english language",
+				"spanish", "polski"},
+		USERS = {"Alice", "Bob", "KrBot", "Succu", "Ash Crow", "ValterVBot",
+				"Jura1", "Pasleim", "Lydia Pintscher", "Magnus Manske",
+				"Ymblanter"},
+		IPS = {"1.2.3.4", "2001:db8::1", "192.168.0.", "10.0.0."},
+		PROPERTIES = {"P31", "P569", "P570", "P17", "P18", "P856", "P625",
+				"P1082", "P21", "P27"},
+		ITEM_PROPERTIES = {"P31", "P17", "P21", "P27"},
+		SITES = {"enwiki", "dewiki", "frwiki", "commonswiki"},
+		COUNTRY_CODES = {"us", "de", "", "fr"},
+		CONTINENT_CODES = {"na", "eu", ""},
+		TIME_ZONES = {"Europe/Berlin", ""},
+		REGION_CODES = {"", "BE"},
+		CITY_NAMES = {"", "Berlin, \"Mitte\""},
+		COUNTY_NAMES = {"", "x"},
+		REVISION_TAGS = {"", "mobile edit,OAuth"};
+
+	private static final String
+		DUMP_HEADER = "<mediawiki xmlns=\"http://www.mediawiki.org/xml/export-0.10/\""
+			+ " version=\"0.10\" xml:lang=\"en\"><siteinfo>"
+			+ "<sitename>Wikidata</sitename><dbname>wikidatawiki</dbname>"
+			+ "<base>https://www.wikidata.org/wiki/Main_Page</base>"
+			+ "<generator>MediaWiki</generator><case>first-letter</case>"
+			+ "<namespaces><namespace key=\"0\" case=\"first-letter\" />"
+			+ "</namespaces></siteinfo>",
+		DUMP_FOOTER = "</mediawiki>",
+		INPUT_STREAM = "INPUT STREAM";
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private final Random random;
+
+	private final Map<Integer, ObjectNode> items = new HashMap<>();
+
+	public RevisionGenerator() {
+		this(DEFAULT_SEED);
+	}
+
+	public RevisionGenerator(long seed) {
+		this.random = new Random(seed);
+	}
+
+	/**
+	 * Generates the given number of revisions as received from the server,
+	 * i.e., without JSON and regular expression processing.
+	 */
+	public List<Revision> generate(int numberOfRevisions) {
+		StringBuilder dump = new StringBuilder(DUMP_HEADER);
+		BlockingQueue<CSVRecord> metadataQueue = new LinkedBlockingQueue<>();
+
+		long revisionId = 1000;
+		long sessionId = 1;
+		int maxItemId = Math.max(5, numberOfRevisions / 15);
+		for (int i = 0; i < numberOfRevisions; i++) {
+			int itemId = 1 + random.nextInt(maxItemId);
+			ObjectNode item = items.computeIfAbsent(itemId, this::newItem);
+			String comment = mutate(itemId, item);
+			revisionId += 1 + random.nextInt(3);
+			if (random.nextDouble() < 0.3) {
+				sessionId++;
+			}
+
+			dump.append("<page><title>Q").append(itemId).append("</title>")
+				.append("<ns>0</ns><id>").append(itemId + 7).append("</id>");
+			appendRevision(dump, i, numberOfRevisions, revisionId, itemId, item,
+					comment);
+			dump.append("</page>");
+
+			metadataQueue.add(createMetadata(revisionId, sessionId));
+		}
+		dump.append(DUMP_FOOTER);
+
+		List<Revision> result = new ArrayList<>(numberOfRevisions);
+		RevisionProcessor collector = new CollectingProcessor(result);
+		ReceiveProcessor receiveProcessor =
+				new ReceiveProcessor(collector, metadataQueue);
+
+		MwLocalDumpFile dumpFile = new MwLocalDumpFile(
+				INPUT_STREAM, DumpContentType.FULL, null, null);
+		dumpFile.prepareDumpFile();
+		new ExtendedMwRevisionDumpFileProcessor(receiveProcessor)
+			.processDumpFileContents(new ByteArrayInputStream(
+					dump.toString().getBytes(StandardCharsets.UTF_8)), dumpFile);
+
+		return result;
+	}
+
+	/**
+	 * Generates the given number of revisions and processes them with the
+	 * JSON and regular expression processors, i.e., all features can be
+	 * computed for them.
+	 */
+	public List<Revision> generatePrepared(int numberOfRevisions) {
+		List<Revision> revisions = generate(numberOfRevisions);
+		List<Revision> result = new ArrayList<>(numberOfRevisions);
+
+		RevisionProcessor processor = new CollectingProcessor(result);
+		processor = new PrevTextRegexProcessor(processor);
+		processor = new TextRegexProcessor(processor, true);
+		processor = new JsonProcessor(processor, 1);
+
+		processor.startRevisionProcessing();
+		for (Revision revision: revisions) {
+			processor.processRevision(revision);
+		}
+		processor.finishRevisionProcessing();
+
+		return result;
+	}
+
+	/**
+	 * Generates the JSON of an item with the given number of statements and
+	 * about one label, description and sitelink per ten statements.
+	 */
+	public String generateItemJson(int numberOfStatements) {
+		int itemId = 1 + random.nextInt(1000000);
+		ObjectNode item = newItem(itemId);
+		for (int i = 0; i < numberOfStatements; i++) {
+			addStatement(itemId, item, randomElement(PROPERTIES));
+			if (i % 10 == 0) {
+				String language = randomElement(LANGUAGES);
+				item.with("labels").set(language, createTerm(language));
+				item.with("descriptions").set(language, createTerm(language));
+				String site = randomElement(SITES);
+				item.with("sitelinks").set(site, createSitelink(site));
+			}
+		}
+		return toJson(itemId, item);
+	}
+
+	/**
+	 * Generates the given number of revision comments.
+	 */
+	public List<String> generateComments(int numberOfComments) {
+		List<String> result = new ArrayList<>(numberOfComments);
+		for (int i = 0; i < numberOfComments; i++) {
+			int itemId = 1 + random.nextInt(1000);
+			result.add(mutate(itemId, newItem(itemId)));
+		}
+		return result;
+	}
+
+	private void appendRevision(StringBuilder dump, int index,
+			int numberOfRevisions, long revisionId, int itemId, ObjectNode item,
+			String comment) {
+		dump.append("<revision><id>").append(revisionId).append("</id>")
+			.append("<parentid>").append(revisionId - 1).append("</parentid>")
+			.append("<timestamp>")
+			.append(String.format("2013-%02d-%02dT%02d:%02d:%02dZ",
+					1 + (long) index * 12 / numberOfRevisions, 1 + index % 28,
+					index % 24, index * 7 % 60, index * 13 % 60))
+			.append("</timestamp><contributor>");
+		if (random.nextDouble() < 0.25) {
+			String ip = randomElement(IPS);
+			if (ip.endsWith(".")) {
+				ip = ip + random.nextInt(256);
+			}
+			dump.append("<ip>").append(escape(ip)).append("</ip>");
+		} else {
+			int user = random.nextInt(USERS.length);
+			dump.append("<username>").append(escape(USERS[user]))
+				.append("</username><id>").append(user + 10).append("</id>");
+		}
+		dump.append("</contributor>");
+		if (random.nextDouble() < 0.1) {
+			dump.append("<minor/>");
+		}
+		if (random.nextDouble() < 0.01) {
+			dump.append("<comment deleted=\"deleted\" />");
+		} else {
+			dump.append("<comment>").append(escape(comment)).append("</comment>");
+		}
+		dump.append("<model>wikibase-item</model>")
+			.append("<format>application/json</format>")
+			.append("<text xml:space=\"preserve\">")
+			.append(escape(createText(itemId, item)))
+			.append("</text><sha1>")
+			.append(String.format("%016x%016x", random.nextLong(),
+					random.nextLong()))
+			.append("</sha1></revision>");
+	}
+
+	private String createText(int itemId, ObjectNode item) {
+		double r = random.nextDouble();
+		if (r < 0.01) {
+			return "";
+		} else if (r < 0.02) {
+			return "{\"entity\":\"Q" + itemId + "\",\"redirect\":\"Q"
+					+ (itemId + 1) + "\"}";
+		} else if (r < 0.025) {
+			return "{broken json";
+		} else if (r < 0.03) {
+			return toJson(itemId + 100000, item);
+		} else {
+			return toJson(itemId, item);
+		}
+	}
+
+	private CSVRecord createMetadata(long revisionId, long sessionId) {
+		String line = CSVFormat.RFC4180.format((Object[]) new String[] {
+				Long.toString(revisionId),
+				Long.toString(sessionId),
+				randomElement(COUNTRY_CODES),
+				randomElement(CONTINENT_CODES),
+				randomElement(TIME_ZONES),
+				randomElement(REGION_CODES),
+				randomElement(CITY_NAMES),
+				randomElement(COUNTY_NAMES),
+				randomElement(REVISION_TAGS)});
+		try {
+			return MetadataParser.deserialize(line);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	// Changes the item and returns the corresponding comment.
+	private String mutate(int itemId, ObjectNode item) {
+		double r = random.nextDouble();
+		String language = randomElement(LANGUAGES);
+		if (r < 0.2) {
+			ObjectNode label = createTerm(language);
+			item.with("labels").set(language, label);
+			return "/* wbsetlabel-" + (random.nextBoolean() ? "add" : "set")
+					+ ":1|" + language + " */ " + label.get("value").asText();
+		} else if (r < 0.3) {
+			ObjectNode description = createTerm(language);
+			item.with("descriptions").set(language, description);
+			return "/* wbsetdescription-add:1|" + language + " */ "
+					+ description.get("value").asText();
+		} else if (r < 0.38) {
+			ObjectNode alias = createTerm(language);
+			ArrayNode aliases = (ArrayNode) item.with("aliases").get(language);
+			if (aliases == null) {
+				aliases = item.with("aliases").putArray(language);
+			}
+			aliases.add(alias);
+			return "/* wbsetaliases-add:1|" + language + " */ "
+					+ alias.get("value").asText();
+		} else if (r < 0.65) {
+			String property = randomElement(PROPERTIES);
+			ObjectNode mainsnak = addStatement(itemId, item, property);
+			String value;
+			if (mainsnak.has("datavalue")
+					&& mainsnak.get("datavalue").get("value").has("numeric-id")) {
+				value = "[[Q" + mainsnak.get("datavalue").get("value")
+						.get("numeric-id").asInt() + "]]";
+			} else if (!mainsnak.has("datavalue")) {
+				value = "no value";
+			} else {
+				value = randomText();
+			}
+			String action = random.nextBoolean()
+					? "/* wbcreateclaim-create:1| */ "
+					: "/* wbsetclaim-create:2||1 */ ";
+			return action + "[[Property:" + property + "]]: " + value;
+		} else if (r < 0.75) {
+			String site = randomElement(SITES);
+			ObjectNode sitelink = createSitelink(site);
+			item.with("sitelinks").set(site, sitelink);
+			return "/* wbsetsitelink-add:1|" + site + " */ "
+					+ sitelink.get("title").asText();
+		} else if (r < 0.8 && item.with("claims").size() > 0) {
+			ObjectNode claims = item.with("claims");
+			Iterator<String> properties = claims.fieldNames();
+			String property = properties.next();
+			claims.remove(property);
+			return "/* wbremoveclaims-remove:1| */ [[Property:" + property
+					+ "]]: " + randomText();
+		} else if (r < 0.83) {
+			return "Reverted edits by [[Special:Contributions/1.2.3.4|1.2.3.4]]"
+					+ " ([[User talk:1.2.3.4|talk]]) to last revision by"
+					+ " [[User:Alice|Alice]]";
+		} else if (r < 0.85) {
+			return "Undid revision " + (1 + random.nextInt(100000000))
+					+ " by [[Special:Contributions/Bob|Bob]]"
+					+ " ([[User talk:Bob|talk]]) " + randomText();
+		} else if (r < 0.86) {
+			return "Restored revision " + (1 + random.nextInt(100000000))
+					+ " by [[Special:Contributions/Bob|Bob]]";
+		} else if (r < 0.87) {
+			return "Created page with \"" + randomText() + "\"";
+		} else if (r < 0.88) {
+			return "Protected \"[[Q" + itemId + "]]\"";
+		} else if (r < 0.89) {
+			return "";
+		} else if (r < 0.92) {
+			return "/* wbeditentity-update:0| */ " + randomText()
+					+ " #quickstatements; invoked by Mix'n'match";
+		} else if (r < 0.94) {
+			return "/* wbcreate-new:0| */";
+		} else if (r < 0.96) {
+			return "/* wbsetlabeldescriptionaliases:1|" + language + " */ "
+					+ randomText() + ", " + randomText();
+		} else if (r < 0.97) {
+			return "/* wbmergeitems-from:0||Q" + (1 + random.nextInt(999))
+					+ " */";
+		} else {
+			return randomText();
+		}
+	}
+
+	private ObjectNode newItem(int itemId) {
+		ObjectNode item = MAPPER.createObjectNode();
+		item.putObject("labels");
+		item.putObject("descriptions");
+		item.putObject("aliases");
+		item.putObject("claims");
+		item.putObject("sitelinks");
+		return item;
+	}
+
+	// Adds a statement and returns its main snak.
+	private ObjectNode addStatement(
+			int itemId, ObjectNode item, String property) {
+		ObjectNode statement = MAPPER.createObjectNode();
+		ObjectNode mainsnak = createSnak(property, getSnakType(property));
+		statement.set("mainsnak", mainsnak);
+		statement.put("type", "statement");
+		statement.put("id",
+				String.format("Q%d$%08x", itemId, random.nextInt()));
+		statement.put("rank", "normal");
+
+		if (random.nextDouble() < 0.3) {
+			statement.putObject("qualifiers").putArray("P580")
+				.add(createSnak("P580", "time"));
+			statement.putArray("qualifiers-order").add("P580");
+		}
+		if (random.nextDouble() < 0.3) {
+			ObjectNode reference = statement.putArray("references").addObject();
+			reference.put("hash", String.format("%016x%016x%08x",
+					random.nextLong(), random.nextLong(), random.nextInt()));
+			reference.putObject("snaks").putArray("P143")
+				.add(createSnak("P143", "item"));
+			reference.putArray("snaks-order").add("P143");
+		}
+
+		ObjectNode claims = item.with("claims");
+		ArrayNode statements = (ArrayNode) claims.get(property);
+		if (statements == null) {
+			statements = claims.putArray(property);
+		}
+		statements.add(statement);
+		return mainsnak;
+	}
+
+	private String getSnakType(String property) {
+		for (String itemProperty: ITEM_PROPERTIES) {
+			if (itemProperty.equals(property)) {
+				return "item";
+			}
+		}
+		if (property.equals("P569") || property.equals("P570")) {
+			return "time";
+		}
+		return randomElement(new String[] {"item", "string", "time", "quantity",
+				"globe", "novalue", "url"});
+	}
+
+	private ObjectNode createSnak(String property, String type) {
+		ObjectNode snak = MAPPER.createObjectNode();
+		if (type.equals("novalue")) {
+			snak.put("snaktype", "novalue");
+			snak.put("property", property);
+			return snak;
+		}
+		snak.put("snaktype", "value");
+		snak.put("property", property);
+		ObjectNode datavalue = snak.putObject("datavalue");
+		switch (type) {
+		case "item":
+			int[] ids = {5, 6581097, 515, 42, 1 + random.nextInt(99999)};
+			ObjectNode entity = datavalue.putObject("value");
+			entity.put("entity-type", "item");
+			entity.put("numeric-id", ids[random.nextInt(ids.length)]);
+			datavalue.put("type", "wikibase-entityid");
+			break;
+		case "string":
+			datavalue.put("value", randomText());
+			datavalue.put("type", "string");
+			break;
+		case "url":
+			datavalue.put("value",
+					"https://www.example.com/" + random.nextInt(10000));
+			datavalue.put("type", "string");
+			break;
+		case "time":
+			ObjectNode time = datavalue.putObject("value");
+			time.put("time", String.format("+%04d-01-01T00:00:00Z",
+					1800 + random.nextInt(216)));
+			time.put("timezone", 0);
+			time.put("before", 0);
+			time.put("after", 0);
+			time.put("precision", 11);
+			time.put("calendarmodel", "http://www.wikidata.org/entity/Q1985727");
+			datavalue.put("type", "time");
+			break;
+		case "quantity":
+			ObjectNode quantity = datavalue.putObject("value");
+			quantity.put("amount", "+" + random.nextInt(1001));
+			quantity.put("unit", "1");
+			quantity.put("upperBound", "+1001");
+			quantity.put("lowerBound", "-1");
+			datavalue.put("type", "quantity");
+			break;
+		default:
+			ObjectNode coordinate = datavalue.putObject("value");
+			coordinate.put("latitude", random.nextDouble() * 90);
+			coordinate.put("longitude", random.nextDouble() * 90);
+			coordinate.putNull("altitude");
+			coordinate.put("precision", 0.01);
+			coordinate.put("globe", "http://www.wikidata.org/entity/Q2");
+			datavalue.put("type", "globecoordinate");
+			break;
+		}
+		return snak;
+	}
+
+	private ObjectNode createTerm(String language) {
+		ObjectNode term = MAPPER.createObjectNode();
+		term.put("language", language);
+		term.put("value", randomText());
+		return term;
+	}
+
+	private ObjectNode createSitelink(String site) {
+		ObjectNode sitelink = MAPPER.createObjectNode();
+		sitelink.put("site", site);
+		sitelink.put("title", randomText());
+		ArrayNode badges = sitelink.putArray("badges");
+		if (random.nextDouble() < 0.2) {
+			badges.add("Q17437796");
+		}
+		return sitelink;
+	}
+
+	private static String toJson(int itemId, ObjectNode item) {
+		ObjectNode document = item.deepCopy();
+		document.put("type", "item");
+		document.put("id", "Q" + itemId);
+		try {
+			return MAPPER.writeValueAsString(document);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private String randomText() {
+		StringBuilder result = new StringBuilder();
+		int numberOfWords = 1 + random.nextInt(6);
+		for (int i = 0; i < numberOfWords; i++) {
+			if (i > 0) {
+				result.append(' ');
+			}
+			result.append(randomElement(WORDS));
+		}
+		return result.toString();
+	}
+
+	private String randomElement(String[] array) {
+		return array[random.nextInt(array.length)];
+	}
+
+	private static String escape(String str) {
+		return str.replace("&", "&amp;").replace("<", "&lt;")
+				.replace(">", "&gt;").replace("\"", "&quot;");
+	}
+
+	private static class CollectingProcessor extends AbstractRevisionProcessor {
+		private final List<Revision> revisions;
+
+		CollectingProcessor(List<Revision> revisions) {
+			super(null);
+			this.revisions = revisions;
+		}
+
+		@Override
+		public void startRevisionProcessing() {
+		}
+
+		@Override
+		public void processRevision(Revision revision) {
+			revisions.add(revision);
+		}
+
+		@Override
+		public void finishRevisionProcessing() {
+		}
+	}
+}
@@ -24,8 +24,6 @@
 
 package org.wikidata.wdtk.dumpfiles;
 
-import java.lang.reflect.Field;
-
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
@@ -45,25 +43,56 @@ public class ExtendedMwRevisionDumpFileProcessor
 
 	static final String A_DELETED = "deleted";
 
+	// The revision being parsed. WDTK's field mwRevision is final and has the
+	// type MwRevisionImpl. Hence, every method using it is overridden to use
+	// this field instead.
+	final ExtendedMwRevisionImpl revision = new ExtendedMwRevisionImpl();
+
+	// reused for the content of every element (see readElementText)
+	private final StringBuilder elementText = new StringBuilder();
+
 	public ExtendedMwRevisionDumpFileProcessor(
 			MwRevisionProcessor mwRevisionProcessor) {
 		super(mwRevisionProcessor);
+	}
 
-		// A little hack to change the final field mwRevision
-		try {
-			setFinalField(
-				this,
-				this.getClass().getSuperclass().getDeclaredField("mwRevision"),
-				new ExtendedMwRevisionImpl());
-		} catch (Exception e) {
-			logger.error("", e);
+	// Returns the id of the item with the given title, e.g., 42 for "Q42",
+	// or -1 if the title is malformed.
+	static int parseItemId(String title, long revisionId) {
+		// fast path for "Q" followed by at most nine ASCII digits
+		if (title != null && title.length() >= 2 && title.length() <= 10
+				&& title.charAt(0) == 'Q') {
+			int result = 0;
+			for (int i = 1; i < title.length(); i++) {
+				char c = title.charAt(i);
+				if (c < '0' || c > '9') {
+					return parseItemIdSlowly(title, revisionId);
+				}
+				result = result * 10 + (c - '0');
+			}
+			return result;
 		}
+		return parseItemIdSlowly(title, revisionId);
 	}
 
-	static void setFinalField(Object owner, Field field, Object newValue)
-			throws Exception {
-		field.setAccessible(true);
-		field.set(owner, newValue);
+	private static int parseItemIdSlowly(String title, long revisionId) {
+		int result = -1;
+		String number = title;
+		if (title != null && title.startsWith("Q")) {
+			number = title.substring(1);
+		} else {
+			logger.warn(
+					"Revision: " + revisionId
+					+ ": non-well-formed prefixedTitle: " + title);
+		}
+		try {
+			result = Integer.parseInt(number);
+		} catch (NumberFormatException e) {
+			logger.warn(
+					"Revision: " + revisionId
+					+ ": non-well-formed prefixedTitle: " + number);
+		}
+		return result;
 	}
 
 	// for parsing compressed revisions
@@ -71,6 +100,76 @@ public class ExtendedMwRevisionDumpFileProcessor
 		this.xmlReader = xmlReader;
 	}
 
+	@Override
+	void tryProcessXmlPage() throws XMLStreamException {
+		try {
+			processXmlPage();
+		} catch (MwDumpFormatException e) {
+			MwRevisionDumpFileProcessor.logger.error(
+					"Error when trying to process revision block for page \""
+					+ this.revision.getPrefixedTitle() + "\" (namespace "
+					+ this.revision.getNamespace() + ", id "
+					+ this.revision.getPageId() + "): " + e.toString());
+
+			MwRevisionDumpFileProcessor.logger.info("Trying to recover ...");
+			while (this.xmlReader.hasNext()) {
+				this.xmlReader.next();
+				if (this.xmlReader.getEventType() == XMLStreamConstants.END_ELEMENT
+						&& MwRevisionDumpFileProcessor.E_PAGE
+							.equals(this.xmlReader.getLocalName())) {
+					MwRevisionDumpFileProcessor.logger.info(
+							"... recovery successful. Continuing processing.");
+					return;
+				}
+			}
+			MwRevisionDumpFileProcessor.logger.error(
+					"Recovery failed. Could not process remaining XML.");
+		}
+	}
+
+	@Override
+	void processXmlPage() throws XMLStreamException, MwDumpFormatException {
+		this.revision.resetCurrentPageData();
+
+		this.xmlReader.next(); // skip current start tag
+		while (this.xmlReader.hasNext()) {
+			switch (this.xmlReader.getEventType()) {
+
+			case XMLStreamConstants.START_ELEMENT:
+				switch (this.xmlReader.getLocalName()) {
+				case MwRevisionDumpFileProcessor.E_PAGE_TITLE:
+					this.revision.prefixedTitle = readElementText();
+					break;
+				case MwRevisionDumpFileProcessor.E_PAGE_NAMESPACE:
+					this.revision.namespace = Integer.parseInt(readElementText());
+					break;
+				case MwRevisionDumpFileProcessor.E_PAGE_ID:
+					this.revision.pageId = Integer.parseInt(readElementText());
+					break;
+				case MwRevisionDumpFileProcessor.E_PAGE_REVISION:
+					processXmlRevision();
+					break;
+				case MwRevisionDumpFileProcessor.E_PAGE_REDIRECT:
+					break;
+				default:
+					throw new MwDumpFormatException("Unexpected element \""
+							+ this.xmlReader.getLocalName() + "\" in page.");
+				}
+
+				break;
+
+			case XMLStreamConstants.END_ELEMENT:
+				if (MwRevisionDumpFileProcessor.E_PAGE
+						.equals(this.xmlReader.getLocalName())) {
+					return;
+				}
+				break;
+			}
+
+			this.xmlReader.next();
+		}
+	}
+
 	// In the dump file are xml elements of the form
 	// <comment deleted="deleted" />
 	// <text deleted="deleted" />
@@ -78,7 +177,7 @@ public class ExtendedMwRevisionDumpFileProcessor
 	// WDTK cannot process them
 	@Override
 	void processXmlRevision() throws XMLStreamException, MwDumpFormatException {
-		this.mwRevision.resetCurrentRevisionData();
+		this.revision.resetCurrentRevisionData();
 
 		this.xmlReader.next(); // skip current start tag
 		while (this.xmlReader.hasNext()) {
@@ -87,45 +186,42 @@ public class ExtendedMwRevisionDumpFileProcessor
 			case XMLStreamConstants.START_ELEMENT:
 				switch (this.xmlReader.getLocalName()) {
 				case MwRevisionDumpFileProcessor.E_REV_COMMENT:
-					((ExtendedMwRevisionImpl) this.mwRevision).isCommentDeleted =
+					this.revision.isCommentDeleted =
 						(this.xmlReader.getAttributeValue(
 								null, ExtendedMwRevisionDumpFileProcessor.A_DELETED)
 						!= null);
-					this.mwRevision.comment = this.xmlReader.getElementText();
+					this.revision.comment = readElementText();
 					break;
 				case MwRevisionDumpFileProcessor.E_REV_TEXT:
-					((ExtendedMwRevisionImpl) this.mwRevision).isTextDeleted =
+					this.revision.isTextDeleted =
 						(this.xmlReader.getAttributeValue(
 								null, ExtendedMwRevisionDumpFileProcessor.A_DELETED)
 						!= null);
-					this.mwRevision.text = this.xmlReader.getElementText();
+					this.revision.text = readElementText();
 					break;
 				case MwRevisionDumpFileProcessor.E_REV_TIMESTAMP:
-					this.mwRevision.timeStamp = this.xmlReader.getElementText();
+					this.revision.timeStamp = readElementText();
 					break;
 				case MwRevisionDumpFileProcessor.E_REV_FORMAT:
-					this.mwRevision.format = this.xmlReader.getElementText();
+					this.revision.format = readElementText();
 					break;
 				case MwRevisionDumpFileProcessor.E_REV_MODEL:
-					this.mwRevision.model = this.xmlReader.getElementText();
+					this.revision.model = readElementText();
 					break;
 				case MwRevisionDumpFileProcessor.E_REV_CONTRIBUTOR:
 					processXmlContributor();
 					break;
 				case MwRevisionDumpFileProcessor.E_REV_ID:
-					this.mwRevision.revisionId = Long.valueOf(
-							this.xmlReader.getElementText());
+					this.revision.revisionId = Long.parseLong(readElementText());
 					break;
 				case MwRevisionDumpFileProcessor.E_REV_PARENT_ID:
-					((ExtendedMwRevisionImpl) this.mwRevision).parentId =
-						this.xmlReader.getElementText();
+					this.revision.parentId = readElementText();
 					break;
 				case MwRevisionDumpFileProcessor.E_REV_SHA1:
-					((ExtendedMwRevisionImpl) this.mwRevision).sha1 =
-						this.xmlReader.getElementText();
+					this.revision.sha1 = readElementText();
 					break;
 				case MwRevisionDumpFileProcessor.E_REV_MINOR:
-					((ExtendedMwRevisionImpl) this.mwRevision).isMinor = true;
+					this.revision.isMinor = true;
 					break;
 				default:
 					throw new MwDumpFormatException("Unexpected element \""
@@ -137,7 +233,49 @@ public class ExtendedMwRevisionDumpFileProcessor
 			case XMLStreamConstants.END_ELEMENT:
 				if (MwRevisionDumpFileProcessor.E_PAGE_REVISION
 						.equals(this.xmlReader.getLocalName())) {
-					this.mwRevisionProcessor.processRevision(this.mwRevision);
+					this.revision.itemId = parseItemId(
+							this.revision.prefixedTitle, this.revision.revisionId);
+					this.mwRevisionProcessor.processRevision(this.revision);
+					return;
+				}
+				break;
+			}
+
+			this.xmlReader.next();
+		}
+	}
+
+	@Override
+	void processXmlContributor()
+			throws XMLStreamException, MwDumpFormatException {
+
+		this.xmlReader.next(); // skip current start tag
+		while (this.xmlReader.hasNext()) {
+			switch (this.xmlReader.getEventType()) {
+
+			case XMLStreamConstants.START_ELEMENT:
+				switch (this.xmlReader.getLocalName()) {
+				case MwRevisionDumpFileProcessor.E_CONTRIBUTOR_NAME:
+					this.revision.contributor = readElementText();
+					break;
+				case MwRevisionDumpFileProcessor.E_CONTRIBUTOR_ID:
+					this.revision.contributorId =
+						Integer.parseInt(readElementText());
+					break;
+				case MwRevisionDumpFileProcessor.E_CONTRIBUTOR_IP:
+					this.revision.contributor = readElementText();
+					this.revision.contributorId = -1;
+					break;
+				default:
+					throw new MwDumpFormatException("Unexpected element \""
+							+ this.xmlReader.getLocalName() + "\" in contributor.");
+				}
+
+				break;
+
+			case XMLStreamConstants.END_ELEMENT:
+				if (MwRevisionDumpFileProcessor.E_REV_CONTRIBUTOR
+						.equals(this.xmlReader.getLocalName())) {
 					return;
 				}
 				break;
@@ -146,4 +284,51 @@ public class ExtendedMwRevisionDumpFileProcessor
 			this.xmlReader.next();
 		}
 	}
+
+	// Same as XMLStreamReader.getElementText() but copies the text directly
+	// from the buffer of the reader into a reused StringBuilder. The JDK's
+	// implementation creates a String for every chunk of text (the content of
+	// an item is split at every entity such as &quot;) before concatenating
+	// them.
+	String readElementText() throws XMLStreamException {
+		if (this.xmlReader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+			throw new XMLStreamException(
+					"Parser must be on START_ELEMENT to read next text",
+					this.xmlReader.getLocation());
+		}
+
+		StringBuilder text = this.elementText;
+		text.setLength(0);
+		while (true) {
+			switch (this.xmlReader.next()) {
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.CDATA:
+			case XMLStreamConstants.SPACE:
+				text.append(this.xmlReader.getTextCharacters(),
+						this.xmlReader.getTextStart(),
+						this.xmlReader.getTextLength());
+				break;
+			case XMLStreamConstants.ENTITY_REFERENCE:
+				text.append(this.xmlReader.getText());
+				break;
+			case XMLStreamConstants.PROCESSING_INSTRUCTION:
+			case XMLStreamConstants.COMMENT:
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				return text.toString();
+			case XMLStreamConstants.END_DOCUMENT:
+				throw new XMLStreamException(
+						"Unexpected end of document when reading element text",
+						this.xmlReader.getLocation());
+			case XMLStreamConstants.START_ELEMENT:
+				throw new XMLStreamException(
+						"Element text expected but START_ELEMENT encountered",
+						this.xmlReader.getLocation());
+			default:
+				throw new XMLStreamException(
+						"Unexpected event type " + this.xmlReader.getEventType(),
+						this.xmlReader.getLocation());
+			}
+		}
+	}
 }
@@ -24,8 +24,13 @@
 
 package org.wikidata.wdtk.dumpfiles;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 import org.wikidata.wdtk.dumpfiles.MwRevision;
 import org.wikidata.wdtk.dumpfiles.MwRevisionImpl;
+import org.wsdmcup17.wdvd.extraction.state.StateIO;
 
 public class ExtendedMwRevisionImpl extends MwRevisionImpl {
 
@@ -35,6 +40,9 @@ public class ExtendedMwRevisionImpl extends MwRevisionImpl {
 	boolean isCommentDeleted;
 	boolean isTextDeleted;
 
+	// decoded from the prefixed title (-1 if it is malformed)
+	int itemId = -1;
+
 	public ExtendedMwRevisionImpl() {
 		super();
 	}
@@ -52,6 +60,8 @@ public class ExtendedMwRevisionImpl extends MwRevisionImpl {
 					((ExtendedMwRevisionImpl) mwRevision).isCommentDeleted;
 			this.isTextDeleted =
 					((ExtendedMwRevisionImpl) mwRevision).isTextDeleted;
+			this.itemId =
+					((ExtendedMwRevisionImpl) mwRevision).itemId;
 		}
 	}
 
@@ -63,6 +73,7 @@ public class ExtendedMwRevisionImpl extends MwRevisionImpl {
 		parentId = null;
 		isCommentDeleted = false;
 		isTextDeleted = false;
+		itemId = -1;
 	}
 
 
@@ -87,6 +98,57 @@ public class ExtendedMwRevisionImpl extends MwRevisionImpl {
 		return parentId;
 	}
 
+	public int getItemId() {
+		return itemId;
+	}
+
+	/**
+	 * Writes the revision data except for the text.
+	 */
+	public void writeData(DataOutput out) throws IOException {
+		StateIO.writeString(out, prefixedTitle);
+		StateIO.writeString(out, timeStamp);
+		StateIO.writeString(out, model);
+		StateIO.writeString(out, format);
+		StateIO.writeString(out, comment);
+		StateIO.writeString(out, contributor);
+		out.writeInt(contributorId);
+		out.writeInt(namespace);
+		out.writeInt(pageId);
+		out.writeLong(revisionId);
+
+		StateIO.writeString(out, sha1);
+		out.writeBoolean(isMinor);
+		StateIO.writeString(out, parentId);
+		out.writeBoolean(isCommentDeleted);
+		out.writeBoolean(isTextDeleted);
+		out.writeInt(itemId);
+	}
+
+	/**
+	 * Reads the revision data written by {@link #writeData(DataOutput)}. The
+	 * text remains null.
+	 */
+	public void readData(DataInput in) throws IOException {
+		prefixedTitle = StateIO.readString(in);
+		timeStamp = StateIO.readString(in);
+		model = StateIO.readString(in);
+		format = StateIO.readString(in);
+		comment = StateIO.readString(in);
+		contributor = StateIO.readString(in);
+		contributorId = in.readInt();
+		namespace = in.readInt();
+		pageId = in.readInt();
+		revisionId = in.readLong();
+
+		sha1 = StateIO.readString(in);
+		isMinor = in.readBoolean();
+		parentId = StateIO.readString(in);
+		isCommentDeleted = in.readBoolean();
+		isTextDeleted = in.readBoolean();
+		itemId = in.readInt();
+	}
+
 
 	@Override
 	public String toString() {
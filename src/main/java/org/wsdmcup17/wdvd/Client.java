@@ -24,22 +24,25 @@
 
 package org.wsdmcup17.wdvd;
 
-import java.io.DataInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.io.PipedInputStream;
-import java.io.PipedOutputStream;
 import java.io.Writer;
 import java.net.ConnectException;
-import java.net.Socket;
+import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.UnknownHostException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
@@ -52,7 +55,12 @@ import org.wikidata.wdtk.dumpfiles.MwDumpFileProcessor;
 import org.wikidata.wdtk.dumpfiles.MwLocalDumpFile;
 import org.wikidata.wdtk.dumpfiles.MwRevisionProcessor;
 import org.wsdmcup17.wdvd.extraction.pipeline.FeaturePipeline;
+import org.wsdmcup17.wdvd.extraction.pipeline.MultiStreamFeaturePipeline;
 import org.wsdmcup17.wdvd.extraction.pipeline.Pipeline;
+import org.wsdmcup17.wdvd.extraction.pipeline.PipelineEngine;
+import org.wsdmcup17.wdvd.extraction.processors.decorators.JsonParsingMode;
+import org.wsdmcup17.wdvd.extraction.processors.output.OutputCodec;
+import org.wsdmcup17.wdvd.extraction.streams.ByteBufferPipe;
 
 public class Client {
 
@@ -71,6 +79,7 @@ public class Client {
 		CRLF = "\r\n",
 		URI_PROTOCOL_TCP = "tcp://",
 		THREAD_NAME_DEMULTIPLEXER = "Demultiplexer",
+		THREAD_NAME_STREAM = "Stream %d",
 		MW_TOOLKIT_INPUT_STREAM = "INPUT STREAM";
 
 	private static final String[]
@@ -80,17 +89,50 @@ public class Client {
 		CSV_FORMAT = CSVFormat.RFC4180.withHeader(RESULT_CSV_HEADER);
 
 	private static final int
-		PIPE_SIZE = 32 * 1024 * 1024,
+		PIPE_BUFFER_SIZE = 1024 * 1024,
+		PIPE_BUFFERS = 32,
 		QUEUE_CAPACITY = 128;
 
 	private String serverAddress;
 	private String accessToken;
 	private File featureFile;
-
-	public Client(String serverAddress, String accessToken, File featureFile) {
+	private PipelineEngine engine;
+	private JsonParsingMode jsonParsingMode;
+	private boolean incrementalRegex;
+	private boolean metricsEnabled;
+	private int featureThreads;
+	private int exactnessThreshold;
+	private File checkpointDirectory;
+	private long checkpointInterval;
+	private int streams;
+	private OutputCodec outputCodec;
+	private int compressionLevel;
+	private File columnarFile;
+
+	// set when the port of a stream does not accept connections
+	private volatile boolean lastPortReached;
+
+	public Client(String serverAddress, String accessToken, File featureFile,
+			PipelineEngine engine, JsonParsingMode jsonParsingMode,
+			boolean incrementalRegex, boolean metricsEnabled, int featureThreads,
+			int exactnessThreshold, File checkpointDirectory,
+			long checkpointInterval, int streams, OutputCodec outputCodec,
+			int compressionLevel, File columnarFile) {
 		this.serverAddress = serverAddress;
 		this.accessToken = accessToken;
 		this.featureFile = featureFile;
+		this.engine = engine;
+		this.jsonParsingMode = jsonParsingMode;
+		this.incrementalRegex = incrementalRegex;
+		this.metricsEnabled = metricsEnabled;
+		this.featureThreads = featureThreads;
+		this.exactnessThreshold = exactnessThreshold;
+		this.checkpointDirectory = checkpointDirectory;
+		this.checkpointInterval = checkpointInterval;
+		this.streams = streams;
+		this.outputCodec = outputCodec;
+		this.compressionLevel = compressionLevel;
+		this.columnarFile = columnarFile;
 	}
 
 	public void start()
@@ -99,7 +141,16 @@ public class Client {
 		String host = uri.getHost();
 		int port = uri.getPort();
 
-		Pipeline pipeline = new FeaturePipeline(featureFile);
+		if (streams > 1) {
+			startStreams(host, port);
+			return;
+		}
+
+		Pipeline pipeline = new FeaturePipeline(
+				featureFile, engine, jsonParsingMode, incrementalRegex,
+				metricsEnabled, featureThreads, exactnessThreshold,
+				checkpointDirectory, checkpointInterval, outputCodec,
+				compressionLevel, columnarFile);
 
 		pipeline.start();
 
@@ -117,62 +168,120 @@ public class Client {
 		}
 	}
 
+	/**
+	 * Consumes up to the given number of ports concurrently. A new port is
+	 * connected as soon as the stream of another port has ended.
+	 */
+	private void startStreams(final String host, int firstPort) {
+		if (engine == PipelineEngine.RING) {
+			LOG.warn("Parallel streams use the decorator engine");
+		}
+
+		final MultiStreamFeaturePipeline pipeline =
+				new MultiStreamFeaturePipeline(
+						featureFile, jsonParsingMode, incrementalRegex,
+						metricsEnabled, featureThreads, exactnessThreshold,
+						checkpointDirectory, checkpointInterval, outputCodec,
+						compressionLevel, columnarFile);
+		pipeline.start();
+
+		final Semaphore permits = new Semaphore(streams);
+		List<Thread> threads = new ArrayList<>();
+		try {
+			for (int port = firstPort; ; port++) {
+				permits.acquire();
+				if (lastPortReached) {
+					break;
+				}
+
+				// Streams are opened in the order of the ports
+				final Pipeline stream = pipeline.openStream("" + port);
+				final int streamPort = port;
+				Thread thread = new Thread(() -> {
+					try {
+						start2(stream, host, streamPort);
+					} catch (ConnectException e) {
+						LOG.warn(String.format(
+								LOG_MSC_CONNECTION_EXCEPTION, host, streamPort));
+						lastPortReached = true;
+					} catch (Throwable e) {
+						LOG.error("", e);
+					} finally {
+						stream.stop();
+						permits.release();
+					}
+				}, String.format(THREAD_NAME_STREAM, port));
+				threads.add(thread);
+				thread.start();
+			}
+		} catch (Throwable e) {
+			LOG.error("", e);
+		} finally {
+			for (Thread thread: threads) {
+				try {
+					thread.join();
+				} catch (InterruptedException e) {
+					LOG.error("", e);
+				}
+			}
+			pipeline.stop();
+		}
+	}
+
 	private void start2(Pipeline pipeline, String host, int port)
 	throws UnknownHostException, IOException, InterruptedException {
 		LOG.info(String.format(LOG_MSG_CONNECTING_TO, host, port));
 		try (
-			Socket socket = createSocket(host, port);
 			// Multiplexed revision and metadata stream from server.
-			InputStream dataStreamPlain = socket.getInputStream();
+			SocketChannel dataChannel = createSocketChannel(host, port);
 			// Result stream to server.
-			OutputStream resultStreamPlain = socket.getOutputStream();
+			OutputStream resultStreamPlain = Channels.newOutputStream(dataChannel);
 		) {
 			// First send the access token to server to authenticate.
 			resultStreamPlain.write((accessToken + CRLF).getBytes());
 			resultStreamPlain.flush();
 
 			// Assuming the token is accepted, proceed to process revisions.
-			processRevisions(socket, pipeline, dataStreamPlain, resultStreamPlain);
+			processRevisions(pipeline, dataChannel, resultStreamPlain);
 
 		}
 
 	}
 
 	private static void processRevisions(
-		final Socket socket,
 		final Pipeline pipeline,
-		final InputStream dataStreamPlain,
+		final ReadableByteChannel dataChannel,
 		final OutputStream resultStreamPlain
 	) throws IOException, InterruptedException {
 		// Wrap the streams for convenient usage.
 		try (
-			DataInputStream dataStream = new DataInputStream(dataStreamPlain);
 			Writer resultWriter = new OutputStreamWriter(resultStreamPlain);
 			CSVPrinter resultPrinter = new CSVPrinter(resultWriter, CSV_FORMAT);
 		) {
-			processRevisions(pipeline, dataStream, resultPrinter);
+			processRevisions(pipeline, dataChannel, resultPrinter);
 
 			pipeline.flush();
 		}
 	}
 
 	private static void processRevisions(Pipeline pipeline,
-		DataInputStream dataStream, CSVPrinter resultPrinter
+		ReadableByteChannel dataChannel, CSVPrinter resultPrinter
 	) throws IOException, InterruptedException {
+		// Pipe to forward the revision stream to the revision processor.
+		ByteBufferPipe revisionPipe =
+				new ByteBufferPipe(PIPE_BUFFER_SIZE, PIPE_BUFFERS);
+
 		try (
-			// Pipes to forward the revision stream to the revision processor.
-			PipedOutputStream revisionOutputStream = new PipedOutputStream();
-			PipedInputStream revisionInputStream =
-				new PipedInputStream(revisionOutputStream, PIPE_SIZE);
+			InputStream revisionInputStream = revisionPipe.getInputStream();
 		) {
 			// Queue that stores metadata for revisions received from server.
 			BlockingQueue<CSVRecord> metaQueue =
 					new ArrayBlockingQueue<>(QUEUE_CAPACITY);
 
 			// Thread that demultiplexes the data stream from the server,
-			// writing revisions to the output stream and metadata to the queue.
+			// writing revisions to the pipe and metadata to the queue.
 			Thread demultiplexerThread = createDemultiplexerThread(
-					dataStream, revisionOutputStream, metaQueue);
+					dataChannel, revisionPipe, metaQueue);
 
 			// Event-driven revision processor based on Wikidata toolkit.
 			pipeline.set(metaQueue, resultPrinter);
@@ -181,7 +290,7 @@ public class Client {
 					pipeline.getFirstProcessor());
 
 			// Start processing revisions.
-			// Note: the processor closes the stream and thus the socket.
+			// Note: the processor closes the stream.
 			revisionProcessor.processDumpFileContents(
 					revisionInputStream, createMwDumpFile());
 
@@ -199,11 +308,11 @@ public class Client {
 	}
 
 	private static Thread createDemultiplexerThread(
-		DataInputStream dataStream,	PipedOutputStream revisionOutputStream,
+		ReadableByteChannel dataChannel, ByteBufferPipe revisionPipe,
 		BlockingQueue<CSVRecord> metadataQueue
 	) {
 		Demultiplexer d = new Demultiplexer(
-				dataStream, metadataQueue, revisionOutputStream);
+				dataChannel, metadataQueue, revisionPipe);
 		Thread demultiplexerThread = new Thread(d, THREAD_NAME_DEMULTIPLEXER);
 		demultiplexerThread.start();
 		return demultiplexerThread;
@@ -216,8 +325,12 @@ public class Client {
 		return mwDumpFile;
 	}
 
-	private static Socket createSocket(String host, int port)
+	private static SocketChannel createSocketChannel(String host, int port)
 	throws UnknownHostException, IOException {
-		return new Socket(host, port);
+		InetSocketAddress address = new InetSocketAddress(host, port);
+		if (address.isUnresolved()) {
+			throw new UnknownHostException(host);
+		}
+		return SocketChannel.open(address);
 	}
 }
@@ -24,21 +24,26 @@
 
 package org.wsdmcup17.wdvd;
 
-import java.io.DataInputStream;
-import java.io.EOFException;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.io.PipedOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.util.concurrent.BlockingQueue;
 
 import org.apache.commons.csv.CSVRecord;
 import org.apache.log4j.Logger;
+import org.wsdmcup17.wdvd.extraction.streams.ByteBufferPipe;
+import org.wsdmcup17.wdvd.extraction.streams.ByteBufferPipe.PooledBuffer;
 
 /**
  * Thread to demultiplex revisions and meta data. The resulting revisions are
- * provided as an {@link OutputStream} that can, for example, be processed with
- * Wikidata Toolkit. The metadata is parsed and put in a queue for further
- * processing.
+ * provided as an {@link InputStream} of a {@link ByteBufferPipe} that can, for
+ * example, be processed with Wikidata Toolkit. The metadata is parsed and put
+ * in a queue for further processing.
+ *
+ * The data stream is read directly into the pooled buffers of the pipe and the
+ * revisions are forwarded as slices of these buffers, i.e., without copying
+ * them.
  */
 public class Demultiplexer implements Runnable {
 
@@ -49,17 +54,31 @@ public class Demultiplexer implements Runnable {
 		LOG_MSG_END_OF_ITEM_STREAM = "End of item stream.",
 		LOG_MSG_MISSING_DATA_AFTER_METADATA = "Missing data after metadata %s";
 
+	private static final int LENGTH_BYTES = 4;
+
+	// Every item of the data stream consists of its length and its content
+	private enum State { METADATA_LENGTH, METADATA, REVISION_LENGTH, REVISION }
+
 	private BlockingQueue<CSVRecord> metadataQueue;
-	private DataInputStream dataStream;
-	private PipedOutputStream revisionOutputStream;
+	private ReadableByteChannel dataChannel;
+	private ByteBufferPipe revisionPipe;
+
+	private State state = State.METADATA_LENGTH;
+	private int lengthBytesRead;
+	private int remaining;
+
+	// Metadata is small and hence copied (it might span several buffers)
+	private byte[] metadataBytes;
+
+	private CSVRecord metadata;
 
 	public Demultiplexer(
-		DataInputStream inputStream, BlockingQueue<CSVRecord> metaQueue,
-		PipedOutputStream revisionOutputStream
+		ReadableByteChannel dataChannel, BlockingQueue<CSVRecord> metaQueue,
+		ByteBufferPipe revisionPipe
 	) {
-		this.dataStream = inputStream;
+		this.dataChannel = dataChannel;
 		this.metadataQueue = metaQueue;
-		this.revisionOutputStream = revisionOutputStream;
+		this.revisionPipe = revisionPipe;
 	}
 
 	@Override
@@ -73,45 +92,110 @@ public class Demultiplexer implements Runnable {
 
 	private void demultiplexStream() throws IOException, InterruptedException {
 		try {
-			while (true) {
-				// Read metadata from stream and queue it.
-				CSVRecord metadata;
-				byte[] bytes = readNextItem(dataStream);
-				if (bytes == null) { // end of stream
-					break;
-				}
+			PooledBuffer pooledBuffer = revisionPipe.acquire();
+			try {
+				ByteBuffer buffer = pooledBuffer.getByteBuffer();
+				int position = 0;
+				while (true) {
+					if (!buffer.hasRemaining()) {
+						// All bytes of the buffer have been demultiplexed
+						revisionPipe.release(pooledBuffer);
+						pooledBuffer = null;
+						pooledBuffer = revisionPipe.acquire();
+						buffer = pooledBuffer.getByteBuffer();
+						position = 0;
+					}
+
+					if (dataChannel.read(buffer) < 0) { // end of stream
+						break;
+					}
 
-				metadata = MetadataParser.deserialize(bytes);
-				metadataQueue.put(metadata);
-
-				// Read corresponding revision from stream and forward it.
-				bytes = readNextItem(dataStream);
-				if (bytes == null) { // end of stream
-					logMissingDataAfterMetadata(metadata);
-					break;
-				} else {
-					revisionOutputStream.write(bytes);
-					revisionOutputStream.flush();
+					demultiplex(pooledBuffer, position, buffer.position());
+					position = buffer.position();
+				}
+			} finally {
+				if (pooledBuffer != null) {
+					revisionPipe.release(pooledBuffer);
 				}
 			}
+
+			LOG.info(LOG_MSG_END_OF_ITEM_STREAM);
+			if (state == State.REVISION_LENGTH || state == State.REVISION) {
+				logMissingDataAfterMetadata(metadata);
+			}
 		} finally {
-			this.revisionOutputStream.close();
+			revisionPipe.close();
 		}
 	}
 
-	private static byte[] readNextItem(DataInputStream dataStream)
-	throws IOException {
-		try {
-			int length = dataStream.readInt();
-			byte[] bytes = new byte[length];
-			dataStream.readFully(bytes);
-			return bytes;
-		} catch (EOFException e) {
-			LOG.info(LOG_MSG_END_OF_ITEM_STREAM);
-			return null;
+	private void demultiplex(PooledBuffer pooledBuffer, int from, int to)
+	throws IOException, InterruptedException {
+		ByteBuffer buffer = pooledBuffer.getByteBuffer();
+
+		while (from < to) {
+			switch (state) {
+			case METADATA_LENGTH:
+			case REVISION_LENGTH:
+				// big-endian as written by DataOutputStream
+				remaining = (remaining << 8) | (buffer.get(from) & 0xff);
+				from++;
+				lengthBytesRead++;
+				if (lengthBytesRead == LENGTH_BYTES) {
+					lengthBytesRead = 0;
+					if (state == State.METADATA_LENGTH) {
+						state = State.METADATA;
+						if (remaining == 0) {
+							putMetadata(new byte[0]);
+						}
+					} else {
+						state = State.REVISION;
+						if (remaining == 0) {
+							state = State.METADATA_LENGTH;
+						}
+					}
+				}
+				break;
+			case METADATA:
+				// Read metadata from stream and queue it.
+				if (metadataBytes == null) {
+					metadataBytes = new byte[remaining];
+				}
+				int n = Math.min(remaining, to - from);
+				int offset = metadataBytes.length - remaining;
+				for (int i = 0; i < n; i++) {
+					metadataBytes[offset + i] = buffer.get(from + i);
+				}
+				from += n;
+				remaining -= n;
+				if (remaining == 0) {
+					putMetadata(metadataBytes);
+				}
+				break;
+			case REVISION:
+				// Forward the corresponding revision (as slice of the buffer).
+				n = Math.min(remaining, to - from);
+				revisionPipe.publish(pooledBuffer, from, n);
+				from += n;
+				remaining -= n;
+				if (remaining == 0) {
+					state = State.METADATA_LENGTH;
+				}
+				break;
+			default:
+				throw new IllegalStateException("Unknown state: " + state);
+			}
 		}
 	}
 
+	private void putMetadata(byte[] bytes)
+	throws IOException, InterruptedException {
+		metadata = MetadataParser.deserialize(bytes);
+		metadataQueue.put(metadata);
+
+		metadataBytes = null;
+		state = State.REVISION_LENGTH;
+	}
+
 	private static void logMissingDataAfterMetadata(CSVRecord metadata) {
 		LOG.error(String.format(LOG_MSG_MISSING_DATA_AFTER_METADATA, metadata));
 	}
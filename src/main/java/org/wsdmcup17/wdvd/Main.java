@@ -53,6 +53,11 @@ import org.apache.log4j.rewrite.RewritePolicy;
 import org.apache.log4j.spi.LoggingEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.wsdmcup17.wdvd.extraction.features.history.DistinctCountHistory;
+import org.wsdmcup17.wdvd.extraction.pipeline.PipelineEngine;
+import org.wsdmcup17.wdvd.extraction.processors.controlflow.CheckpointProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.decorators.JsonParsingMode;
+import org.wsdmcup17.wdvd.extraction.processors.output.OutputCodec;
 
 /**
  * A program connecting to WSDM Cup data servers and extracting features.
@@ -67,15 +72,75 @@ public class Main {
 	static String serverAddress;
 	static String accessToken;
 	static File featureFile;
+	static PipelineEngine engine;
+	static JsonParsingMode jsonParsingMode;
+	static boolean incrementalRegex;
+	static boolean metricsEnabled;
+	static int featureThreads;
+	static int exactnessThreshold;
+	static File checkpointDirectory;
+	static long checkpointInterval;
+	static int streams;
+	static OutputCodec outputCodec;
+	static int compressionLevel;
+	static File columnarFile;
 
 	private static final String
-		CMD_LINE_SYNTAX = "feature-extraction -s SERVER -t TOKEN FEATURES",
+		CMD_LINE_SYNTAX = "feature-extraction -s SERVER -t TOKEN [-e ENGINE] [-j MODE] [-r] [-m] [-f THREADS] [-x THRESHOLD] [-c DIR] [-i INTERVAL] [-p STREAMS] [-z CODEC] [-l LEVEL] [-b FILE] FEATURES",
 		OPT_SERVER = "s",
 		OPT_SERVER_LONG = "server",
 		OPT_SERVER_DESC = "Data server address",
 		OPT_TOKEN = "t",
 		OPT_TOKEN_LONG = "token",
-		OPT_TOKEN_DESC = "Access token";
+		OPT_TOKEN_DESC = "Access token",
+		OPT_ENGINE = "e",
+		OPT_ENGINE_LONG = "engine",
+		OPT_ENGINE_DESC = "Pipeline engine: decorator (default) or ring",
+		OPT_JSON = "j",
+		OPT_JSON_LONG = "json",
+		OPT_JSON_DESC = "JSON parsing mode: databind (default) or streaming",
+		OPT_FULL_REGEX = "r",
+		OPT_FULL_REGEX_LONG = "full-regex",
+		OPT_FULL_REGEX_DESC = "Match the text patterns in the whole text of "
+				+ "every revision instead of only the part changed since the "
+				+ "previous revision of the item",
+		OPT_METRICS = "m",
+		OPT_METRICS_LONG = "metrics",
+		OPT_METRICS_DESC = "Measure the pipeline stages and features",
+		OPT_FEATURE_THREADS = "f",
+		OPT_FEATURE_THREADS_LONG = "feature-threads",
+		OPT_FEATURE_THREADS_DESC = "Number of threads calculating the features, "
+				+ "sharded by item and user (default: 0, i.e., serially)",
+		OPT_EXACTNESS = "x",
+		OPT_EXACTNESS_LONG = "exactness-threshold",
+		OPT_EXACTNESS_DESC = "Number of distinct items per user and users per "
+				+ "item counted exactly before they are estimated "
+				+ "(default: unlimited)",
+		OPT_CHECKPOINT = "c",
+		OPT_CHECKPOINT_LONG = "checkpoint",
+		OPT_CHECKPOINT_DESC = "Directory for checkpoints and memory-mapped "
+				+ "feature state; resumes from the last checkpoint if present",
+		OPT_CHECKPOINT_INTERVAL = "i",
+		OPT_CHECKPOINT_INTERVAL_LONG = "checkpoint-interval",
+		OPT_CHECKPOINT_INTERVAL_DESC = "Number of revisions between two "
+				+ "checkpoints; every checkpoint writes the whole feature "
+				+ "state (default: 1000000, 0: only at the end of each stream)",
+		OPT_STREAMS = "p",
+		OPT_STREAMS_LONG = "parallel-streams",
+		OPT_STREAMS_DESC = "Number of data server ports consumed concurrently "
+				+ "(default: 1)",
+		OPT_CODEC = "z",
+		OPT_CODEC_LONG = "codec",
+		OPT_CODEC_DESC = "Compression of the feature file: bzip2 (default), "
+				+ "pbzip2, zstd, or lz4",
+		OPT_LEVEL = "l",
+		OPT_LEVEL_LONG = "level",
+		OPT_LEVEL_DESC = "Compression level (default: 1 for bzip2, 9 for "
+				+ "pbzip2, 3 for zstd, 0 for lz4)",
+		OPT_COLUMNAR = "b",
+		OPT_COLUMNAR_LONG = "columnar",
+		OPT_COLUMNAR_DESC = "Additional feature file in a binary columnar "
+				+ "format (LZ4 compressed)";
 
 	static final Level LOG_LEVEL = Level.INFO;
 
@@ -89,11 +154,40 @@ public class Main {
 		serverAddress = cmd.getOptionValue(OPT_SERVER);
 		accessToken = cmd.getOptionValue(OPT_TOKEN);
 		featureFile = new File(cmd.getArgs()[0]);
+		engine = PipelineEngine.fromString(cmd.getOptionValue(
+				OPT_ENGINE, PipelineEngine.DECORATOR.toString()));
+		jsonParsingMode = JsonParsingMode.fromString(cmd.getOptionValue(
+				OPT_JSON, JsonParsingMode.DATABIND.toString()));
+		incrementalRegex = !cmd.hasOption(OPT_FULL_REGEX);
+		metricsEnabled = cmd.hasOption(OPT_METRICS);
+		featureThreads = Integer.parseInt(
+				cmd.getOptionValue(OPT_FEATURE_THREADS, "0"));
+		exactnessThreshold = Integer.parseInt(cmd.getOptionValue(OPT_EXACTNESS,
+				Integer.toString(DistinctCountHistory.EXACT)));
+		streams = Integer.parseInt(cmd.getOptionValue(OPT_STREAMS, "1"));
+		outputCodec = OutputCodec.fromString(cmd.getOptionValue(
+				OPT_CODEC, OutputCodec.BZIP2.toString()));
+		compressionLevel = Integer.parseInt(cmd.getOptionValue(OPT_LEVEL,
+				Integer.toString(outputCodec.getDefaultLevel())));
+		if (cmd.hasOption(OPT_COLUMNAR)) {
+			columnarFile = new File(cmd.getOptionValue(OPT_COLUMNAR));
+		}
+		if (cmd.hasOption(OPT_CHECKPOINT)) {
+			checkpointDirectory = new File(cmd.getOptionValue(OPT_CHECKPOINT));
+			checkpointDirectory.mkdirs();
+		}
+		checkpointInterval = Long.parseLong(cmd.getOptionValue(
+				OPT_CHECKPOINT_INTERVAL,
+				Long.toString(CheckpointProcessor.DEFAULT_INTERVAL)));
 
 		initLogger();
 		logConfiguration();
 
-		Client client = new Client(serverAddress, accessToken, featureFile);
+		Client client = new Client(
+				serverAddress, accessToken, featureFile, engine, jsonParsingMode,
+				incrementalRegex, metricsEnabled, featureThreads,
+				exactnessThreshold, checkpointDirectory, checkpointInterval,
+				streams, outputCodec, compressionLevel, columnarFile);
 
 		try {
 			client.start();
@@ -119,6 +213,55 @@ public class Main {
 		meta.setRequired(true);
 		options.addOption(meta);
 
+		Option engine = new Option(
+				OPT_ENGINE, OPT_ENGINE_LONG, true, OPT_ENGINE_DESC);
+		options.addOption(engine);
+
+		Option json = new Option(
+				OPT_JSON, OPT_JSON_LONG, true, OPT_JSON_DESC);
+		options.addOption(json);
+
+		Option fullRegex = new Option(
+				OPT_FULL_REGEX, OPT_FULL_REGEX_LONG, false, OPT_FULL_REGEX_DESC);
+		options.addOption(fullRegex);
+
+		Option metrics = new Option(
+				OPT_METRICS, OPT_METRICS_LONG, false, OPT_METRICS_DESC);
+		options.addOption(metrics);
+
+		Option featureThreads = new Option(OPT_FEATURE_THREADS,
+				OPT_FEATURE_THREADS_LONG, true, OPT_FEATURE_THREADS_DESC);
+		options.addOption(featureThreads);
+
+		Option exactness = new Option(OPT_EXACTNESS,
+				OPT_EXACTNESS_LONG, true, OPT_EXACTNESS_DESC);
+		options.addOption(exactness);
+
+		Option checkpoint = new Option(OPT_CHECKPOINT,
+				OPT_CHECKPOINT_LONG, true, OPT_CHECKPOINT_DESC);
+		options.addOption(checkpoint);
+
+		Option checkpointInterval = new Option(OPT_CHECKPOINT_INTERVAL,
+				OPT_CHECKPOINT_INTERVAL_LONG, true,
+				OPT_CHECKPOINT_INTERVAL_DESC);
+		options.addOption(checkpointInterval);
+
+		Option parallelStreams = new Option(OPT_STREAMS,
+				OPT_STREAMS_LONG, true, OPT_STREAMS_DESC);
+		options.addOption(parallelStreams);
+
+		Option codec = new Option(
+				OPT_CODEC, OPT_CODEC_LONG, true, OPT_CODEC_DESC);
+		options.addOption(codec);
+
+		Option level = new Option(
+				OPT_LEVEL, OPT_LEVEL_LONG, true, OPT_LEVEL_DESC);
+		options.addOption(level);
+
+		Option columnar = new Option(
+				OPT_COLUMNAR, OPT_COLUMNAR_LONG, true, OPT_COLUMNAR_DESC);
+		options.addOption(columnar);
+
 		CommandLineParser parser = new DefaultParser();
 		HelpFormatter formatter = new HelpFormatter();
 		CommandLine cmd = null;
@@ -265,6 +408,39 @@ public class Main {
 			logger.info(
 					"Feature file: "
 					+ featureFile.getAbsolutePath());
+			logger.info(
+					"Pipeline engine: "
+					+ engine);
+			logger.info(
+					"JSON parsing mode: "
+					+ jsonParsingMode);
+			logger.info(
+					"Incremental text patterns: "
+					+ incrementalRegex);
+			logger.info(
+					"Metrics enabled: "
+					+ metricsEnabled);
+			logger.info(
+					"Feature threads: "
+					+ featureThreads);
+			logger.info(
+					"Exactness threshold: "
+					+ exactnessThreshold);
+			logger.info(
+					"Checkpoint directory: "
+					+ checkpointDirectory);
+			logger.info(
+					"Checkpoint interval: "
+					+ checkpointInterval);
+			logger.info(
+					"Parallel streams: "
+					+ streams);
+			logger.info(
+					"Output codec: "
+					+ outputCodec + " (level " + compressionLevel + ")");
+			logger.info(
+					"Columnar feature file: "
+					+ columnarFile);
 		}
 	}
 
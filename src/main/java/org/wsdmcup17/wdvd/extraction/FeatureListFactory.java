@@ -24,6 +24,7 @@
 
 package org.wsdmcup17.wdvd.extraction;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -42,6 +43,7 @@ import org.wsdmcup17.wdvd.extraction.features.character.NonLatinRatio;
 import org.wsdmcup17.wdvd.extraction.features.character.PunctuationRatio;
 import org.wsdmcup17.wdvd.extraction.features.character.UpperCaseRatio;
 import org.wsdmcup17.wdvd.extraction.features.character.WhitespaceRatio;
+import org.wsdmcup17.wdvd.extraction.features.history.DistinctCountHistory;
 import org.wsdmcup17.wdvd.extraction.features.item.LogCumItemUniqueUsers;
 import org.wsdmcup17.wdvd.extraction.features.item.misc.IsHuman;
 import org.wsdmcup17.wdvd.extraction.features.item.misc.IsLivingPerson;
@@ -119,7 +121,8 @@ public class FeatureListFactory {
 
 	}
 
-	private static List<Feature> getFeatureListInternal() {
+	private static List<Feature> getFeatureListInternal(
+			int exactnessThreshold, File stateDirectory) {
 		List<Feature> l = new ArrayList<>();
 
 		////////////////////////////////////////////////////////
@@ -190,7 +193,7 @@ public class FeatureListFactory {
 		////////////////////////////////////////////////////////
 		// User features
 		////////////////////////////////////////////////////////
-		l.add(new CumUserUniqueItems());
+		l.add(new CumUserUniqueItems(exactnessThreshold));
 		l.add(new IsPrivilegedUser());
 		l.add(new IsRegisteredUser());
 		l.add(new UserCityName());
@@ -206,13 +209,13 @@ public class FeatureListFactory {
 		l.add(new IsAdvancedUser());
 		l.add(new IsBotUser());
 		l.add(new IsCuratorUser());
-		l.add(new UserSecondsSinceFirstRevisionRegistered());
+		l.add(new UserSecondsSinceFirstRevisionRegistered(stateDirectory));
 		l.add(new UserSecondsSinceFirstRevision());
 
 		////////////////////////////////////////////////////////
 		// Item features
 		////////////////////////////////////////////////////////
-		l.add(new LogCumItemUniqueUsers());
+		l.add(new LogCumItemUniqueUsers(exactnessThreshold));
 
 		// Used by ORES baseline
 		l.add(new IsHuman());
@@ -232,7 +235,7 @@ public class FeatureListFactory {
 		////////////////////////////////////////////////////////
 		l.add(new CommentLength());
 		l.add(new IsLatinLanguage());
-		l.add(new PositionWithinSession());
+		l.add(new PositionWithinSession(stateDirectory));
 		l.add(new RevisionAction());
 		l.add(new RevisionLanguage());
 		l.add(new RevisionPrevAction());
@@ -251,10 +254,35 @@ public class FeatureListFactory {
 	}
 
 	public static List<Feature> getFeatures() {
-		List<Feature> featureList = getFeatureListInternal();
+		return getFeatures(DistinctCountHistory.EXACT);
+	}
+
+	/**
+	 * @param exactnessThreshold number of distinct items per user and users
+	 *        per item counted exactly before they are estimated
+	 */
+	public static List<Feature> getFeatures(int exactnessThreshold) {
+		return getFeatures(exactnessThreshold, null);
+	}
+
+	/**
+	 * @param exactnessThreshold number of distinct items per user and users
+	 *        per item counted exactly before they are estimated
+	 * @param stateDirectory directory of the memory-mapped feature state
+	 *        (null if the state is kept in direct buffers)
+	 */
+	public static List<Feature> getFeatures(
+			int exactnessThreshold, File stateDirectory) {
+		List<Feature> featureList =
+				getFeatureListInternal(exactnessThreshold, stateDirectory);
 
 		featureList = removeDuplicates(featureList);
 
+		// the ordinal is the index of the feature in the FeatureVector
+		for (int i = 0; i < featureList.size(); i++) {
+			featureList.get(i).setOrdinal(i);
+		}
+
 		return featureList;
 	}
 
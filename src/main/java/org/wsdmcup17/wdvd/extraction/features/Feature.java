@@ -28,9 +28,34 @@ import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
 public interface Feature {
 
+	/**
+	 * Calculates the feature and stores its value in the given vector at the
+	 * ordinal of this feature. Numeric features store primitive values.
+	 */
+	void calculate(Revision revision, FeatureVector vector);
+
+	/**
+	 * Calculates the feature and returns its value as an object. Prefer
+	 * {@link #calculate(Revision, FeatureVector)} where possible.
+	 */
 	FeatureValue calculate(Revision revision);
 
+	FeatureType getType();
+
 	String getName();
 
+	/**
+	 * Returns the index of this feature in the list of features and in the
+	 * feature vector (assigned by the FeatureListFactory).
+	 */
+	int getOrdinal();
+
+	void setOrdinal(int ordinal);
+
+	/**
+	 * Returns a new instance of this feature with the same configuration and
+	 * ordinal but without any state.
+	 */
+	Feature newInstance();
 
 }
@@ -24,9 +24,6 @@
 
 package org.wsdmcup17.wdvd.extraction.features;
 
-import java.text.NumberFormat;
-import java.util.Locale;
-
 public class FeatureFloatValue implements FeatureValue {
 
 	Float value;
@@ -41,14 +38,15 @@ public class FeatureFloatValue implements FeatureValue {
 			return FeatureValue.MISSING_VALUE_STRING;
 		}
 
-		// NumberFormat is not thread safe. Hence it is created for every call.
-		// An alternative would be to use a static variable of type
-		// ThreadLocal<NumberFormat>
-		NumberFormat formatter = NumberFormat.getInstance(Locale.ENGLISH);
-		formatter.setMaximumFractionDigits(2);
-		formatter.setGroupingUsed(false);
+		return format(value);
+	}
+
+	public static String format(float value) {
+		return FloatFormatter.format(value);
+	}
 
-		return formatter.format(value);
+	public Float getFloat() {
+		return value;
 	}
 
 }
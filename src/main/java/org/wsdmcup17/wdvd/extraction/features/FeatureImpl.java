@@ -26,6 +26,7 @@ package org.wsdmcup17.wdvd.extraction.features;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
 public abstract class FeatureImpl implements Feature {
 
@@ -33,6 +34,37 @@ public abstract class FeatureImpl implements Feature {
 	private String name;
 	Integer hashCode;
 
+	private int ordinal;
+
+	@Override
+	public FeatureValue calculate(Revision revision) {
+		FeatureVector vector = new FeatureVector(ordinal + 1);
+		calculate(revision, vector);
+		return vector.getValue(this);
+	}
+
+	@Override
+	public int getOrdinal() {
+		return ordinal;
+	}
+
+	@Override
+	public void setOrdinal(int ordinal) {
+		this.ordinal = ordinal;
+	}
+
+	@Override
+	public Feature newInstance() {
+		try {
+			Feature result = getClass().getConstructor().newInstance();
+			result.setOrdinal(ordinal);
+			return result;
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalArgumentException(
+					"Cannot instantiate feature " + getName(), e);
+		}
+	}
+
 	@Override
 	public String getName() {
 		if (name == null) {
@@ -0,0 +1,249 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.features;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.wsdmcup17.wdvd.extraction.state.StateIO;
+
+/**
+ * Values of all features of one revision, indexed by the feature ordinal.
+ *
+ * Floats are stored in a float lane, integers and booleans in an int lane,
+ * and strings in a string lane. Missing values are marked in a bitmap. Hence,
+ * numeric feature values are stored without boxing.
+ */
+public class FeatureVector {
+
+	private static final String TRUE_STRING = "T";
+	private static final String FALSE_STRING = "F";
+
+	private final float[] floats;
+	private final int[] integers;
+	private final String[] strings;
+	private final long[] missing;
+
+	public FeatureVector(int size) {
+		floats = new float[size];
+		integers = new int[size];
+		strings = new String[size];
+		missing = new long[(size + 63) >>> 6];
+	}
+
+	public FeatureVector(FeatureVector vector) {
+		floats = vector.floats.clone();
+		integers = vector.integers.clone();
+		strings = vector.strings.clone();
+		missing = vector.missing.clone();
+	}
+
+	/**
+	 * Reads a vector written by {@link #write(DataOutput)}.
+	 */
+	public static FeatureVector read(DataInput in) throws IOException {
+		FeatureVector vector = new FeatureVector(in.readInt());
+		for (int i = 0; i < vector.floats.length; i++) {
+			vector.floats[i] = in.readFloat();
+			vector.integers[i] = in.readInt();
+			vector.strings[i] = StateIO.readString(in);
+		}
+		for (int i = 0; i < vector.missing.length; i++) {
+			vector.missing[i] = in.readLong();
+		}
+		return vector;
+	}
+
+	public void write(DataOutput out) throws IOException {
+		out.writeInt(floats.length);
+		for (int i = 0; i < floats.length; i++) {
+			out.writeFloat(floats[i]);
+			out.writeInt(integers[i]);
+			StateIO.writeString(out, strings[i]);
+		}
+		for (long bits: missing) {
+			out.writeLong(bits);
+		}
+	}
+
+	public int size() {
+		return floats.length;
+	}
+
+	public void setFloat(Feature feature, float value) {
+		int ordinal = feature.getOrdinal();
+		floats[ordinal] = value;
+		clearMissing(ordinal);
+	}
+
+	public void setInteger(Feature feature, int value) {
+		int ordinal = feature.getOrdinal();
+		integers[ordinal] = value;
+		clearMissing(ordinal);
+	}
+
+	public void setBoolean(Feature feature, boolean value) {
+		int ordinal = feature.getOrdinal();
+		integers[ordinal] = value ? 1 : 0;
+		clearMissing(ordinal);
+	}
+
+	/**
+	 * Stores the string, a null string is stored as missing value.
+	 */
+	public void setString(Feature feature, String value) {
+		int ordinal = feature.getOrdinal();
+		strings[ordinal] = value;
+		if (value == null) {
+			setMissing(ordinal);
+		} else {
+			clearMissing(ordinal);
+		}
+	}
+
+	public void setMissing(Feature feature) {
+		setMissing(feature.getOrdinal());
+	}
+
+	/**
+	 * Copies the value of the feature from the given vector.
+	 */
+	public void copy(Feature feature, FeatureVector source) {
+		int ordinal = feature.getOrdinal();
+		floats[ordinal] = source.floats[ordinal];
+		integers[ordinal] = source.integers[ordinal];
+		strings[ordinal] = source.strings[ordinal];
+		if (source.isMissing(ordinal)) {
+			setMissing(ordinal);
+		} else {
+			clearMissing(ordinal);
+		}
+	}
+
+	public boolean isMissing(int ordinal) {
+		return (missing[ordinal >>> 6] & (1L << ordinal)) != 0;
+	}
+
+	public float getFloat(int ordinal) {
+		return floats[ordinal];
+	}
+
+	public int getInteger(int ordinal) {
+		return integers[ordinal];
+	}
+
+	public boolean getBoolean(int ordinal) {
+		return integers[ordinal] != 0;
+	}
+
+	public String getString(int ordinal) {
+		return strings[ordinal];
+	}
+
+	/**
+	 * Returns the value of the feature as written to the feature file.
+	 */
+	public String toString(Feature feature) {
+		int ordinal = feature.getOrdinal();
+		if (isMissing(ordinal)) {
+			return FeatureValue.MISSING_VALUE_STRING;
+		}
+
+		switch (feature.getType()) {
+		case FLOAT:
+			return FeatureFloatValue.format(floats[ordinal]);
+		case INTEGER:
+			return Integer.toString(integers[ordinal]);
+		case BOOLEAN:
+			return getBoolean(ordinal) ? TRUE_STRING : FALSE_STRING;
+		case STRING:
+			return strings[ordinal];
+		default:
+			throw new IllegalStateException(
+					"Unknown feature type: " + feature.getType());
+		}
+	}
+
+	/**
+	 * Appends the value of the feature as written to the feature file to the
+	 * builder (without creating objects unless the value is a string).
+	 */
+	public void format(Feature feature, StringBuilder builder) {
+		int ordinal = feature.getOrdinal();
+		if (isMissing(ordinal)) {
+			builder.append(FeatureValue.MISSING_VALUE_STRING);
+			return;
+		}
+
+		switch (feature.getType()) {
+		case FLOAT:
+			FloatFormatter.format(floats[ordinal], builder);
+			break;
+		case INTEGER:
+			builder.append(integers[ordinal]);
+			break;
+		case BOOLEAN:
+			builder.append(getBoolean(ordinal) ? TRUE_STRING : FALSE_STRING);
+			break;
+		case STRING:
+			builder.append(strings[ordinal]);
+			break;
+		default:
+			throw new IllegalStateException(
+					"Unknown feature type: " + feature.getType());
+		}
+	}
+
+	/**
+	 * Returns the value of the feature as object.
+	 */
+	public FeatureValue getValue(Feature feature) {
+		int ordinal = feature.getOrdinal();
+		boolean isMissing = isMissing(ordinal);
+
+		switch (feature.getType()) {
+		case FLOAT:
+			return new FeatureFloatValue(isMissing ? null : floats[ordinal]);
+		case INTEGER:
+			return new FeatureIntegerValue(isMissing ? null : integers[ordinal]);
+		case BOOLEAN:
+			return new FeatureBooleanValue(isMissing ? null : getBoolean(ordinal));
+		case STRING:
+			return new FeatureStringValue(strings[ordinal]);
+		default:
+			throw new IllegalStateException(
+					"Unknown feature type: " + feature.getType());
+		}
+	}
+
+	private void setMissing(int ordinal) {
+		missing[ordinal >>> 6] |= 1L << ordinal;
+	}
+
+	private void clearMissing(int ordinal) {
+		missing[ordinal >>> 6] &= ~(1L << ordinal);
+	}
+}
@@ -0,0 +1,206 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.features;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Expands a regular expression without repetitions into the strings it
+ * matches, e.g., "ab?(c|d)" into "abc", "abd", "ac", and "ad".
+ *
+ * The strings are returned in the order in which java.util.regex tries them,
+ * i.e., the first string matching at some position is the one found by
+ * {@link java.util.regex.Matcher#find()}. Supported are literals, escaped
+ * characters (including \\uXXXX), character classes of literals, groups,
+ * alternations, and the quantifiers ? and ??. Any other construct raises an
+ * {@link IllegalArgumentException}.
+ */
+public final class FiniteLanguage {
+
+	static final int MAX_STRINGS = 1000000;
+
+	private final String regex;
+	private int position;
+
+	private FiniteLanguage(String regex) {
+		this.regex = regex;
+	}
+
+	public static List<String> expand(String regex) {
+		FiniteLanguage parser = new FiniteLanguage(regex);
+		List<String> result = parser.parseAlternation();
+		if (parser.position < regex.length()) {
+			throw parser.error("Unbalanced parenthesis");
+		}
+
+		return new ArrayList<>(new LinkedHashSet<>(result));
+	}
+
+	private List<String> parseAlternation() {
+		List<String> result = new ArrayList<>(parseSequence());
+		while (peek() == '|') {
+			position++;
+			result.addAll(parseSequence());
+		}
+		return result;
+	}
+
+	private List<String> parseSequence() {
+		List<String> result = Collections.singletonList("");
+
+		while (position < regex.length()
+				&& peek() != '|' && peek() != ')') {
+			List<String> atom = parseAtom();
+
+			if (peek() == '?') {
+				position++;
+				List<String> optional = new ArrayList<>(atom.size() + 1);
+				if (peek() == '?') {
+					// reluctant: the empty string is tried first
+					position++;
+					optional.add("");
+					optional.addAll(atom);
+				} else {
+					optional.addAll(atom);
+					optional.add("");
+				}
+				atom = optional;
+			}
+
+			result = concatenate(result, atom);
+		}
+
+		return result;
+	}
+
+	private List<String> concatenate(List<String> prefixes, List<String> suffixes) {
+		if ((long) prefixes.size() * suffixes.size() > MAX_STRINGS) {
+			throw error("Too many strings");
+		}
+
+		List<String> result = new ArrayList<>(prefixes.size() * suffixes.size());
+		for (String prefix: prefixes) {
+			for (String suffix: suffixes) {
+				result.add(prefix + suffix);
+			}
+		}
+		return result;
+	}
+
+	private List<String> parseAtom() {
+		char c = regex.charAt(position++);
+
+		switch (c) {
+		case '(':
+			if (peek() == '?') {
+				if (position + 1 < regex.length()
+						&& regex.charAt(position + 1) == ':') {
+					position += 2;
+				} else {
+					throw error("Unsupported group");
+				}
+			}
+			List<String> group = parseAlternation();
+			if (peek() != ')') {
+				throw error("Unbalanced parenthesis");
+			}
+			position++;
+			return group;
+		case '[':
+			return parseCharacterClass();
+		case '\\':
+			return Collections.singletonList(String.valueOf(parseEscape()));
+		case '*':
+		case '+':
+		case '{':
+		case '}':
+		case ']':
+		case '.':
+		case '^':
+		case '$':
+		case '?':
+			throw error("Unsupported construct '" + c + "'");
+		default:
+			return Collections.singletonList(String.valueOf(c));
+		}
+	}
+
+	private List<String> parseCharacterClass() {
+		if (peek() == '^') {
+			throw error("Unsupported negated character class");
+		}
+
+		List<String> result = new ArrayList<>();
+		while (peek() != ']') {
+			if (position >= regex.length()) {
+				throw error("Unclosed character class");
+			}
+
+			char c = regex.charAt(position++);
+			if (c == '\\') {
+				c = parseEscape();
+			} else if (c == '[' || c == '&' || c == '-') {
+				throw error("Unsupported character class");
+			}
+			result.add(String.valueOf(c));
+		}
+		position++;
+
+		return result;
+	}
+
+	private char parseEscape() {
+		if (position >= regex.length()) {
+			throw error("Unexpected end");
+		}
+
+		char c = regex.charAt(position++);
+		if (c == 'u') {
+			if (position + 4 > regex.length()) {
+				throw error("Illegal unicode escape");
+			}
+			c = (char) Integer.parseInt(
+					regex.substring(position, position + 4), 16);
+			position += 4;
+		} else if (Character.isLetterOrDigit(c)) {
+			// character classes, anchors, back references, ...
+			throw error("Unsupported escape '\\" + c + "'");
+		}
+		return c;
+	}
+
+	// Returns the current character (0 at the end)
+	private char peek() {
+		return position < regex.length() ? regex.charAt(position) : 0;
+	}
+
+	private IllegalArgumentException error(String message) {
+		return new IllegalArgumentException(
+				message + " at index " + position + " of " + regex);
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.features;
+
+import java.text.NumberFormat;
+import java.util.Locale;
+
+/**
+ * Formats floats with at most two fraction digits and without grouping,
+ * producing the same text as a {@link NumberFormat} for
+ * {@link Locale#ENGLISH} configured accordingly.
+ *
+ * The value is rounded exactly (half even) with integer arithmetic and
+ * appended to a given builder, i.e., no objects are created. Values which are
+ * not finite or whose magnitude is at least 2^53 are delegated to the
+ * NumberFormat.
+ */
+public final class FloatFormatter {
+
+	private static final int MANTISSA_BITS = 23;
+	private static final int EXPONENT_BIAS = 127 + MANTISSA_BITS;
+
+	// floats with a larger exponent are at least 2^53
+	private static final int MAX_EXPONENT = 53 - MANTISSA_BITS - 1;
+
+	// multiples of 2^-63 and smaller round to zero
+	private static final int MAX_SHIFT = 62;
+
+	private static final ThreadLocal<NumberFormat> FALLBACK_FORMAT =
+			ThreadLocal.withInitial(() -> {
+				NumberFormat formatter = NumberFormat.getInstance(Locale.ENGLISH);
+				formatter.setMaximumFractionDigits(2);
+				formatter.setGroupingUsed(false);
+				return formatter;
+			});
+
+	private FloatFormatter() {
+	}
+
+	public static String format(float value) {
+		StringBuilder builder = new StringBuilder(16);
+		format(value, builder);
+		return builder.toString();
+	}
+
+	/**
+	 * Appends the formatted value to the builder.
+	 */
+	public static void format(float value, StringBuilder builder) {
+		int bits = Float.floatToRawIntBits(value);
+		int biasedExponent = (bits >>> MANTISSA_BITS) & 0xFF;
+
+		if (biasedExponent == 0xFF
+				|| biasedExponent - EXPONENT_BIAS > MAX_EXPONENT) {
+			builder.append(FALLBACK_FORMAT.get().format(value));
+			return;
+		}
+
+		// value = mantissa * 2^exponent
+		long mantissa = bits & ((1 << MANTISSA_BITS) - 1);
+		int exponent;
+		if (biasedExponent == 0) {
+			exponent = 1 - EXPONENT_BIAS; // subnormal
+		} else {
+			mantissa |= 1 << MANTISSA_BITS;
+			exponent = biasedExponent - EXPONENT_BIAS;
+		}
+
+		if (bits < 0) {
+			builder.append('-');
+		}
+
+		if (exponent >= 0) {
+			builder.append(mantissa << exponent);
+			return;
+		}
+
+		long hundredths = roundHalfEven(mantissa * 100, -exponent);
+		builder.append(hundredths / 100);
+
+		int fraction = (int) (hundredths % 100);
+		if (fraction != 0) {
+			builder.append('.');
+			builder.append((char) ('0' + fraction / 10));
+			if (fraction % 10 != 0) {
+				builder.append((char) ('0' + fraction % 10));
+			}
+		}
+	}
+
+	// Returns value / 2^shift rounded half even
+	private static long roundHalfEven(long value, int shift) {
+		if (shift > MAX_SHIFT) {
+			return 0;
+		}
+
+		long quotient = value >>> shift;
+		long remainder = value & ((1L << shift) - 1);
+		long half = 1L << (shift - 1);
+
+		if (remainder > half || (remainder == half && (quotient & 1) != 0)) {
+			quotient++;
+		}
+		return quotient;
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.features;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+/**
+ * Counts the matches of a {@link MultiPatternCounter} in the texts of
+ * consecutive revisions of an item by rescanning only what has changed.
+ *
+ * The text is split into chunks at separators, i.e., characters not occurring
+ * in any string. The matches of different chunks are independent of each other.
+ * For every item, the last text and the number of matches before every chunk
+ * are cached. A new text is compared with the cached one: The counts of the
+ * chunks in the common prefix and the common suffix are reused and only the
+ * chunks in between are scanned. Hence, the counts are exactly the same as
+ * those of {@link MultiPatternCounter#count(String)}.
+ *
+ * The cache holds a bounded number of items (the most recently counted item
+ * replaces an older one with the same slot). This class is thread-safe.
+ */
+public class IncrementalPatternCounter {
+
+	// must be a power of two
+	static final int CACHE_SIZE = 4096;
+
+	// minimum number of characters of a chunk
+	static final int CHUNK_SIZE = 256;
+
+	private final MultiPatternCounter counter;
+	private final int families;
+
+	private final AtomicReferenceArray<Snapshot> cache =
+			new AtomicReferenceArray<>(CACHE_SIZE);
+
+	/**
+	 * Text of an item and the counts before each of its chunks (immutable).
+	 */
+	private static class Snapshot {
+		final long key;
+		final String text;
+
+		// start of every chunk, followed by the length of the text
+		final int[] cuts;
+
+		// number of matches before every cut, indexed by cut * families + family
+		final int[] counts;
+
+		Snapshot(long key, String text, int[] cuts, int[] counts) {
+			this.key = key;
+			this.text = text;
+			this.cuts = cuts;
+			this.counts = counts;
+		}
+	}
+
+	public IncrementalPatternCounter(MultiPatternCounter counter) {
+		this.counter = counter;
+		this.families = counter.getFamilies();
+	}
+
+	/**
+	 * Returns the number of matches of every family in the text, given that
+	 * the previous text with the same key was probably similar.
+	 */
+	public int[] count(long key, String text) {
+		if (text == null) {
+			return new int[families];
+		}
+
+		int slot = Long.hashCode(key * 0x9E3779B97F4A7C15L) & (CACHE_SIZE - 1);
+		Snapshot snapshot = cache.get(slot);
+		if (snapshot == null || snapshot.key != key) {
+			snapshot = new Snapshot(key, "", new int[] {0}, new int[families]);
+		}
+
+		String oldText = snapshot.text;
+		int[] oldCuts = snapshot.cuts;
+		int[] oldCounts = snapshot.counts;
+		int oldLength = oldText.length();
+		int length = text.length();
+
+		int prefix = commonPrefix(oldText, text);
+		int suffix = commonSuffix(oldText, text,
+				Math.min(oldLength, length) - prefix);
+
+		// last chunk starting in the common prefix (its separator is unchanged)
+		int first = 0;
+		while (first + 1 < oldCuts.length - 1 && oldCuts[first + 1] < prefix) {
+			first++;
+		}
+
+		// first chunk starting in the common suffix (or the end of the text)
+		int last = oldCuts.length - 1;
+		while (last - 1 > first && oldCuts[last - 1] >= oldLength - suffix) {
+			last--;
+		}
+
+		int shift = length - oldLength;
+		int from = oldCuts[first];
+		int to = oldCuts[last] + shift;
+
+		// cuts and counts up to the first changed chunk
+		IntArrayList cuts = new IntArrayList(oldCuts.length + 1);
+		IntArrayList counts = new IntArrayList(
+				(oldCuts.length + 1) * families);
+		for (int i = 0; i <= first; i++) {
+			cuts.add(oldCuts[i]);
+			counts.addElements(counts.size(), oldCounts, i * families, families);
+		}
+
+		// rescan the changed chunks
+		int[] current = Arrays.copyOfRange(
+				oldCounts, first * families, (first + 1) * families);
+		int start = from;
+		while (start < to) {
+			int end = nextCut(text, start, to);
+			counter.count(text, start, end, current);
+			if (end < to) {
+				cuts.add(end);
+				counts.addElements(counts.size(), current);
+			}
+			start = end;
+		}
+
+		// cuts and counts of the common suffix
+		for (int i = last; i < oldCuts.length; i++) {
+			cuts.add(oldCuts[i] + shift);
+			for (int family = 0; family < families; family++) {
+				counts.add(current[family] + oldCounts[i * families + family]
+						- oldCounts[last * families + family]);
+			}
+		}
+
+		int[] cutArray = cuts.toIntArray();
+		int[] countArray = counts.toIntArray();
+		cache.set(slot, new Snapshot(key, text, cutArray, countArray));
+
+		return Arrays.copyOfRange(countArray,
+				countArray.length - families, countArray.length);
+	}
+
+	// Returns the position of the first separator at least CHUNK_SIZE
+	// characters after start (or the end of the range).
+	private int nextCut(String text, int start, int to) {
+		for (int i = start + CHUNK_SIZE; i < to; i++) {
+			if (counter.isSeparator(text.charAt(i))) {
+				return i;
+			}
+		}
+		return to;
+	}
+
+	private static int commonPrefix(String a, String b) {
+		int length = Math.min(a.length(), b.length());
+		int i = 0;
+		while (i < length && a.charAt(i) == b.charAt(i)) {
+			i++;
+		}
+		return i;
+	}
+
+	private static int commonSuffix(String a, String b, int maxLength) {
+		int i = 0;
+		int aEnd = a.length() - 1;
+		int bEnd = b.length() - 1;
+		while (i < maxLength && a.charAt(aEnd - i) == b.charAt(bEnd - i)) {
+			i++;
+		}
+		return i;
+	}
+}
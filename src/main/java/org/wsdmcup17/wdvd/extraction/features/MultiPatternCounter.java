@@ -0,0 +1,247 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.features;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+import it.unimi.dsi.fastutil.chars.Char2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+/**
+ * Counts the matches of several families of strings in one pass over a text
+ * (Aho-Corasick automaton).
+ *
+ * Each family is counted as by {@link java.util.regex.Matcher#find()} with an
+ * alternation of its strings: The matches of a family do not overlap, and at
+ * every position the first matching string of the family is chosen (not the
+ * longest one). Hence, the strings of a family must be given in the order in
+ * which the regular expression tries them (see {@link FiniteLanguage}).
+ */
+public class MultiPatternCounter {
+
+	private static final int NONE = -1;
+
+	private final int families;
+
+	// index of every character occurring in a string (0 for other characters)
+	private final char[] alphabet = new char[Character.MAX_VALUE + 1];
+	private final int alphabetSize;
+
+	// transitions of the automaton, indexed by state * alphabetSize + symbol
+	private final int[] transitions;
+
+	// strings ending in every state (including those of suffix states)
+	private final int[][] outputs;
+
+	// family and length of every string (strings are numbered by priority)
+	private final int[] stringFamily;
+	private final int[] stringLength;
+
+	// maximum length of the strings of every family
+	private final int[] maxLength;
+	private final int bufferSize;
+
+	public MultiPatternCounter(List<List<String>> stringFamilies) {
+		families = stringFamilies.size();
+
+		List<String> strings = new ArrayList<>();
+		IntArrayList familyList = new IntArrayList();
+		maxLength = new int[families];
+		for (int family = 0; family < families; family++) {
+			for (String string: stringFamilies.get(family)) {
+				if (string.isEmpty()) {
+					throw new IllegalArgumentException("Empty string");
+				}
+				strings.add(string);
+				familyList.add(family);
+				maxLength[family] = Math.max(maxLength[family], string.length());
+			}
+		}
+		stringFamily = familyList.toIntArray();
+		stringLength = new int[strings.size()];
+
+		int size = 1;
+		for (String string: strings) {
+			for (int i = 0; i < string.length(); i++) {
+				char c = string.charAt(i);
+				if (alphabet[c] == 0) {
+					alphabet[c] = (char) size++;
+				}
+			}
+		}
+		alphabetSize = size;
+
+		// trie
+		List<Char2IntOpenHashMap> children = new ArrayList<>();
+		List<IntArrayList> stringsOfState = new ArrayList<>();
+		children.add(new Char2IntOpenHashMap());
+		stringsOfState.add(new IntArrayList());
+		for (int k = 0; k < strings.size(); k++) {
+			String string = strings.get(k);
+			int state = 0;
+			for (int i = 0; i < string.length(); i++) {
+				char symbol = alphabet[string.charAt(i)];
+				Char2IntOpenHashMap edges = children.get(state);
+				if (!edges.containsKey(symbol)) {
+					edges.put(symbol, children.size());
+					children.add(new Char2IntOpenHashMap());
+					stringsOfState.add(new IntArrayList());
+				}
+				state = edges.get(symbol);
+			}
+			stringsOfState.get(state).add(k);
+			stringLength[k] = string.length();
+		}
+
+		// transitions and outputs in breadth-first order
+		int states = children.size();
+		transitions = new int[states * alphabetSize];
+		outputs = new int[states][];
+		int[] failure = new int[states];
+		Queue<Integer> queue = new ArrayDeque<>();
+
+		outputs[0] = new int[0];
+		for (int symbol = 1; symbol < alphabetSize; symbol++) {
+			int child = children.get(0).getOrDefault((char) symbol, 0);
+			transitions[symbol] = child;
+			if (child != 0) {
+				failure[child] = 0;
+				queue.add(child);
+			}
+		}
+
+		while (!queue.isEmpty()) {
+			int state = queue.poll();
+
+			IntArrayList output = new IntArrayList(stringsOfState.get(state));
+			output.addAll(IntArrayList.wrap(outputs[failure[state]]));
+			outputs[state] = output.toIntArray();
+
+			for (int symbol = 1; symbol < alphabetSize; symbol++) {
+				int child = children.get(state).getOrDefault((char) symbol, NONE);
+				int fallback = transitions[failure[state] * alphabetSize + symbol];
+				if (child == NONE) {
+					transitions[state * alphabetSize + symbol] = fallback;
+				} else {
+					transitions[state * alphabetSize + symbol] = child;
+					failure[child] = fallback;
+					queue.add(child);
+				}
+			}
+		}
+
+		int max = 0;
+		for (int length: maxLength) {
+			max = Math.max(max, length);
+		}
+		bufferSize = Integer.highestOneBit(max) << 1;
+	}
+
+	/**
+	 * Returns whether the character does not occur in any string. No match
+	 * contains such a character, i.e., the matches in the text before it and
+	 * after it are independent of each other.
+	 */
+	public boolean isSeparator(char c) {
+		return alphabet[c] == 0;
+	}
+
+	public int getFamilies() {
+		return families;
+	}
+
+	/**
+	 * Returns the number of matches of every family in the text.
+	 */
+	public int[] count(String text) {
+		int[] counts = new int[families];
+		if (text != null) {
+			count(text, 0, text.length(), counts);
+		}
+		return counts;
+	}
+
+	/**
+	 * Adds the number of matches of every family in the given range of the
+	 * text to the counts.
+	 */
+	public void count(String text, int from, int to, int[] counts) {
+		// best string starting at every position of the last bufferSize
+		// characters, per family
+		int[] best = new int[families * bufferSize];
+		Arrays.fill(best, NONE);
+
+		// matches of a family must not start before this position
+		int[] nextStart = new int[families];
+		Arrays.fill(nextStart, from);
+
+		int state = 0;
+		for (int i = from; i < to; i++) {
+			state = transitions[state * alphabetSize + alphabet[text.charAt(i)]];
+
+			for (int k: outputs[state]) {
+				int family = stringFamily[k];
+				int start = i - stringLength[k] + 1;
+				int slot = family * bufferSize + (start & (bufferSize - 1));
+				if (start >= nextStart[family]
+						&& (best[slot] == NONE || k < best[slot])) {
+					best[slot] = k;
+				}
+			}
+
+			// no string starting at these positions can end later
+			for (int family = 0; family < families; family++) {
+				int start = i - maxLength[family] + 1;
+				if (start >= from) {
+					accept(family, start, best, nextStart, counts);
+				}
+			}
+		}
+
+		for (int family = 0; family < families; family++) {
+			int start = Math.max(from, to - maxLength[family] + 1);
+			for (; start < to; start++) {
+				accept(family, start, best, nextStart, counts);
+			}
+		}
+	}
+
+	private void accept(int family, int start, int[] best, int[] nextStart,
+			int[] counts) {
+		int slot = family * bufferSize + (start & (bufferSize - 1));
+		int k = best[slot];
+		if (k != NONE) {
+			if (start >= nextStart[family]) {
+				counts[family]++;
+				nextStart[family] = start + stringLength[k];
+			}
+			best[slot] = NONE;
+		}
+	}
+}
@@ -0,0 +1,64 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.features;
+
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
+
+/**
+ * The key by which a {@link StatefulFeature} stores its state.
+ */
+public enum StateKey {
+	ITEM {
+		@Override
+		public int hash(Revision revision) {
+			return revision.getItemId();
+		}
+	},
+	CONTRIBUTOR {
+		@Override
+		public int hash(Revision revision) {
+			String contributor = revision.getContributor();
+			return contributor == null ? 0 : contributor.hashCode();
+		}
+	},
+	CONTRIBUTOR_ID {
+		@Override
+		public int hash(Revision revision) {
+			return Long.hashCode(revision.getContributorId());
+		}
+	},
+	SESSION {
+		@Override
+		public int hash(Revision revision) {
+			return Long.hashCode(revision.getSessionId());
+		}
+	};
+
+	/**
+	 * Returns a hash code of the key of the revision. Revisions with equal
+	 * keys have equal hash codes.
+	 */
+	public abstract int hash(Revision revision);
+}
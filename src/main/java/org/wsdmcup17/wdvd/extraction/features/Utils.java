@@ -26,11 +26,13 @@ package org.wsdmcup17.wdvd.extraction.features;
 
 import java.text.NumberFormat;
 import java.text.ParsePosition;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.WordTokens;
 
 public class Utils {
 
@@ -87,30 +89,36 @@ public class Utils {
 
 
 
-	private static final Pattern splitPattern = Pattern.compile("\\s+");
-
-	public static float wordRatio(String str, Pattern pattern) {
-		double result = -1.0;
-
-		String[] words = splitPattern.split(str.trim());
+	/**
+	 * Returns the ratio of the words matching the pattern (the words as
+	 * returned by {@link WordTokens}).
+	 */
+	public static float wordRatio(String[] words, Pattern pattern) {
+		Matcher matcher = pattern.matcher("");
 
-		if (words.length > 0) {
-			result = 0;
+		double result = 0;
+		for (String word: words) {
+			if (!word.isEmpty() && matcher.reset(word).matches()) {
+				result++;
+			}
 		}
 
-		Matcher matcher = pattern.matcher("");
+		return (float) (result / words.length);
+	}
 
+	/**
+	 * Returns the ratio of the words contained in the set (the words as
+	 * returned by {@link WordTokens}).
+	 */
+	public static float wordRatio(String[] words, Set<String> set) {
+		double result = 0;
 		for (String word: words) {
-
-			word = word.trim();
-			if (!word.equals("") && matcher.reset(word).matches()) {
+			if (!word.isEmpty() && set.contains(word)) {
 				result++;
 			}
 		}
 
-		result = result / words.length;
-
-		return (float) result;
+		return (float) (result / words.length);
 	}
 
 	public static float proportion(double oldCount, double newCount) {
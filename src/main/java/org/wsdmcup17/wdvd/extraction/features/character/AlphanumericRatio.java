@@ -24,25 +24,17 @@
 
 package org.wsdmcup17.wdvd.extraction.features.character;
 
-import java.util.regex.Pattern;
-
-import org.wsdmcup17.wdvd.extraction.features.FeatureFloatValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.Utils;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.FloatFeature;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class AlphanumericRatio extends FeatureImpl {
-
-	// All alphanumeric characters: [a-zA-z0-9]
-	private final Pattern pattern = Pattern.compile("\\p{Alnum}");
+public class AlphanumericRatio extends FloatFeature {
 
 	@Override
-	public FeatureFloatValue calculate(Revision revision) {
-		String comment = revision.getParsedComment().getSuffixComment();
-
-		float result = Utils.characterRatio(comment, pattern);
+	public void calculate(Revision revision, FeatureVector vector) {
+		float result = revision.getCharacterStatistics().getAlphanumericRatio();
 
-		return new FeatureFloatValue(result);
+		vector.setFloat(this, result);
 	}
 
 }
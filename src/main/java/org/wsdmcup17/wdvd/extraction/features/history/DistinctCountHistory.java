@@ -0,0 +1,125 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.features.history;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.wsdmcup17.wdvd.extraction.state.Checkpointable;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+
+/**
+ * Counts the distinct values per key, e.g., the distinct items per
+ * contributor.
+ *
+ * The values of a key are counted exactly until there are more of them than
+ * the exactness threshold. Afterwards, the number is estimated with a fixed
+ * amount of memory per key.
+ */
+public class DistinctCountHistory implements HeapFootprint, Checkpointable {
+
+	public static final int EXACT = Integer.MAX_VALUE;
+
+	private final Long2ObjectOpenHashMap<DistinctIntSet> sets =
+			new Long2ObjectOpenHashMap<>();
+
+	private final int exactnessThreshold;
+
+	public DistinctCountHistory(int exactnessThreshold) {
+		this.exactnessThreshold = exactnessThreshold;
+	}
+
+	public int getExactnessThreshold() {
+		return exactnessThreshold;
+	}
+
+	/**
+	 * Adds the value to the values of the key and returns the number of
+	 * distinct values of the key.
+	 */
+	public int add(long key, int value) {
+		DistinctIntSet set = sets.get(key);
+		if (set == null) {
+			set = new DistinctIntSet();
+			sets.put(key, set);
+		}
+
+		return set.add(value, exactnessThreshold);
+	}
+
+	public int size() {
+		return sets.size();
+	}
+
+	@Override
+	public long getHeapSize() {
+		// one long and one reference per slot of the hash table
+		long result = HashCommon.arraySize(sets.size(), 0.75f) * (8L + 4L);
+
+		ObjectIterator<DistinctIntSet> iterator = sets.values().iterator();
+		while (iterator.hasNext()) {
+			result += iterator.next().getHeapSize();
+		}
+		return result;
+	}
+
+	@Override
+	public void writeState(DataOutputStream out) throws IOException {
+		out.writeInt(exactnessThreshold);
+		out.writeInt(sets.size());
+		ObjectIterator<Long2ObjectMap.Entry<DistinctIntSet>> iterator =
+				sets.long2ObjectEntrySet().iterator();
+		while (iterator.hasNext()) {
+			Long2ObjectMap.Entry<DistinctIntSet> entry = iterator.next();
+			out.writeLong(entry.getLongKey());
+			entry.getValue().write(out);
+		}
+	}
+
+	@Override
+	public void readState(DataInputStream in) throws IOException {
+		// The sets switch to estimates at the threshold, i.e., resuming with
+		// another threshold would mix exact and estimated counts.
+		int threshold = in.readInt();
+		if (threshold != exactnessThreshold) {
+			throw new IOException("Checkpoint was written with exactness "
+					+ "threshold " + threshold + ", but " + exactnessThreshold
+					+ " is configured");
+		}
+
+		sets.clear();
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			long key = in.readLong();
+			sets.put(key, DistinctIntSet.read(in));
+		}
+	}
+
+}
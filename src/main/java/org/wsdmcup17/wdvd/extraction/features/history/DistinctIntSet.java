@@ -0,0 +1,186 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.features.history;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * Set of int values which only supports adding values and counting the
+ * distinct values added so far.
+ *
+ * Small sets are stored as sorted array and larger sets as Roaring bitmap.
+ * Once a set has more values than the exactness threshold, it is converted
+ * to a {@link HyperLogLog} sketch and its size is estimated from then on.
+ * The size never decreases.
+ */
+class DistinctIntSet {
+
+	static final int INITIAL_ARRAY_SIZE = 2;
+	static final int MAX_ARRAY_SIZE = 32;
+
+	static final byte ARRAY = 0;
+	static final byte BITMAP = 1;
+	static final byte SKETCH = 2;
+
+	// exactly one of them is not null
+	private int[] values = new int[INITIAL_ARRAY_SIZE];
+	private RoaringBitmap bitmap;
+	private HyperLogLog sketch;
+
+	private int size = 0;
+
+	/**
+	 * Adds the value and returns the number of distinct values.
+	 */
+	public int add(int value, int exactnessThreshold) {
+		if (values != null) {
+			addToArray(value);
+		} else if (bitmap != null) {
+			if (bitmap.checkedAdd(value)) {
+				size++;
+			}
+		} else {
+			sketch.add(value);
+			size = (int) Math.max(size, Math.min(sketch.estimate(),
+					Integer.MAX_VALUE));
+		}
+
+		if (size > exactnessThreshold && sketch == null) {
+			convertToSketch();
+		}
+
+		return size;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public long getHeapSize() {
+		long result = 32;
+		if (values != null) {
+			result += 16 + 4L * values.length;
+		} else if (bitmap != null) {
+			result += bitmap.getLongSizeInBytes();
+		} else {
+			result += sketch.getHeapSize();
+		}
+		return result;
+	}
+
+	public void write(DataOutput out) throws IOException {
+		out.writeInt(size);
+		if (values != null) {
+			out.writeByte(ARRAY);
+			out.writeInt(values.length);
+			for (int i = 0; i < size; i++) {
+				out.writeInt(values[i]);
+			}
+		} else if (bitmap != null) {
+			out.writeByte(BITMAP);
+			bitmap.serialize(out);
+		} else {
+			out.writeByte(SKETCH);
+			sketch.write(out);
+		}
+	}
+
+	public static DistinctIntSet read(DataInput in) throws IOException {
+		DistinctIntSet result = new DistinctIntSet();
+		result.size = in.readInt();
+		byte type = in.readByte();
+		switch (type) {
+		case ARRAY:
+			result.values = new int[in.readInt()];
+			for (int i = 0; i < result.size; i++) {
+				result.values[i] = in.readInt();
+			}
+			break;
+		case BITMAP:
+			result.values = null;
+			result.bitmap = new RoaringBitmap();
+			result.bitmap.deserialize(in);
+			break;
+		case SKETCH:
+			result.values = null;
+			result.sketch = HyperLogLog.read(in);
+			break;
+		default:
+			throw new IOException("Unknown set type: " + type);
+		}
+		return result;
+	}
+
+	private void addToArray(int value) {
+		int index = Arrays.binarySearch(values, 0, size, value);
+		if (index >= 0) {
+			return;
+		}
+		index = -index - 1;
+
+		if (size == values.length) {
+			if (size == MAX_ARRAY_SIZE) {
+				convertToBitmap();
+				bitmap.add(value);
+				size++;
+				return;
+			}
+			values = Arrays.copyOf(values,
+					Math.min(MAX_ARRAY_SIZE, values.length * 2));
+		}
+
+		System.arraycopy(values, index, values, index + 1, size - index);
+		values[index] = value;
+		size++;
+	}
+
+	private void convertToBitmap() {
+		bitmap = RoaringBitmap.bitmapOf(values);
+		values = null;
+	}
+
+	private void convertToSketch() {
+		sketch = new HyperLogLog();
+		if (values != null) {
+			for (int i = 0; i < size; i++) {
+				sketch.add(values[i]);
+			}
+			values = null;
+		} else {
+			IntIterator iterator = bitmap.getIntIterator();
+			while (iterator.hasNext()) {
+				sketch.add(iterator.next());
+			}
+			bitmap = null;
+		}
+	}
+
+}
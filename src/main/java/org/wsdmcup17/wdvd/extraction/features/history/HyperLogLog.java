@@ -0,0 +1,102 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.features.history;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import it.unimi.dsi.fastutil.HashCommon;
+
+/**
+ * HyperLogLog sketch estimating the number of distinct int values with a
+ * fixed amount of memory (Flajolet et al., 2007). The standard error of the
+ * estimate is about 1.04 / sqrt(REGISTERS), i.e., 2.3%.
+ */
+class HyperLogLog {
+
+	static final int PRECISION = 11;
+	static final int REGISTERS = 1 << PRECISION;
+
+	private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+	// ensures that the value 0 is not hashed to 0
+	private static final long SEED = 0x9E3779B97F4A7C15L;
+
+	private final byte[] registers = new byte[REGISTERS];
+
+	// sum of 2^-register and number of registers being 0, both updated
+	// incrementally so that estimating is constant time
+	private double inverseSum = REGISTERS;
+	private int zeros = REGISTERS;
+
+	public void add(int value) {
+		long hash = HashCommon.murmurHash3(value + SEED);
+		int index = (int) (hash >>> (64 - PRECISION));
+		int rank = Long.numberOfLeadingZeros(
+				(hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+
+		int oldRank = registers[index];
+		if (rank > oldRank) {
+			registers[index] = (byte) rank;
+			inverseSum += Math.scalb(1.0, -rank) - Math.scalb(1.0, -oldRank);
+			if (oldRank == 0) {
+				zeros--;
+			}
+		}
+	}
+
+	public long estimate() {
+		double estimate = ALPHA * REGISTERS * REGISTERS / inverseSum;
+
+		// small range correction (linear counting)
+		if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+			estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+		}
+
+		return Math.round(estimate);
+	}
+
+	public void write(DataOutput out) throws IOException {
+		out.write(registers);
+	}
+
+	public static HyperLogLog read(DataInput in) throws IOException {
+		HyperLogLog result = new HyperLogLog();
+		in.readFully(result.registers);
+		for (byte rank: result.registers) {
+			if (rank != 0) {
+				result.inverseSum += Math.scalb(1.0, -rank) - 1.0;
+				result.zeros--;
+			}
+		}
+		return result;
+	}
+
+	public long getHeapSize() {
+		return 16 + 16 + REGISTERS;
+	}
+
+}
@@ -0,0 +1,125 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.features.history;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.wsdmcup17.wdvd.extraction.state.Checkpointable;
+import org.wsdmcup17.wdvd.extraction.state.StateIO;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+
+/**
+ * Assigns consecutive int ids to strings, e.g., to contributor names. Every
+ * string is stored only once, and the ids can be stored in compact sets.
+ */
+public class StringDictionary implements HeapFootprint, Checkpointable {
+
+	// object header and fields of a String plus the header of its array
+	static final int STRING_OVERHEAD = 40;
+
+	private final Object2IntOpenHashMap<String> ids =
+			new Object2IntOpenHashMap<>();
+
+	// -1 if null has not been assigned an id yet
+	private int nullId = -1;
+
+	private long stringBytes = 0;
+
+	public StringDictionary() {
+		ids.defaultReturnValue(-1);
+	}
+
+	/**
+	 * Returns the id of the string, assigning the next id if the string has
+	 * not been seen before.
+	 */
+	public int getId(String str) {
+		if (str == null) {
+			if (nullId == -1) {
+				nullId = size();
+			}
+			return nullId;
+		}
+
+		int id = ids.getInt(str);
+		if (id == -1) {
+			id = size();
+			ids.put(str, id);
+			stringBytes += STRING_OVERHEAD + 2L * str.length();
+		}
+		return id;
+	}
+
+	public int size() {
+		return ids.size() + (nullId == -1 ? 0 : 1);
+	}
+
+	@Override
+	public long getHeapSize() {
+		// one reference and one int per slot of the hash table
+		long tableSize = HashCommon.arraySize(ids.size(), 0.75f);
+		return tableSize * (4 + 4) + stringBytes;
+	}
+
+	// The strings are written in the order of their ids.
+	@Override
+	public void writeState(DataOutputStream out) throws IOException {
+		String[] strings = new String[size()];
+		ObjectIterator<Object2IntMap.Entry<String>> iterator =
+				ids.object2IntEntrySet().iterator();
+		while (iterator.hasNext()) {
+			Object2IntMap.Entry<String> entry = iterator.next();
+			strings[entry.getIntValue()] = entry.getKey();
+		}
+
+		out.writeInt(strings.length);
+		out.writeInt(nullId);
+		for (String str: strings) {
+			StateIO.writeString(out, str);
+		}
+	}
+
+	@Override
+	public void readState(DataInputStream in) throws IOException {
+		ids.clear();
+		stringBytes = 0;
+		int size = in.readInt();
+		nullId = in.readInt();
+		for (int id = 0; id < size; id++) {
+			String str = StateIO.readString(in);
+			if (id != nullId) {
+				ids.put(str, id);
+				stringBytes += STRING_OVERHEAD + 2L * str.length();
+			}
+		}
+	}
+
+}
@@ -24,48 +24,78 @@
 
 package org.wsdmcup17.wdvd.extraction.features.item;
 
-import java.util.HashMap;
-
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureIntegerValue;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.wsdmcup17.wdvd.extraction.features.Feature;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.IntegerFeature;
+import org.wsdmcup17.wdvd.extraction.features.StateKey;
+import org.wsdmcup17.wdvd.extraction.features.StatefulFeature;
+import org.wsdmcup17.wdvd.extraction.features.history.DistinctCountHistory;
+import org.wsdmcup17.wdvd.extraction.features.history.HeapFootprint;
+import org.wsdmcup17.wdvd.extraction.features.history.StringDictionary;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
-import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
-import it.unimi.dsi.fastutil.objects.ObjectSet;
+public class LogCumItemUniqueUsers extends IntegerFeature
+		implements StatefulFeature, HeapFootprint {
 
+	StringDictionary contributors = new StringDictionary();
 
-public class LogCumItemUniqueUsers extends FeatureImpl {
+	DistinctCountHistory contributorsPerItem;
 
-	Long2ObjectOpenHashMap<ObjectSet<String>> map =
-			new Long2ObjectOpenHashMap<>();
+	public LogCumItemUniqueUsers() {
+		this(DistinctCountHistory.EXACT);
+	}
 
-	// HashMap using string equality for deduplication
-	HashMap<String, String> strMap = new HashMap<>();
+	/**
+	 * @param exactnessThreshold number of distinct values per key counted
+	 *        exactly before they are estimated
+	 */
+	public LogCumItemUniqueUsers(int exactnessThreshold) {
+		contributorsPerItem = new DistinctCountHistory(exactnessThreshold);
+	}
 
 	@Override
-	public FeatureIntegerValue calculate(Revision revision) {
-		long key = revision.getItemId();
+	public void calculate(Revision revision, FeatureVector vector) {
+		int contributorId = contributors.getId(revision.getContributor());
 
-		if (!map.containsKey(key)) {
-			map.put(key, new ObjectOpenHashSet<>());
-		}
+		int result = contributorsPerItem.add(
+				revision.getItemId(), contributorId);
+		result = (int) Math.ceil((Math.log(result + 1) / Math.log(2)));
 
-		ObjectSet<String> users = map.get(key);
+		vector.setInteger(this, result);
+	}
 
-		String contributor = revision.getContributor();
-		if (!strMap.containsKey(contributor)) {
-			strMap.put(contributor, contributor);
-		}
-		contributor = strMap.get(contributor);
+	@Override
+	public Feature newInstance() {
+		Feature result =
+				new LogCumItemUniqueUsers(contributorsPerItem.getExactnessThreshold());
+		result.setOrdinal(getOrdinal());
+		return result;
+	}
 
-		users.add(contributor);
+	@Override
+	public StateKey getStateKey() {
+		return StateKey.ITEM;
+	}
 
+	@Override
+	public long getHeapSize() {
+		return contributors.getHeapSize() + contributorsPerItem.getHeapSize();
+	}
 
-		int result = users.size();
-		result = (int) Math.ceil((Math.log(result + 1) / Math.log(2)));
+	@Override
+	public void writeState(DataOutputStream out) throws IOException {
+		contributors.writeState(out);
+		contributorsPerItem.writeState(out);
+	}
 
-		return new FeatureIntegerValue(result);
+	@Override
+	public void readState(DataInputStream in) throws IOException {
+		contributors.readState(in);
+		contributorsPerItem.readState(in);
 	}
 
 }
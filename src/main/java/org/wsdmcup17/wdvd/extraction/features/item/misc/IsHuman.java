@@ -24,49 +24,28 @@
 
 package org.wsdmcup17.wdvd.extraction.features.item.misc;
 
-import java.util.List;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
-import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
-import org.wikidata.wdtk.datamodel.interfaces.Statement;
-import org.wikidata.wdtk.datamodel.interfaces.StatementGroup;
-import org.wikidata.wdtk.datamodel.interfaces.Value;
-import org.wsdmcup17.wdvd.extraction.features.FeatureBooleanValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
+import org.wsdmcup17.wdvd.extraction.features.BooleanFeature;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.ItemSummary;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class IsHuman extends FeatureImpl {
+public class IsHuman extends BooleanFeature {
 
 	static final Logger logger = LoggerFactory.getLogger(IsHuman.class);
 
 	@Override
-	public FeatureBooleanValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		boolean result = false;
 
-		ItemDocument itemDocument = revision.getItemDocument();
-
-		if (itemDocument != null) {
-			List<StatementGroup> statementGroups =
-					itemDocument.getStatementGroups();
-
-			for (StatementGroup statementGroup: statementGroups) {
-				String property = statementGroup.getProperty().getId();
+		ItemSummary itemSummary = revision.getItemSummary();
 
-				if (property.equals("P31")) {
-					for (Statement statement: statementGroup.getStatements()) {
-						Value value = statement.getValue();
-						if ((value instanceof ItemIdValue)
-								&& (((ItemIdValue) value).getId().equals("Q5"))) {
-							result = true;
-						}
-					}
-				}
-			}
+		if (itemSummary != null) {
+			result = itemSummary.isHuman();
 		}
 
-		return new FeatureBooleanValue(result);
+		vector.setBoolean(this, result);
 	}
 
 }
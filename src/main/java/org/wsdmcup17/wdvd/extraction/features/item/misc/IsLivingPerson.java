@@ -24,41 +24,28 @@
 
 package org.wsdmcup17.wdvd.extraction.features.item.misc;
 
-import java.util.List;
-
-import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
-import org.wikidata.wdtk.datamodel.interfaces.StatementGroup;
-import org.wsdmcup17.wdvd.extraction.features.FeatureBooleanValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
+import org.wsdmcup17.wdvd.extraction.features.BooleanFeature;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.ItemSummary;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class IsLivingPerson extends FeatureImpl {
+public class IsLivingPerson extends BooleanFeature {
 
 	@Override
-	public FeatureBooleanValue calculate(Revision revision) {
-		ItemDocument itemDocument = revision.getItemDocument();
+	public void calculate(Revision revision, FeatureVector vector) {
+		ItemSummary itemSummary = revision.getItemSummary();
 
 		boolean hasDateOfBirth = false;
 		boolean hasDateOfDeath = false;
 
-		if (itemDocument != null) {
-			List<StatementGroup> statementGroups =
-					itemDocument.getStatementGroups();
-
-			for (StatementGroup statementGroup: statementGroups) {
-				String property = statementGroup.getProperty().getId();
-				if (property.equals("P569")) {
-					hasDateOfBirth = true;
-				}
-				if (property.equals("P570")) {
-					hasDateOfDeath = true;
-				}
-			}
+		if (itemSummary != null) {
+			hasDateOfBirth = itemSummary.hasDateOfBirth();
+			hasDateOfDeath = itemSummary.hasDateOfDeath();
 		}
 
 		boolean result = hasDateOfBirth && !hasDateOfDeath;
 
-		return new FeatureBooleanValue(result);
+		vector.setBoolean(this, result);
 	}
 
 }
@@ -24,34 +24,23 @@
 
 package org.wsdmcup17.wdvd.extraction.features.item.misc;
 
-import java.util.List;
-import java.util.Map;
-
-import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
-import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureIntegerValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.IntegerFeature;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.ItemSummary;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class NumberOfAliases extends FeatureImpl {
+public class NumberOfAliases extends IntegerFeature {
 
 	@Override
-	public FeatureIntegerValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		int result = 0;
-		ItemDocument itemDocument = revision.getItemDocument();
-
-		if (itemDocument != null) {
-			Map<String, List<MonolingualTextValue>> aliases =
-					itemDocument.getAliases();
+		ItemSummary itemSummary = revision.getItemSummary();
 
-			if (aliases != null) {
-				for (Map.Entry<String, List<MonolingualTextValue>> entry : aliases.entrySet()) {
-					result += entry.getValue().size();
-				}
-			}
+		if (itemSummary != null) {
+			result = itemSummary.getNumberOfAliases();
 		}
 
-		return new FeatureIntegerValue(result);
+		vector.setInteger(this, result);
 	}
 
 }
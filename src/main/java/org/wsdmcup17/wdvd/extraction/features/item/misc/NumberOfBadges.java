@@ -24,32 +24,23 @@
 
 package org.wsdmcup17.wdvd.extraction.features.item.misc;
 
-import java.util.Map;
-
-import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
-import org.wikidata.wdtk.datamodel.interfaces.SiteLink;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureIntegerValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.IntegerFeature;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.ItemSummary;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class NumberOfBadges extends FeatureImpl {
+public class NumberOfBadges extends IntegerFeature {
 
 	@Override
-	public FeatureIntegerValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		int result = 0;
-		ItemDocument itemDocument = revision.getItemDocument();
-
-		if (itemDocument != null) {
-			Map<String, SiteLink> sitelinks = itemDocument.getSiteLinks();
-
-			for (Map.Entry<String, SiteLink> entry: sitelinks.entrySet()) {
-				SiteLink siteLink = entry.getValue();
+		ItemSummary itemSummary = revision.getItemSummary();
 
-				result += siteLink.getBadges().size();
-			}
+		if (itemSummary != null) {
+			result = itemSummary.getNumberOfBadges();
 		}
 
-		return new FeatureIntegerValue(result);
+		vector.setInteger(this, result);
 	}
 
 }
@@ -24,31 +24,23 @@
 
 package org.wsdmcup17.wdvd.extraction.features.item.misc;
 
-import java.util.Map;
-
-import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
-import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureIntegerValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.IntegerFeature;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.ItemSummary;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class NumberOfDescriptions extends FeatureImpl {
+public class NumberOfDescriptions extends IntegerFeature {
 
 	@Override
-	public FeatureIntegerValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		int result = 0;
-		ItemDocument itemDocument = revision.getItemDocument();
-
-		if (itemDocument != null) {
-			Map<String, MonolingualTextValue> descriptions =
-					itemDocument.getDescriptions();
+		ItemSummary itemSummary = revision.getItemSummary();
 
-			if (descriptions != null) {
-				result = descriptions.size();
-			}
+		if (itemSummary != null) {
+			result = itemSummary.getNumberOfDescriptions();
 		}
 
-		return new FeatureIntegerValue(result);
+		vector.setInteger(this, result);
 	}
 
 }
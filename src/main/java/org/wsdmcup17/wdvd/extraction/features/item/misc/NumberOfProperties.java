@@ -24,28 +24,23 @@
 
 package org.wsdmcup17.wdvd.extraction.features.item.misc;
 
-import java.util.List;
-
-import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
-import org.wikidata.wdtk.datamodel.interfaces.StatementGroup;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureIntegerValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.IntegerFeature;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.ItemSummary;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class NumberOfProperties extends FeatureImpl {
+public class NumberOfProperties extends IntegerFeature {
 
 	@Override
-	public FeatureIntegerValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		int result = 0;
-		ItemDocument itemDocument = revision.getItemDocument();
-
-		if (itemDocument != null) {
-			List<StatementGroup> groups = itemDocument.getStatementGroups();
+		ItemSummary itemSummary = revision.getItemSummary();
 
-			result = groups.size();
+		if (itemSummary != null) {
+			result = itemSummary.getNumberOfProperties();
 		}
 
-		return new FeatureIntegerValue(result);
+		vector.setInteger(this, result);
 	}
 
 }
@@ -24,37 +24,23 @@
 
 package org.wsdmcup17.wdvd.extraction.features.item.misc;
 
-import java.util.Iterator;
-
-import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
-import org.wikidata.wdtk.datamodel.interfaces.Snak;
-import org.wikidata.wdtk.datamodel.interfaces.Statement;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureIntegerValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.IntegerFeature;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.ItemSummary;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class NumberOfQualifiers extends FeatureImpl {
+public class NumberOfQualifiers extends IntegerFeature {
 
 	@Override
-	public FeatureIntegerValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		int result = 0;
-		ItemDocument itemDocument = revision.getItemDocument();
-
-		if (itemDocument != null) {
-			Iterator<Statement> statements = itemDocument.getAllStatements();
+		ItemSummary itemSummary = revision.getItemSummary();
 
-			while (statements.hasNext()) {
-				Statement statement = statements.next();
-				Iterator<Snak> qualifiers =
-						statement.getClaim().getAllQualifiers();
-				while (qualifiers.hasNext()) {
-					qualifiers.next();
-					result += 1;
-				}
-			}
+		if (itemSummary != null) {
+			result = itemSummary.getNumberOfQualifiers();
 		}
 
-		return new FeatureIntegerValue(result);
+		vector.setInteger(this, result);
 	}
 
 }
@@ -24,21 +24,21 @@
 
 package org.wsdmcup17.wdvd.extraction.features.meta;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureStringValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.StringFeature;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class CommentTail extends FeatureImpl {
+public class CommentTail extends StringFeature {
 
 	@Override
-	public FeatureStringValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		String result = revision.getParsedComment().getSuffixComment();
 
 		if (result != null) {
 			result = result.trim();
 		}
 
-		return new FeatureStringValue(result);
+		vector.setString(this, result);
 	}
 
 }
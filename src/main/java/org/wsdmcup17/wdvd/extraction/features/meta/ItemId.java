@@ -26,17 +26,17 @@ package org.wsdmcup17.wdvd.extraction.features.meta;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureIntegerValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.IntegerFeature;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class ItemId extends FeatureImpl {
+public class ItemId extends IntegerFeature {
 
 	static final Logger logger = LoggerFactory.getLogger(ItemId.class);
 
 	@Override
-	public FeatureIntegerValue calculate(Revision revision) {
-		return new FeatureIntegerValue(revision.getItemId());
+	public void calculate(Revision revision, FeatureVector vector) {
+		vector.setInteger(this, revision.getItemId());
 	}
 
 }
@@ -24,15 +24,15 @@
 
 package org.wsdmcup17.wdvd.extraction.features.meta;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureIntegerValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.IntegerFeature;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class RevisionSessionId extends FeatureImpl {
+public class RevisionSessionId extends IntegerFeature {
 
 	@Override
-	public FeatureIntegerValue calculate(Revision revision) {
-		return new FeatureIntegerValue((int) revision.getSessionId());
+	public void calculate(Revision revision, FeatureVector vector) {
+		vector.setInteger(this, (int) revision.getSessionId());
 	}
 
 }
@@ -24,15 +24,15 @@
 
 package org.wsdmcup17.wdvd.extraction.features.meta;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureStringValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.StringFeature;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class UserName extends FeatureImpl {
+public class UserName extends StringFeature {
 
 	@Override
-	public FeatureStringValue calculate(Revision revision) {
-		return new FeatureStringValue(revision.getContributor());
+	public void calculate(Revision revision, FeatureVector vector) {
+		vector.setString(this, revision.getContributor());
 	}
 
 }
@@ -24,21 +24,19 @@
 
 package org.wsdmcup17.wdvd.extraction.features.revision;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureIntegerValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.IntegerFeature;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class CommentLength extends FeatureImpl {
+public class CommentLength extends IntegerFeature {
 
 	@Override
-	public FeatureIntegerValue calculate(Revision revision) {
-		Integer result = null;
-
-		if (revision.getComment() != null) {
-			result = revision.getComment().length();
+	public void calculate(Revision revision, FeatureVector vector) {
+		if (revision.getComment() == null) {
+			vector.setMissing(this);
+		} else {
+			vector.setInteger(this, revision.getComment().length());
 		}
-
-		return new FeatureIntegerValue(result);
 	}
 
 }
@@ -27,11 +27,11 @@ package org.wsdmcup17.wdvd.extraction.features.revision;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureBooleanValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
+import org.wsdmcup17.wdvd.extraction.features.BooleanFeature;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class IsLatinLanguage extends FeatureImpl {
+public class IsLatinLanguage extends BooleanFeature {
 
 	private static final Pattern latinPattern;
 	private static final Pattern nonLatinPattern;
@@ -62,24 +62,21 @@ public class IsLatinLanguage extends FeatureImpl {
 
 
 	@Override
-	public FeatureBooleanValue calculate(Revision revision) {
-		Boolean result = null;
-
+	public void calculate(Revision revision, FeatureVector vector) {
 		String[] params = revision.getParsedComment().getParameters();
 
+		vector.setMissing(this);
 		if (params.length > 1) {
 			String param2 = params[1].trim();
 
 			if (latinMatcher.reset(param2).matches()) {
-				result = true;
+				vector.setBoolean(this, true);
 			}
 
 			if (nonLatinMatcher.reset(param2).matches()) {
-				result = false;
+				vector.setBoolean(this, false);
 			}
 		}
-		return new FeatureBooleanValue(result);
-
 	}
 
 }
@@ -24,30 +24,71 @@
 
 package org.wsdmcup17.wdvd.extraction.features.revision;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureIntegerValue;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import org.wsdmcup17.wdvd.extraction.features.Feature;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.IntegerFeature;
+import org.wsdmcup17.wdvd.extraction.features.StateKey;
+import org.wsdmcup17.wdvd.extraction.features.StatefulFeature;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
+import org.wsdmcup17.wdvd.extraction.state.OffHeapLongMap;
+
+public class PositionWithinSession extends IntegerFeature
+		implements StatefulFeature {
 
-import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+	// session id -> position of the last revision within the session
+	OffHeapLongMap map;
 
-public class PositionWithinSession extends FeatureImpl {
+	public PositionWithinSession() {
+		this(null);
+	}
 
-	Long2IntOpenHashMap map = new Long2IntOpenHashMap();
+	/**
+	 * @param stateDirectory directory of the memory-mapped state (null if
+	 *        the state is kept in direct buffers)
+	 */
+	public PositionWithinSession(File stateDirectory) {
+		map = new OffHeapLongMap(4, stateDirectory);
+	}
 
 	@Override
-	public FeatureIntegerValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		long key = revision.getSessionId();
 
-		if (!map.containsKey(key)) {
-			map.put(key, 0);
-		}
+		int slot = map.insert(key);
 
-		int position = map.get(key);
+		int position = map.getInt(slot, 0);
 		position++;
 
-		map.put(key, position);
+		map.putInt(slot, 0, position);
+
+		vector.setInteger(this, position);
+	}
+
+	@Override
+	public Feature newInstance() {
+		Feature result = new PositionWithinSession(map.getDirectory());
+		result.setOrdinal(getOrdinal());
+		return result;
+	}
+
+	@Override
+	public StateKey getStateKey() {
+		return StateKey.SESSION;
+	}
+
+	@Override
+	public void writeState(DataOutputStream out) throws IOException {
+		map.writeState(out);
+	}
 
-		return new FeatureIntegerValue(position);
+	@Override
+	public void readState(DataInputStream in) throws IOException {
+		map.readState(in);
 	}
 
 }
@@ -24,15 +24,15 @@
 
 package org.wsdmcup17.wdvd.extraction.features.revision;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureStringValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.StringFeature;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.ParsedComment;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class RevisionLanguage extends FeatureImpl {
+public class RevisionLanguage extends StringFeature {
 
 	@Override
-	public FeatureStringValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		ParsedComment comment = revision.getParsedComment();
 		String[] params = comment.getParameters();
 
@@ -42,7 +42,7 @@ public class RevisionLanguage extends FeatureImpl {
 
 		}
 
-		return new FeatureStringValue(result);
+		vector.setString(this, result);
 	}
 
 }
@@ -24,40 +24,97 @@
 
 package org.wsdmcup17.wdvd.extraction.features.revision;
 
-import java.util.HashMap;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureStringValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.StateKey;
+import org.wsdmcup17.wdvd.extraction.features.StatefulFeature;
+import org.wsdmcup17.wdvd.extraction.features.StringFeature;
+import org.wsdmcup17.wdvd.extraction.revision.implementation.ActionTable;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.ParsedComment;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
+import org.wsdmcup17.wdvd.extraction.state.StateIO;
 
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
 
-public class RevisionPrevAction extends FeatureImpl {
+public class RevisionPrevAction extends StringFeature
+		implements StatefulFeature {
 
-	// Fastutil does not utilize the equals method for
-	// reference-based types: http://fastutil.di.unimi.it/docs/overview-summary.html
-	Long2ObjectOpenHashMap<String> map = new Long2ObjectOpenHashMap<>();
+	// item id -> id of the previous action in the ActionTable
+	Long2IntOpenHashMap map = new Long2IntOpenHashMap();
 
-	// HashMap using string equality
-	HashMap<String, String> strMap = new HashMap<>();
+	// item id -> previous action if it is not predefined (OTHER_ACTION)
+	Long2ObjectOpenHashMap<String> otherActions =
+			new Long2ObjectOpenHashMap<>();
 
+	public RevisionPrevAction() {
+		map.defaultReturnValue(ActionTable.NO_ACTION);
+	}
 
 	@Override
-	public FeatureStringValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		long key = revision.getItemId();
 
-		String prevAction = map.get(key);
+		String prevAction = getAction(key, map.get(key));
+
+		ParsedComment comment = revision.getParsedComment();
+		int action = comment.getAction1Id();
+		map.put(key, action);
+		if (action == ActionTable.OTHER_ACTION) {
+			otherActions.put(key, comment.getAction1());
+		} else {
+			otherActions.remove(key);
+		}
 
-		String action = revision.getParsedComment().getAction1();
+		vector.setString(this, prevAction);
+	}
 
-		if (!strMap.containsKey(action)) {
-			strMap.put(action, action);
+	private String getAction(long key, int action) {
+		if (action == ActionTable.OTHER_ACTION) {
+			return otherActions.get(key);
 		}
-		action = strMap.get(action);
+		return ActionTable.getString(action);
+	}
 
-		map.put(key, action);
+	@Override
+	public StateKey getStateKey() {
+		return StateKey.ITEM;
+	}
 
-		return new FeatureStringValue(prevAction);
+	// The actions are stored as strings because actions which are not
+	// predefined have no ids of their own.
+	@Override
+	public void writeState(DataOutputStream out) throws IOException {
+		out.writeInt(map.size());
+		ObjectIterator<Long2IntMap.Entry> iterator =
+				map.long2IntEntrySet().iterator();
+		while (iterator.hasNext()) {
+			Long2IntMap.Entry entry = iterator.next();
+			long key = entry.getLongKey();
+			out.writeLong(key);
+			StateIO.writeString(out, getAction(key, entry.getIntValue()));
+		}
+	}
+
+	@Override
+	public void readState(DataInputStream in) throws IOException {
+		map.clear();
+		otherActions.clear();
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			long key = in.readLong();
+			String action = StateIO.readString(in);
+			int id = ActionTable.getId(action);
+			map.put(key, id);
+			if (id == ActionTable.OTHER_ACTION) {
+				otherActions.put(key, action);
+			}
+		}
 	}
 
 }
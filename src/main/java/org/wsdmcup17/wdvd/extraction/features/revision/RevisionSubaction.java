@@ -24,18 +24,18 @@
 
 package org.wsdmcup17.wdvd.extraction.features.revision;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureStringValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.StringFeature;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.ParsedComment;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class RevisionSubaction extends FeatureImpl {
+public class RevisionSubaction extends StringFeature {
 
 	@Override
-	public FeatureStringValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		ParsedComment comment = revision.getParsedComment();
 
-		return new FeatureStringValue(comment.getAction2());
+		vector.setString(this, comment.getAction2());
 	}
 
 }
@@ -26,75 +26,53 @@ package org.wsdmcup17.wdvd.extraction.features.revision.misc;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureStringValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.StringFeature;
+import org.wsdmcup17.wdvd.extraction.revision.implementation.ActionTable;
 import org.wsdmcup17.wdvd.extraction.revision.implementation.ContentTypeImpl;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.ContentTypeIndicator;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.ParsedComment;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class ContentType extends FeatureImpl {
+public class ContentType extends StringFeature {
 
 	static final Logger logger = LoggerFactory.getLogger(ContentType.class);
 
 	@Override
-	public FeatureStringValue calculate(Revision revision) {
-		String result = "" + getContentTypeFromString(
-				revision.getParsedComment().getAction1());
+	public void calculate(Revision revision, FeatureVector vector) {
+		String result = "" + getContentType(revision.getParsedComment());
 
-		return new FeatureStringValue(result);
+		vector.setString(this, result);
 	}
 
 	public static ContentTypeIndicator getContentTypeFromString(String action) {
-		ContentTypeIndicator result;
-
 		if (action == null) {
+			return ContentTypeImpl.MISC;
+		}
+
+		ContentTypeIndicator result =
+				ActionTable.getContentType(ActionTable.findId(action));
+		if (result == null) {
+			logger.debug("Unknown content type of: " + action);
+			result = ContentTypeImpl.MISC;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the content type of action1 of the comment (looked up by its id
+	 * in the {@link ActionTable}).
+	 */
+	public static ContentTypeIndicator getContentType(ParsedComment comment) {
+		int action = comment.getAction1Id();
+		if (action == ActionTable.NO_ACTION) {
+			return ContentTypeImpl.MISC;
+		}
+
+		ContentTypeIndicator result = ActionTable.getContentType(action);
+		if (result == null) {
+			logger.debug("Unknown content type of: " + comment.getAction1());
 			result = ContentTypeImpl.MISC;
-		} else {
-			switch (action) {
-			case "wbcreateclaim":
-			case "wbsetclaim":
-			case "wbremoveclaims":
-			case "wbsetclaimvalue":
-			case "wbsetreference":
-			case "wbremovereferences":
-			case "wbsetqualifier":
-			case "wbremovequalifiers":
-				result = ContentTypeImpl.STATEMENT;
-				break;
-			case "wbsetsitelink":
-			case "wbcreateredirect":
-			case "clientsitelink":
-			case "wblinktitles":
-				result = ContentTypeImpl.SITELINK;
-				break;
-			case "wbsetaliases":
-			case "wbsetdescription":
-			case "wbsetlabel":
-			case "wbsetlabeldescriptionaliases":
-				result = ContentTypeImpl.TEXT;
-				break;
-			case "wbeditentity":
-			case "wbsetentity":
-			case "special":
-			case "wbcreate":
-			case "wbmergeitems":
-			case "rollback":
-			case "undo":
-			case "restore":
-			case "pageCreation":
-			case "emptyComment":
-			case "setPageProtection":
-			case "changePageProtection":
-			case "removePageProtection":
-			case "unknownCommentType":
-			case "null":
-			case "":
-				result = ContentTypeImpl.MISC;
-				break;
-			default:
-				logger.debug("Unknown content type of: " + action);
-				result = ContentTypeImpl.MISC;
-			}
 		}
 		return result;
 	}
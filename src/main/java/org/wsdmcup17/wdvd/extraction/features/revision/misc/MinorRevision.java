@@ -24,17 +24,17 @@
 
 package org.wsdmcup17.wdvd.extraction.features.revision.misc;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureBooleanValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
+import org.wsdmcup17.wdvd.extraction.features.BooleanFeature;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class MinorRevision extends FeatureImpl {
+public class MinorRevision extends BooleanFeature {
 
 	@Override
-	public FeatureBooleanValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		boolean result = revision.isMinor();
 
-		return new FeatureBooleanValue(result);
+		vector.setBoolean(this, result);
 	}
 
 }
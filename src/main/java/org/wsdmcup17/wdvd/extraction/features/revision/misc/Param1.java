@@ -26,32 +26,30 @@ package org.wsdmcup17.wdvd.extraction.features.revision.misc;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureIntegerValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.IntegerFeature;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.ParsedComment;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class Param1 extends FeatureImpl {
+public class Param1 extends IntegerFeature {
 
 	static final Logger logger = LoggerFactory.getLogger(Param1.class);
 
 	@Override
-	public FeatureIntegerValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		ParsedComment comment = revision.getParsedComment();
 		String[] params = comment.getParameters();
 
-		Integer result = null;
+		vector.setMissing(this);
 		if (params.length >= 1) {
 			try {
-				result = Integer.parseInt(params[0]);
+				vector.setInteger(this, Integer.parseInt(params[0]));
 			} catch (NumberFormatException e) {
 				logger.debug("Revision " + revision.getRevisionId()
-					+ ": param1 is not numeric: " + result
+					+ ": param1 is not numeric: " + params[0]
 					+ " (comment: " + comment.getText() + ")", e);
 			}
 		}
-
-		return new FeatureIntegerValue(result);
 	}
 
 }
@@ -24,16 +24,16 @@
 
 package org.wsdmcup17.wdvd.extraction.features.revision.misc;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureStringValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.StringFeature;
 import org.wsdmcup17.wdvd.extraction.features.Utils;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.ParsedComment;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class Param3 extends FeatureImpl {
+public class Param3 extends StringFeature {
 
 	@Override
-	public FeatureStringValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		ParsedComment comment = revision.getParsedComment();
 		String[] params = comment.getParameters();
 
@@ -44,7 +44,7 @@ public class Param3 extends FeatureImpl {
 
 		result = Utils.simplifyParam(result);
 
-		return new FeatureStringValue(result);
+		vector.setString(this, result);
 	}
 
 }
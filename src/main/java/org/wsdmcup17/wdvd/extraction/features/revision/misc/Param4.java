@@ -24,15 +24,15 @@
 
 package org.wsdmcup17.wdvd.extraction.features.revision.misc;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureStringValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.StringFeature;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.ParsedComment;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class Param4 extends FeatureImpl {
+public class Param4 extends StringFeature {
 
 	@Override
-	public FeatureStringValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		ParsedComment comment = revision.getParsedComment();
 		String[] params = comment.getParameters();
 
@@ -41,7 +41,7 @@ public class Param4 extends FeatureImpl {
 			result = params[3];
 		}
 
-		return new FeatureStringValue(result);
+		vector.setString(this, result);
 	}
 
 }
@@ -24,21 +24,29 @@
 
 package org.wsdmcup17.wdvd.extraction.features.sentence;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 
 import org.apache.commons.lang3.StringUtils;
-import org.wsdmcup17.wdvd.extraction.features.FeatureFloatValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.FloatFeature;
+import org.wsdmcup17.wdvd.extraction.features.StateKey;
+import org.wsdmcup17.wdvd.extraction.features.StatefulFeature;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
+import org.wsdmcup17.wdvd.extraction.state.StateIO;
 
 
-public class CommentCommentSimilarity extends FeatureImpl {
+public class CommentCommentSimilarity extends FloatFeature
+		implements StatefulFeature {
 
 	Long2ObjectOpenHashMap<String> map = new Long2ObjectOpenHashMap<>();
 
 	@Override
-	public FeatureFloatValue calculate(Revision revision) {
-		Float result = null;
+	public void calculate(Revision revision, FeatureVector vector) {
+		vector.setMissing(this);
 
 		String curComment = revision.getParsedComment().getSuffixComment();
 
@@ -48,16 +56,29 @@ public class CommentCommentSimilarity extends FeatureImpl {
 			curComment = curComment.trim();
 			prevComment = prevComment.trim();
 
-			result = (float) StringUtils.getJaroWinklerDistance(
-						curComment, prevComment);
+			vector.setFloat(this, (float) StringUtils.getJaroWinklerDistance(
+						curComment, prevComment));
 
 		}
 
 		if (curComment != null) {
 			map.put(revision.getItemId(), curComment);
 		}
+	}
+
+	@Override
+	public StateKey getStateKey() {
+		return StateKey.ITEM;
+	}
 
-		return new FeatureFloatValue(result);
+	@Override
+	public void writeState(DataOutputStream out) throws IOException {
+		StateIO.writeStringMap(out, map);
+	}
+
+	@Override
+	public void readState(DataInputStream in) throws IOException {
+		StateIO.readStringMap(in, map);
 	}
 
 }
@@ -25,49 +25,43 @@
 package org.wsdmcup17.wdvd.extraction.features.sentence;
 
 import org.apache.commons.lang3.StringUtils;
-import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
-import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureFloatValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.FloatFeature;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.ItemSummary;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class CommentLabelSimilarity extends FeatureImpl {
+public class CommentLabelSimilarity extends FloatFeature {
 
-	private static String getEnglishLabel(ItemDocument itemDocument) {
+	private static String getEnglishLabel(ItemSummary itemSummary) {
 		String result = null;
 
-		if (itemDocument != null) {
-			MonolingualTextValue label = itemDocument.getLabels().get("en");
-			if (label != null) {
-				result = label.getText();
-			}
+		if (itemSummary != null) {
+			result = itemSummary.getEnglishLabel();
 		}
 
 		return result;
 	}
 
 	@Override
-	public FeatureFloatValue calculate(Revision revision) {
-		Float result = null;
+	public void calculate(Revision revision, FeatureVector vector) {
+		vector.setMissing(this);
 
 		String suffixComment = revision.getParsedComment().getSuffixComment();
 
 		if (suffixComment != null) {
 
-			ItemDocument itemDocument = revision.getItemDocument();
+			ItemSummary itemSummary = revision.getItemSummary();
 
-			String englishLabel = getEnglishLabel(itemDocument);
+			String englishLabel = getEnglishLabel(itemSummary);
 
 			if (englishLabel != null) {
 				suffixComment = suffixComment.trim();
 				englishLabel = englishLabel.trim();
 
-				result = (float) StringUtils.getJaroWinklerDistance(
-						englishLabel, suffixComment);
+				vector.setFloat(this, (float) StringUtils.getJaroWinklerDistance(
+						englishLabel, suffixComment));
 			}
 		}
-
-		return new FeatureFloatValue(result);
 	}
 
 }
@@ -24,54 +24,43 @@
 
 package org.wsdmcup17.wdvd.extraction.features.sentence;
 
-import java.util.Map;
-
 import org.apache.commons.lang3.StringUtils;
-import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
-import org.wikidata.wdtk.datamodel.interfaces.SiteLink;
-import org.wsdmcup17.wdvd.extraction.features.FeatureFloatValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.FloatFeature;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.ItemSummary;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class CommentSitelinkSimilarity extends FeatureImpl {
+public class CommentSitelinkSimilarity extends FloatFeature {
 
-	private static String getEnglishSitelink(ItemDocument itemDocument) {
+	private static String getEnglishSitelink(ItemSummary itemSummary) {
 		String result = null;
 
-		if (itemDocument != null) {
-			Map<String, SiteLink> map = itemDocument.getSiteLinks();
-
-			SiteLink sitelink = map.get("enwiki");
-
-			if (sitelink != null) {
-				result = sitelink.getPageTitle();
-			}
+		if (itemSummary != null) {
+			result = itemSummary.getEnglishSitelink();
 		}
 
 		return result;
 	}
 
 	@Override
-	public FeatureFloatValue calculate(Revision revision) {
-		Float result = null;
+	public void calculate(Revision revision, FeatureVector vector) {
+		vector.setMissing(this);
 
 		String suffixComment = revision.getParsedComment().getSuffixComment();
 
 		if (suffixComment != null) {
-			ItemDocument itemDocument = revision.getItemDocument();
+			ItemSummary itemSummary = revision.getItemSummary();
 
-			String englishSitelink = getEnglishSitelink(itemDocument);
+			String englishSitelink = getEnglishSitelink(itemSummary);
 
 			if (englishSitelink != null) {
 				englishSitelink = englishSitelink.trim();
 				suffixComment = suffixComment.trim();
 
-				result = (float) StringUtils.getJaroWinklerDistance(
-						englishSitelink, suffixComment);
+				vector.setFloat(this, (float) StringUtils.getJaroWinklerDistance(
+						englishSitelink, suffixComment));
 			}
 		}
-
-		return new FeatureFloatValue(result);
 	}
 
 }
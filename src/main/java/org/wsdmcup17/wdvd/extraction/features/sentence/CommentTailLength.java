@@ -24,23 +24,21 @@
 
 package org.wsdmcup17.wdvd.extraction.features.sentence;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureIntegerValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.IntegerFeature;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.ParsedComment;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class CommentTailLength extends FeatureImpl {
+public class CommentTailLength extends IntegerFeature {
 
 	@Override
-	public FeatureIntegerValue calculate(Revision revision) {
-		Integer result = null;
+	public void calculate(Revision revision, FeatureVector vector) {
+		vector.setMissing(this);
 
 		ParsedComment comment = revision.getParsedComment();
 		if (comment.getSuffixComment() != null) {
-			result = comment.getSuffixComment().length();
+			vector.setInteger(this, comment.getSuffixComment().length());
 		}
-
-		return new FeatureIntegerValue(result);
 	}
 
 }
@@ -24,21 +24,21 @@
 
 package org.wsdmcup17.wdvd.extraction.features.statement;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureStringValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.StringFeature;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class Property extends FeatureImpl {
+public class Property extends StringFeature {
 
 	@Override
-	public FeatureStringValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		String result = null;
 
 		if (revision.getParsedComment() != null) {
 			result = revision.getParsedComment().getProperty();
 		}
 
-		return new FeatureStringValue(result);
+		vector.setString(this, result);
 	}
 
 }
@@ -35,11 +35,11 @@ import java.util.Map;
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureStringValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.StringFeature;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class DataType extends FeatureImpl {
+public class DataType extends StringFeature {
 
 	static final Logger logger = LoggerFactory.getLogger(DataType.class);
 
@@ -97,7 +97,7 @@ public class DataType extends FeatureImpl {
 
 
 	@Override
-	public FeatureStringValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		String result = null;
 
 		if (revision.getParsedComment() != null) {
@@ -106,7 +106,7 @@ public class DataType extends FeatureImpl {
 			result = datatypes.get(property);
 		}
 
-		return new FeatureStringValue(result);
+		vector.setString(this, result);
 	}
 
 }
@@ -24,46 +24,77 @@
 
 package org.wsdmcup17.wdvd.extraction.features.user;
 
-import java.util.HashMap;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureIntegerValue;
+import org.wsdmcup17.wdvd.extraction.features.Feature;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.IntegerFeature;
+import org.wsdmcup17.wdvd.extraction.features.StateKey;
+import org.wsdmcup17.wdvd.extraction.features.StatefulFeature;
+import org.wsdmcup17.wdvd.extraction.features.history.DistinctCountHistory;
+import org.wsdmcup17.wdvd.extraction.features.history.HeapFootprint;
+import org.wsdmcup17.wdvd.extraction.features.history.StringDictionary;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
-import it.unimi.dsi.fastutil.longs.LongSet;
-import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+public class CumUserUniqueItems extends IntegerFeature
+		implements StatefulFeature, HeapFootprint {
 
-public class CumUserUniqueItems extends FeatureImpl {
+	StringDictionary contributors = new StringDictionary();
 
-	// Fastutil does not utilize the equals method for
-	// reference-based types: http://fastutil.di.unimi.it/docs/overview-summary.html
-	Object2ObjectOpenHashMap<String, LongSet> map =
-			new Object2ObjectOpenHashMap<>();
+	DistinctCountHistory itemsPerContributor;
 
-	// HashMap using string equality
-	HashMap<String, String> strMap = new HashMap<>();
+	public CumUserUniqueItems() {
+		this(DistinctCountHistory.EXACT);
+	}
+
+	/**
+	 * @param exactnessThreshold number of distinct values per key counted
+	 *        exactly before they are estimated
+	 */
+	public CumUserUniqueItems(int exactnessThreshold) {
+		itemsPerContributor = new DistinctCountHistory(exactnessThreshold);
+	}
 
 	@Override
-	public FeatureIntegerValue calculate(Revision revision) {
-		// Make sure that same strings have the same reference
-		String key = revision.getContributor();
-		if (!strMap.containsKey(key)) {
-			strMap.put(key, key);
-		}
-		key = strMap.get(key);
+	public void calculate(Revision revision, FeatureVector vector) {
+		int contributorId = contributors.getId(revision.getContributor());
 
-		if (!map.containsKey(key)) {
-			map.put(key, new LongOpenHashSet());
-		}
+		int result = itemsPerContributor.add(
+				contributorId, revision.getItemId());
 
-		LongSet itemIds = map.get(key);
+		vector.setInteger(this, result);
+	}
 
-		itemIds.add(revision.getItemId());
+	@Override
+	public Feature newInstance() {
+		Feature result =
+				new CumUserUniqueItems(itemsPerContributor.getExactnessThreshold());
+		result.setOrdinal(getOrdinal());
+		return result;
+	}
 
-		int result = itemIds.size();
+	@Override
+	public StateKey getStateKey() {
+		return StateKey.CONTRIBUTOR;
+	}
 
-		return new FeatureIntegerValue(result);
+	@Override
+	public long getHeapSize() {
+		return contributors.getHeapSize() + itemsPerContributor.getHeapSize();
+	}
+
+	@Override
+	public void writeState(DataOutputStream out) throws IOException {
+		contributors.writeState(out);
+		itemsPerContributor.writeState(out);
+	}
+
+	@Override
+	public void readState(DataInputStream in) throws IOException {
+		contributors.readState(in);
+		itemsPerContributor.readState(in);
 	}
 
 }
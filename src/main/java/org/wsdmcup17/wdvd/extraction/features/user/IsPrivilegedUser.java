@@ -24,8 +24,8 @@
 
 package org.wsdmcup17.wdvd.extraction.features.user;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureBooleanValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
+import org.wsdmcup17.wdvd.extraction.features.BooleanFeature;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
 import org.wsdmcup17.wdvd.extraction.features.user.misc.IsAdminUser;
 import org.wsdmcup17.wdvd.extraction.features.user.misc.IsGlobalRollbackerUser;
 import org.wsdmcup17.wdvd.extraction.features.user.misc.IsGlobalStewardUser;
@@ -37,18 +37,19 @@ import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
  * All users that can perform a rollback on Wikidata.
  *
  */
-public class IsPrivilegedUser extends FeatureImpl {
+public class IsPrivilegedUser extends BooleanFeature {
 
 	@Override
-	public FeatureBooleanValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		String contributor = revision.getContributor();
 		if (contributor == null) {
-			return new FeatureBooleanValue(null);
+			vector.setMissing(this);
+			return;
 		}
 
 		boolean result = isPrivilegedUser(contributor);
 
-		return new FeatureBooleanValue(result);
+		vector.setBoolean(this, result);
 	}
 
 
@@ -24,15 +24,15 @@
 
 package org.wsdmcup17.wdvd.extraction.features.user;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureBooleanValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
+import org.wsdmcup17.wdvd.extraction.features.BooleanFeature;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class IsRegisteredUser extends FeatureImpl {
+public class IsRegisteredUser extends BooleanFeature {
 
 	@Override
-	public FeatureBooleanValue calculate(Revision revision) {
-		return new FeatureBooleanValue(revision.hasRegisteredContributor());
+	public void calculate(Revision revision, FeatureVector vector) {
+		vector.setBoolean(this, revision.hasRegisteredContributor());
 	}
 
 }
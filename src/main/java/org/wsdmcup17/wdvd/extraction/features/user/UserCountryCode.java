@@ -24,22 +24,22 @@
 
 package org.wsdmcup17.wdvd.extraction.features.user;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureStringValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.StringFeature;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.GeoInformation;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class UserCountryCode extends FeatureImpl {
+public class UserCountryCode extends StringFeature {
 
 	@Override
-	public FeatureStringValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		String result = null;
 		GeoInformation geoInformation = revision.getGeoInformation();
 		if (geoInformation != null) {
 			result = geoInformation.getCountryCode();
 		}
 
-		return new FeatureStringValue(result);
+		vector.setString(this, result);
 	}
 
 }
@@ -24,26 +24,27 @@
 
 package org.wsdmcup17.wdvd.extraction.features.user.misc;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureBooleanValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
+import org.wsdmcup17.wdvd.extraction.features.BooleanFeature;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
 /**
  * All users that can perform a rollback on Wikidata.
  *
  */
-public class IsAdvancedUser extends FeatureImpl {
+public class IsAdvancedUser extends BooleanFeature {
 
 	@Override
-	public FeatureBooleanValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		String contributor = revision.getContributor();
 		if (contributor == null) {
-			return new FeatureBooleanValue(null);
+			vector.setMissing(this);
+			return;
 		}
 
 		boolean result = isAdvancedUser(contributor);
 
-		return new FeatureBooleanValue(result);
+		vector.setBoolean(this, result);
 	}
 
 
@@ -26,24 +26,25 @@ package org.wsdmcup17.wdvd.extraction.features.user.misc;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.wsdmcup17.wdvd.extraction.features.FeatureBooleanValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
+import org.wsdmcup17.wdvd.extraction.features.BooleanFeature;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class IsBotUser extends FeatureImpl {
+public class IsBotUser extends BooleanFeature {
 
 	static final Logger logger = LoggerFactory.getLogger(IsBotUser.class);
 
 	@Override
-	public FeatureBooleanValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		String contributor = revision.getContributor();
 		if (contributor == null) {
-			return new FeatureBooleanValue(null);
+			vector.setMissing(this);
+			return;
 		}
 
 		boolean result = isBot(revision.getContributor());
 
-		return new FeatureBooleanValue(result);
+		vector.setBoolean(this, result);
 	}
 
 	public static boolean isBot(String contributor) {
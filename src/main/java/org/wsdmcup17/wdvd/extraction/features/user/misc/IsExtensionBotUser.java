@@ -33,11 +33,11 @@ import java.util.List;
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.wsdmcup17.wdvd.extraction.features.FeatureBooleanValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
+import org.wsdmcup17.wdvd.extraction.features.BooleanFeature;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class IsExtensionBotUser extends FeatureImpl {
+public class IsExtensionBotUser extends BooleanFeature {
 
 	static final Logger logger =
 			LoggerFactory.getLogger(IsExtensionBotUser.class);
@@ -65,9 +65,13 @@ public class IsExtensionBotUser extends FeatureImpl {
 	}
 
 	@Override
-	public FeatureBooleanValue calculate(Revision revision) {
-		return new FeatureBooleanValue(
-				userSet.strContains(revision.getContributor()));
+	public void calculate(Revision revision, FeatureVector vector) {
+		String contributor = revision.getContributor();
+		if (contributor == null) {
+			vector.setMissing(this);
+		} else {
+			vector.setBoolean(this, userSet.contains(contributor));
+		}
 	}
 
 	public static boolean isExtensionBot(String contributor) {
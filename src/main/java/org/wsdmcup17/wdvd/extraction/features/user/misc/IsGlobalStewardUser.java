@@ -26,11 +26,11 @@ package org.wsdmcup17.wdvd.extraction.features.user.misc;
 
 import java.util.Arrays;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureBooleanValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
+import org.wsdmcup17.wdvd.extraction.features.BooleanFeature;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class IsGlobalStewardUser extends FeatureImpl {
+public class IsGlobalStewardUser extends BooleanFeature {
 
 	static final UserSet userSet;
 	static {
@@ -50,9 +50,13 @@ public class IsGlobalStewardUser extends FeatureImpl {
 	}
 
 	@Override
-	public FeatureBooleanValue calculate(Revision revision) {
-		return new FeatureBooleanValue(
-				userSet.strContains(revision.getContributor()));
+	public void calculate(Revision revision, FeatureVector vector) {
+		String contributor = revision.getContributor();
+		if (contributor == null) {
+			vector.setMissing(this);
+		} else {
+			vector.setBoolean(this, userSet.contains(contributor));
+		}
 	}
 
 	public static boolean isGlobalSteward(String contributor) {
@@ -33,11 +33,11 @@ import java.util.List;
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.wsdmcup17.wdvd.extraction.features.FeatureBooleanValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
+import org.wsdmcup17.wdvd.extraction.features.BooleanFeature;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class IsLocalBureaucrat extends FeatureImpl {
+public class IsLocalBureaucrat extends BooleanFeature {
 
 	static final Logger logger =
 			LoggerFactory.getLogger(IsLocalBureaucrat.class);
@@ -66,12 +66,12 @@ public class IsLocalBureaucrat extends FeatureImpl {
 	}
 
 	@Override
-	public FeatureBooleanValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		String contributor = revision.getContributor();
 
 		boolean result = isLocalBureaucrat(contributor);
 
-		return new FeatureBooleanValue(result);
+		vector.setBoolean(this, result);
 	}
 
 	public static boolean isLocalBureaucrat(String contributor) {
@@ -24,24 +24,38 @@
 
 package org.wsdmcup17.wdvd.extraction.features.user.misc;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureIntegerValue;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.IntegerFeature;
+import org.wsdmcup17.wdvd.extraction.features.StateKey;
+import org.wsdmcup17.wdvd.extraction.features.StatefulFeature;
+import org.wsdmcup17.wdvd.extraction.revision.implementation.TimestampParser;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
+import org.wsdmcup17.wdvd.extraction.state.StateIO;
 
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
 import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
 
-public class UserSecondsSinceFirstRevision extends FeatureImpl {
+public class UserSecondsSinceFirstRevision extends IntegerFeature
+		implements StatefulFeature {
 
 	Object2LongOpenHashMap<String> map = new Object2LongOpenHashMap<>();
 
 	@Override
-	public FeatureIntegerValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		String key = revision.getContributor();
 
 		int result;
 
 		// milliseconds since 1970
-		long time = revision.getDate().getTime();
+		long time = revision.getEpochMillis();
+		if (time == TimestampParser.INVALID_TIMESTAMP) {
+			vector.setMissing(this);
+			return;
+		}
 
 		if (!map.containsKey(key)) {
 			map.put(key, time);
@@ -50,7 +64,31 @@ public class UserSecondsSinceFirstRevision extends FeatureImpl {
 		// time difference in seconds
 		result = (int) ((time - map.get(key)) / 1000.0d);
 
-		return new FeatureIntegerValue(result);
+		vector.setInteger(this, result);
+	}
+
+	@Override
+	public StateKey getStateKey() {
+		return StateKey.CONTRIBUTOR;
+	}
+
+	@Override
+	public void writeState(DataOutputStream out) throws IOException {
+		out.writeInt(map.size());
+		for (Object2LongMap.Entry<String> entry: map.object2LongEntrySet()) {
+			StateIO.writeString(out, entry.getKey());
+			out.writeLong(entry.getLongValue());
+		}
+	}
+
+	@Override
+	public void readState(DataInputStream in) throws IOException {
+		map.clear();
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			String key = StateIO.readString(in);
+			map.put(key, in.readLong());
+		}
 	}
 
 }
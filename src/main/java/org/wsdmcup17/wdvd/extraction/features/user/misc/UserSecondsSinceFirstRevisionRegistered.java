@@ -24,20 +24,42 @@
 
 package org.wsdmcup17.wdvd.extraction.features.user.misc;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureIntegerValue;
-import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
 
-import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import org.wsdmcup17.wdvd.extraction.features.Feature;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.IntegerFeature;
+import org.wsdmcup17.wdvd.extraction.features.StateKey;
+import org.wsdmcup17.wdvd.extraction.features.StatefulFeature;
+import org.wsdmcup17.wdvd.extraction.revision.implementation.TimestampParser;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
+import org.wsdmcup17.wdvd.extraction.state.OffHeapLongMap;
 
 // compare: revscoring/features/temporal/revision_oriented.py/_process_seconds_since_registration
 
-public class UserSecondsSinceFirstRevisionRegistered extends FeatureImpl {
+public class UserSecondsSinceFirstRevisionRegistered extends IntegerFeature
+		implements StatefulFeature {
+
+	// contributor id -> time of the first revision
+	OffHeapLongMap map;
+
+	public UserSecondsSinceFirstRevisionRegistered() {
+		this(null);
+	}
 
-	Long2LongOpenHashMap map = new Long2LongOpenHashMap();
+	/**
+	 * @param stateDirectory directory of the memory-mapped state (null if
+	 *        the state is kept in direct buffers)
+	 */
+	public UserSecondsSinceFirstRevisionRegistered(File stateDirectory) {
+		map = new OffHeapLongMap(8, stateDirectory);
+	}
 
 	@Override
-	public FeatureIntegerValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		long key = revision.getContributorId();
 
 		int result;
@@ -47,17 +69,46 @@ public class UserSecondsSinceFirstRevisionRegistered extends FeatureImpl {
 			result = 0;
 		} else {
 			// milliseconds since 1970
-			long time = revision.getDate().getTime();
+			long time = revision.getEpochMillis();
+			if (time == TimestampParser.INVALID_TIMESTAMP) {
+				vector.setMissing(this);
+				return;
+			}
 
-			if (!map.containsKey(key)) {
-				map.put(key, time);
+			int slot = map.find(key);
+			if (slot < 0) {
+				slot = map.insert(key);
+				map.putLong(slot, 0, time);
 			}
 
 			// time difference in seconds
-			result = (int) ((time - map.get(key)) / 1000.0d);
+			result = (int) ((time - map.getLong(slot, 0)) / 1000.0d);
 		}
 
-		return new FeatureIntegerValue(result);
+		vector.setInteger(this, result);
+	}
+
+	@Override
+	public Feature newInstance() {
+		Feature result =
+				new UserSecondsSinceFirstRevisionRegistered(map.getDirectory());
+		result.setOrdinal(getOrdinal());
+		return result;
+	}
+
+	@Override
+	public StateKey getStateKey() {
+		return StateKey.CONTRIBUTOR_ID;
+	}
+
+	@Override
+	public void writeState(DataOutputStream out) throws IOException {
+		map.writeState(out);
+	}
+
+	@Override
+	public void readState(DataInputStream in) throws IOException {
+		map.readState(in);
 	}
 
 }
@@ -24,18 +24,17 @@
 
 package org.wsdmcup17.wdvd.extraction.features.word;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
-import java.util.regex.Pattern;
+import java.util.HashSet;
+import java.util.Set;
 
-import org.apache.commons.lang3.StringUtils;
-import org.wsdmcup17.wdvd.extraction.features.FeatureFloatValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.FloatFeature;
 import org.wsdmcup17.wdvd.extraction.features.Utils;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.WordTokens;
 
-public class BadWordRatio extends FeatureImpl {
+public class BadWordRatio extends FloatFeature {
 
 	// http://www.cs.cmu.edu/~biglou/resources/
 	// Last updated: December 13, 2014
@@ -285,28 +284,21 @@ public class BadWordRatio extends FeatureImpl {
 			"zipperhead"
 	};
 
-	private static final Pattern pattern;
-
-	static {
-		List<String> tokens =
-				new ArrayList<>(Arrays.asList(luisVonAhnWordlist));
-
-		String patternString = StringUtils.join(tokens, "|");
-		pattern = Pattern.compile(patternString);
-	}
+	// The words are literals, hence matching their alternation is equivalent
+	// to a lookup (words with a trailing space never match)
+	private static final Set<String> WORDS =
+			new HashSet<>(Arrays.asList(luisVonAhnWordlist));
 
 	@Override
-	public FeatureFloatValue calculate(Revision revision) {
-		Float result = null;
+	public void calculate(Revision revision, FeatureVector vector) {
+		vector.setMissing(this);
 
-		String suffixComment = revision.getParsedComment().getSuffixComment();
+		WordTokens tokens = revision.getWordTokens();
 
-		if (suffixComment != null) {
-			suffixComment = suffixComment.toLowerCase();
-			result = Utils.wordRatio(suffixComment, pattern);
+		if (!tokens.isMissing()) {
+			vector.setFloat(this,
+					Utils.wordRatio(tokens.getLowerCaseWords(), WORDS));
 		}
-
-		return new FeatureFloatValue(result);
 	}
 
 }
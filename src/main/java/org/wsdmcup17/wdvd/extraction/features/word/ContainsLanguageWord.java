@@ -27,11 +27,11 @@ package org.wsdmcup17.wdvd.extraction.features.word;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureBooleanValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
+import org.wsdmcup17.wdvd.extraction.features.BooleanFeature;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class ContainsLanguageWord extends FeatureImpl {
+public class ContainsLanguageWord extends BooleanFeature {
 
 	/**
 	 * Adding language as label/description/alias
@@ -49,7 +49,7 @@ public class ContainsLanguageWord extends FeatureImpl {
 	private final Matcher matcher = pattern.matcher("");
 
 	@Override
-	public FeatureBooleanValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		String text = revision.getParsedComment().getSuffixComment();
 
 		boolean result = false;
@@ -60,7 +60,7 @@ public class ContainsLanguageWord extends FeatureImpl {
 			result = matcher.reset(text).matches();
 		}
 
-		return new FeatureBooleanValue(result);
+		vector.setBoolean(this, result);
 	}
 
 }
@@ -27,11 +27,11 @@ package org.wsdmcup17.wdvd.extraction.features.word;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureBooleanValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
+import org.wsdmcup17.wdvd.extraction.features.BooleanFeature;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class ContainsURL extends FeatureImpl {
+public class ContainsURL extends BooleanFeature {
 	private static final Pattern pattern;
 
 	static {
@@ -45,7 +45,7 @@ public class ContainsURL extends FeatureImpl {
 	private final Matcher matcher = pattern.matcher("");
 
 	@Override
-	public FeatureBooleanValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		String text = revision.getParsedComment().getSuffixComment();
 
 		boolean result = false;
@@ -54,7 +54,7 @@ public class ContainsURL extends FeatureImpl {
 
 			result = matcher.reset(text).matches();
 		}
-		return new FeatureBooleanValue(result);
+		vector.setBoolean(this, result);
 	}
 
 }
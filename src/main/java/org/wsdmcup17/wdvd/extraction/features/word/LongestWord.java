@@ -24,45 +24,22 @@
 
 package org.wsdmcup17.wdvd.extraction.features.word;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
-import org.wsdmcup17.wdvd.extraction.features.FeatureIntegerValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.IntegerFeature;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.CharacterStatistics;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
-public class LongestWord extends FeatureImpl {
-
-	private static final Pattern pattern;
-
-	static {
-		pattern = Pattern.compile("\\p{IsAlphabetic}+", Pattern.CASE_INSENSITIVE
-				| Pattern.UNICODE_CASE | Pattern.DOTALL | Pattern.CANON_EQ);
-	}
-
-	private final Matcher matcher = pattern.matcher("");
+public class LongestWord extends IntegerFeature {
 
 	@Override
-	public FeatureIntegerValue calculate(Revision revision) {
-		String text = revision.getParsedComment().getSuffixComment();
+	public void calculate(Revision revision, FeatureVector vector) {
+		CharacterStatistics statistics = revision.getCharacterStatistics();
 
-		Integer max = null;
-		if (text != null) {
-			max = 0;
-			text = text.trim();
-
-			matcher.reset(text);
-
-			while (matcher.find()) {
-				int length = matcher.end() - matcher.start();
-
-				if (length > max) {
-					max = length;
-				}
-			}
+		if (statistics.isMissing()) {
+			vector.setMissing(this);
+		} else {
+			vector.setInteger(this, statistics.getLongestWord());
 		}
-		return new FeatureIntegerValue(max);
-
 	}
 
 }
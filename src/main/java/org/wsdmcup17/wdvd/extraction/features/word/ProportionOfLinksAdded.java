@@ -26,13 +26,15 @@ package org.wsdmcup17.wdvd.extraction.features.word;
 
 import java.util.regex.Pattern;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureFloatValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.FloatFeature;
+import org.wsdmcup17.wdvd.extraction.features.PrevTextRegexFeature;
 import org.wsdmcup17.wdvd.extraction.features.Utils;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.TextRegex;
 
-public class ProportionOfLinksAdded extends FeatureImpl {
+public class ProportionOfLinksAdded extends FloatFeature
+		implements PrevTextRegexFeature {
 
 	// Taken from ORES' implementation. However, regular expression was fixed:
 	// Original expression in Python: r'https?\://|wwww\.' (escaped colon, four w)
@@ -40,7 +42,7 @@ public class ProportionOfLinksAdded extends FeatureImpl {
 	public static final Pattern pattern = Pattern.compile("https?:\\/\\/|www\\.");
 
 	@Override
-	public FeatureFloatValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		double oldCount = 0.0;
 		TextRegex prevTextRegex = revision.getPrevTextRegex();
 		if (prevTextRegex != null) {
@@ -51,7 +53,7 @@ public class ProportionOfLinksAdded extends FeatureImpl {
 
 		float result = Utils.proportion(oldCount, newCount);
 
-		return new FeatureFloatValue(result);
+		vector.setFloat(this, result);
 	}
 
 }
@@ -26,18 +26,20 @@ package org.wsdmcup17.wdvd.extraction.features.word;
 
 import java.util.regex.Pattern;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureFloatValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.FloatFeature;
+import org.wsdmcup17.wdvd.extraction.features.PrevTextRegexFeature;
 import org.wsdmcup17.wdvd.extraction.features.Utils;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.TextRegex;
 
-public class ProportionOfQidAdded extends FeatureImpl {
+public class ProportionOfQidAdded extends FloatFeature
+		implements PrevTextRegexFeature {
 
 	public static final Pattern pattern = Pattern.compile("Q\\d{1,8}");
 
 	@Override
-	public FeatureFloatValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		double oldCount = 0.0;
 		TextRegex prevTextRegex = revision.getPrevTextRegex();
 		if (prevTextRegex != null) {
@@ -48,7 +50,7 @@ public class ProportionOfQidAdded extends FeatureImpl {
 
 		float result = Utils.proportion(oldCount, newCount);
 
-		return new FeatureFloatValue(result);
+		vector.setFloat(this, result);
 	}
 
 }
@@ -26,12 +26,13 @@ package org.wsdmcup17.wdvd.extraction.features.word;
 
 import java.util.regex.Pattern;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureFloatValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.FloatFeature;
 import org.wsdmcup17.wdvd.extraction.features.Utils;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.WordTokens;
 
-public class UpperCaseWordRatio extends FeatureImpl {
+public class UpperCaseWordRatio extends FloatFeature {
 	private static final Pattern pattern;
 
 	static {
@@ -39,16 +40,14 @@ public class UpperCaseWordRatio extends FeatureImpl {
 	}
 
 	@Override
-	public FeatureFloatValue calculate(Revision revision) {
-		Float result = null;
+	public void calculate(Revision revision, FeatureVector vector) {
+		vector.setMissing(this);
 
-		String suffixComment = revision.getParsedComment().getSuffixComment();
+		WordTokens tokens = revision.getWordTokens();
 
-		if (suffixComment != null) {
-			result = Utils.wordRatio(suffixComment, pattern);
+		if (!tokens.isMissing()) {
+			vector.setFloat(this, Utils.wordRatio(tokens.getWords(), pattern));
 		}
-
-		return new FeatureFloatValue(result);
 	}
 
 }
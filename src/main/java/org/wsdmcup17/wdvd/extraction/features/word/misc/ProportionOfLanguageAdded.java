@@ -26,13 +26,15 @@ package org.wsdmcup17.wdvd.extraction.features.word.misc;
 
 import java.util.regex.Pattern;
 
-import org.wsdmcup17.wdvd.extraction.features.FeatureFloatValue;
-import org.wsdmcup17.wdvd.extraction.features.FeatureImpl;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.FloatFeature;
+import org.wsdmcup17.wdvd.extraction.features.PrevTextRegexFeature;
 import org.wsdmcup17.wdvd.extraction.features.Utils;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.TextRegex;
 
-public class ProportionOfLanguageAdded extends FeatureImpl {
+public class ProportionOfLanguageAdded extends FloatFeature
+		implements PrevTextRegexFeature {
 	// taken from ORES baseline
 	private static final String REGEX =
 			  "(a(frikaa?ns|lbanian?|lemanha|ng(lais|ol)|ra?b(e?|"
@@ -76,7 +78,7 @@ public class ProportionOfLanguageAdded extends FeatureImpl {
 	public static final Pattern pattern = Pattern.compile(REGEX);
 
 	@Override
-	public FeatureFloatValue calculate(Revision revision) {
+	public void calculate(Revision revision, FeatureVector vector) {
 		double oldCount = 0.0;
 		TextRegex prevTextRegex = revision.getPrevTextRegex();
 		if (prevTextRegex != null) {
@@ -87,7 +89,7 @@ public class ProportionOfLanguageAdded extends FeatureImpl {
 
 		float result = Utils.proportion(oldCount, newCount);
 
-		return new FeatureFloatValue(result);
+		vector.setFloat(this, result);
 	}
 
 }
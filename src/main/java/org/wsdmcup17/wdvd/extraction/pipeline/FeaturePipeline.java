@@ -25,62 +25,139 @@
 package org.wsdmcup17.wdvd.extraction.pipeline;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
 
 import org.apache.commons.csv.CSVPrinter;
 import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.wikidata.wdtk.dumpfiles.MwRevisionProcessor;
 import org.wsdmcup17.wdvd.extraction.FeatureListFactory;
 import org.wsdmcup17.wdvd.extraction.features.Feature;
+import org.wsdmcup17.wdvd.extraction.features.IncrementalPatternCounter;
+import org.wsdmcup17.wdvd.extraction.features.history.DistinctCountHistory;
 import org.wsdmcup17.wdvd.extraction.processors.RevisionProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.controlflow.CheckpointProcessor;
 import org.wsdmcup17.wdvd.extraction.processors.controlflow.ParallelProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.controlflow.RingBufferProcessor;
 import org.wsdmcup17.wdvd.extraction.processors.controlflow.StartFinishProcessor;
 import org.wsdmcup17.wdvd.extraction.processors.decorators.FeatureProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.decorators.JsonParsingMode;
 import org.wsdmcup17.wdvd.extraction.processors.decorators.JsonProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.decorators.JsonStatisticsReducer;
+import org.wsdmcup17.wdvd.extraction.processors.decorators.PartitionedFeatureProcessor;
 import org.wsdmcup17.wdvd.extraction.processors.decorators.PrevTextRegexProcessor;
 import org.wsdmcup17.wdvd.extraction.processors.decorators.TextRegexProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.output.ColumnarFeatureWriter;
 import org.wsdmcup17.wdvd.extraction.processors.output.CsvFeatureWriter;
+import org.wsdmcup17.wdvd.extraction.processors.output.OutputCodec;
 import org.wsdmcup17.wdvd.extraction.processors.preprocessing.ReceiveProcessor;
 import org.wsdmcup17.wdvd.extraction.processors.preprocessing.SendProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.statistics.MetricsRegistry;
 import org.wsdmcup17.wdvd.extraction.processors.statistics.StatisticsProcessor;
+import org.wsdmcup17.wdvd.extraction.state.CheckpointManager;
+import org.wsdmcup17.wdvd.extraction.state.Checkpointable;
 
 public class FeaturePipeline implements Pipeline {
-	static final int REGEX_THREADS = 12;
+	static final Logger logger = LoggerFactory.getLogger(FeaturePipeline.class);
+
+	static final int REGEX_THREADS = 2;
+	static final int JSON_THREADS = 8;
 	static final boolean LANGUAGE_REGEX_ENABLE = true;
 
 	StartFinishProcessor startFinishProcessor;
 
+	// null if checkpoints are disabled
+	CheckpointProcessor checkpointProcessor;
+	CheckpointManager checkpointManager;
+
 	ReceiveProcessor receiveProcessor;
 	SendProcessor sendProcessor;
 
-	public FeaturePipeline(File featureFile) {
-		List<Feature> features = FeatureListFactory.getFeatures();
+	private final JsonParsingMode jsonParsingMode;
 
-		sendProcessor = new SendProcessor();
+	// whether only the changed part of the text is matched against the text
+	// patterns
+	private final boolean incrementalRegex;
 
-		RevisionProcessor nextProcessor;
+	// 0 if the features are calculated serially
+	private final int featureThreads;
 
-		nextProcessor = sendProcessor;
+	// null if metrics are disabled
+	private final MetricsRegistry metricsRegistry;
 
-		nextProcessor = new CsvFeatureWriter(
-				nextProcessor, featureFile, features);
-		nextProcessor = new FeatureProcessor(nextProcessor, features);
+	private final OutputCodec outputCodec;
+	private final int compressionLevel;
 
-		nextProcessor = new PrevTextRegexProcessor(nextProcessor);
+	// null if the columnar feature file is disabled
+	private final File columnarFile;
 
-		List<RevisionProcessor> parallelProcessorList = new ArrayList<>();
-		for (int i = 0; i < REGEX_THREADS; i++) {
-			RevisionProcessor textRegexProcessor =
-					new TextRegexProcessor(null, LANGUAGE_REGEX_ENABLE);
-			parallelProcessorList.add(textRegexProcessor);
+	// directory of the memory-mapped state (null for direct buffers)
+	private final File stateDirectory;
+
+	public FeaturePipeline(File featureFile) {
+		this(featureFile, PipelineEngine.DECORATOR, JsonParsingMode.DATABIND,
+				true, false, 0, DistinctCountHistory.EXACT, null,
+				CheckpointProcessor.DEFAULT_INTERVAL, OutputCodec.BZIP2,
+				OutputCodec.BZIP2.getDefaultLevel(), null);
+	}
+
+	/**
+	 * @param incrementalRegex whether the text patterns are matched only in
+	 *        the part of the text changed since the previous revision of the
+	 *        same item
+	 * @param exactnessThreshold number of distinct items per user and users
+	 *        per item counted exactly before they are estimated
+	 * @param checkpointDirectory directory of the checkpoints and the
+	 *        memory-mapped state (null if checkpoints are disabled)
+	 * @param checkpointInterval number of revisions between two checkpoints
+	 *        (0 if checkpoints are only written on flush)
+	 * @param columnarFile additional feature file in the columnar format (null
+	 *        if disabled)
+	 */
+	public FeaturePipeline(File featureFile, PipelineEngine engine,
+			JsonParsingMode jsonParsingMode, boolean incrementalRegex,
+			boolean metricsEnabled, int featureThreads, int exactnessThreshold,
+			File checkpointDirectory, long checkpointInterval,
+			OutputCodec outputCodec, int compressionLevel, File columnarFile) {
+		this.jsonParsingMode = jsonParsingMode;
+		this.incrementalRegex = incrementalRegex;
+		this.outputCodec = outputCodec;
+		this.compressionLevel = compressionLevel;
+		this.columnarFile = columnarFile;
+		this.featureThreads = featureThreads;
+		this.stateDirectory = checkpointDirectory;
+		this.metricsRegistry = metricsEnabled ? new MetricsRegistry() : null;
+		if (checkpointDirectory != null) {
+			checkpointManager = new CheckpointManager(checkpointDirectory);
 		}
-		nextProcessor = new ParallelProcessor(
-				parallelProcessorList, null, nextProcessor, "textRegex");
 
-		nextProcessor = new JsonProcessor(nextProcessor, 1);
-		nextProcessor = new StatisticsProcessor(nextProcessor);
+		List<Feature> features =
+				FeatureListFactory.getFeatures(exactnessThreshold, stateDirectory);
+
+		sendProcessor = new SendProcessor(metricsRegistry);
+
+		RevisionProcessor nextProcessor;
+
+		switch (engine) {
+		case RING:
+			nextProcessor = createRingProcessors(featureFile, features);
+			break;
+		case DECORATOR:
+		default:
+			nextProcessor = createDecoratorProcessors(featureFile, features);
+			break;
+		}
+
+		if (checkpointManager != null) {
+			checkpointProcessor = new CheckpointProcessor(
+					nextProcessor, checkpointManager, sendProcessor,
+					checkpointInterval);
+			nextProcessor = checkpointProcessor;
+		}
 
 		startFinishProcessor = new StartFinishProcessor(nextProcessor);
 		nextProcessor = startFinishProcessor;
@@ -89,8 +166,164 @@ public class FeaturePipeline implements Pipeline {
 				nextProcessor, null);
 	}
 
+	private RevisionProcessor createDecoratorProcessors(
+			File featureFile, List<Feature> features) {
+		RevisionProcessor nextProcessor;
+
+		nextProcessor = sendProcessor;
+
+		nextProcessor = measure("send", nextProcessor);
+
+		ColumnarFeatureWriter columnarWriter = null;
+		if (columnarFile != null) {
+			columnarWriter = new ColumnarFeatureWriter(
+					nextProcessor, columnarFile, features);
+			nextProcessor = measure("columnar", columnarWriter);
+		}
+
+		CsvFeatureWriter csvWriter =
+				new CsvFeatureWriter(nextProcessor, featureFile, features,
+						outputCodec, compressionLevel);
+		nextProcessor = measure("csv", csvWriter);
+
+		RevisionProcessor featureProcessor;
+		if (featureThreads > 0) {
+			featureProcessor = new PartitionedFeatureProcessor(
+					nextProcessor, features, featureThreads, metricsRegistry);
+		} else {
+			featureProcessor = new FeatureProcessor(
+					nextProcessor, features, metricsRegistry);
+		}
+		nextProcessor = measure("features", featureProcessor);
+
+		PrevTextRegexProcessor prevTextRegexProcessor =
+				new PrevTextRegexProcessor(nextProcessor, stateDirectory);
+		nextProcessor = measure("prevTextRegex", prevTextRegexProcessor);
+
+		registerCheckpointables(prevTextRegexProcessor,
+				(Checkpointable) featureProcessor, csvWriter, columnarWriter);
+
+		ParallelProcessor textRegexProcessor = new ParallelProcessor(
+				createTextRegexProcessors(), null, nextProcessor, "textRegex");
+		measureQueues("textRegex", textRegexProcessor);
+		nextProcessor = measure("textRegexSubmit", textRegexProcessor);
+
+		ParallelProcessor jsonProcessor = new ParallelProcessor(
+				createJsonProcessors(), new JsonStatisticsReducer(),
+				nextProcessor, "json");
+		measureQueues("json", jsonProcessor);
+		nextProcessor = measure("jsonSubmit", jsonProcessor);
+
+		nextProcessor = measure("statistics",
+				new StatisticsProcessor(nextProcessor));
+
+		return nextProcessor;
+	}
+
+	// Same processors as in the decorator chain, but each of them is a stage
+	// on a ring buffer, i.e., it does not have a next processor.
+	private RevisionProcessor createRingProcessors(
+			File featureFile, List<Feature> features) {
+		if (featureThreads > 0) {
+			// The stages of the ring must be synchronous
+			logger.warn("Calculating the features serially "
+					+ "(feature threads are not supported by the ring engine)");
+		}
+
+		RingBufferProcessor ringProcessor = new RingBufferProcessor("features");
+
+		ringProcessor.addStage(
+				measure("statistics", new StatisticsProcessor(null)));
+		ringProcessor.addStage(
+				createJsonProcessors(), new JsonStatisticsReducer());
+		ringProcessor.addStage(createTextRegexProcessors(), null);
+		PrevTextRegexProcessor prevTextRegexProcessor =
+				new PrevTextRegexProcessor(null, stateDirectory);
+		FeatureProcessor featureProcessor =
+				new FeatureProcessor(null, features, metricsRegistry);
+		CsvFeatureWriter csvWriter =
+				new CsvFeatureWriter(null, featureFile, features,
+						outputCodec, compressionLevel);
+
+		ringProcessor.addStage(
+				measure("prevTextRegex", prevTextRegexProcessor));
+		ringProcessor.addStage(measure("features", featureProcessor));
+		ringProcessor.addStage(measure("csv", csvWriter));
+		ColumnarFeatureWriter columnarWriter = null;
+		if (columnarFile != null) {
+			columnarWriter =
+					new ColumnarFeatureWriter(null, columnarFile, features);
+			ringProcessor.addStage(measure("columnar", columnarWriter));
+		}
+		ringProcessor.addStage(measure("send", sendProcessor));
+
+		registerCheckpointables(prevTextRegexProcessor, featureProcessor,
+				csvWriter, columnarWriter);
+
+		return ringProcessor;
+	}
+
+	private void registerCheckpointables(Checkpointable prevTextRegex,
+			Checkpointable features, Checkpointable csv,
+			Checkpointable columnar) {
+		if (checkpointManager != null) {
+			checkpointManager.register("prevTextRegex", prevTextRegex);
+			checkpointManager.register("features", features);
+			checkpointManager.register("csv", csv);
+			if (columnar != null) {
+				checkpointManager.register("columnar", columnar);
+			}
+		}
+	}
+
+	private List<RevisionProcessor> createJsonProcessors() {
+		List<RevisionProcessor> parallelProcessorList = new ArrayList<>();
+		for (int i = 0; i < JSON_THREADS; i++) {
+			RevisionProcessor jsonProcessor =
+					new JsonProcessor(null, i + 1, jsonParsingMode);
+			parallelProcessorList.add(measure("json", jsonProcessor));
+		}
+		return parallelProcessorList;
+	}
+
+	private List<RevisionProcessor> createTextRegexProcessors() {
+		List<RevisionProcessor> parallelProcessorList = new ArrayList<>();
+		IncrementalPatternCounter incrementalCounter = incrementalRegex
+				? TextRegexProcessor.createIncrementalCounter() : null;
+		for (int i = 0; i < REGEX_THREADS; i++) {
+			RevisionProcessor textRegexProcessor = new TextRegexProcessor(
+					null, LANGUAGE_REGEX_ENABLE, incrementalCounter);
+			parallelProcessorList.add(measure("textRegex", textRegexProcessor));
+		}
+		return parallelProcessorList;
+	}
+
+	private RevisionProcessor measure(
+			String stage, RevisionProcessor processor) {
+		if (metricsRegistry == null) {
+			return processor;
+		}
+		return metricsRegistry.measure(stage, processor);
+	}
+
+	private void measureQueues(String stage, ParallelProcessor processor) {
+		if (metricsRegistry != null) {
+			metricsRegistry.getStage(stage).setQueues(processor);
+		}
+	}
+
 	@Override
 	public void start() {
+		if (metricsRegistry != null) {
+			metricsRegistry.start();
+		}
+		if (checkpointManager != null && checkpointManager.exists()) {
+			try {
+				checkpointProcessor.resume(checkpointManager.restore());
+			} catch (IOException e) {
+				throw new RuntimeException("Cannot restore checkpoint", e);
+			}
+		}
 		startFinishProcessor.startRevisionProcessingExplicitly();
 	}
 
@@ -109,6 +342,9 @@ public class FeaturePipeline implements Pipeline {
 	@Override
 	public void stop() {
 		startFinishProcessor.finishRevisionProcessingExplicitly();
+		if (metricsRegistry != null) {
+			metricsRegistry.stop();
+		}
 	}
 
 	@Override
@@ -0,0 +1,336 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.pipeline;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikidata.wdtk.dumpfiles.MwRevisionProcessor;
+import org.wsdmcup17.wdvd.extraction.FeatureListFactory;
+import org.wsdmcup17.wdvd.extraction.features.Feature;
+import org.wsdmcup17.wdvd.extraction.features.IncrementalPatternCounter;
+import org.wsdmcup17.wdvd.extraction.features.PrevTextRegexFeature;
+import org.wsdmcup17.wdvd.extraction.features.StatefulFeature;
+import org.wsdmcup17.wdvd.extraction.processors.RevisionProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.controlflow.CheckpointProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.controlflow.ParallelProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.controlflow.StreamMerger;
+import org.wsdmcup17.wdvd.extraction.processors.decorators.FeatureProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.decorators.JsonParsingMode;
+import org.wsdmcup17.wdvd.extraction.processors.decorators.JsonProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.decorators.JsonStatisticsReducer;
+import org.wsdmcup17.wdvd.extraction.processors.decorators.PartitionedFeatureProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.decorators.PrevTextRegexProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.decorators.TextRegexProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.output.ColumnarFeatureWriter;
+import org.wsdmcup17.wdvd.extraction.processors.output.CsvFeatureWriter;
+import org.wsdmcup17.wdvd.extraction.processors.output.OutputCodec;
+import org.wsdmcup17.wdvd.extraction.processors.preprocessing.ReceiveProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.preprocessing.SendProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.statistics.MetricsRegistry;
+import org.wsdmcup17.wdvd.extraction.processors.statistics.StatisticsProcessor;
+import org.wsdmcup17.wdvd.extraction.state.CheckpointManager;
+import org.wsdmcup17.wdvd.extraction.state.Checkpointable;
+
+/**
+ * Feature pipeline consuming several revision streams (i.e., several data
+ * servers) concurrently.
+ *
+ * Every stream has its own front end parsing the JSON, matching the regular
+ * expressions and calculating the stateless features. The streams are then
+ * merged in the order of the revision ids and the stateful features are
+ * calculated on the merged stream. Hence, the features are the same as when
+ * consuming the streams one after another.
+ *
+ * Every front end has as many threads as the front end of the
+ * {@link FeaturePipeline}. The streams behind the one being merged are
+ * processed ahead and buffered, beyond a bounded number of revisions on disk
+ * (see {@link StreamMerger}).
+ */
+public class MultiStreamFeaturePipeline {
+	static final Logger logger =
+			LoggerFactory.getLogger(MultiStreamFeaturePipeline.class);
+
+	private final JsonParsingMode jsonParsingMode;
+
+	// shared by the front ends (null if the text patterns are matched in the
+	// whole text)
+	private final IncrementalPatternCounter incrementalCounter;
+
+	// null if metrics are disabled
+	private final MetricsRegistry metricsRegistry;
+
+	private final int vectorSize;
+	private final int exactnessThreshold;
+
+	// directory of the memory-mapped state (null for direct buffers)
+	private final File stateDirectory;
+
+	private final StreamMerger merger;
+
+	private final SendProcessor sendProcessor;
+
+	// null if checkpoints are disabled
+	private CheckpointManager checkpointManager;
+	private CheckpointProcessor checkpointProcessor;
+
+	/**
+	 * @param incrementalRegex whether the text patterns are matched only in
+	 *        the part of the text changed since the previous revision of the
+	 *        same item
+	 * @param exactnessThreshold number of distinct items per user and users
+	 *        per item counted exactly before they are estimated
+	 * @param checkpointDirectory directory of the checkpoints, the
+	 *        memory-mapped state and the spilled revisions (null if
+	 *        checkpoints are disabled)
+	 * @param checkpointInterval number of revisions between two checkpoints
+	 *        (0 if checkpoints are only written on flush)
+	 * @param columnarFile additional feature file in the columnar format (null
+	 *        if disabled)
+	 */
+	public MultiStreamFeaturePipeline(File featureFile,
+			JsonParsingMode jsonParsingMode, boolean incrementalRegex,
+			boolean metricsEnabled, int featureThreads, int exactnessThreshold,
+			File checkpointDirectory, long checkpointInterval,
+			OutputCodec outputCodec, int compressionLevel, File columnarFile) {
+		this.jsonParsingMode = jsonParsingMode;
+		this.incrementalCounter = incrementalRegex
+				? TextRegexProcessor.createIncrementalCounter() : null;
+		this.metricsRegistry = metricsEnabled ? new MetricsRegistry() : null;
+		this.exactnessThreshold = exactnessThreshold;
+		this.stateDirectory = checkpointDirectory;
+
+		List<Feature> features =
+				FeatureListFactory.getFeatures(exactnessThreshold, stateDirectory);
+		this.vectorSize = features.size();
+
+		List<Feature> mergedFeatures = new ArrayList<>();
+		for (Feature feature: features) {
+			if (!isStreamFeature(feature)) {
+				mergedFeatures.add(feature);
+			}
+		}
+
+		sendProcessor = new SendProcessor(metricsRegistry);
+
+		RevisionProcessor nextProcessor = measure("send", sendProcessor);
+
+		ColumnarFeatureWriter columnarWriter = null;
+		if (columnarFile != null) {
+			columnarWriter = new ColumnarFeatureWriter(
+					nextProcessor, columnarFile, features);
+			nextProcessor = measure("columnar", columnarWriter);
+		}
+
+		CsvFeatureWriter csvWriter =
+				new CsvFeatureWriter(nextProcessor, featureFile, features,
+						outputCodec, compressionLevel);
+		nextProcessor = measure("csv", csvWriter);
+
+		RevisionProcessor featureProcessor;
+		if (featureThreads > 0) {
+			featureProcessor = new PartitionedFeatureProcessor(nextProcessor,
+					mergedFeatures, featureThreads, metricsRegistry, vectorSize);
+		} else {
+			featureProcessor = new FeatureProcessor(nextProcessor,
+					mergedFeatures, metricsRegistry, vectorSize);
+		}
+		nextProcessor = measure("features", featureProcessor);
+
+		PrevTextRegexProcessor prevTextRegexProcessor =
+				new PrevTextRegexProcessor(nextProcessor, stateDirectory);
+		nextProcessor = measure("prevTextRegex", prevTextRegexProcessor);
+
+		nextProcessor = measure("statistics",
+				new StatisticsProcessor(nextProcessor));
+
+		if (checkpointDirectory != null) {
+			checkpointManager = new CheckpointManager(checkpointDirectory);
+			checkpointManager.register("prevTextRegex", prevTextRegexProcessor);
+			checkpointManager.register(
+					"features", (Checkpointable) featureProcessor);
+			checkpointManager.register("csv", csvWriter);
+			if (columnarWriter != null) {
+				checkpointManager.register("columnar", columnarWriter);
+			}
+
+			checkpointProcessor = new CheckpointProcessor(
+					nextProcessor, checkpointManager, sendProcessor,
+					checkpointInterval);
+			nextProcessor = checkpointProcessor;
+		}
+
+		merger = new StreamMerger(nextProcessor, checkpointDirectory);
+	}
+
+	// Features which can be calculated before the streams are merged
+	private static boolean isStreamFeature(Feature feature) {
+		return !(feature instanceof StatefulFeature)
+				&& !(feature instanceof PrevTextRegexFeature);
+	}
+
+	public void start() {
+		if (metricsRegistry != null) {
+			metricsRegistry.start();
+		}
+		if (checkpointManager != null && checkpointManager.exists()) {
+			try {
+				checkpointProcessor.resume(checkpointManager.restore());
+			} catch (IOException e) {
+				throw new RuntimeException("Cannot restore checkpoint", e);
+			}
+		}
+		merger.start();
+	}
+
+	/**
+	 * Waits until all streams have ended and finishes the pipeline.
+	 */
+	public void stop() {
+		merger.stop();
+		if (metricsRegistry != null) {
+			metricsRegistry.stop();
+		}
+	}
+
+	/**
+	 * Opens the next stream. The streams must be opened in the order of
+	 * their revision ids.
+	 */
+	public Pipeline openStream(String name) {
+		return new StreamPipeline(name);
+	}
+
+	private RevisionProcessor measure(
+			String stage, RevisionProcessor processor) {
+		if (metricsRegistry == null) {
+			return processor;
+		}
+		return metricsRegistry.measure(stage, processor);
+	}
+
+	/**
+	 * Front end of one stream. It is started and finished by the revision
+	 * dump processor, and it ends when the dump processor finishes it or when
+	 * the pipeline is stopped.
+	 */
+	class StreamPipeline implements Pipeline {
+
+		private final StreamMerger.Input input;
+
+		private final ReceiveProcessor receiveProcessor;
+
+		private CSVPrinter resultPrinter;
+
+		StreamPipeline(String name) {
+			input = merger.open(name,
+					() -> sendProcessor.setResultPrinter(resultPrinter));
+
+			List<Feature> streamFeatures = new ArrayList<>();
+			// The stateful features are not used, so their state is not
+			// memory-mapped.
+			for (Feature feature: FeatureListFactory.getFeatures(
+					exactnessThreshold, null)) {
+				if (isStreamFeature(feature)) {
+					streamFeatures.add(feature);
+				}
+			}
+
+			RevisionProcessor nextProcessor = measure("streamFeatures",
+					new FeatureProcessor(input, streamFeatures, metricsRegistry,
+							vectorSize));
+
+			nextProcessor = new ParallelProcessor(createTextRegexProcessors(),
+					null, nextProcessor, "textRegex " + name);
+			nextProcessor = measure("textRegexSubmit", nextProcessor);
+
+			nextProcessor = new ParallelProcessor(createJsonProcessors(),
+					new JsonStatisticsReducer(), nextProcessor, "json " + name);
+			nextProcessor = measure("jsonSubmit", nextProcessor);
+
+			receiveProcessor = new ReceiveProcessor(nextProcessor, null);
+		}
+
+		@Override
+		public void start() {
+			// started by the revision dump processor
+		}
+
+		/**
+		 * Ends the stream and waits until all of its revisions have been
+		 * processed.
+		 */
+		@Override
+		public void stop() {
+			input.end();
+		}
+
+		@Override
+		public void flush() {
+			// The stream is flushed when it ends.
+		}
+
+		@Override
+		public MwRevisionProcessor getFirstProcessor() {
+			return receiveProcessor;
+		}
+
+		@Override
+		public void set(
+				BlockingQueue<CSVRecord> metaQueue, CSVPrinter resultPrinter) {
+			receiveProcessor.setMetadataQueue(metaQueue);
+			this.resultPrinter = resultPrinter;
+		}
+	}
+
+	private List<RevisionProcessor> createJsonProcessors() {
+		List<RevisionProcessor> parallelProcessorList = new ArrayList<>();
+		for (int i = 0; i < FeaturePipeline.JSON_THREADS; i++) {
+			RevisionProcessor jsonProcessor =
+					new JsonProcessor(null, i + 1, jsonParsingMode);
+			parallelProcessorList.add(measure("json", jsonProcessor));
+		}
+		return parallelProcessorList;
+	}
+
+	private List<RevisionProcessor> createTextRegexProcessors() {
+		List<RevisionProcessor> parallelProcessorList = new ArrayList<>();
+		for (int i = 0; i < FeaturePipeline.REGEX_THREADS; i++) {
+			RevisionProcessor textRegexProcessor = new TextRegexProcessor(
+					null, FeaturePipeline.LANGUAGE_REGEX_ENABLE,
+					incrementalCounter);
+			parallelProcessorList.add(measure("textRegex", textRegexProcessor));
+		}
+		return parallelProcessorList;
+	}
+
+}
@@ -0,0 +1,57 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.pipeline;
+
+/**
+ * Engines for executing the revision processors of a pipeline.
+ */
+public enum PipelineEngine {
+	// Revision processors are nested decorators calling each other
+	// synchronously (only the regular expressions are computed in parallel)
+	DECORATOR("decorator"),
+
+	// Every revision processor is a stage with its own thread on a ring buffer
+	RING("ring");
+
+	private final String text;
+
+	private PipelineEngine(final String text) {
+		this.text = text;
+	}
+
+	@Override
+	public String toString() {
+		return text;
+	}
+
+	public static PipelineEngine fromString(String text) {
+		for (PipelineEngine engine: values()) {
+			if (engine.text.equalsIgnoreCase(text)) {
+				return engine;
+			}
+		}
+		throw new IllegalArgumentException("Unknown pipeline engine: " + text);
+	}
+}
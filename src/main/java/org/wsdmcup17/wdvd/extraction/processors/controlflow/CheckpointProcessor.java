@@ -0,0 +1,143 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.processors.controlflow;
+
+import java.io.IOException;
+
+import org.wsdmcup17.wdvd.extraction.processors.AbstractRevisionProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.RevisionProcessor;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
+import org.wsdmcup17.wdvd.extraction.state.CheckpointManager;
+
+/**
+ * Writes a checkpoint every checkpointInterval revisions and on every flush.
+ * Before a checkpoint is written, the next processors are flushed, so that
+ * the checkpoint reflects exactly the revisions up to the last one.
+ *
+ * Every checkpoint writes the whole state of all registered components
+ * while the pipeline is stopped, i.e., its cost grows with the number of
+ * items, users, and sessions seen so far rather than with the interval.
+ *
+ * After resuming from a checkpoint, the revisions up to the checkpointed
+ * revision id are not processed again, but directly passed to the skip
+ * processor (which sends their scores).
+ */
+public class CheckpointProcessor extends AbstractRevisionProcessor {
+
+	public static final long DEFAULT_INTERVAL = 1000000;
+
+	private final CheckpointManager checkpointManager;
+
+	// 0 if checkpoints are only written on flush
+	private final long checkpointInterval;
+
+	private final RevisionProcessor skipProcessor;
+
+	// id of the revision up to which revisions are skipped (-1 if none)
+	private long resumeRevisionId = -1;
+
+	private long lastRevisionId = -1;
+
+	// revisions processed since the last checkpoint
+	private long revisionCount = 0;
+
+	public CheckpointProcessor(RevisionProcessor processor,
+			CheckpointManager checkpointManager,
+			RevisionProcessor skipProcessor, long checkpointInterval) {
+		super(processor);
+		this.checkpointManager = checkpointManager;
+		this.skipProcessor = skipProcessor;
+		this.checkpointInterval = checkpointInterval;
+	}
+
+	/**
+	 * Skips all revisions up to (and including) the given revision.
+	 */
+	public void resume(long revisionId) {
+		this.resumeRevisionId = revisionId;
+		this.lastRevisionId = revisionId;
+	}
+
+	@Override
+	public void startRevisionProcessing() {
+		logger.info("Starting...");
+		if (processor != null) {
+			processor.startRevisionProcessing();
+		}
+	}
+
+	@Override
+	public void processRevision(Revision revision) {
+		// The revision ids increase monotonically. Hence, the checkpointed
+		// revision itself need not be part of the input.
+		if (resumeRevisionId != -1) {
+			if (revision.getRevisionId() <= resumeRevisionId) {
+				skipProcessor.processRevision(revision);
+				return;
+			}
+			logger.info("Resuming after revision " + resumeRevisionId);
+			resumeRevisionId = -1;
+		}
+
+		if (processor != null) {
+			processor.processRevision(revision);
+		}
+
+		lastRevisionId = revision.getRevisionId();
+		revisionCount++;
+		if (checkpointInterval > 0 && revisionCount >= checkpointInterval) {
+			flush();
+		}
+	}
+
+	@Override
+	public void finishRevisionProcessing() {
+		logger.debug("Starting to finish...");
+		if (processor != null) {
+			processor.finishRevisionProcessing();
+		}
+		logger.info("Finished.");
+	}
+
+	/**
+	 * Flushes the next processors and writes a checkpoint if revisions have
+	 * been processed since the last one.
+	 */
+	@Override
+	public void flush() {
+		super.flush();
+
+		if (revisionCount > 0) {
+			try {
+				checkpointManager.write(lastRevisionId);
+			} catch (IOException e) {
+				logger.error("", e);
+				throw new RuntimeException(e);
+			}
+			revisionCount = 0;
+		}
+	}
+
+}
@@ -24,17 +24,16 @@
 
 package org.wsdmcup17.wdvd.extraction.processors.controlflow;
 
-import java.util.AbstractQueue;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wsdmcup17.wdvd.extraction.processors.RevisionProcessor;
-import org.wsdmcup17.wdvd.extraction.revision.implementation.RevisionImpl;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
 
@@ -45,18 +44,21 @@ import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
  * nextProcessor.processRevision is called in the same order that this class
  * received them originally.
  *
+ * Processed revisions are reordered in a {@link ReorderBuffer}, i.e., a ring
+ * buffer indexed by sequence number. Workers publish into the ring without
+ * taking a lock and the collector drains it in sequence order.
  */
 public class ParallelProcessor implements RevisionProcessor {
 	static final Logger logger = LoggerFactory.getLogger(ParallelProcessor.class);
 
-	static final int MAX_QUEUE_SIZE = 100;
+	// must be a power of two
+	static final int MAX_QUEUE_SIZE = 128;
 
 	final AtomicLong seq = new AtomicLong(0);
 
 	private LinkedBlockingQueue<FIFOEntry<Revision>> incomingQueue =
 			new LinkedBlockingQueue<>(MAX_QUEUE_SIZE);
-	private PriorityBlockingQueue<FIFOEntry<Revision>> outgoingQueue =
-			new PriorityBlockingQueue<>();
+	private ReorderBuffer outgoingBuffer = new ReorderBuffer(MAX_QUEUE_SIZE);
 
 	private List<RevisionProcessor> workProcessors;
 	private Reducer reducer;
@@ -83,46 +85,42 @@ public class ParallelProcessor implements RevisionProcessor {
 	public void startRevisionProcessing() {
 		logger.info("Starting...");
 
-		collector = new Collector(outgoingQueue, nextProcessor, workProcessors.size());
+		collector = new Collector(outgoingBuffer, nextProcessor);
 
 		for (int i = 0; i < workProcessors.size(); i++) {
 			workProcessors.get(i).startRevisionProcessing();
 
 			Runnable runnable = new Worker(
-					incomingQueue, outgoingQueue, collector, workProcessors.get(i));
+					incomingQueue, outgoingBuffer, workProcessors.get(i));
 			Thread thread = new Thread(
 					runnable, "Parallel Revision Processor " + name + " " + i);
 			workerThreads.add(thread);
 			thread.start();
 		}
 
-		collectorThread = new Thread(collector, "Collector Revision Processor");
+		collectorThread = new Thread(
+				collector, "Collector Revision Processor " + name);
+		outgoingBuffer.setConsumer(collectorThread);
 		collectorThread.start();
 	}
 
 	@Override
 	public void processRevision(Revision revision) {
-		// While the outgoing queue is too large, we have to wait (because the
-		// outgoing queue is unbounded).
+		long seqNum = seq.getAndIncrement();
+
+		// While the ring buffer has no free slot for this sequence number, we
+		// have to wait.
 		// We must wait in front of the incoming queue and not in front of the
-		// outgoing queue. If we waited in front of the outgoing queue, it can
-		// happen that the queue never gets the next element n + 1 because it
-		// cannot be inserted in the queue.
-		synchronized (collector.synchronizerNonFull) {
-			while (outgoingQueue.size() >= MAX_QUEUE_SIZE) {
-				try {
-					collector.synchronizerNonFull.wait();
-				} catch (InterruptedException e) {
-					logger.error("", e);
-				}
-			}
-		}
+		// ring buffer. If a worker waited in front of the ring buffer, it can
+		// happen that the buffer never gets the next element n + 1 because
+		// it cannot be inserted in the buffer.
+		outgoingBuffer.awaitCapacity(seqNum);
 
 		// Put revision into incoming queue.
-		// Workers will retrieve revisions from there and put them in the
-		// outgoing queue.
+		// Workers will retrieve revisions from there and publish them in the
+		// ring buffer.
 		try {
-			incomingQueue.put(new FIFOEntry<>(revision, seq.getAndIncrement()));
+			incomingQueue.put(new FIFOEntry<>(revision, seqNum));
 		} catch (InterruptedException e) {
 			logger.error("", e);
 		}
@@ -152,6 +150,13 @@ public class ParallelProcessor implements RevisionProcessor {
 			}
 		}
 
+		// All workers have stopped, hence the final element is published by
+		// this thread. It is the last one the collector drains.
+		long seqNum = seq.getAndIncrement();
+		outgoingBuffer.awaitCapacity(seqNum);
+		outgoingBuffer.publish(
+				new FIFOEntry<>(ControlRevisions.DONE_REVISION, seqNum));
+
 		logger.debug("Waiting for collector to stop...");
 		// wait for the collector thread to finish
 		// (and call nextWorker.finishRevisionProcessing() method)
@@ -178,7 +183,7 @@ public class ParallelProcessor implements RevisionProcessor {
 	public void flush() {
 		logger.debug("Flushing...");
 
-		this.processRevision(FIFOEntry.FLUSH_REVISION);
+		this.processRevision(ControlRevisions.FLUSH_REVISION);
 
 		while (!collector.isFlushed()) {
 			try {
@@ -192,35 +197,47 @@ public class ParallelProcessor implements RevisionProcessor {
 
 		logger.debug("Flushing...done.");
 	}
+
+	/**
+	 * Returns the number of revisions waiting for a worker.
+	 */
+	public int getIncomingQueueSize() {
+		return incomingQueue.size();
+	}
+
+	/**
+	 * Returns the number of processed revisions waiting for the collector.
+	 */
+	public int getOutgoingQueueSize() {
+		return outgoingBuffer.size();
+	}
 }
 
 /**
  * There are several workers which take an element from the incoming queue,
- * process it, and put it in the outgoing queue.
+ * process it, and publish it in the ring buffer.
  *
  */
 class Worker implements Runnable {
 	static final Logger logger = LoggerFactory.getLogger(Worker.class);
 
 	private LinkedBlockingQueue<FIFOEntry<Revision>> incomingQueue;
-	private PriorityBlockingQueue<FIFOEntry<Revision>> outgoingQueue;
+	private ReorderBuffer outgoingBuffer;
 	private RevisionProcessor workProcessor;
-	private Collector collector;
 
 
 	public Worker(LinkedBlockingQueue<FIFOEntry<Revision>> incomingQueue,
-			PriorityBlockingQueue<FIFOEntry<Revision>> outgoingQueue,
-			Collector collector,
+			ReorderBuffer outgoingBuffer,
 			RevisionProcessor workProcessor) {
 		this.incomingQueue = incomingQueue;
-		this.outgoingQueue = outgoingQueue;
+		this.outgoingBuffer = outgoingBuffer;
 		this.workProcessor = workProcessor;
-		this.collector = collector;
 	}
 
 
 	/**
-	 * Take element from incoming queue, process it, and put it in outgoing queue.
+	 * Take element from incoming queue, process it, and publish it in the
+	 * ring buffer.
 	 */
 	@Override
 	public void run() {
@@ -232,14 +249,11 @@ class Worker implements Runnable {
 			while (entry != FIFOEntry.DONE) {
 				Revision revision = entry.getEntry();
 
-				if (revision != FIFOEntry.FLUSH_REVISION) {
+				if (revision != ControlRevisions.FLUSH_REVISION) {
 					workProcessor.processRevision(entry.getEntry());
 				}
 
-				outgoingQueue.put(entry);
-				synchronized (collector.synchronizerNonEmpty) {
-					collector.synchronizerNonEmpty.notifyAll();
-				}
+				outgoingBuffer.publish(entry);
 
 				try {
 					entry = incomingQueue.take();
@@ -248,11 +262,6 @@ class Worker implements Runnable {
 				}
 			}
 
-			outgoingQueue.put(FIFOEntry.DONE);
-			synchronized (collector.synchronizerNonEmpty) {
-				collector.synchronizerNonEmpty.notifyAll();
-			}
-
 		} catch (Throwable e1) {
 			logger.error("", e1);
 		}
@@ -260,7 +269,7 @@ class Worker implements Runnable {
 }
 
 /**
- * There is exactly one Collector which takes elements from the outgoing queue,
+ * There is exactly one Collector which takes elements from the ring buffer,
  * and forwards them to the next processor. It preserves the original order of
  * the elements.
  *
@@ -268,23 +277,16 @@ class Worker implements Runnable {
 class Collector implements Runnable {
 	static final Logger logger = LoggerFactory.getLogger(Collector.class);
 	private RevisionProcessor nextProcessor;
-	private AbstractQueue<FIFOEntry<Revision>> outgoingQueue;
-	private int runningWorkerThreads;
-
-	// they should NOT be static because there can be several ParallelProcessors
-	final Object synchronizerNonEmpty = new Object();
-	final Object synchronizerNonFull = new Object();
+	private ReorderBuffer outgoingBuffer;
 
 	private volatile boolean flushed = false;
 
 
 	public Collector(
-			AbstractQueue<FIFOEntry<Revision>> outgoingQueue,
-			RevisionProcessor nextProcessor,
-			int runningWorkerThreads) {
-		this.outgoingQueue = outgoingQueue;
+			ReorderBuffer outgoingBuffer,
+			RevisionProcessor nextProcessor) {
+		this.outgoingBuffer = outgoingBuffer;
 		this.nextProcessor = nextProcessor;
-		this.runningWorkerThreads = runningWorkerThreads;
 	}
 
 	@Override
@@ -292,41 +294,18 @@ class Collector implements Runnable {
 		try {
 			nextProcessor.startRevisionProcessing();
 
+			while (true) {
+				// Waits until the next element in sequence order is available
+				FIFOEntry<Revision> entry = outgoingBuffer.take();
 
-
-			long lastSeqNum = -1;
-
-			while (runningWorkerThreads > 0) {
-				FIFOEntry<Revision> peek = null;
-				// We have to wait for the outgoingQueue to contain at least one element
-				synchronized (synchronizerNonEmpty) {
-					peek = outgoingQueue.peek();
-					while (peek == null) {
-						try { synchronizerNonEmpty.wait(); } catch (InterruptedException e) { logger.error("", e); }
-						peek = outgoingQueue.peek();
-					}
-				}
-				if (peek == FIFOEntry.DONE) {
-					outgoingQueue.remove(FIFOEntry.DONE);
-					synchronized (synchronizerNonFull) {
-						synchronizerNonFull.notifyAll();
-					}
-
-					runningWorkerThreads--;
-				} else if (peek.getSeqNum() == lastSeqNum + 1) {
-					outgoingQueue.remove(peek);
-					synchronized (synchronizerNonFull) {
-						synchronizerNonFull.notifyAll();
-					}
-
-					Revision revision = peek.getEntry();
-					if (revision != FIFOEntry.FLUSH_REVISION) {
-						nextProcessor.processRevision(peek.getEntry());
-					} else {
-						nextProcessor.flush();
-						flushed = true;
-					}
-					lastSeqNum = peek.getSeqNum();
+				Revision revision = entry.getEntry();
+				if (revision == ControlRevisions.DONE_REVISION) {
+					break;
+				} else if (revision != ControlRevisions.FLUSH_REVISION) {
+					nextProcessor.processRevision(revision);
+				} else {
+					nextProcessor.flush();
+					flushed = true;
 				}
 			}
 
@@ -345,13 +324,119 @@ class Collector implements Runnable {
 	}
 }
 
-class FIFOEntry<E> implements Comparable<FIFOEntry<E>> {
+/**
+ * Ring buffer which reorders the elements by their sequence number. The
+ * element with sequence number n is stored in slot n mod capacity.
+ *
+ * There can be several publishing threads (the workers) but only one
+ * consuming thread (the collector). Publishing is lock-free. The thread
+ * assigning sequence numbers must call {@link #awaitCapacity(long)} before
+ * handing out a sequence number, so that a published element never
+ * overwrites an element which has not been consumed yet.
+ */
+class ReorderBuffer {
+	private final AtomicReferenceArray<FIFOEntry<Revision>> slots;
+	private final int mask;
+
+	// next sequence number to be consumed (only written by the consumer)
+	private volatile long nextSeqNum = 0;
+
+	private volatile Thread consumer;
+	private volatile boolean consumerWaiting = false;
+
+	private volatile Thread producer;
+	private volatile boolean producerWaiting = false;
+
+	public ReorderBuffer(int capacity) {
+		if (Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException(
+					"Capacity must be a power of two: " + capacity);
+		}
+		this.slots = new AtomicReferenceArray<>(capacity);
+		this.mask = capacity - 1;
+	}
+
+	public void setConsumer(Thread consumer) {
+		this.consumer = consumer;
+	}
+
+	/**
+	 * Waits until the slot for the given sequence number is free.
+	 */
+	public void awaitCapacity(long seqNum) {
+		if (seqNum - nextSeqNum < slots.length()) {
+			return;
+		}
+
+		producer = Thread.currentThread();
+		while (seqNum - nextSeqNum >= slots.length()) {
+			producerWaiting = true;
+			if (seqNum - nextSeqNum >= slots.length()) {
+				LockSupport.park(this);
+			}
+			producerWaiting = false;
+		}
+	}
+
+	/**
+	 * Stores the element in the slot of its sequence number.
+	 */
+	public void publish(FIFOEntry<Revision> entry) {
+		slots.set((int) (entry.getSeqNum() & mask), entry);
+
+		if (consumerWaiting) {
+			LockSupport.unpark(consumer);
+		}
+	}
+
+	/**
+	 * Removes and returns the element with the next sequence number, waiting
+	 * if necessary until it has been published.
+	 */
+	public FIFOEntry<Revision> take() {
+		long seqNum = nextSeqNum;
+		int index = (int) (seqNum & mask);
+
+		FIFOEntry<Revision> entry = slots.get(index);
+		while (entry == null) {
+			consumerWaiting = true;
+			entry = slots.get(index);
+			if (entry == null) {
+				LockSupport.park(this);
+				entry = slots.get(index);
+			}
+			consumerWaiting = false;
+		}
+
+		slots.set(index, null);
+		nextSeqNum = seqNum + 1;
+
+		if (producerWaiting) {
+			LockSupport.unpark(producer);
+		}
+
+		return entry;
+	}
+
+	/**
+	 * Returns the number of published elements that have not been taken yet.
+	 */
+	public int size() {
+		int result = 0;
+		for (int i = 0; i < slots.length(); i++) {
+			if (slots.get(i) != null) {
+				result++;
+			}
+		}
+		return result;
+	}
+}
+
+class FIFOEntry<E> {
 	final long seqNum;
 	final E entry;
 	static final FIFOEntry<Revision> DONE = new FIFOEntry<>();
 
-	static final Revision FLUSH_REVISION = new RevisionImpl();
-
 	public FIFOEntry(E entry, long seqNum) {
 		this.entry = entry;
 		this.seqNum = seqNum;
@@ -369,9 +454,4 @@ class FIFOEntry<E> implements Comparable<FIFOEntry<E>> {
 	public long getSeqNum() {
 		return seqNum;
 	}
-
-	@Override
-	public int compareTo(FIFOEntry<E> other) {
-		return (seqNum < other.seqNum ? -1 : 1);
-	}
 }
@@ -0,0 +1,347 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.processors.controlflow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wsdmcup17.wdvd.extraction.processors.RevisionProcessor;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
+
+
+/**
+ * Executes a sequence of revision processors as stages on a preallocated ring
+ * of revision slots (in the style of the LMAX Disruptor).
+ *
+ * Every stage runs on its own thread(s) and has its own sequence. A stage
+ * only processes a slot after the previous stage has passed it, and the
+ * producer only reuses a slot after the last stage has passed it. Hence, the
+ * stages overlap on separate cores while every stage sees the revisions in
+ * the original order. The processors of the stages must not have a next
+ * processor (i.e., next processor is null).
+ *
+ * A stage can consist of several processors. Then every processor handles
+ * every n-th revision on its own thread (the processors must not share
+ * state) and the stage's sequence is the minimum of the processors'
+ * sequences. A flush is passed to every processor of the stage.
+ *
+ * If a processor throws an exception, all stages stop and the exception is
+ * rethrown by the next call of processRevision, flush, or
+ * finishRevisionProcessing.
+ */
+public class RingBufferProcessor implements RevisionProcessor {
+	static final Logger logger = LoggerFactory.getLogger(RingBufferProcessor.class);
+
+	// must be a power of two
+	static final int RING_SIZE = 256;
+
+	private final Revision[] ring = new Revision[RING_SIZE];
+	private final int mask = RING_SIZE - 1;
+
+	// sequence of the last published revision (only written by the producer)
+	private volatile long cursor = -1;
+
+	private final List<RingStage> stages = new ArrayList<>();
+
+	// first exception thrown by a processor of a stage
+	private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+	private final String name;
+
+	public RingBufferProcessor(String name) {
+		this.name = name;
+	}
+
+	public void addStage(RevisionProcessor processor) {
+		addStage(Collections.singletonList(processor), null);
+	}
+
+	public void addStage(List<RevisionProcessor> workProcessors, Reducer reducer) {
+		stages.add(new RingStage(workProcessors, reducer));
+	}
+
+	@Override
+	public void startRevisionProcessing() {
+		logger.info("Starting...");
+
+		for (int i = 0; i < stages.size(); i++) {
+			RingStage stage = stages.get(i);
+			RingStage previous = (i > 0) ? stages.get(i - 1) : null;
+			boolean isLast = (i == stages.size() - 1);
+
+			stage.start(previous, isLast, name + " " + i);
+		}
+	}
+
+	@Override
+	public void processRevision(Revision revision) {
+		checkFailure();
+		publish(revision);
+	}
+
+	@Override
+	public void finishRevisionProcessing() {
+		logger.debug("Starting to finish...");
+
+		try {
+			publish(ControlRevisions.DONE_REVISION);
+		} finally {
+			// the stages stop at the end of the ring or after a failure
+			logger.debug("Waiting for the stages to stop ...");
+			for (RingStage stage: stages) {
+				stage.join();
+			}
+
+			// Same order as in a chain of decorators: the last processor
+			// finishes first.
+			for (int i = stages.size() - 1; i >= 0; i--) {
+				stages.get(i).finish();
+			}
+		}
+		checkFailure();
+
+		logger.info("Finished.");
+	}
+
+	@Override
+	public void flush() {
+		logger.debug("Flushing...");
+
+		checkFailure();
+		long seqNum = publish(ControlRevisions.FLUSH_REVISION);
+
+		// Wait until all processors of the last stage have flushed
+		RingStage lastStage = stages.get(stages.size() - 1);
+		for (int i = 0; lastStage.getSequence() < seqNum; i++) {
+			checkFailure();
+			backOff(i);
+		}
+
+		logger.debug("Flushing...done.");
+	}
+
+	private long publish(Revision revision) {
+		long seqNum = cursor + 1;
+
+		// Wait until the last stage has released the slot
+		RingStage lastStage = stages.get(stages.size() - 1);
+		for (int i = 0; seqNum - lastStage.getSequence() > RING_SIZE; i++) {
+			checkFailure();
+			backOff(i);
+		}
+
+		ring[(int) (seqNum & mask)] = revision;
+		cursor = seqNum;
+
+		return seqNum;
+	}
+
+	private void fail(Throwable t) {
+		logger.error("", t);
+		failure.compareAndSet(null, t);
+	}
+
+	private void checkFailure() {
+		Throwable t = failure.get();
+		if (t != null) {
+			throw new IllegalStateException("Revision processing failed", t);
+		}
+	}
+
+	long getCursor() {
+		return cursor;
+	}
+
+	Revision get(long seqNum) {
+		return ring[(int) (seqNum & mask)];
+	}
+
+	void clear(long seqNum) {
+		ring[(int) (seqNum & mask)] = null;
+	}
+
+	// Spins first, then yields, and finally sleeps for a short while.
+	// (Busy spinning on all stages would starve machines with few cores.)
+	static void backOff(int iteration) {
+		if (iteration < 100) {
+			// spin
+		} else if (iteration < 200) {
+			Thread.yield();
+		} else {
+			LockSupport.parkNanos(100_000);
+		}
+	}
+
+	/**
+	 * One stage of the ring, consisting of one or several processors.
+	 */
+	class RingStage {
+		private final List<RevisionProcessor> workProcessors;
+		private final Reducer reducer;
+		private final List<RingWorker> workers = new ArrayList<>();
+
+		RingStage(List<RevisionProcessor> workProcessors, Reducer reducer) {
+			this.workProcessors = workProcessors;
+			this.reducer = reducer;
+		}
+
+		void start(RingStage previous, boolean isLast, String threadName) {
+			for (int i = 0; i < workProcessors.size(); i++) {
+				RevisionProcessor workProcessor = workProcessors.get(i);
+				workProcessor.startRevisionProcessing();
+
+				RingWorker worker = new RingWorker(
+						workProcessor, previous, isLast, i, workProcessors.size());
+				workers.add(worker);
+
+				Thread thread = new Thread(
+						worker, "Ring Revision Processor " + threadName + " " + i);
+				worker.thread = thread;
+				thread.start();
+			}
+		}
+
+		// minimum sequence of all workers
+		long getSequence() {
+			long result = Long.MAX_VALUE;
+			for (int i = 0; i < workers.size(); i++) {
+				result = Math.min(result, workers.get(i).sequence);
+			}
+			return result;
+		}
+
+		void join() {
+			for (RingWorker worker: workers) {
+				try {
+					worker.thread.join();
+				} catch (InterruptedException e) {
+					logger.error("", e);
+				}
+			}
+		}
+
+		void finish() {
+			for (RevisionProcessor workProcessor: workProcessors) {
+				workProcessor.finishRevisionProcessing();
+			}
+
+			if (reducer != null) {
+				logger.debug("Reduce ...");
+				reducer.reduce(workProcessors);
+			}
+		}
+	}
+
+	/**
+	 * Processes the slots of one processor of a stage.
+	 */
+	class RingWorker implements Runnable {
+		private final RevisionProcessor workProcessor;
+		private final RingStage previous;
+		private final boolean isLast;
+		private final int index;
+		private final int numberOfWorkers;
+
+		Thread thread;
+
+		// sequence of the last slot this worker is done with
+		volatile long sequence = -1;
+
+		RingWorker(RevisionProcessor workProcessor, RingStage previous,
+				boolean isLast, int index, int numberOfWorkers) {
+			this.workProcessor = workProcessor;
+			this.previous = previous;
+			this.isLast = isLast;
+			this.index = index;
+			this.numberOfWorkers = numberOfWorkers;
+		}
+
+		@Override
+		public void run() {
+			try {
+				long next = sequence + 1;
+
+				while (true) {
+					long available = waitFor(next);
+					if (available < next) {
+						return; // another worker failed
+					}
+
+					for (; next <= available; next++) {
+						Revision revision = get(next);
+
+						if (revision == ControlRevisions.DONE_REVISION) {
+							sequence = next;
+							return;
+						}
+
+						if (revision == ControlRevisions.FLUSH_REVISION) {
+							// every processor of the stage flushes
+							workProcessor.flush();
+						} else if (next % numberOfWorkers == index) {
+							workProcessor.processRevision(revision);
+
+							if (isLast) {
+								clear(next);
+							}
+						}
+
+						sequence = next;
+					}
+				}
+			} catch (Throwable t) {
+				fail(t);
+			}
+		}
+
+		// Waits until the given sequence is available for this worker and
+		// returns the highest available sequence (or a smaller one if a
+		// worker failed).
+		private long waitFor(long seqNum) {
+			long available = getAvailable();
+			for (int i = 0; available < seqNum; i++) {
+				if (failure.get() != null) {
+					return available;
+				}
+				backOff(i);
+				available = getAvailable();
+			}
+			return available;
+		}
+
+		private long getAvailable() {
+			if (previous == null) {
+				return getCursor();
+			} else {
+				return previous.getSequence();
+			}
+		}
+	}
+}
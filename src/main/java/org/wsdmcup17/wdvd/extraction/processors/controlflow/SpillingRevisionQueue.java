@@ -0,0 +1,213 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.wsdmcup17.wdvd.extraction.processors.controlflow;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.wsdmcup17.wdvd.extraction.revision.implementation.RevisionImpl;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
+
+/**
+ * Unbounded first-in first-out queue of revisions for one producer and one
+ * consumer thread. It holds a bounded number of revisions in memory and
+ * spills the others to segment files, which are read back and deleted in
+ * order. Hence, the producer never waits for the consumer.
+ *
+ * A spilled revision is read back without its text, item document and item
+ * summary (see {@link Revision#writeData(java.io.DataOutput)}). The control
+ * revisions are never spilled.
+ */
+public class SpillingRevisionQueue {
+
+	static final int BUFFER_SIZE = 1 << 16;
+
+	private final String name;
+
+	// maximum number of revisions held in memory
+	private final int memoryCapacity;
+
+	// maximum number of revisions per segment file
+	private final int segmentSize;
+
+	// directory of the segment files (null for the temporary directory)
+	private final File directory;
+
+	// revisions held in memory and closed segments, in order
+	private final BlockingQueue<Object> entries = new LinkedBlockingQueue<>();
+
+	// number of revisions in the entries
+	private final AtomicInteger revisionsInMemory = new AtomicInteger();
+
+	// segment being written (only used by the producer)
+	private Segment writeSegment;
+
+	// segment being read (only used by the consumer)
+	private Segment readSegment;
+
+	/**
+	 * A segment file with the number of revisions it contains.
+	 */
+	private static class Segment {
+		final File file;
+		int size;
+
+		DataOutputStream out;
+		DataInputStream in;
+
+		Segment(File file) {
+			this.file = file;
+		}
+	}
+
+	public SpillingRevisionQueue(
+			String name, int memoryCapacity, int segmentSize, File directory) {
+		this.name = name;
+		this.memoryCapacity = memoryCapacity;
+		this.segmentSize = segmentSize;
+		this.directory = directory;
+	}
+
+	/**
+	 * Appends the revision (called by the producer).
+	 */
+	public void put(Revision revision) throws IOException {
+		if (isControlRevision(revision) || hasMemory()) {
+			closeWriteSegment();
+			revisionsInMemory.incrementAndGet();
+			entries.add(revision);
+		} else {
+			if (writeSegment == null) {
+				File file = File.createTempFile(
+						"stream-" + name + "-", ".spill", directory);
+				// in case the queue is not closed after a failure
+				file.deleteOnExit();
+				writeSegment = new Segment(file);
+				writeSegment.out = new DataOutputStream(new BufferedOutputStream(
+						new FileOutputStream(writeSegment.file), BUFFER_SIZE));
+			}
+			revision.writeData(writeSegment.out);
+			writeSegment.size++;
+			if (writeSegment.size == segmentSize) {
+				closeWriteSegment();
+			}
+		}
+	}
+
+	// Once the revisions are spilled, they are kept in memory again only when
+	// the consumer has taken half of the revisions in memory. Hence, the
+	// segments do not become tiny when the consumer is about as fast as the
+	// producer.
+	private boolean hasMemory() {
+		int threshold =
+				writeSegment == null ? memoryCapacity : memoryCapacity / 2;
+		return revisionsInMemory.get() < threshold;
+	}
+
+	private void closeWriteSegment() throws IOException {
+		if (writeSegment != null) {
+			writeSegment.out.close();
+			writeSegment.out = null;
+			entries.add(writeSegment);
+			writeSegment = null;
+		}
+	}
+
+	/**
+	 * Removes the first revision, waiting until one is available (called by
+	 * the consumer).
+	 */
+	public Revision take() throws IOException, InterruptedException {
+		if (readSegment == null) {
+			Object entry = entries.take();
+			if (entry instanceof Revision) {
+				revisionsInMemory.decrementAndGet();
+				return (Revision) entry;
+			}
+			readSegment = (Segment) entry;
+			readSegment.in = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(readSegment.file), BUFFER_SIZE));
+		}
+
+		Revision revision = new RevisionImpl();
+		revision.readData(readSegment.in);
+		readSegment.size--;
+		if (readSegment.size == 0) {
+			delete(readSegment);
+			readSegment = null;
+		}
+		return revision;
+	}
+
+	/**
+	 * Deletes the segment files (called when neither the producer nor the
+	 * consumer use the queue anymore).
+	 */
+	public void close() throws IOException {
+		if (writeSegment != null) {
+			delete(writeSegment);
+			writeSegment = null;
+		}
+		if (readSegment != null) {
+			delete(readSegment);
+			readSegment = null;
+		}
+		for (Object entry: entries) {
+			if (entry instanceof Segment) {
+				delete((Segment) entry);
+			}
+		}
+		entries.clear();
+		revisionsInMemory.set(0);
+	}
+
+	private static void delete(Segment segment) throws IOException {
+		if (segment.out != null) {
+			segment.out.close();
+		}
+		if (segment.in != null) {
+			segment.in.close();
+		}
+		if (!segment.file.delete()) {
+			throw new IOException("Cannot delete " + segment.file);
+		}
+	}
+
+	private static boolean isControlRevision(Revision revision) {
+		return revision == ControlRevisions.FLUSH_REVISION
+				|| revision == ControlRevisions.DONE_REVISION;
+	}
+
+}
@@ -0,0 +1,341 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.processors.controlflow;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wsdmcup17.wdvd.extraction.processors.AbstractRevisionProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.RevisionProcessor;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
+
+/**
+ * Merges several revision streams, which are processed concurrently, into
+ * one stream in the order of the revision ids and calls the next processor
+ * on a single thread.
+ *
+ * Every stream is represented by an input processor. The merger waits until
+ * every open input has a revision available and forwards the one with the
+ * smallest revision id. Inputs must be opened in the order of their first
+ * revision id, i.e., a stream opened later must not contain revisions
+ * preceding the revisions of the streams opened before.
+ *
+ * Whenever the merger switches from one stream to another, it flushes the
+ * next processor and calls the activation of the other stream (e.g., to
+ * change the destination of the scores).
+ *
+ * Since the streams usually do not overlap, the merger forwards one stream
+ * while the others are processed ahead. Therefore, the inputs never wait for
+ * the merger: Each input buffers its revisions in a
+ * {@link SpillingRevisionQueue}, which spills them to disk beyond a bounded
+ * number of revisions in memory. Revisions read back from disk do not have
+ * their text, item document and item summary anymore. Hence, the next
+ * processor must only calculate features which do not need them.
+ */
+public class StreamMerger {
+	static final Logger logger = LoggerFactory.getLogger(StreamMerger.class);
+
+	// number of processed revisions buffered in memory per stream
+	static final int MEMORY_CAPACITY = 1024;
+
+	// number of revisions per segment file of a stream
+	static final int SEGMENT_SIZE = 65536;
+
+	private final RevisionProcessor processor;
+
+	// directory of the segment files (null for the temporary directory)
+	private final File spillDirectory;
+
+	private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+	// open inputs in the order they were opened (guarded by this)
+	private final List<Input> inputs = new ArrayList<>();
+	private boolean closed = false;
+
+	private Thread mergerThread;
+
+	// stream of the last forwarded revision (only used by the merger thread)
+	private Input current;
+
+	/**
+	 * @param spillDirectory directory of the revisions spilled to disk (null
+	 *        for the temporary directory)
+	 */
+	public StreamMerger(RevisionProcessor processor, File spillDirectory) {
+		this.processor = processor;
+		this.spillDirectory = spillDirectory;
+	}
+
+	public void start() {
+		logger.info("Starting...");
+		mergerThread = new Thread(this::merge, "Stream Merger");
+		mergerThread.start();
+	}
+
+	/**
+	 * Opens a new input. The activation is called on the merger thread
+	 * before the first revision of a sequence of revisions of this stream
+	 * is forwarded.
+	 */
+	public synchronized Input open(String name, Runnable activation) {
+		if (closed) {
+			throw new IllegalStateException("Stream merger is closed");
+		}
+		checkFailure();
+		Input input = new Input(name, activation);
+		inputs.add(input);
+		notifyAll();
+		return input;
+	}
+
+	/**
+	 * Waits until all inputs have ended and finishes the next processor.
+	 * Rethrows the failure of the merger, if any.
+	 */
+	public void stop() {
+		logger.debug("Starting to finish...");
+		synchronized (this) {
+			closed = true;
+			notifyAll();
+		}
+
+		try {
+			mergerThread.join();
+		} catch (InterruptedException e) {
+			logger.error("", e);
+		}
+		checkFailure();
+		logger.info("Finished.");
+	}
+
+	private void merge() {
+		try {
+			processor.startRevisionProcessing();
+
+			List<Input> open;
+			while ((open = awaitInputs()) != null) {
+				Input next = null;
+				for (Input input: open) {
+					Revision head = input.head();
+					if (head == ControlRevisions.FLUSH_REVISION
+							|| head == ControlRevisions.DONE_REVISION) {
+						next = input;
+						break;
+					}
+					if (next == null || head.getRevisionId()
+							< next.head().getRevisionId()) {
+						next = input;
+					}
+				}
+				forward(next);
+			}
+
+			processor.finishRevisionProcessing();
+		} catch (Throwable t) {
+			logger.error("", t);
+			fail(t);
+		}
+	}
+
+	// Releases the inputs waiting for the merger. They rethrow the failure.
+	private void fail(Throwable t) {
+		failure.compareAndSet(null, t);
+		List<Input> open;
+		synchronized (this) {
+			open = new ArrayList<>(inputs);
+			inputs.clear();
+		}
+		for (Input input: open) {
+			if (input.flushLatch != null) {
+				input.flushLatch.countDown();
+			}
+			input.endLatch.countDown();
+		}
+	}
+
+	private void checkFailure() {
+		Throwable t = failure.get();
+		if (t != null) {
+			throw new IllegalStateException("Stream merging failed", t);
+		}
+	}
+
+	private void forward(Input input) {
+		Revision revision = input.head;
+		input.head = null;
+
+		if (revision == ControlRevisions.FLUSH_REVISION) {
+			processor.flush();
+			input.flushLatch.countDown();
+		} else if (revision == ControlRevisions.DONE_REVISION) {
+			processor.flush();
+			if (current == input) {
+				current = null;
+			}
+			synchronized (this) {
+				inputs.remove(input);
+			}
+			input.close();
+			logger.info("Stream " + input.name + " ended");
+			input.endLatch.countDown();
+		} else {
+			if (current != input) {
+				if (current != null) {
+					processor.flush();
+				}
+				input.activation.run();
+				current = input;
+			}
+			processor.processRevision(revision);
+		}
+	}
+
+	// Returns a snapshot of the open inputs, or null if the merger has been
+	// closed and all inputs have ended.
+	private synchronized List<Input> awaitInputs() throws InterruptedException {
+		while (inputs.isEmpty()) {
+			if (closed) {
+				return null;
+			}
+			wait();
+		}
+		return new ArrayList<>(inputs);
+	}
+
+	/**
+	 * Receives the revisions of one stream.
+	 */
+	public class Input extends AbstractRevisionProcessor {
+		final SpillingRevisionQueue queue;
+
+		final String name;
+		final Runnable activation;
+
+		final CountDownLatch endLatch = new CountDownLatch(1);
+		volatile CountDownLatch flushLatch;
+
+		// next revision of this stream (only used by the merger thread)
+		Revision head;
+
+		private volatile boolean ended = false;
+
+		Input(String name, Runnable activation) {
+			super(null);
+			this.name = name;
+			this.activation = activation;
+			this.queue = new SpillingRevisionQueue(
+					name, MEMORY_CAPACITY, SEGMENT_SIZE, spillDirectory);
+		}
+
+		// Waits for the next revision of this stream
+		Revision head() throws IOException, InterruptedException {
+			if (head == null) {
+				head = queue.take();
+			}
+			return head;
+		}
+
+		@Override
+		public void startRevisionProcessing() {
+			logger.info("Starting (" + name + ")...");
+		}
+
+		@Override
+		public void processRevision(Revision revision) {
+			if (ended) {
+				logger.error("Revision " + revision.getRevisionId()
+						+ " received after the end of stream " + name);
+				return;
+			}
+			put(revision);
+		}
+
+		/**
+		 * Waits until all revisions of this stream have been processed.
+		 */
+		@Override
+		public void finishRevisionProcessing() {
+			logger.debug("Starting to finish...");
+			end();
+			logger.info("Finished.");
+		}
+
+		@Override
+		public void flush() {
+			logger.debug("Flushing...");
+			flushLatch = new CountDownLatch(1);
+			put(ControlRevisions.FLUSH_REVISION);
+			await(flushLatch);
+			logger.debug("Flushing...done.");
+		}
+
+		/**
+		 * Ends the stream (if it has not ended yet) and waits until all of its
+		 * revisions have been processed.
+		 */
+		public synchronized void end() {
+			if (!ended) {
+				ended = true;
+				put(ControlRevisions.DONE_REVISION);
+			}
+			await(endLatch);
+		}
+
+		private void put(Revision revision) {
+			checkFailure();
+			try {
+				queue.put(revision);
+			} catch (IOException e) {
+				throw new RuntimeException(
+						"Cannot buffer the revisions of stream " + name, e);
+			}
+		}
+
+		private void await(CountDownLatch latch) {
+			try {
+				latch.await();
+			} catch (InterruptedException e) {
+				logger.error("", e);
+			}
+			checkFailure();
+		}
+
+		// Deletes the spilled revisions (called by the merger).
+		void close() {
+			try {
+				queue.close();
+			} catch (IOException e) {
+				logger.error("", e);
+			}
+		}
+	}
+
+}
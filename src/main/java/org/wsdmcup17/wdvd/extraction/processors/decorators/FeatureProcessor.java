@@ -24,23 +24,68 @@
 
 package org.wsdmcup17.wdvd.extraction.processors.decorators;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.List;
 
+import org.slf4j.Logger;
+
 import org.wsdmcup17.wdvd.extraction.features.Feature;
-import org.wsdmcup17.wdvd.extraction.features.FeatureValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.StatefulFeature;
+import org.wsdmcup17.wdvd.extraction.features.history.HeapFootprint;
 import org.wsdmcup17.wdvd.extraction.processors.AbstractRevisionProcessor;
 import org.wsdmcup17.wdvd.extraction.processors.RevisionProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.statistics.LatencyMetrics;
+import org.wsdmcup17.wdvd.extraction.processors.statistics.MetricsRegistry;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
+import org.wsdmcup17.wdvd.extraction.state.Checkpointable;
+import org.wsdmcup17.wdvd.extraction.state.StateIO;
+
+public class FeatureProcessor extends AbstractRevisionProcessor
+		implements Checkpointable {
 
-public class FeatureProcessor extends AbstractRevisionProcessor {
+	// number of revisions after which the heap size of the features is logged
+	static final long HEAP_SIZE_LOG_INTERVAL = 1000000;
 
 	List<Feature> features;
 
+	// size of the feature vectors (the features might be a subset of them)
+	int vectorSize;
+
+	long revisionCount = 0;
+
+	// null if the features are not measured
+	LatencyMetrics[] featureMetrics;
+
 	public FeatureProcessor(
 			RevisionProcessor processor, List<Feature> features) {
+		this(processor, features, null);
+	}
+
+	public FeatureProcessor(RevisionProcessor processor, List<Feature> features,
+			MetricsRegistry metricsRegistry) {
+		this(processor, features, metricsRegistry, features.size());
+	}
+
+	/**
+	 * Creates a processor calculating a subset of the features. If a revision
+	 * already has a feature vector, the features are added to it.
+	 */
+	public FeatureProcessor(RevisionProcessor processor, List<Feature> features,
+			MetricsRegistry metricsRegistry, int vectorSize) {
 		super(processor);
 		this.processor = processor;
 		this.features = features;
+		this.vectorSize = vectorSize;
+
+		if (metricsRegistry != null) {
+			featureMetrics = new LatencyMetrics[features.size()];
+			for (int i = 0; i < features.size(); i++) {
+				featureMetrics[i] = metricsRegistry.getFeature(features.get(i));
+			}
+		}
 	}
 
 	@Override
@@ -54,9 +99,22 @@ public class FeatureProcessor extends AbstractRevisionProcessor {
 
 	@Override
 	public void processRevision(Revision revision) {
-		for (Feature feature: features) {
-			FeatureValue value = feature.calculate(revision);
-			revision.setFeatureValue(feature, value);
+		FeatureVector vector = revision.getFeatureVector();
+		if (vector == null) {
+			vector = new FeatureVector(vectorSize);
+		}
+		if (featureMetrics == null) {
+			for (Feature feature: features) {
+				feature.calculate(revision, vector);
+			}
+		} else {
+			calculateMeasured(revision, vector);
+		}
+		revision.setFeatureVector(vector);
+
+		revisionCount++;
+		if (revisionCount % HEAP_SIZE_LOG_INTERVAL == 0) {
+			logHeapSizes(logger, "", features);
 		}
 
 		if (processor != null) {
@@ -68,6 +126,7 @@ public class FeatureProcessor extends AbstractRevisionProcessor {
 	@Override
 	public void finishRevisionProcessing() {
 		logger.debug("Starting to finish...");
+		logHeapSizes(logger, "", features);
 
 		if (processor != null) {
 			processor.finishRevisionProcessing();
@@ -75,4 +134,60 @@ public class FeatureProcessor extends AbstractRevisionProcessor {
 		logger.info("Finished.");
 	}
 
+	/**
+	 * Logs the estimated heap size of all features keeping a history.
+	 */
+	static void logHeapSizes(
+			Logger logger, String prefix, List<Feature> features) {
+		for (Feature feature: features) {
+			if (feature instanceof HeapFootprint) {
+				long heapSize = ((HeapFootprint) feature).getHeapSize();
+				logger.info(String.format("%sHeap size of %s: %.1f MB",
+						prefix, feature.getName(), heapSize / (1024.0 * 1024.0)));
+			}
+		}
+	}
+
+	@Override
+	public void writeState(DataOutputStream out) throws IOException {
+		writeFeatureStates(out, features);
+	}
+
+	@Override
+	public void readState(DataInputStream in) throws IOException {
+		readFeatureStates(in, features);
+	}
+
+	/**
+	 * Writes the state of all stateful features, each preceded by its name.
+	 */
+	static void writeFeatureStates(DataOutputStream out, List<Feature> features)
+			throws IOException {
+		for (Feature feature: features) {
+			if (feature instanceof StatefulFeature) {
+				out.writeUTF(feature.getName());
+				((StatefulFeature) feature).writeState(out);
+			}
+		}
+	}
+
+	static void readFeatureStates(DataInputStream in, List<Feature> features)
+			throws IOException {
+		for (Feature feature: features) {
+			if (feature instanceof StatefulFeature) {
+				StateIO.readSection(in, feature.getName());
+				((StatefulFeature) feature).readState(in);
+			}
+		}
+	}
+
+	private void calculateMeasured(Revision revision, FeatureVector vector) {
+		for (int i = 0; i < featureMetrics.length; i++) {
+			Feature feature = features.get(i);
+			long start = System.nanoTime();
+			feature.calculate(revision, vector);
+			featureMetrics[i].record(System.nanoTime() - start);
+		}
+	}
+
 }
@@ -0,0 +1,753 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.processors.decorators;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.wikidata.wdtk.datamodel.interfaces.GlobeCoordinatesValue;
+import org.wsdmcup17.wdvd.extraction.revision.implementation.ItemSummaryImpl;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.ItemSummary;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Computes the {@link ItemSummary} of an item in a single pass over its JSON
+ * with Jackson's streaming API, i.e., without creating an item document.
+ *
+ * Only documents having the usual structure of a Wikidata item are handled.
+ * For all other documents (redirects, syntax errors, missing fields, values
+ * the Wikidata Toolkit would reject, ...) null is returned and the caller has
+ * to fall back to {@link JsonProcessor#parseJson(String)}. Hence, the summary
+ * is the same as the one computed from the item document and the parsing
+ * problems are reported exactly as before.
+ */
+class ItemSummaryParser {
+	// Thread-safe, creating parsers is cheap
+	private static final JsonFactory jsonFactory = new JsonFactory()
+			.enable(JsonParser.Feature.STRICT_DUPLICATE_DETECTION);
+
+	// Same pattern the Wikidata Toolkit uses to decompose time strings
+	private static final Pattern TIME_PATTERN =
+			Pattern.compile("(?<!\\A)[\\-\\:TZ]");
+
+	private static final int
+		PROPERTY_INSTANCE_OF = 31,
+		PROPERTY_DATE_OF_BIRTH = 569,
+		PROPERTY_DATE_OF_DEATH = 570,
+		ITEM_HUMAN = 5;
+
+	// Marks a nested object or array within a data value
+	private static final Object NESTED = new Object();
+
+	private final JsonParser parser;
+	private final ItemSummary summary = new ItemSummaryImpl();
+
+	// Scalar fields of the current data value
+	private final Map<String, Object> dataValueFields = new HashMap<>();
+
+	private ItemSummaryParser(JsonParser parser) {
+		this.parser = parser;
+	}
+
+	/**
+	 * Returns the summary of the item or null if the text has to be parsed
+	 * with {@link JsonProcessor#parseJson(String)}.
+	 */
+	static ItemSummary parse(String text) {
+		try (JsonParser parser = jsonFactory.createParser(text)) {
+			return new ItemSummaryParser(parser).parseItem();
+		} catch (IOException | UnexpectedStructureException e) {
+			return null;
+		}
+	}
+
+	private ItemSummary parseItem()
+			throws IOException, UnexpectedStructureException {
+		expect(parser.nextToken(), JsonToken.START_OBJECT);
+
+		boolean hasType = false;
+		boolean hasId = false;
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			JsonToken token = parser.nextToken();
+			switch (field) {
+			case "type":
+				expect(token, JsonToken.VALUE_STRING);
+				check("item".equals(parser.getText()));
+				hasType = true;
+				break;
+			case "id":
+				expect(token, JsonToken.VALUE_STRING);
+				summary.setItemId(parseEntityId(parser.getText(), 'Q'));
+				hasId = true;
+				break;
+			case "lastrevid":
+				expect(token, JsonToken.VALUE_NUMBER_INT);
+				break;
+			case "labels":
+				if (isEmptyMap(token)) {
+					break;
+				}
+				summary.setNumberOfLabels(parseTerms(true));
+				break;
+			case "descriptions":
+				if (isEmptyMap(token)) {
+					break;
+				}
+				summary.setNumberOfDescriptions(parseTerms(false));
+				break;
+			case "aliases":
+				// The aliases are ignored if they are given as an array
+				if (token == JsonToken.START_ARRAY) {
+					parser.skipChildren();
+					break;
+				}
+				if (isEmptyMap(token)) {
+					break;
+				}
+				summary.setNumberOfAliases(parseAliases());
+				break;
+			case "claims":
+				if (isEmptyMap(token)) {
+					break;
+				}
+				parseClaims();
+				break;
+			case "sitelinks":
+				if (isEmptyMap(token)) {
+					break;
+				}
+				parseSitelinks();
+				break;
+			default:
+				parser.skipChildren();
+				break;
+			}
+		}
+		expect(parser.getCurrentToken(), JsonToken.END_OBJECT);
+		check(hasType && hasId);
+
+		return summary;
+	}
+
+	// Labels and descriptions
+	private int parseTerms(boolean labels)
+			throws IOException, UnexpectedStructureException {
+		expect(parser.getCurrentToken(), JsonToken.START_OBJECT);
+
+		int result = 0;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String language = parser.getCurrentName();
+			expect(parser.nextToken(), JsonToken.START_OBJECT);
+			String text = parseTerm(language);
+			if (labels && ItemSummaryImpl.LANGUAGE_ENGLISH.equals(language)) {
+				summary.setEnglishLabel(text);
+			}
+			result++;
+		}
+		expect(parser.getCurrentToken(), JsonToken.END_OBJECT);
+
+		return result;
+	}
+
+	private int parseAliases()
+			throws IOException, UnexpectedStructureException {
+		expect(parser.getCurrentToken(), JsonToken.START_OBJECT);
+
+		int result = 0;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String language = parser.getCurrentName();
+			expect(parser.nextToken(), JsonToken.START_ARRAY);
+			while (parser.nextToken() == JsonToken.START_OBJECT) {
+				parseTerm(language);
+				result++;
+			}
+			expect(parser.getCurrentToken(), JsonToken.END_ARRAY);
+		}
+		expect(parser.getCurrentToken(), JsonToken.END_OBJECT);
+
+		return result;
+	}
+
+	// Returns the text of a monolingual text value
+	private String parseTerm(String expectedLanguage)
+			throws IOException, UnexpectedStructureException {
+		String language = null;
+		String text = null;
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			JsonToken token = parser.nextToken();
+			switch (field) {
+			case "language":
+				expect(token, JsonToken.VALUE_STRING);
+				language = parser.getText();
+				break;
+			case "value":
+				expect(token, JsonToken.VALUE_STRING);
+				text = parser.getText();
+				break;
+			default:
+				parser.skipChildren();
+				break;
+			}
+		}
+		expect(parser.getCurrentToken(), JsonToken.END_OBJECT);
+
+		// The language must match, otherwise several labels might be merged
+		check(expectedLanguage.equals(language) && text != null);
+
+		return text;
+	}
+
+	private void parseClaims()
+			throws IOException, UnexpectedStructureException {
+		expect(parser.getCurrentToken(), JsonToken.START_OBJECT);
+
+		int numberOfProperties = 0;
+		int numberOfStatements = 0;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String property = parser.getCurrentName();
+			int propertyId = parseEntityId(property, 'P');
+			if (propertyId == PROPERTY_DATE_OF_BIRTH) {
+				summary.setDateOfBirth(true);
+			}
+			if (propertyId == PROPERTY_DATE_OF_DEATH) {
+				summary.setDateOfDeath(true);
+			}
+
+			expect(parser.nextToken(), JsonToken.START_ARRAY);
+			int statementsOfProperty = 0;
+			while (parser.nextToken() == JsonToken.START_OBJECT) {
+				boolean isHuman = parseStatement(property);
+				if (isHuman && propertyId == PROPERTY_INSTANCE_OF) {
+					summary.setHuman(true);
+				}
+				statementsOfProperty++;
+			}
+			expect(parser.getCurrentToken(), JsonToken.END_ARRAY);
+
+			// A statement group must not be empty
+			check(statementsOfProperty > 0);
+			numberOfStatements += statementsOfProperty;
+			numberOfProperties++;
+		}
+		expect(parser.getCurrentToken(), JsonToken.END_OBJECT);
+
+		summary.setNumberOfProperties(numberOfProperties);
+		summary.setNumberOfStatements(numberOfStatements);
+	}
+
+	// Returns whether the main snak has the value human (Q5)
+	private boolean parseStatement(String property)
+			throws IOException, UnexpectedStructureException {
+		boolean hasMainsnak = false;
+		boolean isHuman = false;
+		boolean hasId = false;
+		boolean hasRank = false;
+		Map<String, Integer> qualifiers = null;
+		List<String> qualifiersOrder = null;
+		int numberOfReferences = 0;
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			JsonToken token = parser.nextToken();
+			switch (field) {
+			case "mainsnak":
+				expect(token, JsonToken.START_OBJECT);
+				isHuman = parseSnak(property);
+				hasMainsnak = true;
+				break;
+			case "id":
+				expect(token, JsonToken.VALUE_STRING);
+				hasId = true;
+				break;
+			case "rank":
+				expect(token, JsonToken.VALUE_STRING);
+				String rank = parser.getText();
+				check(rank.equals("normal") || rank.equals("preferred")
+						|| rank.equals("deprecated"));
+				hasRank = true;
+				break;
+			case "qualifiers":
+				qualifiers = parseSnakGroups();
+				break;
+			case "qualifiers-order":
+				qualifiersOrder = parsePropertyOrder();
+				break;
+			case "references":
+				expect(token, JsonToken.START_ARRAY);
+				while (parser.nextToken() == JsonToken.START_OBJECT) {
+					parseReference();
+					numberOfReferences++;
+				}
+				expect(parser.getCurrentToken(), JsonToken.END_ARRAY);
+				break;
+			default:
+				parser.skipChildren();
+				break;
+			}
+		}
+		expect(parser.getCurrentToken(), JsonToken.END_OBJECT);
+		check(hasMainsnak && hasId && hasRank);
+
+		// Only the qualifiers listed in the qualifiers order are considered
+		if (qualifiersOrder != null) {
+			if (qualifiers == null) {
+				qualifiers = new HashMap<>();
+			}
+			summary.setNumberOfQualifiers(summary.getNumberOfQualifiers()
+					+ countSnaks(qualifiers, qualifiersOrder));
+		}
+		summary.setNumberOfReferences(
+				summary.getNumberOfReferences() + numberOfReferences);
+
+		return isHuman;
+	}
+
+	private void parseReference()
+			throws IOException, UnexpectedStructureException {
+		Map<String, Integer> snaks = null;
+		List<String> snaksOrder = null;
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			parser.nextToken();
+			switch (field) {
+			case "snaks":
+				snaks = parseSnakGroups();
+				break;
+			case "snaks-order":
+				snaksOrder = parsePropertyOrder();
+				break;
+			default:
+				parser.skipChildren();
+				break;
+			}
+		}
+		expect(parser.getCurrentToken(), JsonToken.END_OBJECT);
+		check(snaks != null && snaksOrder != null);
+
+		countSnaks(snaks, snaksOrder);
+	}
+
+	// Returns the number of snaks per property
+	private Map<String, Integer> parseSnakGroups()
+			throws IOException, UnexpectedStructureException {
+		expect(parser.getCurrentToken(), JsonToken.START_OBJECT);
+
+		Map<String, Integer> result = new HashMap<>();
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String property = parser.getCurrentName();
+			parseEntityId(property, 'P');
+			expect(parser.nextToken(), JsonToken.START_ARRAY);
+			int numberOfSnaks = 0;
+			while (parser.nextToken() == JsonToken.START_OBJECT) {
+				parseSnak(property);
+				numberOfSnaks++;
+			}
+			expect(parser.getCurrentToken(), JsonToken.END_ARRAY);
+			result.put(property, numberOfSnaks);
+		}
+		expect(parser.getCurrentToken(), JsonToken.END_OBJECT);
+
+		return result;
+	}
+
+	private List<String> parsePropertyOrder()
+			throws IOException, UnexpectedStructureException {
+		expect(parser.getCurrentToken(), JsonToken.START_ARRAY);
+
+		List<String> result = new ArrayList<>();
+		while (parser.nextToken() == JsonToken.VALUE_STRING) {
+			result.add(parser.getText());
+		}
+		expect(parser.getCurrentToken(), JsonToken.END_ARRAY);
+
+		return result;
+	}
+
+	// Every property in the order is a non-empty snak group
+	private static int countSnaks(
+			Map<String, Integer> snaks, List<String> order)
+			throws UnexpectedStructureException {
+		int result = 0;
+		for (String property: order) {
+			Integer numberOfSnaks = snaks.get(property);
+			check(numberOfSnaks != null && numberOfSnaks > 0);
+			result += numberOfSnaks;
+		}
+		return result;
+	}
+
+	// Returns whether the snak has the value human (Q5)
+	private boolean parseSnak(String expectedProperty)
+			throws IOException, UnexpectedStructureException {
+		String snakType = null;
+		String property = null;
+		boolean hasDataValue = false;
+		boolean isHuman = false;
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			JsonToken token = parser.nextToken();
+			switch (field) {
+			case "snaktype":
+				expect(token, JsonToken.VALUE_STRING);
+				snakType = parser.getText();
+				break;
+			case "property":
+				expect(token, JsonToken.VALUE_STRING);
+				property = parser.getText();
+				break;
+			case "datatype":
+				expect(token, JsonToken.VALUE_STRING);
+				break;
+			case "datavalue":
+				expect(token, JsonToken.START_OBJECT);
+				isHuman = parseDataValue();
+				hasDataValue = true;
+				break;
+			default:
+				parser.skipChildren();
+				break;
+			}
+		}
+		expect(parser.getCurrentToken(), JsonToken.END_OBJECT);
+
+		// All snaks of a group must have the same property
+		check(expectedProperty.equals(property));
+
+		if ("value".equals(snakType)) {
+			check(hasDataValue);
+			return isHuman;
+		} else {
+			check("somevalue".equals(snakType) || "novalue".equals(snakType));
+			return false;
+		}
+	}
+
+	// Returns whether the value is the item human (Q5)
+	private boolean parseDataValue()
+			throws IOException, UnexpectedStructureException {
+		String type = null;
+		Object value = null;
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			JsonToken token = parser.nextToken();
+			switch (field) {
+			case "type":
+				expect(token, JsonToken.VALUE_STRING);
+				type = parser.getText();
+				break;
+			case "value":
+				if (token == JsonToken.VALUE_STRING) {
+					value = parser.getText();
+				} else {
+					expect(token, JsonToken.START_OBJECT);
+					parseDataValueFields();
+					value = dataValueFields;
+				}
+				break;
+			default:
+				parser.skipChildren();
+				break;
+			}
+		}
+		expect(parser.getCurrentToken(), JsonToken.END_OBJECT);
+		check(type != null && value != null);
+
+		if (type.equals("string")) {
+			check(value instanceof String);
+			return false;
+		}
+
+		// All other data values are objects
+		check(value == dataValueFields);
+		switch (type) {
+		case "wikibase-entityid":
+			return checkEntityIdValue();
+		case "monolingualtext":
+			checkMonolingualTextValue();
+			return false;
+		case "time":
+			checkTimeValue();
+			return false;
+		case "globecoordinate":
+			checkGlobeCoordinatesValue();
+			return false;
+		case "quantity":
+			checkQuantityValue();
+			return false;
+		default:
+			throw new UnexpectedStructureException();
+		}
+	}
+
+	// Stores the scalar fields of the value object in dataValueFields
+	private void parseDataValueFields()
+			throws IOException, UnexpectedStructureException {
+		dataValueFields.clear();
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			Object fieldValue;
+			switch (parser.nextToken()) {
+			case VALUE_STRING:
+				fieldValue = parser.getText();
+				break;
+			case VALUE_NUMBER_INT:
+				if (parser.getNumberType() == JsonParser.NumberType.INT) {
+					fieldValue = parser.getIntValue();
+				} else {
+					fieldValue = parser.getDecimalValue();
+				}
+				break;
+			case VALUE_NUMBER_FLOAT:
+				fieldValue = parser.getDecimalValue();
+				break;
+			case VALUE_NULL:
+				fieldValue = null;
+				break;
+			default:
+				parser.skipChildren();
+				fieldValue = NESTED;
+				break;
+			}
+			dataValueFields.put(field, fieldValue);
+		}
+		expect(parser.getCurrentToken(), JsonToken.END_OBJECT);
+	}
+
+	private boolean checkEntityIdValue() throws UnexpectedStructureException {
+		Object entityType = dataValueFields.get("entity-type");
+		Object numericId = dataValueFields.get("numeric-id");
+		check(numericId instanceof Integer);
+
+		if ("item".equals(entityType)) {
+			return (Integer) numericId == ITEM_HUMAN;
+		} else {
+			check("property".equals(entityType));
+			return false;
+		}
+	}
+
+	private void checkMonolingualTextValue()
+			throws UnexpectedStructureException {
+		check(dataValueFields.get("text") instanceof String);
+		check(dataValueFields.get("language") instanceof String);
+	}
+
+	private void checkTimeValue() throws UnexpectedStructureException {
+		Object time = dataValueFields.get("time");
+		check(time instanceof String);
+		try {
+			String[] substrings = TIME_PATTERN.split((String) time);
+			Long.parseLong(substrings[0]);
+			for (int i = 1; i <= 5; i++) {
+				Byte.parseByte(substrings[i]);
+			}
+		} catch (RuntimeException e) {
+			throw new UnexpectedStructureException();
+		}
+
+		checkOptionalInteger("timezone");
+		checkOptionalInteger("before");
+		checkOptionalInteger("after");
+		checkOptionalInteger("precision");
+		check(dataValueFields.get("calendarmodel") instanceof String);
+	}
+
+	private void checkOptionalInteger(String field)
+			throws UnexpectedStructureException {
+		Object value = dataValueFields.get(field);
+		check(value == null || value instanceof Integer);
+	}
+
+	private void checkGlobeCoordinatesValue()
+			throws UnexpectedStructureException {
+		double latitude = getDouble("latitude");
+		double longitude = getDouble("longitude");
+		check(latitude <= 90 * GlobeCoordinatesValue.PREC_DEGREE
+				&& latitude >= -90 * GlobeCoordinatesValue.PREC_DEGREE);
+		check(longitude <= 360 * GlobeCoordinatesValue.PREC_DEGREE
+				&& longitude >= -360 * GlobeCoordinatesValue.PREC_DEGREE);
+
+		// A missing or non-positive precision is replaced by a default value
+		Object precision = dataValueFields.get("precision");
+		check(precision == null || precision instanceof Integer
+				|| precision instanceof BigDecimal);
+
+		// A missing globe is replaced by a default value, but a null globe
+		// causes a NullPointerException in the Wikidata Toolkit
+		if (dataValueFields.containsKey("globe")) {
+			check(dataValueFields.get("globe") instanceof String);
+		}
+	}
+
+	private double getDouble(String field)
+			throws UnexpectedStructureException {
+		Object value = dataValueFields.get(field);
+		if (value instanceof Integer) {
+			return (Integer) value;
+		} else {
+			check(value instanceof BigDecimal);
+			return ((BigDecimal) value).doubleValue();
+		}
+	}
+
+	private void checkQuantityValue() throws UnexpectedStructureException {
+		BigDecimal amount = getBigDecimal("amount");
+		BigDecimal lowerBound = getBigDecimal("lowerBound");
+		BigDecimal upperBound = getBigDecimal("upperBound");
+		check(lowerBound.compareTo(amount) <= 0);
+		check(amount.compareTo(upperBound) <= 0);
+		check(dataValueFields.get("unit") instanceof String);
+	}
+
+	private BigDecimal getBigDecimal(String field)
+			throws UnexpectedStructureException {
+		Object value = dataValueFields.get(field);
+		if (value instanceof Integer) {
+			return BigDecimal.valueOf((Integer) value);
+		} else if (value instanceof BigDecimal) {
+			return (BigDecimal) value;
+		} else {
+			check(value instanceof String);
+			String text = ((String) value).trim();
+			check(text.length() > 0);
+			try {
+				return new BigDecimal(text);
+			} catch (NumberFormatException e) {
+				throw new UnexpectedStructureException();
+			}
+		}
+	}
+
+	private void parseSitelinks()
+			throws IOException, UnexpectedStructureException {
+		expect(parser.getCurrentToken(), JsonToken.START_OBJECT);
+
+		int numberOfSitelinks = 0;
+		int numberOfBadges = 0;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String key = parser.getCurrentName();
+			expect(parser.nextToken(), JsonToken.START_OBJECT);
+
+			String site = null;
+			String title = null;
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				JsonToken token = parser.nextToken();
+				switch (field) {
+				case "site":
+					expect(token, JsonToken.VALUE_STRING);
+					site = parser.getText();
+					break;
+				case "title":
+					expect(token, JsonToken.VALUE_STRING);
+					title = parser.getText();
+					break;
+				case "badges":
+					expect(token, JsonToken.START_ARRAY);
+					while (parser.nextToken() == JsonToken.VALUE_STRING) {
+						numberOfBadges++;
+					}
+					expect(parser.getCurrentToken(), JsonToken.END_ARRAY);
+					break;
+				default:
+					parser.skipChildren();
+					break;
+				}
+			}
+			expect(parser.getCurrentToken(), JsonToken.END_OBJECT);
+			check(site != null && title != null);
+
+			if (ItemSummaryImpl.SITE_ENGLISH_WIKIPEDIA.equals(key)) {
+				summary.setEnglishSitelink(title);
+			}
+			numberOfSitelinks++;
+		}
+		expect(parser.getCurrentToken(), JsonToken.END_OBJECT);
+
+		summary.setNumberOfSitelinks(numberOfSitelinks);
+		summary.setNumberOfBadges(numberOfBadges);
+	}
+
+	// Empty maps are serialized as empty arrays (or are sometimes null)
+	private boolean isEmptyMap(JsonToken token)
+			throws IOException, UnexpectedStructureException {
+		if (token == JsonToken.VALUE_NULL) {
+			return true;
+		} else if (token == JsonToken.START_ARRAY) {
+			expect(parser.nextToken(), JsonToken.END_ARRAY);
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	// Entity ids have the form "Q<integer>" or "P<integer>"
+	private static int parseEntityId(String id, char prefix)
+			throws UnexpectedStructureException {
+		check(id.length() > 1 && id.charAt(0) == prefix);
+		try {
+			return Integer.parseInt(id.substring(1));
+		} catch (NumberFormatException e) {
+			throw new UnexpectedStructureException();
+		}
+	}
+
+	private static void expect(JsonToken actual, JsonToken expected)
+			throws UnexpectedStructureException {
+		check(actual == expected);
+	}
+
+	private static void check(boolean condition)
+			throws UnexpectedStructureException {
+		if (!condition) {
+			throw new UnexpectedStructureException();
+		}
+	}
+
+	// Control flow only, hence without stack trace
+	private static class UnexpectedStructureException extends Exception {
+		private static final long serialVersionUID = 1L;
+
+		UnexpectedStructureException() {
+			super(null, null, false, false);
+		}
+	}
+}
@@ -34,7 +34,8 @@ import org.wikidata.wdtk.datamodel.json.jackson.JacksonItemDocument;
 import org.wikidata.wdtk.datamodel.json.jackson.JacksonTermedStatementDocument;
 import org.wsdmcup17.wdvd.extraction.processors.AbstractRevisionProcessor;
 import org.wsdmcup17.wdvd.extraction.processors.RevisionProcessor;
-import org.wsdmcup17.wdvd.extraction.revision.implementation.RevisionImpl;
+import org.wsdmcup17.wdvd.extraction.revision.implementation.ItemSummaryImpl;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.ItemSummary;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -56,6 +57,14 @@ public class JsonProcessor extends AbstractRevisionProcessor {
 
 	static ObjectMapper redirectMapper = new ObjectMapper();
 
+	static final String
+		LOG_MSG_EMPTY = "Revisions with empty text element: %s",
+		LOG_MSG_INCONSISTENT = "Revisions with inconsistency (JSON <-> XML): %s",
+		LOG_MSG_JSON_EXCEPTION = "Revisions with JSONException: %s",
+		LOG_MSG_NULL_POINTER_EXCEPTION = "Revisions with NullPointerException: %s",
+		LOG_MSG_NEW_JSON = "Revisions with new JSON format: %s",
+		LOG_MSG_REDIRECT = "Revisions with redirects: %s";
+
 	// parsing problems
 	private SummaryStatistics emptyJsonStatistics = new SummaryStatistics();
 	private SummaryStatistics inconsistentJsonXMLStatistics = new SummaryStatistics();
@@ -66,8 +75,16 @@ public class JsonProcessor extends AbstractRevisionProcessor {
 	private SummaryStatistics newJsonStatistics = new SummaryStatistics();
 	private SummaryStatistics redirectStatistics = new SummaryStatistics();
 
+	private final JsonParsingMode parsingMode;
+
 	public JsonProcessor(RevisionProcessor processor, int number) {
+		this(processor, number, JsonParsingMode.DATABIND);
+	}
+
+	public JsonProcessor(RevisionProcessor processor, int number,
+			JsonParsingMode parsingMode) {
 		super(processor);
+		this.parsingMode = parsingMode;
 		this.logger = LoggerFactory.getLogger("" + JsonProcessor.class + number);
 	}
 
@@ -88,22 +105,37 @@ public class JsonProcessor extends AbstractRevisionProcessor {
 			emptyJsonStatistics.addValue(revision.getRevisionId());
 			logger.debug("Empty text element: Revision " + revision.getRevisionId());
 		} else {
-			ParsingResult parsingResult;
-
 			try {
-				// Might throw a JSONException or NullPointerException (see below)
-				parsingResult = parseJson(revision.getText());
+				JsonVersion jsonVersion = JsonVersion.NEW;
+				ItemDocument itemDocument = null;
+				ItemSummary itemSummary = null;
+
+				if (parsingMode == JsonParsingMode.STREAMING) {
+					// Returns null if the JSON does not have the usual
+					// structure (then it is parsed as in the databind mode)
+					itemSummary = ItemSummaryParser.parse(revision.getText());
+				}
+
+				if (itemSummary == null) {
+					// Might throw a JSONException or NullPointerException (see below)
+					ParsingResult parsingResult = parseJson(revision.getText());
+					jsonVersion = parsingResult.jsonVersion;
+
+					if (jsonVersion != JsonVersion.REDIRECT) {
+						itemDocument = parsingResult.itemDocument;
+						itemSummary = ItemSummaryImpl.fromItemDocument(itemDocument);
+					}
+				}
 
 				// Does the item document represent a redirect?
 				// Those itemDocuments are discarded.
-				if (parsingResult.jsonVersion == JsonVersion.REDIRECT) {
+				if (jsonVersion == JsonVersion.REDIRECT) {
 					redirectStatistics.addValue(revision.getRevisionId());
 				} else {
 					// Issue in the database dump: sometimes the item id in
 					// the JSON contradicts the item id in the XML.
 					// Those itemDocuments are discarded.
-					int jsonItemId = RevisionImpl.getItemIdFromString(
-							parsingResult.itemDocument.getItemId().getId());
+					int jsonItemId = itemSummary.getItemId();
 					if (jsonItemId != revision.getItemId()) {
 						inconsistentJsonXMLStatistics.addValue(
 							revision.getRevisionId());
@@ -114,12 +146,13 @@ public class JsonProcessor extends AbstractRevisionProcessor {
 					} else {
 						// Everything is fine: set this item document
 
-						if (parsingResult.jsonVersion == JsonVersion.NEW) {
+						if (jsonVersion == JsonVersion.NEW) {
 							newJsonStatistics.addValue(
 								revision.getRevisionId());
 						}
 
-						revision.setItemDocument(parsingResult.itemDocument);
+						revision.setItemDocument(itemDocument);
+						revision.setItemSummary(itemSummary);
 					}
 				}
 
@@ -154,25 +187,19 @@ public class JsonProcessor extends AbstractRevisionProcessor {
 			processor.finishRevisionProcessing();
 		}
 
-		logger.info(
-				"Revisions with empty text element: "
-				+ emptyJsonStatistics.getN());
-		logger.info(
-				"Revisions with inconsistency (JSON <-> XML): "
-				+ inconsistentJsonXMLStatistics.getN());
-		logger.info(
-				"Revisions with JSONException: "
-				+ jsonExceptionStatistics.getN());
-		logger.info(
-				"Revisions with NullPointerException: "
-				+ nullPointerExceptionStatistics.getN());
-
-		logger.info(
-				"Revisions with new JSON format: "
-				+ newJsonStatistics.getN());
-		logger.info(
-				"Revisions with redirects: "
-				+ redirectStatistics.getN());
+		logger.info(String.format(LOG_MSG_EMPTY,
+				emptyJsonStatistics.getN()));
+		logger.info(String.format(LOG_MSG_INCONSISTENT,
+				inconsistentJsonXMLStatistics.getN()));
+		logger.info(String.format(LOG_MSG_JSON_EXCEPTION,
+				jsonExceptionStatistics.getN()));
+		logger.info(String.format(LOG_MSG_NULL_POINTER_EXCEPTION,
+				nullPointerExceptionStatistics.getN()));
+
+		logger.info(String.format(LOG_MSG_NEW_JSON,
+				newJsonStatistics.getN()));
+		logger.info(String.format(LOG_MSG_REDIRECT,
+				redirectStatistics.getN()));
 
 		logger.info("Finished.");
 	}
@@ -0,0 +1,94 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.processors.decorators;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.math3.stat.descriptive.AggregateSummaryStatistics;
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wsdmcup17.wdvd.extraction.processors.RevisionProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.controlflow.Reducer;
+import org.wsdmcup17.wdvd.extraction.processors.statistics.MetricsProcessor;
+
+/**
+ * Merges the statistics of several {@link JsonProcessor}s executed in
+ * parallel and logs the totals.
+ */
+public class JsonStatisticsReducer implements Reducer {
+
+	static final Logger logger = LoggerFactory.getLogger(JsonProcessor.class);
+
+	@Override
+	public void reduce(List<RevisionProcessor> workerProcessors) {
+		List<SummaryStatistics> emptyJsonStatistics = new ArrayList<>();
+		List<SummaryStatistics> inconsistentJsonXMLStatistics = new ArrayList<>();
+		List<SummaryStatistics> jsonExceptionStatistics = new ArrayList<>();
+		List<SummaryStatistics> nullPointerExceptionStatistics = new ArrayList<>();
+		List<SummaryStatistics> newJsonStatistics = new ArrayList<>();
+		List<SummaryStatistics> redirectStatistics = new ArrayList<>();
+
+		for (RevisionProcessor processor: workerProcessors) {
+			if (processor instanceof MetricsProcessor) {
+				processor = ((MetricsProcessor) processor).getProcessor();
+			}
+			JsonProcessor jsonProcessor = (JsonProcessor) processor;
+
+			emptyJsonStatistics.add(
+					jsonProcessor.getEmptyJsonStatistics());
+			inconsistentJsonXMLStatistics.add(
+					jsonProcessor.getInconsistentJsonXMLStatistics());
+			jsonExceptionStatistics.add(
+					jsonProcessor.getJsonExceptionStatistics());
+			nullPointerExceptionStatistics.add(
+					jsonProcessor.getNullPointerExceptionStatistics());
+			newJsonStatistics.add(
+					jsonProcessor.getNewJsonStatistics());
+			redirectStatistics.add(
+					jsonProcessor.getRedirectStatistics());
+		}
+
+		logger.info("Total of " + workerProcessors.size() + " processors:");
+		logger.info(String.format(JsonProcessor.LOG_MSG_EMPTY,
+				getN(emptyJsonStatistics)));
+		logger.info(String.format(JsonProcessor.LOG_MSG_INCONSISTENT,
+				getN(inconsistentJsonXMLStatistics)));
+		logger.info(String.format(JsonProcessor.LOG_MSG_JSON_EXCEPTION,
+				getN(jsonExceptionStatistics)));
+		logger.info(String.format(JsonProcessor.LOG_MSG_NULL_POINTER_EXCEPTION,
+				getN(nullPointerExceptionStatistics)));
+
+		logger.info(String.format(JsonProcessor.LOG_MSG_NEW_JSON,
+				getN(newJsonStatistics)));
+		logger.info(String.format(JsonProcessor.LOG_MSG_REDIRECT,
+				getN(redirectStatistics)));
+	}
+
+	private static long getN(List<SummaryStatistics> statistics) {
+		return AggregateSummaryStatistics.aggregate(statistics).getN();
+	}
+}
@@ -0,0 +1,504 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.processors.decorators;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.wsdmcup17.wdvd.extraction.features.Feature;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.features.StateKey;
+import org.wsdmcup17.wdvd.extraction.features.StatefulFeature;
+import org.wsdmcup17.wdvd.extraction.processors.AbstractRevisionProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.RevisionProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.controlflow.ControlRevisions;
+import org.wsdmcup17.wdvd.extraction.processors.statistics.LatencyMetrics;
+import org.wsdmcup17.wdvd.extraction.processors.statistics.MetricsRegistry;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
+import org.wsdmcup17.wdvd.extraction.state.Checkpointable;
+
+import it.unimi.dsi.fastutil.HashCommon;
+
+/**
+ * Calculates the features on several threads (shards) and calls the next
+ * processor in the original order of the revisions.
+ *
+ * The features are divided into groups: one group of stateless features and
+ * one group per {@link StateKey} of the {@link StatefulFeature}s. Every shard
+ * has its own instances of all features. The stateless features of a revision
+ * are calculated by any shard (round robin), the stateful features by the
+ * shard determined by the hash of their key. Hence, all revisions with the same
+ * key are calculated by the same feature instance in the original order.
+ *
+ * If a feature throws an exception, the revision is not forwarded. The
+ * exception is rethrown by the next call of processRevision, flush, or
+ * finishRevisionProcessing.
+ */
+public class PartitionedFeatureProcessor extends AbstractRevisionProcessor
+		implements Checkpointable {
+
+	static final int MAX_QUEUE_SIZE = 128;
+
+	// interval in which waiting threads check for a failure
+	static final long FAILURE_CHECK_INTERVAL_MS = 100;
+
+	// The stateless features are group 0, the stateful features with
+	// StateKey k are group k.ordinal() + 1.
+	static final int STATELESS_GROUP = 0;
+	static final int NUMBER_OF_GROUPS = StateKey.values().length + 1;
+
+	private final int vectorSize;
+
+	// groups which contain at least one feature
+	private final int[] groups;
+
+	private final Shard[] shards;
+
+	// revisions in original order waiting for their features
+	private final BlockingQueue<Entry> pendingQueue =
+			new ArrayBlockingQueue<>(MAX_QUEUE_SIZE);
+
+	private final Thread[] shardThreads;
+	private Thread collectorThread;
+
+	// first exception of a shard or the collector (null if there is none)
+	private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+	// group masks of the shards (only used by the calling thread)
+	private final int[] masks;
+	private long seqNum = 0;
+
+	public PartitionedFeatureProcessor(RevisionProcessor processor,
+			List<Feature> features, int numberOfShards,
+			MetricsRegistry metricsRegistry) {
+		this(processor, features, numberOfShards, metricsRegistry,
+				features.size());
+	}
+
+	/**
+	 * Creates a processor calculating a subset of the features. If a revision
+	 * already has a feature vector, the features are added to it.
+	 */
+	public PartitionedFeatureProcessor(RevisionProcessor processor,
+			List<Feature> features, int numberOfShards,
+			MetricsRegistry metricsRegistry, int vectorSize) {
+		super(processor);
+		this.vectorSize = vectorSize;
+
+		boolean[] isGroupUsed = new boolean[NUMBER_OF_GROUPS];
+		for (Feature feature: features) {
+			isGroupUsed[getGroup(feature)] = true;
+		}
+		int[] tmp = new int[NUMBER_OF_GROUPS];
+		int numberOfGroups = 0;
+		for (int g = 0; g < NUMBER_OF_GROUPS; g++) {
+			if (isGroupUsed[g]) {
+				tmp[numberOfGroups++] = g;
+			}
+		}
+		this.groups = Arrays.copyOf(tmp, numberOfGroups);
+
+		LatencyMetrics[] featureMetrics = null;
+		if (metricsRegistry != null) {
+			featureMetrics = new LatencyMetrics[vectorSize];
+			for (Feature feature: features) {
+				featureMetrics[feature.getOrdinal()] =
+						metricsRegistry.getFeature(feature);
+			}
+		}
+
+		shards = new Shard[numberOfShards];
+		shardThreads = new Thread[numberOfShards];
+		for (int i = 0; i < numberOfShards; i++) {
+			shards[i] = new Shard(i, features, featureMetrics);
+		}
+		masks = new int[numberOfShards];
+	}
+
+	@Override
+	public void startRevisionProcessing() {
+		logger.info("Starting...");
+		if (processor != null) {
+			processor.startRevisionProcessing();
+		}
+
+		for (int i = 0; i < shards.length; i++) {
+			shardThreads[i] = new Thread(shards[i], "Feature Shard " + i);
+			shardThreads[i].start();
+		}
+
+		collectorThread = new Thread(new Collector(), "Feature Collector");
+		collectorThread.start();
+	}
+
+	@Override
+	public void processRevision(Revision revision) {
+		checkFailure();
+
+		// The parsed comment is generated lazily. Hence, generate it before
+		// the revision is shared among several threads.
+		revision.getParsedComment();
+
+		Arrays.fill(masks, 0);
+		for (int g: groups) {
+			int shard;
+			if (g == STATELESS_GROUP) {
+				shard = (int) (seqNum % shards.length);
+			} else {
+				int hash = StateKey.values()[g - 1].hash(revision);
+				shard = Math.floorMod(
+						HashCommon.murmurHash3(hash), shards.length);
+			}
+			masks[shard] |= 1 << g;
+		}
+		seqNum++;
+
+		int numberOfTasks = 0;
+		for (int mask: masks) {
+			if (mask != 0) {
+				numberOfTasks++;
+			}
+		}
+
+		Entry entry = new Entry(revision, numberOfTasks);
+		put(pendingQueue, entry);
+		for (int i = 0; i < shards.length; i++) {
+			if (masks[i] != 0) {
+				put(shards[i].queue, new Task(entry, masks[i]));
+			}
+		}
+	}
+
+	@Override
+	public void finishRevisionProcessing() {
+		logger.debug("Starting to finish...");
+
+		for (int i = 0; i < shards.length; i++) {
+			put(shards[i].queue, Task.DONE);
+		}
+		join(shardThreads);
+
+		put(pendingQueue, new Entry(ControlRevisions.DONE_REVISION, 0));
+		join(collectorThread);
+		checkFailure();
+
+		if (processor != null) {
+			processor.finishRevisionProcessing();
+		}
+		logger.info("Finished.");
+	}
+
+	@Override
+	public void flush() {
+		logger.debug("Flushing...");
+		checkFailure();
+
+		// the collector flushes the next processor after all previous
+		// revisions
+		Entry entry = new Entry(ControlRevisions.FLUSH_REVISION, 1);
+		put(pendingQueue, entry);
+		try {
+			while (!entry.latch.await(
+					FAILURE_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+				checkFailure();
+			}
+		} catch (InterruptedException e) {
+			logger.error("", e);
+		}
+		checkFailure();
+
+		logger.debug("Flushing...done.");
+	}
+
+	/**
+	 * Writes the state of the features of all shards. The shards are idle
+	 * after a flush.
+	 */
+	@Override
+	public void writeState(DataOutputStream out) throws IOException {
+		out.writeInt(shards.length);
+		for (Shard shard: shards) {
+			FeatureProcessor.writeFeatureStates(out, shard.allFeatures);
+		}
+	}
+
+	@Override
+	public void readState(DataInputStream in) throws IOException {
+		int numberOfShards = in.readInt();
+		if (numberOfShards != shards.length) {
+			throw new IOException("Checkpoint was written with "
+					+ numberOfShards + " feature threads, but "
+					+ shards.length + " are configured");
+		}
+		for (Shard shard: shards) {
+			FeatureProcessor.readFeatureStates(in, shard.allFeatures);
+		}
+	}
+
+	private static int getGroup(Feature feature) {
+		if (feature instanceof StatefulFeature) {
+			return ((StatefulFeature) feature).getStateKey().ordinal() + 1;
+		} else {
+			return STATELESS_GROUP;
+		}
+	}
+
+	// Waits for space in the queue unless a shard or the collector has failed
+	// (then it might never become available).
+	private <T> void put(BlockingQueue<T> queue, T element) {
+		try {
+			while (!queue.offer(
+					element, FAILURE_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+				checkFailure();
+			}
+		} catch (InterruptedException e) {
+			logger.error("", e);
+		}
+	}
+
+	private void fail(Throwable t) {
+		logger.error("", t);
+		failure.compareAndSet(null, t);
+	}
+
+	private void checkFailure() {
+		Throwable t = failure.get();
+		if (t != null) {
+			throw new IllegalStateException("Feature calculation failed", t);
+		}
+	}
+
+	private void join(Thread... threads) {
+		for (Thread thread: threads) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				logger.error("", e);
+			}
+		}
+	}
+
+	/**
+	 * A revision and the feature vectors calculated by the shards (one per
+	 * group).
+	 */
+	static class Entry {
+		final Revision revision;
+		final FeatureVector[] vectors = new FeatureVector[NUMBER_OF_GROUPS];
+		final CountDownLatch latch;
+
+		// first exception of a shard calculating the features (if any)
+		volatile Throwable failure;
+
+		Entry(Revision revision, int numberOfTasks) {
+			this.revision = revision;
+			this.latch = new CountDownLatch(numberOfTasks);
+		}
+	}
+
+	/**
+	 * The groups of features a shard calculates for a revision.
+	 */
+	static class Task {
+		static final Task DONE = new Task(null, 0);
+
+		final Entry entry;
+		final int mask;
+
+		Task(Entry entry, int mask) {
+			this.entry = entry;
+			this.mask = mask;
+		}
+	}
+
+	/**
+	 * Calculates the features with its own feature instances.
+	 */
+	class Shard implements Runnable {
+		final BlockingQueue<Task> queue =
+				new ArrayBlockingQueue<>(MAX_QUEUE_SIZE);
+
+		final int index;
+
+		// features of this shard
+		final List<Feature> allFeatures = new ArrayList<>();
+
+		// features of this shard by group
+		final List<List<Feature>> features = new ArrayList<>();
+
+		// null if the features are not measured
+		final LatencyMetrics[] featureMetrics;
+
+		long taskCount = 0;
+
+		Shard(int index, List<Feature> prototypes,
+				LatencyMetrics[] featureMetrics) {
+			this.index = index;
+			for (int g = 0; g < NUMBER_OF_GROUPS; g++) {
+				features.add(new ArrayList<>());
+			}
+			for (Feature prototype: prototypes) {
+				Feature feature = prototype.newInstance();
+				allFeatures.add(feature);
+				features.get(getGroup(prototype)).add(feature);
+			}
+			this.featureMetrics = featureMetrics;
+		}
+
+		@Override
+		public void run() {
+			try {
+				Task task = queue.take();
+				while (task != Task.DONE) {
+					calculate(task);
+
+					taskCount++;
+					if (taskCount % FeatureProcessor.HEAP_SIZE_LOG_INTERVAL == 0) {
+						logHeapSizes();
+					}
+
+					task = queue.take();
+				}
+				logHeapSizes();
+			} catch (Throwable t) {
+				fail(t);
+			}
+		}
+
+		private void logHeapSizes() {
+			FeatureProcessor.logHeapSizes(
+					logger, "Shard " + index + ": ", allFeatures);
+		}
+
+		private void calculate(Task task) {
+			Entry entry = task.entry;
+			FeatureVector vector = new FeatureVector(vectorSize);
+			for (int g: groups) {
+				if ((task.mask & (1 << g)) != 0) {
+					entry.vectors[g] = vector;
+				}
+			}
+
+			try {
+				for (int g: groups) {
+					if ((task.mask & (1 << g)) != 0) {
+						calculate(entry.revision, features.get(g), vector);
+					}
+				}
+			} catch (Throwable t) {
+				// reported by the collector
+				if (entry.failure == null) {
+					entry.failure = t;
+				}
+			} finally {
+				entry.latch.countDown();
+			}
+		}
+
+		private void calculate(
+				Revision revision, List<Feature> features, FeatureVector vector) {
+			if (featureMetrics == null) {
+				for (Feature feature: features) {
+					feature.calculate(revision, vector);
+				}
+			} else {
+				for (Feature feature: features) {
+					long start = System.nanoTime();
+					feature.calculate(revision, vector);
+					featureMetrics[feature.getOrdinal()].record(
+							System.nanoTime() - start);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Waits for the features of the revisions in original order and forwards
+	 * the revisions to the next processor.
+	 */
+	class Collector implements Runnable {
+
+		@Override
+		public void run() {
+			try {
+				Entry entry = pendingQueue.take();
+				while (entry.revision != ControlRevisions.DONE_REVISION) {
+					if (entry.revision == ControlRevisions.FLUSH_REVISION) {
+						if (processor != null) {
+							processor.flush();
+						}
+						entry.latch.countDown();
+					} else {
+						entry.latch.await();
+						if (entry.failure != null) {
+							throw new IllegalStateException(
+									"Feature calculation failed for revision "
+									+ entry.revision.getRevisionId(),
+									entry.failure);
+						}
+						entry.revision.setFeatureVector(merge(entry));
+						if (processor != null) {
+							processor.processRevision(entry.revision);
+						}
+					}
+					entry = pendingQueue.take();
+				}
+			} catch (Throwable t) {
+				fail(t);
+			}
+		}
+
+		// Copies the features of all groups into the vector of the revision
+		// or, if it does not have one yet, into the vector of the first group.
+		private FeatureVector merge(Entry entry) {
+			FeatureVector result = entry.revision.getFeatureVector();
+			int first = 0;
+			if (result == null) {
+				result = entry.vectors[groups[0]];
+				first = 1;
+			}
+			for (int i = first; i < groups.length; i++) {
+				int g = groups[i];
+				FeatureVector vector = entry.vectors[g];
+				if (vector != result) {
+					for (Feature feature: shards[0].features.get(g)) {
+						result.copy(feature, vector);
+					}
+				}
+			}
+			return result;
+		}
+	}
+
+}
@@ -24,50 +24,108 @@
 
 package org.wsdmcup17.wdvd.extraction.processors.decorators;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+
 import org.wsdmcup17.wdvd.extraction.processors.AbstractRevisionProcessor;
 import org.wsdmcup17.wdvd.extraction.processors.RevisionProcessor;
+import org.wsdmcup17.wdvd.extraction.revision.implementation.TextRegexImpl;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.TextRegex;
-
-import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.wsdmcup17.wdvd.extraction.state.Checkpointable;
+import org.wsdmcup17.wdvd.extraction.state.OffHeapLongMap;
 
 // ATTENTION: This processor is not thread safe!
-public class PrevTextRegexProcessor extends AbstractRevisionProcessor {
+public class PrevTextRegexProcessor extends AbstractRevisionProcessor
+		implements Checkpointable {
+
+	// offsets within the value of an item
+	static final int PRESENT = 0;
+	static final int LANGUAGE_WORDS = 4;
+	static final int LINKS = 8;
+	static final int QIDS = 12;
+	static final int VALUE_SIZE = 16;
 
-	Long2ObjectOpenHashMap<TextRegex> map = new Long2ObjectOpenHashMap<>();
+	// item id -> TextRegex of the previous revision (stored off-heap)
+	OffHeapLongMap map;
 
 	public PrevTextRegexProcessor(RevisionProcessor processor) {
+		this(processor, null);
+	}
+
+	/**
+	 * @param stateDirectory directory of the memory-mapped state (null if
+	 *        the state is kept in direct buffers)
+	 */
+	public PrevTextRegexProcessor(
+			RevisionProcessor processor, File stateDirectory) {
 		super(processor);
+		map = new OffHeapLongMap(VALUE_SIZE, stateDirectory);
 	}
 
 	@Override
 	public void startRevisionProcessing() {
 		logger.info("Starting...");
 
-		processor.startRevisionProcessing();
+		if (processor != null) {
+			processor.startRevisionProcessing();
+		}
 	}
 
 	@Override
 	public void processRevision(Revision revision) {
 		// look up previous TextRegex
 		long key = revision.getItemId();
-		TextRegex prevTextRegex = map.get(key);
+		TextRegex prevTextRegex = null;
+		int slot = map.find(key);
+		if (slot >= 0 && map.getInt(slot, PRESENT) != 0) {
+			prevTextRegex = new TextRegexImpl();
+			prevTextRegex.setNumberOfLanguageWords(
+					map.getInt(slot, LANGUAGE_WORDS));
+			prevTextRegex.setNumberOfLinks(map.getInt(slot, LINKS));
+			prevTextRegex.setNumberOfQids(map.getInt(slot, QIDS));
+		}
 		revision.setPrevTextRegex(prevTextRegex);
 
 		// set current TextRegex for next lookup
 		TextRegex textRegex = revision.getTextRegex();
-		map.put(key, textRegex);
+		slot = map.insert(key);
+		if (textRegex == null) {
+			map.putInt(slot, PRESENT, 0);
+		} else {
+			map.putInt(slot, PRESENT, 1);
+			map.putInt(slot, LANGUAGE_WORDS,
+					textRegex.getNumberOfLanguageWords());
+			map.putInt(slot, LINKS, textRegex.getNumberOfLinks());
+			map.putInt(slot, QIDS, textRegex.getNumberOfQids());
+		}
 
-		processor.processRevision(revision);
+		if (processor != null) {
+			processor.processRevision(revision);
+		}
 	}
 
 	@Override
 	public void finishRevisionProcessing() {
 		logger.debug("Starting to finish...");
 
-		processor.finishRevisionProcessing();
+		if (processor != null) {
+			processor.finishRevisionProcessing();
+		}
 
 		logger.info("Finished.");
 	}
 
+	@Override
+	public void writeState(DataOutputStream out) throws IOException {
+		map.writeState(out);
+	}
+
+	@Override
+	public void readState(DataInputStream in) throws IOException {
+		map.readState(in);
+	}
+
 }
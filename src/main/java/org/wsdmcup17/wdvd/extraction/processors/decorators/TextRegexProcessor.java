@@ -24,10 +24,13 @@
 
 package org.wsdmcup17.wdvd.extraction.processors.decorators;
 
-import java.util.regex.Matcher;
+import java.util.Arrays;
+import java.util.List;
 
+import org.wsdmcup17.wdvd.extraction.features.FiniteLanguage;
+import org.wsdmcup17.wdvd.extraction.features.IncrementalPatternCounter;
+import org.wsdmcup17.wdvd.extraction.features.MultiPatternCounter;
 import org.wsdmcup17.wdvd.extraction.features.word.ProportionOfLinksAdded;
-import org.wsdmcup17.wdvd.extraction.features.word.ProportionOfQidAdded;
 import org.wsdmcup17.wdvd.extraction.features.word.misc.ProportionOfLanguageAdded;
 import org.wsdmcup17.wdvd.extraction.processors.AbstractRevisionProcessor;
 import org.wsdmcup17.wdvd.extraction.processors.RevisionProcessor;
@@ -35,30 +38,62 @@ import org.wsdmcup17.wdvd.extraction.revision.implementation.TextRegexImpl;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.TextRegex;
 
+/**
+ * Counts the matches of the language, link, and QID patterns in the text of
+ * the revision. All three are counted in one pass by an automaton, with the
+ * same counts as a {@link java.util.regex.Matcher} of every pattern.
+ *
+ * If an {@link IncrementalPatternCounter} is given, only the part of the text
+ * that differs from the previous revision of the same item is scanned. The
+ * counter can be shared by several instances of this class.
+ */
 public class TextRegexProcessor extends AbstractRevisionProcessor {
 
+	private static final int LANGUAGE = 0;
+	private static final int LINK = 1;
+	private static final int QID = 2;
+
+	// A match of "Q\\d{1,8}" (ProportionOfQidAdded) does not contain another
+	// "Q". Hence, every "Q" followed by a digit starts a match.
+	private static final List<String> QID_PREFIXES = Arrays.asList(
+			"Q0", "Q1", "Q2", "Q3", "Q4", "Q5", "Q6", "Q7", "Q8", "Q9");
+
+	// Instances of this class are immutable and are safe for use by multiple
+	// concurrent threads.
+	private static final MultiPatternCounter counter = new MultiPatternCounter(
+			Arrays.asList(
+				FiniteLanguage.expand(
+						ProportionOfLanguageAdded.pattern.pattern()),
+				FiniteLanguage.expand(ProportionOfLinksAdded.pattern.pattern()),
+				QID_PREFIXES));
+
 	private boolean matchLanguages;
 
-	private Matcher languageMatcher;
-	private Matcher linkMatcher;
-	private Matcher qidMatcher;
+	// null if every text is scanned completely
+	private IncrementalPatternCounter incrementalCounter;
 
 	public TextRegexProcessor(RevisionProcessor processor, boolean matchLanguages) {
+		this(processor, matchLanguages, null);
+	}
+
+	public TextRegexProcessor(RevisionProcessor processor,
+			boolean matchLanguages, IncrementalPatternCounter incrementalCounter) {
 		super(processor);
 		this.matchLanguages = matchLanguages;
+		this.incrementalCounter = incrementalCounter;
+	}
+
+	/**
+	 * Returns a new counter to be shared by the processors of one pipeline.
+	 */
+	public static IncrementalPatternCounter createIncrementalCounter() {
+		return new IncrementalPatternCounter(counter);
 	}
 
 	@Override
 	public void startRevisionProcessing() {
 		logger.info("Starting...");
 
-		// Instances of this (Pattern) class are immutable and are safe for use
-		// by multiple concurrent threads. Instances of the Matcher class are
-		// not safe for such use.
-		languageMatcher = ProportionOfLanguageAdded.pattern.matcher("");
-		linkMatcher = ProportionOfLinksAdded.pattern.matcher("");
-		qidMatcher = ProportionOfQidAdded.pattern.matcher("");
-
 		if (processor != null) {
 			processor.startRevisionProcessing();
 		}
@@ -66,14 +101,17 @@ public class TextRegexProcessor extends AbstractRevisionProcessor {
 
 	@Override
 	public void processRevision(Revision revision) {
-		int numberOfLanguageWords = 0;
-		if (matchLanguages) {
-			numberOfLanguageWords =
-					regexCount(revision.getText(), languageMatcher);
+		int[] counts;
+		if (incrementalCounter != null) {
+			counts = incrementalCounter.count(
+					revision.getItemId(), revision.getText());
+		} else {
+			counts = counter.count(revision.getText());
 		}
 
-		int numberOfLinks = regexCount(revision.getText(), linkMatcher);
-		int numberOfQids = regexCount(revision.getText(), qidMatcher);
+		int numberOfLanguageWords = matchLanguages ? counts[LANGUAGE] : 0;
+		int numberOfLinks = counts[LINK];
+		int numberOfQids = counts[QID];
 
 		TextRegex textRegex = new TextRegexImpl();
 
@@ -99,18 +137,4 @@ public class TextRegexProcessor extends AbstractRevisionProcessor {
 		logger.info("Finished.");
 	}
 
-	// Matcher is not thread safe and should only be used within one thread
-	private static int regexCount(String str, Matcher matcher) {
-		int count = 0;
-
-		if (str != null) {
-			matcher.reset(str);
-			while (matcher.find()) {
-				count++;
-			}
-		}
-
-		return count;
-	}
-
 }
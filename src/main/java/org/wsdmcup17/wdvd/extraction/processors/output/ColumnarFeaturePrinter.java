@@ -0,0 +1,291 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.processors.output;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.wsdmcup17.wdvd.extraction.features.Feature;
+import org.wsdmcup17.wdvd.extraction.features.FeatureType;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
+
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+/**
+ * Writes the features in a binary columnar format.
+ *
+ * The file starts with a header (magic number, version, and the name and
+ * type of every feature) followed by row groups and an empty row group
+ * marking the end. A row group starts with its number of rows followed by
+ * one column per feature: a bitmap of missing values, then the values
+ * (floats and integers as 4 bytes, booleans as a bitmap, strings as a
+ * dictionary of the row group followed by an index per row). All numbers
+ * are big-endian as written by {@link DataOutputStream}.
+ *
+ * @see ColumnarFeatureReader
+ */
+public class ColumnarFeaturePrinter implements Closeable {
+	static final int MAGIC = 0x57445644; // "WDVD"
+	static final int VERSION = 1;
+
+	static final int ROW_GROUP_SIZE = 16384;
+	static final int BUFFER_SIZE = 64 * 1024;
+
+	// dictionary index of missing strings
+	static final int MISSING_INDEX = -1;
+
+	private final DataOutputStream out;
+	private final List<Feature> features;
+
+	// buffers of the current row group, indexed by column
+	private final long[][] missing;
+	private final float[][] floats;
+	private final int[][] integers;
+	private final long[][] booleans;
+	private final List<Object2IntOpenHashMap<String>> dictionaries;
+
+	private int rows;
+
+	/**
+	 * Creates a printer which omits the header if the features are appended
+	 * to an existing file.
+	 */
+	public ColumnarFeaturePrinter(List<Feature> features,
+			OutputStream outputStream, boolean printHeader) throws IOException {
+		this.out = new DataOutputStream(
+				new BufferedOutputStream(outputStream, BUFFER_SIZE));
+		this.features = features;
+
+		int columns = features.size();
+		int words = ROW_GROUP_SIZE >>> 6;
+		missing = new long[columns][words];
+		floats = new float[columns][];
+		integers = new int[columns][];
+		booleans = new long[columns][];
+		dictionaries = new ArrayList<>(columns);
+
+		for (int i = 0; i < columns; i++) {
+			FeatureType type = features.get(i).getType();
+			switch (type) {
+			case FLOAT:
+				floats[i] = new float[ROW_GROUP_SIZE];
+				break;
+			case INTEGER:
+				integers[i] = new int[ROW_GROUP_SIZE];
+				break;
+			case BOOLEAN:
+				booleans[i] = new long[words];
+				break;
+			case STRING:
+				// the index of every row is stored in the integer buffer
+				integers[i] = new int[ROW_GROUP_SIZE];
+				break;
+			default:
+				throw new IllegalStateException("Unknown feature type: " + type);
+			}
+			dictionaries.add(
+					type == FeatureType.STRING ? createDictionary() : null);
+		}
+
+		if (printHeader) {
+			printHeader();
+		}
+	}
+
+	private static Object2IntOpenHashMap<String> createDictionary() {
+		Object2IntOpenHashMap<String> dictionary = new Object2IntOpenHashMap<>();
+		dictionary.defaultReturnValue(MISSING_INDEX);
+		return dictionary;
+	}
+
+	private void printHeader() throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(features.size());
+		for (Feature feature: features) {
+			out.writeUTF(feature.getName());
+			out.writeByte(feature.getType().ordinal());
+		}
+	}
+
+	public void printFeatures(Revision revision) throws IOException {
+		FeatureVector vector = revision.getFeatureVector();
+
+		if (vector == null) {
+			throw new RuntimeException("Features not calculated (Revision "
+					+ revision.getRevisionId() + ")");
+		}
+
+		int word = rows >>> 6;
+		long bit = 1L << rows;
+
+		for (int i = 0; i < features.size(); i++) {
+			Feature feature = features.get(i);
+			int ordinal = feature.getOrdinal();
+
+			if (vector.isMissing(ordinal)) {
+				missing[i][word] |= bit;
+				if (feature.getType() == FeatureType.STRING) {
+					integers[i][rows] = MISSING_INDEX;
+				}
+				continue;
+			}
+
+			switch (feature.getType()) {
+			case FLOAT:
+				floats[i][rows] = vector.getFloat(ordinal);
+				break;
+			case INTEGER:
+				integers[i][rows] = vector.getInteger(ordinal);
+				break;
+			case BOOLEAN:
+				if (vector.getBoolean(ordinal)) {
+					booleans[i][word] |= bit;
+				}
+				break;
+			case STRING:
+				integers[i][rows] = lookup(dictionaries.get(i),
+						vector.getString(ordinal));
+				break;
+			default:
+				throw new IllegalStateException(
+						"Unknown feature type: " + feature.getType());
+			}
+		}
+
+		rows++;
+		if (rows == ROW_GROUP_SIZE) {
+			printRowGroup();
+		}
+	}
+
+	private static int lookup(
+			Object2IntOpenHashMap<String> dictionary, String value) {
+		int index = dictionary.getInt(value);
+		if (index == MISSING_INDEX) {
+			index = dictionary.size();
+			dictionary.put(value, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Writes the buffered rows as row group (if any).
+	 */
+	public void flush() throws IOException {
+		if (rows > 0) {
+			printRowGroup();
+		}
+		out.flush();
+	}
+
+	private void printRowGroup() throws IOException {
+		int words = (rows + 63) >>> 6;
+
+		out.writeInt(rows);
+		for (int i = 0; i < features.size(); i++) {
+			printWords(missing[i], words);
+
+			switch (features.get(i).getType()) {
+			case FLOAT:
+				for (int row = 0; row < rows; row++) {
+					out.writeFloat(floats[i][row]);
+				}
+				break;
+			case INTEGER:
+				printIntegers(integers[i]);
+				break;
+			case BOOLEAN:
+				printWords(booleans[i], words);
+				break;
+			case STRING:
+				printDictionary(dictionaries.get(i));
+				printIntegers(integers[i]);
+				break;
+			default:
+				throw new IllegalStateException(
+						"Unknown feature type: " + features.get(i).getType());
+			}
+		}
+
+		clear();
+	}
+
+	private void printWords(long[] bitmap, int words) throws IOException {
+		for (int i = 0; i < words; i++) {
+			out.writeLong(bitmap[i]);
+		}
+	}
+
+	private void printIntegers(int[] values) throws IOException {
+		for (int row = 0; row < rows; row++) {
+			out.writeInt(values[row]);
+		}
+	}
+
+	private void printDictionary(Object2IntOpenHashMap<String> dictionary)
+			throws IOException {
+		String[] values = new String[dictionary.size()];
+		for (Object2IntOpenHashMap.Entry<String> entry:
+				dictionary.object2IntEntrySet()) {
+			values[entry.getIntValue()] = entry.getKey();
+		}
+
+		out.writeInt(values.length);
+		for (String value: values) {
+			out.writeUTF(value);
+		}
+	}
+
+	private void clear() {
+		for (int i = 0; i < features.size(); i++) {
+			Arrays.fill(missing[i], 0L);
+			if (booleans[i] != null) {
+				Arrays.fill(booleans[i], 0L);
+			}
+			if (dictionaries.get(i) != null) {
+				dictionaries.get(i).clear();
+			}
+		}
+		rows = 0;
+	}
+
+	/**
+	 * Writes the buffered rows and the end of the file.
+	 */
+	@Override
+	public void close() throws IOException {
+		flush();
+		out.writeInt(0);
+		out.close();
+	}
+}
@@ -0,0 +1,216 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.processors.output;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.wsdmcup17.wdvd.extraction.features.FeatureType;
+
+import net.jpountz.lz4.LZ4FrameInputStream;
+
+/**
+ * Reads a feature file written by {@link ColumnarFeatureWriter} row group by
+ * row group. The values of the current row group are accessed by column and
+ * row.
+ *
+ * @see ColumnarFeaturePrinter
+ */
+public class ColumnarFeatureReader implements Closeable {
+	static final int BUFFER_SIZE = 1 * 1024 * 1024;
+
+	private final DataInputStream in;
+
+	private final String[] names;
+	private final FeatureType[] types;
+
+	// values of the current row group, indexed by column
+	private final long[][] missing;
+	private final float[][] floats;
+	private final int[][] integers;
+	private final long[][] booleans;
+	private final String[][] dictionaries;
+
+	private int rows;
+
+	public ColumnarFeatureReader(File featureFile) throws IOException {
+		this(new LZ4FrameInputStream(new BufferedInputStream(
+				new FileInputStream(featureFile), BUFFER_SIZE)));
+	}
+
+	/**
+	 * @param inputStream the uncompressed stream
+	 */
+	public ColumnarFeatureReader(InputStream inputStream) throws IOException {
+		in = new DataInputStream(new BufferedInputStream(inputStream));
+
+		if (in.readInt() != ColumnarFeaturePrinter.MAGIC) {
+			throw new IOException("Not a columnar feature file");
+		}
+		int version = in.readInt();
+		if (version != ColumnarFeaturePrinter.VERSION) {
+			throw new IOException("Unsupported version: " + version);
+		}
+
+		int columns = in.readInt();
+		names = new String[columns];
+		types = new FeatureType[columns];
+		for (int i = 0; i < columns; i++) {
+			names[i] = in.readUTF();
+			types[i] = FeatureType.values()[in.readUnsignedByte()];
+		}
+
+		int rowGroupSize = ColumnarFeaturePrinter.ROW_GROUP_SIZE;
+		missing = new long[columns][rowGroupSize >>> 6];
+		floats = new float[columns][];
+		integers = new int[columns][];
+		booleans = new long[columns][];
+		dictionaries = new String[columns][];
+		for (int i = 0; i < columns; i++) {
+			switch (types[i]) {
+			case FLOAT:
+				floats[i] = new float[rowGroupSize];
+				break;
+			case INTEGER:
+			case STRING:
+				integers[i] = new int[rowGroupSize];
+				break;
+			case BOOLEAN:
+				booleans[i] = new long[rowGroupSize >>> 6];
+				break;
+			default:
+				throw new IllegalStateException("Unknown feature type: " + types[i]);
+			}
+		}
+	}
+
+	public int getColumnCount() {
+		return names.length;
+	}
+
+	public String getName(int column) {
+		return names[column];
+	}
+
+	public FeatureType getType(int column) {
+		return types[column];
+	}
+
+	/**
+	 * Reads the next row group.
+	 *
+	 * @return false if the end of the file has been reached
+	 */
+	public boolean nextRowGroup() throws IOException {
+		rows = in.readInt();
+		if (rows == 0) {
+			return false;
+		}
+
+		int words = (rows + 63) >>> 6;
+		for (int i = 0; i < names.length; i++) {
+			readWords(missing[i], words);
+
+			switch (types[i]) {
+			case FLOAT:
+				for (int row = 0; row < rows; row++) {
+					floats[i][row] = in.readFloat();
+				}
+				break;
+			case INTEGER:
+				readIntegers(integers[i]);
+				break;
+			case BOOLEAN:
+				readWords(booleans[i], words);
+				break;
+			case STRING:
+				String[] dictionary = new String[in.readInt()];
+				for (int j = 0; j < dictionary.length; j++) {
+					dictionary[j] = in.readUTF();
+				}
+				dictionaries[i] = dictionary;
+				readIntegers(integers[i]);
+				break;
+			default:
+				throw new IllegalStateException("Unknown feature type: " + types[i]);
+			}
+		}
+		return true;
+	}
+
+	private void readWords(long[] bitmap, int words) throws IOException {
+		for (int i = 0; i < words; i++) {
+			bitmap[i] = in.readLong();
+		}
+	}
+
+	private void readIntegers(int[] values) throws IOException {
+		for (int row = 0; row < rows; row++) {
+			values[row] = in.readInt();
+		}
+	}
+
+	/**
+	 * Returns the number of rows of the current row group.
+	 */
+	public int getRowCount() {
+		return rows;
+	}
+
+	public boolean isMissing(int column, int row) {
+		return (missing[column][row >>> 6] & (1L << row)) != 0;
+	}
+
+	public float getFloat(int column, int row) {
+		return floats[column][row];
+	}
+
+	public int getInteger(int column, int row) {
+		return integers[column][row];
+	}
+
+	public boolean getBoolean(int column, int row) {
+		return (booleans[column][row >>> 6] & (1L << row)) != 0;
+	}
+
+	/**
+	 * Returns the string, or null if it is missing.
+	 */
+	public String getString(int column, int row) {
+		int index = integers[column][row];
+		return index == ColumnarFeaturePrinter.MISSING_INDEX
+				? null : dictionaries[column][index];
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+}
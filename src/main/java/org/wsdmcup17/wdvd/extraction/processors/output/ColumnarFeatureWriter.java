@@ -0,0 +1,171 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.processors.output;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.wsdmcup17.wdvd.extraction.features.Feature;
+import org.wsdmcup17.wdvd.extraction.processors.AbstractRevisionProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.RevisionProcessor;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
+import org.wsdmcup17.wdvd.extraction.state.Checkpointable;
+
+/**
+ * Writes the features to an LZ4 compressed file in a binary columnar format
+ * (see {@link ColumnarFeaturePrinter}), which can be read much faster than
+ * the CSV file.
+ *
+ * As for the CSV file, every checkpoint finishes the current compressed
+ * stream (and row group), and the file is truncated on resume.
+ */
+public class ColumnarFeatureWriter extends AbstractRevisionProcessor
+		implements Checkpointable {
+	static final int BUFFER_SIZE = 1 * 1024 * 1024;
+
+	// LZ4 is fast enough not to need an additional thread
+	static final OutputCodec CODEC = OutputCodec.LZ4;
+
+	File featureFile;
+
+	private List<Feature> features;
+
+	ColumnarFeaturePrinter featurePrinter;
+
+	OutputStream outputStream;
+
+	FileOutputStream fileOutputStream;
+
+	BufferedOutputStream bufferedOutputStream;
+
+	// length of the file at the restored checkpoint (-1 if not resumed)
+	long resumeLength = -1;
+
+	public ColumnarFeatureWriter(RevisionProcessor processor, File featureFile,
+			List<Feature> features) {
+		super(processor);
+		this.featureFile = featureFile;
+		this.features = features;
+	}
+
+	@Override
+	public void startRevisionProcessing() {
+		logger.info("Starting (" + featureFile + ")...");
+
+		try {
+			if (resumeLength >= 0) {
+				try (RandomAccessFile file =
+						new RandomAccessFile(featureFile, "rw")) {
+					file.setLength(resumeLength);
+				}
+			}
+			fileOutputStream =
+					new FileOutputStream(featureFile, resumeLength >= 0);
+			bufferedOutputStream =
+					new BufferedOutputStream(fileOutputStream, BUFFER_SIZE);
+
+			openPrinter(resumeLength < 0);
+
+		} catch (IOException e) {
+			logger.error("", e);
+		}
+
+		if (processor != null) {
+			processor.startRevisionProcessing();
+		}
+	}
+
+	@Override
+	public void processRevision(Revision revision) {
+		try {
+			featurePrinter.printFeatures(revision);
+
+		} catch (IOException e) {
+			logger.error("", e);
+		}
+
+		if (processor != null) {
+			processor.processRevision(revision);
+		}
+	}
+
+	@Override
+	public void finishRevisionProcessing() {
+		logger.debug("Starting to finish...");
+
+		if (processor != null) {
+			processor.finishRevisionProcessing();
+		}
+
+		try {
+			featurePrinter.close();
+			bufferedOutputStream.close();
+		} catch (IOException e) {
+			logger.error("", e);
+		}
+
+		logger.info("Finished.");
+	}
+
+	/**
+	 * Writes the current row group, finishes the compressed stream, forces the
+	 * file to disk and writes its length.
+	 */
+	@Override
+	public void writeState(DataOutputStream out) throws IOException {
+		featurePrinter.flush();
+		outputStream.close();
+		bufferedOutputStream.flush();
+		fileOutputStream.getFD().sync();
+
+		out.writeLong(fileOutputStream.getChannel().position());
+
+		openPrinter(false);
+	}
+
+	@Override
+	public void readState(DataInputStream in) throws IOException {
+		resumeLength = in.readLong();
+	}
+
+	private void openPrinter(boolean printHeader) throws IOException {
+		// the file stays open when the compressed stream is finished
+		outputStream = CODEC.createOutputStream(
+				new CloseShieldOutputStream(bufferedOutputStream),
+				CODEC.getDefaultLevel(), 1);
+
+		featurePrinter =
+				new ColumnarFeaturePrinter(features, outputStream, printHeader);
+	}
+
+}
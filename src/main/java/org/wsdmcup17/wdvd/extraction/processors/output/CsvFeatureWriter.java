@@ -25,60 +25,96 @@
 package org.wsdmcup17.wdvd.extraction.processors.output;
 
 import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.util.List;
 
-import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 import org.wsdmcup17.wdvd.extraction.features.Feature;
 import org.wsdmcup17.wdvd.extraction.processors.AbstractRevisionProcessor;
 import org.wsdmcup17.wdvd.extraction.processors.RevisionProcessor;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
+import org.wsdmcup17.wdvd.extraction.state.Checkpointable;
 import org.wsdmcup17.wdvd.extraction.streams.AsyncOutputStream;
 
-public class CsvFeatureWriter extends AbstractRevisionProcessor {
+/**
+ * Writes the features to a compressed CSV file (BZip2 by default).
+ *
+ * At every checkpoint, the current compressed stream is finished and a new
+ * one is started, i.e., the file is a concatenation of compressed streams (as
+ * written by pbzip2). On resume, the file is truncated to its length at the
+ * checkpoint.
+ */
+public class CsvFeatureWriter extends AbstractRevisionProcessor
+		implements Checkpointable {
 	File featureFile;
 
 	static final int BUFFER_SIZE = 1 * 1024 * 1024;
-	static final int BZIP2_BLOCKSIZE = BZip2CompressorOutputStream.MIN_BLOCKSIZE;
+	static final int COMPRESSION_THREADS =
+			Runtime.getRuntime().availableProcessors();
 
 	private List<Feature> features;
 
+	private final OutputCodec codec;
+	private final int compressionLevel;
+
 	FeatureCSVPrinter featurePrinter;
 
 	OutputStream outputStream;
 
+	FileOutputStream fileOutputStream;
+
+	BufferedOutputStream bufferedOutputStream;
+
+	// length of the file at the restored checkpoint (-1 if not resumed)
+	long resumeLength = -1;
+
 	public CsvFeatureWriter(
 			RevisionProcessor processor, File featureFile, List<Feature> features) {
+		this(processor, featureFile, features, OutputCodec.BZIP2,
+				OutputCodec.BZIP2.getDefaultLevel());
+	}
+
+	public CsvFeatureWriter(RevisionProcessor processor, File featureFile,
+			List<Feature> features, OutputCodec codec, int compressionLevel) {
 		super(processor);
 		this.processor = processor;
 		this.featureFile = featureFile;
 		this.features = features;
+		this.codec = codec;
+		this.compressionLevel = compressionLevel;
 	}
 
 	@Override
 	public void startRevisionProcessing() {
-		logger.info("Starting (" + featureFile + ")...");
+		logger.info("Starting (" + featureFile + ", " + codec + " level "
+				+ compressionLevel + ")...");
 
 		try {
-			outputStream =
-					new AsyncOutputStream(
-						new BZip2CompressorOutputStream(
-							new BufferedOutputStream(
-							new FileOutputStream(featureFile)),
-							BZIP2_BLOCKSIZE),
-						"Feature Writer Output Stream",
-						BUFFER_SIZE);
-
-			featurePrinter = new FeatureCSVPrinter(features, outputStream);
+			if (resumeLength >= 0) {
+				try (RandomAccessFile file =
+						new RandomAccessFile(featureFile, "rw")) {
+					file.setLength(resumeLength);
+				}
+			}
+			fileOutputStream =
+					new FileOutputStream(featureFile, resumeLength >= 0);
+			bufferedOutputStream = new BufferedOutputStream(fileOutputStream);
+
+			openPrinter(resumeLength < 0);
 
 		} catch (IOException e) {
 			logger.error("", e);
 		}
 
-		processor.startRevisionProcessing();
+		if (processor != null) {
+			processor.startRevisionProcessing();
+		}
 	}
 
 	@Override
@@ -90,7 +126,9 @@ public class CsvFeatureWriter extends AbstractRevisionProcessor {
 			logger.error("", e);
 		}
 
-		processor.processRevision(revision);
+		if (processor != null) {
+			processor.processRevision(revision);
+		}
 	}
 
 
@@ -98,11 +136,14 @@ public class CsvFeatureWriter extends AbstractRevisionProcessor {
 	public void finishRevisionProcessing() {
 		logger.debug("Starting to finish...");
 
-		processor.finishRevisionProcessing();
+		if (processor != null) {
+			processor.finishRevisionProcessing();
+		}
 
 		try {
 			featurePrinter.close();
 			outputStream.close();
+			bufferedOutputStream.close();
 		} catch (IOException e) {
 			logger.error("", e);
 		}
@@ -110,4 +151,39 @@ public class CsvFeatureWriter extends AbstractRevisionProcessor {
 		logger.info("Finished.");
 	}
 
+	/**
+	 * Finishes the current compressed stream, forces the file to disk and writes
+	 * its length.
+	 */
+	@Override
+	public void writeState(DataOutputStream out) throws IOException {
+		featurePrinter.close();
+		outputStream.close();
+		bufferedOutputStream.flush();
+		fileOutputStream.getFD().sync();
+
+		out.writeLong(fileOutputStream.getChannel().position());
+
+		openPrinter(false);
+	}
+
+	@Override
+	public void readState(DataInputStream in) throws IOException {
+		resumeLength = in.readLong();
+	}
+
+	private void openPrinter(boolean printHeader) throws IOException {
+		// the file stays open when the compressed stream is finished
+		outputStream =
+				new AsyncOutputStream(
+					codec.createOutputStream(
+						new CloseShieldOutputStream(bufferedOutputStream),
+						compressionLevel, COMPRESSION_THREADS),
+					"Feature Writer Output Stream",
+					BUFFER_SIZE);
+
+		featurePrinter =
+				new FeatureCSVPrinter(features, outputStream, printHeader);
+	}
+
 }
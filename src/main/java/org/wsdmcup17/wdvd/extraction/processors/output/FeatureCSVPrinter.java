@@ -24,63 +24,77 @@
 
 package org.wsdmcup17.wdvd.extraction.processors.output;
 
+import java.io.BufferedWriter;
 import java.io.Closeable;
+import java.io.FilterWriter;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.util.ArrayList;
+import java.io.Writer;
 import java.util.List;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import org.wsdmcup17.wdvd.extraction.features.Feature;
-import org.wsdmcup17.wdvd.extraction.features.FeatureValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
 public class FeatureCSVPrinter implements Closeable {
+	static final int BUFFER_SIZE = 64 * 1024;
+
 	private OutputStream outputStream;
 	private List<Feature> features;
 
 	CSVPrinter csvPrinter;
 
+	// reused for every value
+	private final StringBuilder value = new StringBuilder();
+
 	public FeatureCSVPrinter(List<Feature> features, OutputStream outputStream) throws IOException {
+		this(features, outputStream, true);
+	}
+
+	/**
+	 * Creates a printer which omits the header if the features are appended
+	 * to an existing file.
+	 */
+	public FeatureCSVPrinter(List<Feature> features, OutputStream outputStream,
+			boolean printHeader) throws IOException {
 		this.outputStream = outputStream;
 		this.features = features;
 
-		OutputStreamWriter writer =
-				new OutputStreamWriter(outputStream, "utf-8");
+		Writer writer = new CharSequenceWriter(new BufferedWriter(
+				new OutputStreamWriter(outputStream, "utf-8"), BUFFER_SIZE));
 
-		String[] header = new String[features.size()];
+		if (printHeader) {
+			String[] header = new String[features.size()];
 
-		for (int i = 0; i < features.size(); i++) {
-			header[i] = features.get(i).getName();
-		}
+			for (int i = 0; i < features.size(); i++) {
+				header[i] = features.get(i).getName();
+			}
 
 
-		csvPrinter = CSVFormat.RFC4180.withHeader(header).print(writer);
+			csvPrinter = CSVFormat.RFC4180.withHeader(header).print(writer);
+		} else {
+			csvPrinter = CSVFormat.RFC4180.print(writer);
+		}
 	}
 
 	public void printFeatures(Revision revision) throws IOException {
-		List<String> record = new ArrayList<>(features.size());
+		FeatureVector vector = revision.getFeatureVector();
 
-		for (int i = 0; i < features.size(); i++) {
-			Feature feature = features.get(i);
-			FeatureValue featureValue = revision.getFeatureValues().get(feature);
-			String writeString;
-
-			if (featureValue == null) {
-				throw new RuntimeException("Feature returned null (Revision "
-						+ revision.getRevisionId()
-						+ ", Feature "
-						+ feature.getName() + ")");
-			} else {
-				writeString = featureValue.toString();
-			}
+		if (vector == null) {
+			throw new RuntimeException("Features not calculated (Revision "
+					+ revision.getRevisionId() + ")");
+		}
 
-			record.add(writeString);
+		for (int i = 0; i < features.size(); i++) {
+			value.setLength(0);
+			vector.format(features.get(i), value);
+			csvPrinter.print(value);
 		}
 
-		csvPrinter.printRecord(record);
+		csvPrinter.println();
 	}
 
 	@Override
@@ -89,5 +103,44 @@ public class FeatureCSVPrinter implements Closeable {
 		outputStream.close();
 	}
 
+	/**
+	 * Writes appended character sequences without creating substrings (as done
+	 * by {@link Writer#append(CharSequence, int, int)}).
+	 */
+	static class CharSequenceWriter extends FilterWriter {
+		private char[] buffer = new char[64];
+
+		CharSequenceWriter(Writer writer) {
+			super(writer);
+		}
+
+		@Override
+		public Writer append(CharSequence csq) throws IOException {
+			return append(csq, 0, csq.length());
+		}
+
+		@Override
+		public Writer append(CharSequence csq, int start, int end)
+				throws IOException {
+			int length = end - start;
+			if (buffer.length < length) {
+				buffer = new char[Math.max(length, 2 * buffer.length)];
+			}
+
+			if (csq instanceof StringBuilder) {
+				((StringBuilder) csq).getChars(start, end, buffer, 0);
+			} else if (csq instanceof String) {
+				((String) csq).getChars(start, end, buffer, 0);
+			} else {
+				for (int i = 0; i < length; i++) {
+					buffer[i] = csq.charAt(start + i);
+				}
+			}
+
+			out.write(buffer, 0, length);
+			return this;
+		}
+	}
+
 
 }
@@ -0,0 +1,129 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.processors.output;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.wsdmcup17.wdvd.extraction.streams.ParallelBlockOutputStream;
+
+import com.github.luben.zstd.ZstdOutputStream;
+
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import net.jpountz.xxhash.XXHashFactory;
+
+/**
+ * Compression formats of the feature file.
+ */
+public enum OutputCodec {
+	// BZip2 compressed on a single thread
+	BZIP2("bzip2", BZip2CompressorOutputStream.MIN_BLOCKSIZE),
+
+	// BZip2 compressed in independent blocks on several threads (as by
+	// pbzip2), readable by every BZip2 decompressor supporting concatenated
+	// streams
+	PBZIP2("pbzip2", BZip2CompressorOutputStream.MAX_BLOCKSIZE),
+
+	// Zstandard frame compressed on several threads
+	ZSTD("zstd", 3),
+
+	// LZ4 frame (the level selects the high compression mode if positive)
+	LZ4("lz4", 0);
+
+	// amount of data compressed as one stream per BZip2 level
+	static final int PBZIP2_BLOCK_SIZE_PER_LEVEL = 100000;
+
+	private final String text;
+	private final int defaultLevel;
+
+	private OutputCodec(final String text, final int defaultLevel) {
+		this.text = text;
+		this.defaultLevel = defaultLevel;
+	}
+
+	public int getDefaultLevel() {
+		return defaultLevel;
+	}
+
+	/**
+	 * Returns a stream compressing the data written to it with the given
+	 * level. Closing the returned stream closes the given stream.
+	 */
+	public OutputStream createOutputStream(OutputStream outputStream,
+			final int level, int threads) throws IOException {
+		switch (this) {
+		case BZIP2:
+			return new BZip2CompressorOutputStream(outputStream, level);
+		case PBZIP2:
+			return new ParallelBlockOutputStream(outputStream,
+					(block, length) -> compressBZip2(block, length, level),
+					level * PBZIP2_BLOCK_SIZE_PER_LEVEL, threads);
+		case ZSTD:
+			ZstdOutputStream zstdStream =
+					new ZstdOutputStream(outputStream, level);
+			if (threads > 1) {
+				zstdStream.setWorkers(threads);
+			}
+			return zstdStream;
+		case LZ4:
+			LZ4Factory factory = LZ4Factory.fastestInstance();
+			return new LZ4FrameOutputStream(outputStream,
+					LZ4FrameOutputStream.BLOCKSIZE.SIZE_4MB, -1L,
+					level > 0 ? factory.highCompressor(level)
+							: factory.fastCompressor(),
+					XXHashFactory.fastestInstance().hash32(),
+					LZ4FrameOutputStream.FLG.Bits.BLOCK_INDEPENDENCE);
+		default:
+			throw new IllegalStateException("Unknown output codec: " + this);
+		}
+	}
+
+	private static byte[] compressBZip2(byte[] block, int length, int level)
+			throws IOException {
+		ByteArrayOutputStream result = new ByteArrayOutputStream(length / 4);
+		try (BZip2CompressorOutputStream bzip2Stream =
+				new BZip2CompressorOutputStream(result, level)) {
+			bzip2Stream.write(block, 0, length);
+		}
+		return result.toByteArray();
+	}
+
+	@Override
+	public String toString() {
+		return text;
+	}
+
+	public static OutputCodec fromString(String text) {
+		for (OutputCodec codec: values()) {
+			if (codec.text.equalsIgnoreCase(text)) {
+				return codec;
+			}
+		}
+		throw new IllegalArgumentException("Unknown output codec: " + text);
+	}
+}
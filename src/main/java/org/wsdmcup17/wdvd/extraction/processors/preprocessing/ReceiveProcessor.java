@@ -36,6 +36,7 @@ import org.wsdmcup17.wdvd.MetadataParser;
 import org.wsdmcup17.wdvd.extraction.processors.RevisionProcessor;
 import org.wsdmcup17.wdvd.extraction.revision.implementation.GeoInformationImpl;
 import org.wsdmcup17.wdvd.extraction.revision.implementation.RevisionImpl;
+import org.wsdmcup17.wdvd.extraction.revision.implementation.TimestampParser;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.GeoInformation;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
@@ -72,13 +73,16 @@ public class ReceiveProcessor implements MwRevisionProcessor {
 
 		Revision revision = new RevisionImpl(mwRevision);
 
-		if (Long.valueOf(metadata.get(MetadataParser.REVISION_ID))
+		if (Long.parseLong(metadata.get(MetadataParser.REVISION_ID))
 				!= revision.getRevisionId()) {
 			throw new RuntimeException("Revision id is out of sync");
 		}
 
+		revision.setEpochMillis(
+				TimestampParser.parseEpochMillis(revision.getTimeStamp()));
+
 		revision.setSessionId(
-				Long.valueOf(metadata.get(MetadataParser.REVISION_SESSION_ID)));
+				Long.parseLong(metadata.get(MetadataParser.REVISION_SESSION_ID)));
 
 		GeoInformation geoInformation = new GeoInformationImpl(
 				-1,
@@ -25,58 +25,301 @@
 package org.wsdmcup17.wdvd.extraction.processors.preprocessing;
 
 import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.csv.CSVPrinter;
 import org.wsdmcup17.wdvd.extraction.processors.AbstractRevisionProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.statistics.LatencyMetrics;
+import org.wsdmcup17.wdvd.extraction.processors.statistics.MetricsRegistry;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 
+/**
+ * Sends the classification scores to the data server.
+ *
+ * The scores are written by an I/O thread, which coalesces them into
+ * batches. A batch is flushed to the server when it has MAX_BATCH_SIZE
+ * scores, when its oldest score has waited for MAX_DELAY_MILLIS, or when
+ * this processor is flushed. Hence, the latency added by the batching is
+ * bounded by MAX_DELAY_MILLIS.
+ *
+ * The queue to the I/O thread is bounded. If sending fails or the I/O thread
+ * dies, the failure is rethrown by the next call of processRevision, flush,
+ * or finishRevisionProcessing, and pending flushes are released.
+ */
 public class SendProcessor extends AbstractRevisionProcessor {
 
+	static final int MAX_BATCH_SIZE = 1024;
+	static final long MAX_DELAY_MILLIS = 5;
+	static final int MAX_QUEUE_SIZE = 16 * MAX_BATCH_SIZE;
+	static final long FAILURE_CHECK_INTERVAL_MS = 100;
+
+	static final String THREAD_NAME = "Score Sender";
+
+	private final BlockingQueue<Message> queue =
+			new ArrayBlockingQueue<>(MAX_QUEUE_SIZE);
+
+	private Thread senderThread;
+
+	// set by the sender thread if sending failed (the first failure is kept)
+	private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+	// null if the sending is not measured
+	private final LatencyMetrics latencyMetrics;
+	private final LatencyMetrics batchMetrics;
+
+	// only used by the sender thread
 	private CSVPrinter resultPrinter;
+	private long numberOfScores;
+	private long numberOfBatches;
 
 	public SendProcessor() {
+		this(null);
+	}
+
+	/**
+	 * @param metricsRegistry registry for the latency of the oldest score of
+	 *        every batch and the time needed for flushing the batches (null if
+	 *        they are not measured)
+	 */
+	public SendProcessor(MetricsRegistry metricsRegistry) {
 		super(null);
+		if (metricsRegistry != null) {
+			latencyMetrics = metricsRegistry.getStage("sendLatency");
+			batchMetrics = metricsRegistry.getStage("sendBatch");
+		} else {
+			latencyMetrics = null;
+			batchMetrics = null;
+		}
 	}
 
+	/**
+	 * Sends the following scores with the given printer (after the scores
+	 * sent so far).
+	 */
 	public void setResultPrinter(CSVPrinter resultPrinter) {
 		logger.debug("Changing result printer ...");
-		this.resultPrinter = resultPrinter;
+		put(Message.printer(resultPrinter));
 	}
 
 	@Override
 	public void startRevisionProcessing() {
 		logger.info("Starting...");
+		senderThread = new Thread(this::send, THREAD_NAME);
+		senderThread.start();
 	}
 
 	@Override
 	public void processRevision(Revision revision) {
-		sendClassificationScore(revision.getRevisionId(), revision.getScore());
+		checkFailure();
+		put(Message.score(revision.getRevisionId(), revision.getScore()));
 	}
 
 	@Override
 	public void finishRevisionProcessing() {
 		logger.debug("Starting to finish...");
+		put(Message.DONE);
 		try {
-			resultPrinter.close();
+			senderThread.join();
+		} catch (InterruptedException e) {
+			logger.error("", e);
+		}
+
+		try {
+			if (resultPrinter != null) {
+				resultPrinter.close();
+			}
 		} catch (IOException e) {
 			logger.error("", e);
 		}
+		logger.info(String.format("Sent %d scores in %d batches",
+				numberOfScores, numberOfBatches));
+		checkFailure();
 		logger.info("Finished.");
 	}
 
+	/**
+	 * Waits until all scores have been sent.
+	 */
+	@Override
+	public void flush() {
+		logger.debug("Flushing...");
+		checkFailure();
+		Message message = Message.flush();
+		put(message);
+		try {
+			while (!message.latch.await(
+					FAILURE_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+				checkFailure();
+			}
+		} catch (InterruptedException e) {
+			logger.error("", e);
+		}
+		checkFailure();
+		logger.debug("Flushing...done.");
+	}
+
+	// Blocks while the queue is full, but fails if the sender thread failed.
+	private void put(Message message) {
+		try {
+			while (!queue.offer(
+					message, FAILURE_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+				checkFailure();
+			}
+		} catch (InterruptedException e) {
+			logger.error("", e);
+		}
+	}
+
+	private void fail(Throwable t) {
+		logger.error("", t);
+		failure.compareAndSet(null, t);
+	}
+
+	private void checkFailure() {
+		Throwable t = failure.get();
+		if (t != null) {
+			throw new IllegalStateException("Sending the scores failed", t);
+		}
+	}
+
+	private void send() {
+		try {
+			// time when the oldest unflushed score was received
+			long batchStart = 0;
+			int batchSize = 0;
+
+			while (true) {
+				Message message;
+				if (batchSize == 0) {
+					message = queue.take();
+				} else {
+					long delay = MAX_DELAY_MILLIS * 1000000
+							- (System.nanoTime() - batchStart);
+					message = queue.poll(delay, TimeUnit.NANOSECONDS);
+					if (message == null) {
+						batchSize = flushBatch(batchStart, batchSize);
+						continue;
+					}
+				}
 
-	private void sendClassificationScore(
-			long revisionId, float classificationScore
-		) {
-			try {
-				resultPrinter.print(revisionId);
-				resultPrinter.print(classificationScore);
-				resultPrinter.println();
-				resultPrinter.flush();
-			} catch (IOException e) {
-				logger.error("", e);
-				throw new RuntimeException(e);
+				if (message.type == Message.Type.SCORE) {
+					if (batchSize == 0) {
+						batchStart = message.time;
+					}
+					print(message);
+					batchSize++;
+					if (batchSize >= MAX_BATCH_SIZE || System.nanoTime()
+							- batchStart >= MAX_DELAY_MILLIS * 1000000) {
+						batchSize = flushBatch(batchStart, batchSize);
+					}
+				} else {
+					batchSize = flushBatch(batchStart, batchSize);
+					if (message.type == Message.Type.PRINTER) {
+						resultPrinter = message.printer;
+					} else if (message.type == Message.Type.FLUSH) {
+						message.latch.countDown();
+					} else {
+						break;
+					}
+				}
 			}
+		} catch (Throwable t) {
+			fail(t);
+		} finally {
+			releaseFlushes();
+		}
+	}
+
+	// Counts down the latches of the flushes still in the queue such that no
+	// producer waits for the stopped sender thread.
+	private void releaseFlushes() {
+		Message message = queue.poll();
+		while (message != null) {
+			if (message.type == Message.Type.FLUSH) {
+				message.latch.countDown();
+			}
+			message = queue.poll();
+		}
+	}
+
+	private void print(Message message) {
+		if (failure.get() != null) {
+			return;
 		}
+		try {
+			resultPrinter.print(message.revisionId);
+			resultPrinter.print(message.score);
+			resultPrinter.println();
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	// Flushes the batch (if any) and returns the new batch size (zero).
+	private int flushBatch(long batchStart, int batchSize) {
+		if (batchSize == 0 || failure.get() != null) {
+			return 0;
+		}
+
+		long start = System.nanoTime();
+		try {
+			resultPrinter.flush();
+		} catch (IOException e) {
+			fail(e);
+		}
+		long end = System.nanoTime();
+
+		numberOfScores += batchSize;
+		numberOfBatches++;
+		if (latencyMetrics != null) {
+			latencyMetrics.record(end - batchStart);
+			batchMetrics.record(end - start);
+		}
+		return 0;
+	}
+
+	/**
+	 * A score or a command for the sender thread.
+	 */
+	static class Message {
+		enum Type { SCORE, PRINTER, FLUSH, DONE }
+
+		static final Message DONE = new Message(Type.DONE);
+
+		final Type type;
+		final long time = System.nanoTime();
+
+		long revisionId;
+		float score;
+		CSVPrinter printer;
+		CountDownLatch latch;
+
+		private Message(Type type) {
+			this.type = type;
+		}
+
+		static Message score(long revisionId, float score) {
+			Message result = new Message(Type.SCORE);
+			result.revisionId = revisionId;
+			result.score = score;
+			return result;
+		}
+
+		static Message printer(CSVPrinter printer) {
+			Message result = new Message(Type.PRINTER);
+			result.printer = printer;
+			return result;
+		}
+
+		static Message flush() {
+			Message result = new Message(Type.FLUSH);
+			result.latch = new CountDownLatch(1);
+			return result;
+		}
+	}
 
 }
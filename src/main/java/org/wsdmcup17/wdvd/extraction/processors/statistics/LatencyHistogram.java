@@ -0,0 +1,169 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.processors.statistics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies in nanoseconds with a relative precision of about
+ * 3% (in the spirit of HdrHistogram).
+ *
+ * Values below 64 get a bucket of their own. Above, every power of two is
+ * divided into 32 buckets of equal width. Recording is lock-free and may be
+ * done by several threads concurrently.
+ */
+public class LatencyHistogram {
+
+	private static final int
+		SUB_BUCKET_BITS = 5,
+		SUB_BUCKETS = 1 << SUB_BUCKET_BITS,
+		LINEAR_BUCKETS = 2 * SUB_BUCKETS,
+		NUMBER_OF_BUCKETS = LINEAR_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts =
+			new AtomicLongArray(NUMBER_OF_BUCKETS);
+	private final LongAdder totalCount = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+	public void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		counts.incrementAndGet(getBucket(nanos));
+		totalCount.increment();
+		totalNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+	}
+
+	public long getTotalCount() {
+		return totalCount.sum();
+	}
+
+	public long getMaxNanos() {
+		return maxNanos.get();
+	}
+
+	/**
+	 * Returns a copy of the current counts. The copy is not atomic, i.e.,
+	 * values recorded concurrently might be partially contained.
+	 */
+	public Snapshot getSnapshot() {
+		long[] result = new long[NUMBER_OF_BUCKETS];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = counts.get(i);
+		}
+		return new Snapshot(result, totalNanos.sum());
+	}
+
+	static int getBucket(long value) {
+		if (value < LINEAR_BUCKETS) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+		return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + subBucket;
+	}
+
+	// highest value that falls into the given bucket
+	static long getHighestValue(int bucket) {
+		if (bucket < LINEAR_BUCKETS) {
+			return bucket;
+		}
+		int shift = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+		long subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+		return ((subBucket + 1) << shift) - 1;
+	}
+
+	public static class Snapshot {
+		private final long[] counts;
+		private final long totalCount;
+		private final long totalNanos;
+
+		Snapshot(long[] counts, long totalNanos) {
+			long sum = 0;
+			for (long count: counts) {
+				sum += count;
+			}
+			this.counts = counts;
+			this.totalCount = sum;
+			this.totalNanos = totalNanos;
+		}
+
+		/**
+		 * Returns the values recorded after the given (earlier) snapshot.
+		 */
+		public Snapshot minus(Snapshot earlier) {
+			long[] result = new long[counts.length];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = counts[i] - earlier.counts[i];
+			}
+			return new Snapshot(result, totalNanos - earlier.totalNanos);
+		}
+
+		public long getTotalCount() {
+			return totalCount;
+		}
+
+		public long getTotalNanos() {
+			return totalNanos;
+		}
+
+		public double getMeanNanos() {
+			if (totalCount == 0) {
+				return 0;
+			}
+			return (double) totalNanos / totalCount;
+		}
+
+		public long getValueAtPercentile(double percentile) {
+			if (totalCount == 0) {
+				return 0;
+			}
+			long rank = (long) Math.ceil(percentile / 100 * totalCount);
+			rank = Math.max(1, rank);
+
+			long sum = 0;
+			for (int i = 0; i < counts.length; i++) {
+				sum += counts[i];
+				if (sum >= rank) {
+					return getHighestValue(i);
+				}
+			}
+			return getHighestValue(counts.length - 1);
+		}
+
+		public long getMaxNanos() {
+			for (int i = counts.length - 1; i >= 0; i--) {
+				if (counts[i] > 0) {
+					return getHighestValue(i);
+				}
+			}
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.processors.statistics;
+
+import org.wsdmcup17.wdvd.extraction.processors.controlflow.ParallelProcessor;
+
+/**
+ * Latencies of a pipeline stage or of a single feature.
+ */
+public class LatencyMetrics implements LatencyMetricsMBean {
+
+	private static final double NANOS_PER_MICRO = 1000.0;
+
+	private final String name;
+	private final LatencyHistogram histogram = new LatencyHistogram();
+	private final long startTime = System.nanoTime();
+
+	private volatile ParallelProcessor queues;
+
+	public LatencyMetrics(String name) {
+		this.name = name;
+	}
+
+	public void record(long nanos) {
+		histogram.record(nanos);
+	}
+
+	public LatencyHistogram getHistogram() {
+		return histogram;
+	}
+
+	/**
+	 * Sets the parallel processor whose queues are reported for this stage.
+	 */
+	public void setQueues(ParallelProcessor queues) {
+		this.queues = queues;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public long getCount() {
+		return histogram.getTotalCount();
+	}
+
+	@Override
+	public double getRevisionsPerSecond() {
+		double seconds = (System.nanoTime() - startTime) / 1e9;
+		return seconds > 0 ? getCount() / seconds : 0;
+	}
+
+	@Override
+	public double getMeanMicros() {
+		return histogram.getSnapshot().getMeanNanos() / NANOS_PER_MICRO;
+	}
+
+	@Override
+	public double getP50Micros() {
+		return getValueAtPercentile(50);
+	}
+
+	@Override
+	public double getP90Micros() {
+		return getValueAtPercentile(90);
+	}
+
+	@Override
+	public double getP99Micros() {
+		return getValueAtPercentile(99);
+	}
+
+	@Override
+	public double getMaxMicros() {
+		return histogram.getMaxNanos() / NANOS_PER_MICRO;
+	}
+
+	@Override
+	public int getIncomingQueueSize() {
+		ParallelProcessor queues = this.queues;
+		return queues != null ? queues.getIncomingQueueSize() : -1;
+	}
+
+	@Override
+	public int getOutgoingQueueSize() {
+		ParallelProcessor queues = this.queues;
+		return queues != null ? queues.getOutgoingQueueSize() : -1;
+	}
+
+	private double getValueAtPercentile(double percentile) {
+		return histogram.getSnapshot().getValueAtPercentile(percentile)
+				/ NANOS_PER_MICRO;
+	}
+}
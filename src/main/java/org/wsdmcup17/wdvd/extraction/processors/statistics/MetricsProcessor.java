@@ -0,0 +1,90 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.processors.statistics;
+
+import org.wsdmcup17.wdvd.extraction.processors.AbstractRevisionProcessor;
+import org.wsdmcup17.wdvd.extraction.processors.RevisionProcessor;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
+
+/**
+ * Decorator measuring the time the wrapped processor spends on each revision.
+ *
+ * In a chain of decorators, every processor synchronously calls its
+ * successor. Hence, the time spent in nested metrics processors on the same
+ * thread is subtracted such that each stage only accounts for its own time.
+ */
+public class MetricsProcessor extends AbstractRevisionProcessor {
+
+	// time spent in nested metrics processors of the current thread
+	private static final ThreadLocal<long[]> NESTED_NANOS =
+			ThreadLocal.withInitial(() -> new long[1]);
+
+	private final LatencyMetrics metrics;
+
+	public MetricsProcessor(
+			RevisionProcessor processor, LatencyMetrics metrics) {
+		super(processor);
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Returns the measured processor.
+	 */
+	public RevisionProcessor getProcessor() {
+		return processor;
+	}
+
+	@Override
+	public void startRevisionProcessing() {
+		processor.startRevisionProcessing();
+	}
+
+	@Override
+	public void processRevision(Revision revision) {
+		long[] nestedNanos = NESTED_NANOS.get();
+		long outerNestedNanos = nestedNanos[0];
+		nestedNanos[0] = 0;
+
+		long start = System.nanoTime();
+		try {
+			processor.processRevision(revision);
+		} finally {
+			long elapsed = System.nanoTime() - start;
+			metrics.record(elapsed - nestedNanos[0]);
+			nestedNanos[0] = outerNestedNanos + elapsed;
+		}
+	}
+
+	@Override
+	public void finishRevisionProcessing() {
+		processor.finishRevisionProcessing();
+	}
+
+	@Override
+	public void flush() {
+		processor.flush();
+	}
+
+}
@@ -0,0 +1,220 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.processors.statistics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wsdmcup17.wdvd.extraction.features.Feature;
+import org.wsdmcup17.wdvd.extraction.processors.RevisionProcessor;
+
+/**
+ * Collects the latency metrics of all stages and features of a pipeline,
+ * exposes them via JMX, and periodically logs them.
+ */
+public class MetricsRegistry {
+
+	static final Logger logger = LoggerFactory.getLogger(MetricsRegistry.class);
+
+	private static final String
+		JMX_DOMAIN = "org.wsdmcup17.wdvd",
+		JMX_TYPE_STAGE = "Stage",
+		JMX_TYPE_FEATURE = "Feature",
+		THREAD_NAME = "Metrics Reporter",
+		LOG_MSG_STAGE =
+			"stage=%s count=%d rate=%.1f mean=%.1fus p50=%.1fus p99=%.1fus"
+			+ " max=%.1fus in=%d out=%d",
+		LOG_MSG_FEATURE = "feature=%s share=%.1f%% mean=%.1fus p99=%.1fus";
+
+	private static final int
+		LOG_METRICS_INTERVAL = 10000,
+		LOG_SLOWEST_FEATURES = 5;
+
+	private static final double NANOS_PER_MICRO = 1000.0;
+
+	private final Map<String, LatencyMetrics> stages = new LinkedHashMap<>();
+	private final Map<String, LatencyMetrics> features = new LinkedHashMap<>();
+	private final List<ObjectName> objectNames = new ArrayList<>();
+
+	// snapshots of the previous log line
+	private final Map<LatencyMetrics, LatencyHistogram.Snapshot> snapshots =
+			new HashMap<>();
+	private long lastLogTime;
+
+	private Thread reporterThread;
+	private volatile boolean stopped;
+
+	public synchronized LatencyMetrics getStage(String name) {
+		return stages.computeIfAbsent(name, LatencyMetrics::new);
+	}
+
+	public synchronized LatencyMetrics getFeature(Feature feature) {
+		return features.computeIfAbsent(feature.getName(), LatencyMetrics::new);
+	}
+
+	/**
+	 * Wraps the processor such that its processing time is recorded for the
+	 * given stage. Several processors can be recorded for the same stage.
+	 */
+	public RevisionProcessor measure(String stage, RevisionProcessor processor) {
+		return new MetricsProcessor(processor, getStage(stage));
+	}
+
+	public synchronized void start() {
+		registerMBeans(JMX_TYPE_STAGE, stages);
+		registerMBeans(JMX_TYPE_FEATURE, features);
+
+		lastLogTime = System.nanoTime();
+		reporterThread = new Thread(this::report, THREAD_NAME);
+		reporterThread.setDaemon(true);
+		reporterThread.start();
+	}
+
+	public void stop() {
+		stopped = true;
+		reporterThread.interrupt();
+		try {
+			reporterThread.join();
+		} catch (InterruptedException e) {
+			logger.error("", e);
+		}
+
+		logMetrics();
+		unregisterMBeans();
+	}
+
+	private void report() {
+		while (!stopped) {
+			try {
+				Thread.sleep(LOG_METRICS_INTERVAL);
+			} catch (InterruptedException e) {
+				// stopped
+			}
+			if (!stopped) {
+				logMetrics();
+			}
+		}
+	}
+
+	/**
+	 * Logs the metrics since the previous call in one structured line per
+	 * stage, followed by the features with the highest total time.
+	 */
+	private synchronized void logMetrics() {
+		long currentTime = System.nanoTime();
+		double seconds = (currentTime - lastLogTime) / 1e9;
+		lastLogTime = currentTime;
+
+		for (LatencyMetrics stage: stages.values()) {
+			LatencyHistogram.Snapshot interval = getInterval(stage);
+			logger.info(String.format(Locale.ENGLISH, LOG_MSG_STAGE,
+					stage.getName(),
+					interval.getTotalCount(),
+					interval.getTotalCount() / seconds,
+					interval.getMeanNanos() / NANOS_PER_MICRO,
+					interval.getValueAtPercentile(50) / NANOS_PER_MICRO,
+					interval.getValueAtPercentile(99) / NANOS_PER_MICRO,
+					interval.getMaxNanos() / NANOS_PER_MICRO,
+					stage.getIncomingQueueSize(),
+					stage.getOutgoingQueueSize()));
+		}
+
+		logSlowestFeatures();
+	}
+
+	private void logSlowestFeatures() {
+		List<LatencyMetrics> slowest = new ArrayList<>();
+		Map<LatencyMetrics, LatencyHistogram.Snapshot> intervals =
+				new HashMap<>();
+		long totalNanos = 0;
+		for (LatencyMetrics feature: features.values()) {
+			LatencyHistogram.Snapshot interval = getInterval(feature);
+			intervals.put(feature, interval);
+			totalNanos += interval.getTotalNanos();
+			slowest.add(feature);
+		}
+		if (totalNanos == 0) {
+			return;
+		}
+
+		Collections.sort(slowest, (f1, f2) -> Long.compare(
+				intervals.get(f2).getTotalNanos(),
+				intervals.get(f1).getTotalNanos()));
+
+		for (LatencyMetrics feature:
+				slowest.subList(0, Math.min(LOG_SLOWEST_FEATURES, slowest.size()))) {
+			LatencyHistogram.Snapshot interval = intervals.get(feature);
+			logger.info(String.format(Locale.ENGLISH, LOG_MSG_FEATURE,
+					feature.getName(),
+					100.0 * interval.getTotalNanos() / totalNanos,
+					interval.getMeanNanos() / NANOS_PER_MICRO,
+					interval.getValueAtPercentile(99) / NANOS_PER_MICRO));
+		}
+	}
+
+	private LatencyHistogram.Snapshot getInterval(LatencyMetrics metrics) {
+		LatencyHistogram.Snapshot current = metrics.getHistogram().getSnapshot();
+		LatencyHistogram.Snapshot previous = snapshots.put(metrics, current);
+		return previous != null ? current.minus(previous) : current;
+	}
+
+	private void registerMBeans(String type, Map<String, LatencyMetrics> metrics) {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for (LatencyMetrics m: metrics.values()) {
+			try {
+				ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=" + type
+						+ ",name=" + ObjectName.quote(m.getName()));
+				server.registerMBean(m, objectName);
+				objectNames.add(objectName);
+			} catch (JMException e) {
+				logger.warn("Cannot register MBean for " + m.getName(), e);
+			}
+		}
+	}
+
+	private synchronized void unregisterMBeans() {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for (ObjectName objectName: objectNames) {
+			try {
+				server.unregisterMBean(objectName);
+			} catch (JMException e) {
+				logger.warn("Cannot unregister MBean " + objectName, e);
+			}
+		}
+		objectNames.clear();
+	}
+}
@@ -54,21 +54,27 @@ private static final int
 		logger.info(LOG_MSG_STARTING);
 		lastLogTime = System.currentTimeMillis();
 
-		processor.startRevisionProcessing();
+		if (processor != null) {
+			processor.startRevisionProcessing();
+		}
 	}
 
 	@Override
 	public void processRevision(Revision revision) {
 		updateStatistics(revision);
 
-		processor.processRevision(revision);
+		if (processor != null) {
+			processor.processRevision(revision);
+		}
 	}
 
 	@Override
 	public void finishRevisionProcessing() {
 		logger.debug("Starting to finish...");
 
-		processor.finishRevisionProcessing();
+		if (processor != null) {
+			processor.finishRevisionProcessing();
+		}
 
 		logger.info(LOG_MSG_FINAL_RESULT);
 		printStatistics();
@@ -0,0 +1,215 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.revision.implementation;
+
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.ContentTypeIndicator;
+
+/**
+ * Symbol table of the actions in comments, i.e., action1 and action2 of a
+ * {@link ParsedCommentImpl}.
+ *
+ * The actions of the Wikibase API and the comment types of ParsedCommentImpl
+ * are predefined with small ids, canonical strings, and content types. All
+ * other actions share the id OTHER_ACTION; their text is kept by the parsed
+ * comment. Hence, the table does not change and needs no locking, no matter
+ * how many distinct actions occur in the comments. Actions can be looked up
+ * in a range of a comment without creating a substring.
+ */
+public final class ActionTable {
+
+	/**
+	 * Id of a null action.
+	 */
+	public static final int NO_ACTION = -1;
+
+	/**
+	 * Id of all actions which are not predefined.
+	 */
+	public static final int OTHER_ACTION = -2;
+
+	private static final String[] STATEMENT_ACTIONS = {
+		"wbcreateclaim", "wbsetclaim", "wbremoveclaims", "wbsetclaimvalue",
+		"wbsetreference", "wbremovereferences", "wbsetqualifier",
+		"wbremovequalifiers"
+	};
+
+	private static final String[] SITELINK_ACTIONS = {
+		"wbsetsitelink", "wbcreateredirect", "clientsitelink", "wblinktitles"
+	};
+
+	private static final String[] TEXT_ACTIONS = {
+		"wbsetaliases", "wbsetdescription", "wbsetlabel",
+		"wbsetlabeldescriptionaliases"
+	};
+
+	private static final String[] MISC_ACTIONS = {
+		"wbeditentity", "wbsetentity", "special", "wbcreate", "wbmergeitems",
+		"rollback", "undo", "restore", "pageCreation", "emptyComment",
+		"setPageProtection", "changePageProtection", "removePageProtection",
+		"unknownCommentType", "null", ""
+	};
+
+	// action2 of the Wikibase API (without content type)
+	private static final String[] SUBACTIONS = {
+		"create", "update", "set", "add", "remove", "override", "from", "to",
+		"connect", "add-remove", "set-badges", "set-both", "create-item",
+		"create-property"
+	};
+
+	private static final int NUMBER_OF_ACTIONS = STATEMENT_ACTIONS.length
+			+ SITELINK_ACTIONS.length + TEXT_ACTIONS.length
+			+ MISC_ACTIONS.length + SUBACTIONS.length;
+
+	// canonical string and content type of every action (the content type is
+	// null for subactions)
+	private static final String[] strings = new String[NUMBER_OF_ACTIONS];
+	private static final ContentTypeIndicator[] contentTypes =
+			new ContentTypeIndicator[NUMBER_OF_ACTIONS];
+
+	// open-addressing hash table with the id + 1 of the action in every slot
+	// (0 for empty slots)
+	private static final int[] slots =
+			new int[Integer.highestOneBit(NUMBER_OF_ACTIONS) * 4];
+
+	static {
+		int id = 0;
+		id = predefine(STATEMENT_ACTIONS, ContentTypeImpl.STATEMENT, id);
+		id = predefine(SITELINK_ACTIONS, ContentTypeImpl.SITELINK, id);
+		id = predefine(TEXT_ACTIONS, ContentTypeImpl.TEXT, id);
+		id = predefine(MISC_ACTIONS, ContentTypeImpl.MISC, id);
+		predefine(SUBACTIONS, null, id);
+	}
+
+	private ActionTable() {
+	}
+
+	// Adds the actions starting with the given id and returns the next id.
+	private static int predefine(
+			String[] actions, ContentTypeIndicator contentType, int id) {
+		int mask = slots.length - 1;
+		for (String action: actions) {
+			int slot = mix(action.hashCode()) & mask;
+			while (slots[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			slots[slot] = id + 1;
+			strings[id] = action;
+			contentTypes[id] = contentType;
+			id++;
+		}
+		return id;
+	}
+
+	/**
+	 * Returns the id of the action (OTHER_ACTION if it is not predefined).
+	 */
+	public static int getId(String action) {
+		if (action == null) {
+			return NO_ACTION;
+		}
+		return getId(action, 0, action.length());
+	}
+
+	/**
+	 * Returns the id of the action text.substring(begin, end).trim()
+	 * (OTHER_ACTION if it is not predefined).
+	 */
+	public static int getId(String text, int begin, int end) {
+		if (begin < 0 || begin > end || end > text.length()) {
+			// throws the exception of substring
+			return getId(text.substring(begin, end));
+		}
+
+		while (begin < end && text.charAt(begin) <= ' ') {
+			begin++;
+		}
+		while (begin < end && text.charAt(end - 1) <= ' ') {
+			end--;
+		}
+
+		int hash = 0;
+		for (int i = begin; i < end; i++) {
+			hash = 31 * hash + text.charAt(i);
+		}
+
+		int id = find(text, begin, end, hash);
+		return id == NO_ACTION ? OTHER_ACTION : id;
+	}
+
+	/**
+	 * Returns the id of the action, or NO_ACTION if the action is not
+	 * predefined.
+	 */
+	public static int findId(String action) {
+		if (action == null) {
+			return NO_ACTION;
+		}
+		return find(action, 0, action.length(), action.hashCode());
+	}
+
+	/**
+	 * Returns the canonical string of the predefined action (null for
+	 * NO_ACTION).
+	 */
+	public static String getString(int id) {
+		if (id == NO_ACTION) {
+			return null;
+		}
+		if (id == OTHER_ACTION) {
+			throw new IllegalArgumentException(
+					"The string of an action which is not predefined is unknown");
+		}
+		return strings[id];
+	}
+
+	/**
+	 * Returns the content type of the action, or null if it is not a
+	 * predefined action1.
+	 */
+	public static ContentTypeIndicator getContentType(int id) {
+		if (id < 0 || id >= contentTypes.length) {
+			return null;
+		}
+		return contentTypes[id];
+	}
+
+	private static int find(String text, int begin, int end, int hash) {
+		int mask = slots.length - 1;
+		for (int slot = mix(hash) & mask; slots[slot] != 0;
+				slot = (slot + 1) & mask) {
+			String string = strings[slots[slot] - 1];
+			if (string.length() == end - begin
+					&& text.regionMatches(begin, string, 0, end - begin)) {
+				return slots[slot] - 1;
+			}
+		}
+		return NO_ACTION;
+	}
+
+	private static int mix(int hash) {
+		int h = hash * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,306 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.revision.implementation;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.CharacterStatistics;
+
+/**
+ * Counts the characters matched by the patterns of the character features in
+ * one loop over the code points (e.g., \p{Alnum}, \p{IsLatin}, or
+ * \p{javaLowerCase}). Like the replacement of all matches, a supplementary
+ * code point counts as two characters.
+ */
+public class CharacterStatisticsImpl implements CharacterStatistics {
+
+	// Pattern of the longest word. Due to CANON_EQ, it matches sequences of
+	// characters which are combined with each other (e.g., a letter followed
+	// by a combining mark). Hence, it is only used if the text contains such
+	// characters.
+	private static final Pattern WORD_PATTERN =
+			Pattern.compile("\\p{IsAlphabetic}+", Pattern.CASE_INSENSITIVE
+					| Pattern.UNICODE_CASE | Pattern.DOTALL | Pattern.CANON_EQ);
+
+	private static final ThreadLocal<Matcher> WORD_MATCHER =
+			ThreadLocal.withInitial(() -> WORD_PATTERN.matcher(""));
+
+	// -1 if the text is null
+	private final int length;
+
+	private final int alphanumeric;
+	private final int ascii;
+	private final int brackets;
+	private final int digits;
+	private final int latin;
+	private final int lowerCase;
+	private final int punctuation;
+	private final int upperCase;
+	private final int whitespace;
+
+	private final int longestCharacterSequence;
+	private final int longestWord;
+
+	public CharacterStatisticsImpl(String text) {
+		int alphanumeric = 0;
+		int ascii = 0;
+		int brackets = 0;
+		int digits = 0;
+		int latin = 0;
+		int lowerCase = 0;
+		int punctuation = 0;
+		int upperCase = 0;
+		int whitespace = 0;
+
+		int longestCharacterSequence = 0;
+		int longestWord = 0;
+
+		if (text == null) {
+			length = -1;
+		} else {
+			length = text.length();
+
+			// bounds of text.trim()
+			int start = 0;
+			int end = length;
+			while (start < end && text.charAt(start) <= ' ') {
+				start++;
+			}
+			while (start < end && text.charAt(end - 1) <= ' ') {
+				end--;
+			}
+
+			char prevCharacter = 0;
+			int sequence = 0;
+			int word = 0;
+			boolean isCombinable = false;
+
+			for (int i = 0; i < length;) {
+				int codePoint = text.codePointAt(i);
+				int charCount = Character.charCount(codePoint);
+
+				if (codePoint < 0x80) {
+					ascii++;
+					if (codePoint >= '0' && codePoint <= '9') {
+						alphanumeric++;
+						digits++;
+					} else if ((codePoint | 0x20) >= 'a' && (codePoint | 0x20) <= 'z') {
+						alphanumeric++;
+						latin++;
+						if (codePoint >= 'a') {
+							lowerCase++;
+						} else {
+							upperCase++;
+						}
+					} else if (isPunctuation(codePoint)) {
+						punctuation++;
+						if (codePoint == '(' || codePoint == ')') {
+							brackets++;
+						}
+					} else if (isWhitespace(codePoint)) {
+						whitespace++;
+					}
+				} else {
+					if (Character.UnicodeScript.of(codePoint)
+							== Character.UnicodeScript.LATIN) {
+						latin += charCount;
+					}
+					if (Character.isLowerCase(codePoint)) {
+						lowerCase += charCount;
+					} else if (Character.isUpperCase(codePoint)) {
+						upperCase += charCount;
+					}
+					isCombinable |= isCombinable(codePoint);
+				}
+
+				if (i >= start && i < end) {
+					for (int j = i; j < i + charCount; j++) {
+						char character = text.charAt(j);
+						if (j > start && character == prevCharacter) {
+							sequence++;
+						} else {
+							sequence = 1;
+						}
+						prevCharacter = character;
+						longestCharacterSequence =
+								Math.max(longestCharacterSequence, sequence);
+					}
+
+					if (Character.isAlphabetic(codePoint)) {
+						word += charCount;
+						longestWord = Math.max(longestWord, word);
+					} else {
+						word = 0;
+					}
+				}
+
+				i += charCount;
+			}
+
+			if (isCombinable) {
+				longestWord = getLongestWord(text.substring(start, end));
+			}
+		}
+
+		this.alphanumeric = alphanumeric;
+		this.ascii = ascii;
+		this.brackets = brackets;
+		this.digits = digits;
+		this.latin = latin;
+		this.lowerCase = lowerCase;
+		this.punctuation = punctuation;
+		this.upperCase = upperCase;
+		this.whitespace = whitespace;
+		this.longestCharacterSequence = longestCharacterSequence;
+		this.longestWord = longestWord;
+	}
+
+	// \p{Punct}: One of !"#$%&'()*+,-./:;<=>?@[\]^_`{|}~
+	private static boolean isPunctuation(int codePoint) {
+		return (codePoint >= '!' && codePoint <= '/')
+				|| (codePoint >= ':' && codePoint <= '@')
+				|| (codePoint >= '[' && codePoint <= '`')
+				|| (codePoint >= '{' && codePoint <= '~');
+	}
+
+	// \s: [ \t\n\x0B\f\r]
+	private static boolean isWhitespace(int codePoint) {
+		return codePoint == ' ' || (codePoint >= '\t' && codePoint <= '\r');
+	}
+
+	// Whether the code point might not be separated from an adjacent code point
+	// by a grapheme cluster boundary (marks, format characters, Hangul, and
+	// supplementary code points)
+	private static boolean isCombinable(int codePoint) {
+		if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+			return true;
+		}
+
+		switch (Character.getType(codePoint)) {
+		case Character.NON_SPACING_MARK:
+		case Character.ENCLOSING_MARK:
+		case Character.COMBINING_SPACING_MARK:
+		case Character.FORMAT:
+		case Character.SURROGATE:
+			return true;
+		default:
+			break;
+		}
+
+		return (codePoint >= 0x1100 && codePoint <= 0x11FF)
+				|| (codePoint >= 0xA960 && codePoint <= 0xA97F)
+				|| (codePoint >= 0xAC00 && codePoint <= 0xD7FF)
+				|| codePoint == 0x0D4E || codePoint == 0x0E33
+				|| codePoint == 0x0EB3 || codePoint == 0xFF9E
+				|| codePoint == 0xFF9F;
+	}
+
+	private static int getLongestWord(String text) {
+		Matcher matcher = WORD_MATCHER.get();
+		matcher.reset(text);
+
+		int max = 0;
+		while (matcher.find()) {
+			max = Math.max(max, matcher.end() - matcher.start());
+		}
+
+		matcher.reset("");
+		return max;
+	}
+
+	private float ratio(int count) {
+		if (length < 0) {
+			return -1.0f;
+		}
+		return (float) (count / (double) length);
+	}
+
+	@Override
+	public boolean isMissing() {
+		return length < 0;
+	}
+
+	@Override
+	public float getAlphanumericRatio() {
+		return ratio(alphanumeric);
+	}
+
+	@Override
+	public float getAsciiRatio() {
+		return ratio(ascii);
+	}
+
+	@Override
+	public float getBracketRatio() {
+		return ratio(brackets);
+	}
+
+	@Override
+	public float getDigitRatio() {
+		return ratio(digits);
+	}
+
+	@Override
+	public float getLatinRatio() {
+		return ratio(latin);
+	}
+
+	@Override
+	public float getLowerCaseRatio() {
+		return ratio(lowerCase);
+	}
+
+	@Override
+	public float getNonLatinRatio() {
+		return ratio(length - latin);
+	}
+
+	@Override
+	public float getPunctuationRatio() {
+		return ratio(punctuation);
+	}
+
+	@Override
+	public float getUpperCaseRatio() {
+		return ratio(upperCase);
+	}
+
+	@Override
+	public float getWhitespaceRatio() {
+		return ratio(whitespace);
+	}
+
+	@Override
+	public int getLongestCharacterSequence() {
+		return longestCharacterSequence;
+	}
+
+	@Override
+	public int getLongestWord() {
+		return longestWord;
+	}
+
+}
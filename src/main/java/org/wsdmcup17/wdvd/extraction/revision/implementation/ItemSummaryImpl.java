@@ -0,0 +1,296 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.revision.implementation;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
+import org.wikidata.wdtk.datamodel.interfaces.SiteLink;
+import org.wikidata.wdtk.datamodel.interfaces.Snak;
+import org.wikidata.wdtk.datamodel.interfaces.Statement;
+import org.wikidata.wdtk.datamodel.interfaces.StatementGroup;
+import org.wikidata.wdtk.datamodel.interfaces.Value;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.ItemSummary;
+
+public class ItemSummaryImpl implements ItemSummary {
+	public static final String
+		PROPERTY_INSTANCE_OF = "P31",
+		PROPERTY_DATE_OF_BIRTH = "P569",
+		PROPERTY_DATE_OF_DEATH = "P570",
+		ITEM_HUMAN = "Q5",
+		LANGUAGE_ENGLISH = "en",
+		SITE_ENGLISH_WIKIPEDIA = "enwiki";
+
+	private int itemId;
+	private int numberOfLabels;
+	private int numberOfDescriptions;
+	private int numberOfAliases;
+	private int numberOfStatements;
+	private int numberOfProperties;
+	private int numberOfQualifiers;
+	private int numberOfReferences;
+	private int numberOfSitelinks;
+	private int numberOfBadges;
+	private boolean human;
+	private boolean dateOfBirth;
+	private boolean dateOfDeath;
+	private String englishLabel;
+	private String englishSitelink;
+
+	/**
+	 * Computes the summary of an item document that has been parsed by the
+	 * Wikidata Toolkit.
+	 */
+	public static ItemSummary fromItemDocument(ItemDocument itemDocument) {
+		ItemSummary result = new ItemSummaryImpl();
+
+		result.setItemId(RevisionImpl.getItemIdFromString(
+				itemDocument.getItemId().getId()));
+
+		Map<String, MonolingualTextValue> labels = itemDocument.getLabels();
+		result.setNumberOfLabels(labels.size());
+		MonolingualTextValue englishLabel = labels.get(LANGUAGE_ENGLISH);
+		if (englishLabel != null) {
+			result.setEnglishLabel(englishLabel.getText());
+		}
+
+		result.setNumberOfDescriptions(itemDocument.getDescriptions().size());
+
+		int numberOfAliases = 0;
+		for (List<MonolingualTextValue> aliases:
+				itemDocument.getAliases().values()) {
+			numberOfAliases += aliases.size();
+		}
+		result.setNumberOfAliases(numberOfAliases);
+
+		List<StatementGroup> statementGroups = itemDocument.getStatementGroups();
+		result.setNumberOfProperties(statementGroups.size());
+
+		int numberOfStatements = 0;
+		int numberOfQualifiers = 0;
+		int numberOfReferences = 0;
+		for (StatementGroup statementGroup: statementGroups) {
+			String property = statementGroup.getProperty().getId();
+			if (property.equals(PROPERTY_DATE_OF_BIRTH)) {
+				result.setDateOfBirth(true);
+			}
+			if (property.equals(PROPERTY_DATE_OF_DEATH)) {
+				result.setDateOfDeath(true);
+			}
+
+			for (Statement statement: statementGroup.getStatements()) {
+				numberOfStatements++;
+				numberOfReferences += statement.getReferences().size();
+
+				Iterator<Snak> qualifiers =
+						statement.getClaim().getAllQualifiers();
+				while (qualifiers.hasNext()) {
+					qualifiers.next();
+					numberOfQualifiers++;
+				}
+
+				if (property.equals(PROPERTY_INSTANCE_OF)) {
+					Value value = statement.getValue();
+					if ((value instanceof ItemIdValue)
+							&& (((ItemIdValue) value).getId().equals(ITEM_HUMAN))) {
+						result.setHuman(true);
+					}
+				}
+			}
+		}
+		result.setNumberOfStatements(numberOfStatements);
+		result.setNumberOfQualifiers(numberOfQualifiers);
+		result.setNumberOfReferences(numberOfReferences);
+
+		Map<String, SiteLink> sitelinks = itemDocument.getSiteLinks();
+		result.setNumberOfSitelinks(sitelinks.size());
+		int numberOfBadges = 0;
+		for (SiteLink sitelink: sitelinks.values()) {
+			numberOfBadges += sitelink.getBadges().size();
+		}
+		result.setNumberOfBadges(numberOfBadges);
+		SiteLink englishSitelink = sitelinks.get(SITE_ENGLISH_WIKIPEDIA);
+		if (englishSitelink != null) {
+			result.setEnglishSitelink(englishSitelink.getPageTitle());
+		}
+
+		return result;
+	}
+
+	@Override
+	public int getItemId() {
+		return itemId;
+	}
+
+	@Override
+	public void setItemId(int itemId) {
+		this.itemId = itemId;
+	}
+
+	@Override
+	public int getNumberOfLabels() {
+		return numberOfLabels;
+	}
+
+	@Override
+	public void setNumberOfLabels(int numberOfLabels) {
+		this.numberOfLabels = numberOfLabels;
+	}
+
+	@Override
+	public int getNumberOfDescriptions() {
+		return numberOfDescriptions;
+	}
+
+	@Override
+	public void setNumberOfDescriptions(int numberOfDescriptions) {
+		this.numberOfDescriptions = numberOfDescriptions;
+	}
+
+	@Override
+	public int getNumberOfAliases() {
+		return numberOfAliases;
+	}
+
+	@Override
+	public void setNumberOfAliases(int numberOfAliases) {
+		this.numberOfAliases = numberOfAliases;
+	}
+
+	@Override
+	public int getNumberOfStatements() {
+		return numberOfStatements;
+	}
+
+	@Override
+	public void setNumberOfStatements(int numberOfStatements) {
+		this.numberOfStatements = numberOfStatements;
+	}
+
+	@Override
+	public int getNumberOfProperties() {
+		return numberOfProperties;
+	}
+
+	@Override
+	public void setNumberOfProperties(int numberOfProperties) {
+		this.numberOfProperties = numberOfProperties;
+	}
+
+	@Override
+	public int getNumberOfQualifiers() {
+		return numberOfQualifiers;
+	}
+
+	@Override
+	public void setNumberOfQualifiers(int numberOfQualifiers) {
+		this.numberOfQualifiers = numberOfQualifiers;
+	}
+
+	@Override
+	public int getNumberOfReferences() {
+		return numberOfReferences;
+	}
+
+	@Override
+	public void setNumberOfReferences(int numberOfReferences) {
+		this.numberOfReferences = numberOfReferences;
+	}
+
+	@Override
+	public int getNumberOfSitelinks() {
+		return numberOfSitelinks;
+	}
+
+	@Override
+	public void setNumberOfSitelinks(int numberOfSitelinks) {
+		this.numberOfSitelinks = numberOfSitelinks;
+	}
+
+	@Override
+	public int getNumberOfBadges() {
+		return numberOfBadges;
+	}
+
+	@Override
+	public void setNumberOfBadges(int numberOfBadges) {
+		this.numberOfBadges = numberOfBadges;
+	}
+
+	@Override
+	public boolean isHuman() {
+		return human;
+	}
+
+	@Override
+	public void setHuman(boolean human) {
+		this.human = human;
+	}
+
+	@Override
+	public boolean hasDateOfBirth() {
+		return dateOfBirth;
+	}
+
+	@Override
+	public void setDateOfBirth(boolean dateOfBirth) {
+		this.dateOfBirth = dateOfBirth;
+	}
+
+	@Override
+	public boolean hasDateOfDeath() {
+		return dateOfDeath;
+	}
+
+	@Override
+	public void setDateOfDeath(boolean dateOfDeath) {
+		this.dateOfDeath = dateOfDeath;
+	}
+
+	@Override
+	public String getEnglishLabel() {
+		return englishLabel;
+	}
+
+	@Override
+	public void setEnglishLabel(String englishLabel) {
+		this.englishLabel = englishLabel;
+	}
+
+	@Override
+	public String getEnglishSitelink() {
+		return englishSitelink;
+	}
+
+	@Override
+	public void setEnglishSitelink(String englishSitelink) {
+		this.englishSitelink = englishSitelink;
+	}
+
+}
@@ -69,11 +69,40 @@ public class ParsedCommentImpl implements ParsedComment {
 	static final Pattern PRECISE_RESTORE_PATTERN =  Pattern.compile(
 			".*\\bRestored? revision (\\d+) by \\[\\[Special:Contributions\\/([^|]*)\\|\\2\\]\\].*");
 
+	// Keywords every match of the robust patterns contains (ignoring case).
+	// Comments without them are classified without running the patterns.
+	static final String ROLLBACK_KEYWORD = "reverted";
+	static final String REVISION_KEYWORD = "revision";
+
+	static final int HAS_ROLLBACK_KEYWORD = 1;
+	static final int HAS_REVISION_KEYWORD = 2;
+
+	static final int ROLLBACK = ActionTable.getId("rollback");
+	static final int UNDO = ActionTable.getId("undo");
+	static final int RESTORE = ActionTable.getId("restore");
+	static final int PAGE_CREATION = ActionTable.getId("pageCreation");
+	static final int EMPTY_COMMENT = ActionTable.getId("emptyComment");
+	static final int SET_PAGE_PROTECTION =
+			ActionTable.getId("setPageProtection");
+	static final int CHANGE_PAGE_PROTECTION =
+			ActionTable.getId("changePageProtection");
+	static final int REMOVE_PAGE_PROTECTION =
+			ActionTable.getId("removePageProtection");
+	static final int UNKNOWN_COMMENT_TYPE =
+			ActionTable.getId("unknownCommentType");
+
+	private static final String[] NO_PARAMETERS = new String[0];
+
 	String text;
 
-	String action1;
-	String action2;
-	String[] parameters = new String[0];
+	// ids in the ActionTable
+	int action1 = ActionTable.NO_ACTION;
+	int action2 = ActionTable.NO_ACTION;
+
+	// text of action1 and action2 if they are not predefined (OTHER_ACTION)
+	String otherAction1;
+	String otherAction2;
+	String[] parameters = NO_PARAMETERS;
 	String suffixComment;
 	String property;
 	String dataValue;
@@ -85,28 +114,29 @@ public class ParsedCommentImpl implements ParsedComment {
 		this.text = comment;
 
 		if (comment != null) {
-			if (isRollback(comment)) {
-				action1 = "rollback";
-			} else if (isUndo(comment)) {
-				action1 = "undo";
-			} else if (isRestore(comment)) {
-				action1 = "restore";
+			int keywords = findKeywords(comment);
+			if (isRollback(comment, keywords)) {
+				action1 = ROLLBACK;
+			} else if (isUndo(comment, keywords)) {
+				action1 = UNDO;
+			} else if (isRestore(comment, keywords)) {
+				action1 = RESTORE;
 			} else if (isPageCreation(comment)) {
-				action1 = "pageCreation";
+				action1 = PAGE_CREATION;
 			} else if ("".equals(comment)) {
-				action1 = "emptyComment";
+				action1 = EMPTY_COMMENT;
 			} else if (isSetPageProtection(comment)) {
-				action1 = "setPageProtection";
+				action1 = SET_PAGE_PROTECTION;
 			} else if (isChangePageProtection(comment)) {
-				action1 = "changePageProtection";
+				action1 = CHANGE_PAGE_PROTECTION;
 			} else if (isRemovePageProtection(comment)) {
-				action1 = "removePageProtection";
+				action1 = REMOVE_PAGE_PROTECTION;
 			} else {
 				boolean result = parseNormalComment(comment);
 
 				if (result == false) {
-					action1 = "unknownCommentType";
-					logger.debug("unknown comment type: " + comment);
+					action1 = UNKNOWN_COMMENT_TYPE;
+					logger.debug("unknown comment type: {}", comment);
 				}
 			}
 		}
@@ -150,17 +180,23 @@ public class ParsedCommentImpl implements ParsedComment {
 
 			// Does the action consist of two parts?
 			if (hyphenPos > -1 && hyphenPos < actionsEnd) {
-				action1 = comment.substring(asteriskStart + 3, hyphenPos);
-				action2 = comment.substring(hyphenPos + 1, actionsEnd);
+				action1 = ActionTable.getId(
+						comment, asteriskStart + 3, hyphenPos);
+				otherAction1 = getOtherAction(
+						action1, comment, asteriskStart + 3, hyphenPos);
+				action2 = ActionTable.getId(comment, hyphenPos + 1, actionsEnd);
+				otherAction2 = getOtherAction(
+						action2, comment, hyphenPos + 1, actionsEnd);
 			} else {
-				action1 = comment.substring(asteriskStart + 3, actionsEnd);
+				action1 = ActionTable.getId(
+						comment, asteriskStart + 3, actionsEnd);
+				otherAction1 = getOtherAction(
+						action1, comment, asteriskStart + 3, actionsEnd);
 			}
 
 			// Are there parameters?
 			if (colon != -1 && colon < asteriskEnd) {
-				String tmp = comment.substring(colon + 1, asteriskEnd);
-				tmp = tmp.trim();
-				parameters = tmp.split("\\|");
+				parameters = splitParameters(comment, colon + 1, asteriskEnd);
 			}
 		} else {
 			suffixComment = comment;
@@ -189,34 +225,102 @@ public class ParsedCommentImpl implements ParsedComment {
 		dataValue = getDataValue(suffixComment);
 		itemValue = getItemValue(suffixComment);
 
+		return result;
+	}
+
+	// Returns comment.substring(begin, end).trim() if the action is not
+	// predefined, and null otherwise.
+	private static String getOtherAction(
+			int action, String comment, int begin, int end) {
+		if (action != ActionTable.OTHER_ACTION) {
+			return null;
+		}
+		return comment.substring(begin, end).trim();
+	}
+
+	// Returns the trimmed parameters in comment.substring(begin, end).trim()
+	// separated by '|' (same as split("\\|") followed by trimming every
+	// parameter, but without intermediate strings).
+	static String[] splitParameters(String comment, int begin, int end) {
+		while (begin < end && comment.charAt(begin) <= ' ') {
+			begin++;
+		}
+		while (begin < end && comment.charAt(end - 1) <= ' ') {
+			end--;
+		}
+
+		int count = 1;
+		for (int i = begin; i < end; i++) {
+			if (comment.charAt(i) == '|') {
+				count++;
+			}
+		}
 
-		action1 = trim(action1);
-		action2 = trim(action2);
+		int[] bounds = new int[count + 1];
+		int next = 0;
+		bounds[next++] = begin - 1;
+		for (int i = begin; i < end; i++) {
+			if (comment.charAt(i) == '|') {
+				bounds[next++] = i;
+			}
+		}
+		bounds[next] = end;
 
-		for (int i = 0; i < parameters.length; i++) {
-			parameters[i] = trim(parameters[i]);
+		// like split, remove trailing empty parameters (if there is a '|')
+		if (count > 1) {
+			while (count > 0 && bounds[count] == bounds[count - 1] + 1) {
+				count--;
+			}
 		}
 
+		String[] result = new String[count];
+		for (int i = 0; i < count; i++) {
+			int from = bounds[i] + 1;
+			int to = bounds[i + 1];
+			while (from < to && comment.charAt(from) <= ' ') {
+				from++;
+			}
+			while (from < to && comment.charAt(to - 1) <= ' ') {
+				to--;
+			}
+			result[i] = comment.substring(from, to);
+		}
 		return result;
 	}
 
-
-	private static String trim(String str) {
-		String result = str;
-		if (str != null) {
-			result = str.trim();
+	// Returns which keywords the comment contains (in a single pass).
+	static int findKeywords(String comment) {
+		int result = 0;
+		int length = comment.length();
+		for (int i = 0; i < length; i++) {
+			char c = comment.charAt(i);
+			if (c == 'r' || c == 'R') {
+				if (comment.regionMatches(true, i, ROLLBACK_KEYWORD, 0,
+						ROLLBACK_KEYWORD.length())) {
+					result |= HAS_ROLLBACK_KEYWORD;
+				} else if (comment.regionMatches(true, i, REVISION_KEYWORD, 0,
+						REVISION_KEYWORD.length())) {
+					result |= HAS_REVISION_KEYWORD;
+				}
+			}
 		}
 		return result;
 	}
 
 	public static boolean isRollback(String comment) {
-		boolean result = false;
+		return comment != null && isRollback(comment, findKeywords(comment));
+	}
 
-		if (comment != null) {
-			String tmp = comment.trim();
+	private static boolean isRollback(String comment, int keywords) {
+		if ((keywords & HAS_ROLLBACK_KEYWORD) == 0) {
+			return false;
+		}
+
+		String tmp = comment.trim();
 
-			result = ROBUST_ROLLBACK_PATTERN.matcher(tmp).matches();
+		boolean result = ROBUST_ROLLBACK_PATTERN.matcher(tmp).matches();
 
+		if (logger.isDebugEnabled()) {
 			if (result != PRECISE_ROLLBACK_PATTERN.matcher(tmp).matches()) {
 				logger.debug(
 						"Robust but not precise rollback match "
@@ -233,12 +337,18 @@ public class ParsedCommentImpl implements ParsedComment {
 	}
 
 	public static boolean isUndo(String comment) {
-		boolean result = false;
-		if (comment != null) {
-			String tmp = comment.trim();
+		return comment != null && isUndo(comment, findKeywords(comment));
+	}
+
+	private static boolean isUndo(String comment, int keywords) {
+		if ((keywords & HAS_REVISION_KEYWORD) == 0) {
+			return false;
+		}
 
-			result = ROBUST_UNDO_PATTERN.matcher(comment).matches();
+		boolean result = ROBUST_UNDO_PATTERN.matcher(comment).matches();
 
+		if (logger.isDebugEnabled()) {
+			String tmp = comment.trim();
 			if (result != PRECISE_UNDO_PATTERN.matcher(tmp).matches()) {
 				logger.debug(
 						"Robust but not precise undo match"
@@ -250,13 +360,19 @@ public class ParsedCommentImpl implements ParsedComment {
 	}
 
 	public static boolean isRestore(String comment) {
-		boolean result = false;
+		return comment != null && isRestore(comment, findKeywords(comment));
+	}
 
-		if (comment != null) {
-			String tmp = comment.trim();
+	private static boolean isRestore(String comment, int keywords) {
+		if ((keywords & HAS_REVISION_KEYWORD) == 0) {
+			return false;
+		}
+
+		String tmp = comment.trim();
 
-			result = ROBUST_RESTORE_PATTERN.matcher(tmp).matches();
+		boolean result = ROBUST_RESTORE_PATTERN.matcher(tmp).matches();
 
+		if (logger.isDebugEnabled()) {
 			if (result != PRECISE_RESTORE_PATTERN.matcher(tmp).matches()) {
 				logger.debug(
 						"Robust but not precise restore match"
@@ -367,23 +483,27 @@ public class ParsedCommentImpl implements ParsedComment {
 
 
 	public static String getRevertedContributor(String comment) {
-		String origResult = null;
-		String pattern = "[[Special:Contributions/";
-		int startIndex = comment.indexOf(pattern);
-		int endIndex = comment.indexOf('|');
-		if (endIndex > startIndex) {
-			origResult =
-					comment.substring(startIndex + pattern.length(), endIndex);
-		}
-
 		String result = "null";
-		Matcher matcher = ROBUST_ROLLBACK_PATTERN.matcher(comment);
-		if (matcher.matches()) {
-			result = matcher.group(1);
+		if ((findKeywords(comment) & HAS_ROLLBACK_KEYWORD) != 0) {
+			Matcher matcher = ROBUST_ROLLBACK_PATTERN.matcher(comment);
+			if (matcher.matches()) {
+				result = matcher.group(1);
+			}
 		}
 
-		if (!result.equals(origResult)) {
-			logger.debug("Difference to original contributor: " + comment);
+		if (logger.isDebugEnabled()) {
+			String origResult = null;
+			String pattern = "[[Special:Contributions/";
+			int startIndex = comment.indexOf(pattern);
+			int endIndex = comment.indexOf('|');
+			if (endIndex > startIndex) {
+				origResult = comment.substring(
+						startIndex + pattern.length(), endIndex);
+			}
+
+			if (!result.equals(origResult)) {
+				logger.debug("Difference to original contributor: " + comment);
+			}
 		}
 
 		return result;
@@ -400,27 +520,31 @@ public class ParsedCommentImpl implements ParsedComment {
 	}
 
 	public static long getUndoneRevisionId(String comment) {
-		long result;
+		long result = -1;
+
+		if ((findKeywords(comment) & HAS_REVISION_KEYWORD) == 0) {
+			return result;
+		}
 
 		Matcher matcher = ROBUST_UNDO_PATTERN.matcher(comment);
 		if (matcher.matches()) {
 			String str = matcher.group(2);
 			result = Long.parseLong(str);
-		} else {
-			result = -1;
 		}
 		return result;
 	}
 
 	public static long getRestoredRevisionId(String comment) {
-		long result;
+		long result = -1;
+
+		if ((findKeywords(comment) & HAS_REVISION_KEYWORD) == 0) {
+			return result;
+		}
 
 		Matcher matcher = ROBUST_RESTORE_PATTERN.matcher(comment);
 		if (matcher.matches()) {
 			String str = matcher.group(1);
 			result = Long.parseLong(str);
-		} else {
-			result = -1;
 		}
 		return result;
 	}
@@ -432,11 +556,27 @@ public class ParsedCommentImpl implements ParsedComment {
 
 	@Override
 	public String getAction1() {
+		if (action1 == ActionTable.OTHER_ACTION) {
+			return otherAction1;
+		}
+		return ActionTable.getString(action1);
+	}
+
+	@Override
+	public int getAction1Id() {
 		return action1;
 	}
 
 	@Override
 	public String getAction2() {
+		if (action2 == ActionTable.OTHER_ACTION) {
+			return otherAction2;
+		}
+		return ActionTable.getString(action2);
+	}
+
+	@Override
+	public int getAction2Id() {
 		return action2;
 	}
 
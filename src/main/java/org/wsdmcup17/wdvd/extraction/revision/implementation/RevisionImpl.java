@@ -24,9 +24,9 @@
 
 package org.wsdmcup17.wdvd.extraction.revision.implementation;
 
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -36,32 +36,37 @@ import org.slf4j.LoggerFactory;
 import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
 import org.wikidata.wdtk.dumpfiles.ExtendedMwRevisionImpl;
 import org.wikidata.wdtk.dumpfiles.MwRevision;
-import org.wsdmcup17.wdvd.extraction.features.Feature;
-import org.wsdmcup17.wdvd.extraction.features.FeatureValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
 import org.wsdmcup17.wdvd.extraction.features.revision.misc.ContentType;
 import org.wsdmcup17.wdvd.extraction.features.user.misc.IsBotUser;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.CharacterStatistics;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.ContentTypeIndicator;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.GeoInformation;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.ItemSummary;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.ParsedComment;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.RevertMethod;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
 import org.wsdmcup17.wdvd.extraction.revision.interfaces.TextRegex;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.WordTokens;
+import org.wsdmcup17.wdvd.extraction.state.StateIO;
 
 public class RevisionImpl extends ExtendedMwRevisionImpl implements Revision {
 	static final Logger logger = LoggerFactory.getLogger(Revision.class);
 
-	private static final String DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ssX";
-
 	private ParsedComment parsedComment;
+	private CharacterStatistics characterStatistics;
+	private WordTokens wordTokens;
 	private long sessionId;
+	private long epochMillis = TimestampParser.INVALID_TIMESTAMP;
 	private ItemDocument itemDocument;
+	private ItemSummary itemSummary;
 	private TextRegex textRegex;
 	private TextRegex prevTextRegex;
 
 	private String revisionTags;
 	private GeoInformation geoInformation;
 
-	private Map<Feature, FeatureValue> featureValues = new HashMap<>();
+	private FeatureVector featureVector;
 
 	private Map<RevertMethod, Revision> revertingRevision = new HashMap<>();
 
@@ -78,11 +83,11 @@ public class RevisionImpl extends ExtendedMwRevisionImpl implements Revision {
 	}
 
 	//TODO: Update this constructor if the attributes have changed
-	@SuppressWarnings("unchecked")
 	public RevisionImpl(Revision revision) {
 		super(revision);
 		this.parsedComment = revision.getRawParsedComment();
 		this.sessionId = revision.getSessionId();
+		this.epochMillis = revision.getEpochMillis();
 		this.revertingRevision = new HashMap<>();
 		this.revertingRevision.putAll(
 				revision.getRevertingRevision()); // shallow copy
@@ -90,13 +95,13 @@ public class RevisionImpl extends ExtendedMwRevisionImpl implements Revision {
 		this.geoInformation = revision.getGeoInformation();
 
 		this.itemDocument = revision.getItemDocument();
+		this.itemSummary = revision.getItemSummary();
 		this.textRegex = revision.getTextRegex();
 		this.prevTextRegex = revision.getPrevTextRegex();
 
-		this.featureValues =
-				((HashMap<Feature, FeatureValue>)
-						((HashMap<Feature, FeatureValue>) revision.getFeatureValues())
-						.clone()); //shallow copy
+		if (revision.getFeatureVector() != null) {
+			this.featureVector = new FeatureVector(revision.getFeatureVector());
+		}
 		this.score = revision.getScore();
 	}
 
@@ -110,6 +115,28 @@ public class RevisionImpl extends ExtendedMwRevisionImpl implements Revision {
 		return parsedComment;
 	}
 
+	@Override
+	public CharacterStatistics getCharacterStatistics() {
+		// Lazy Generation
+		if (characterStatistics == null) {
+			characterStatistics = new CharacterStatisticsImpl(
+					getParsedComment().getSuffixComment());
+		}
+
+		return characterStatistics;
+	}
+
+	@Override
+	public WordTokens getWordTokens() {
+		// Lazy Generation
+		if (wordTokens == null) {
+			wordTokens = new WordTokensImpl(
+					getParsedComment().getSuffixComment());
+		}
+
+		return wordTokens;
+	}
+
 	@Override
 	public ParsedComment getRawParsedComment() {
 		return parsedComment;
@@ -195,28 +222,6 @@ public class RevisionImpl extends ExtendedMwRevisionImpl implements Revision {
 		return revisionTags;
 	}
 
-	@Override
-	public int getItemId() {
-		int result = -1;
-		String title = getPrefixedTitle();
-		if (title != null && title.startsWith("Q")) {
-			title = title.substring(1);
-		} else {
-			logger.warn(
-					"Revision: " + getRevisionId()
-					+ ": non-well-formed prefixedTitle: " + title);
-		}
-		try {
-			result = Integer.parseInt(title);
-		} catch (NumberFormatException e) {
-			logger.warn(
-					"Revision: " + getRevisionId()
-					+ ": non-well-formed prefixedTitle: " + title);
-		}
-
-		return result;
-	}
-
 	@Override
 	public Revision getRevertingRevision(RevertMethod method) {
 		return revertingRevision.get(method);
@@ -229,27 +234,26 @@ public class RevisionImpl extends ExtendedMwRevisionImpl implements Revision {
 
 	@Override
 	public Date getDate() {
-		return getDate(getTimeStamp());
-	}
-
-	public static Date getDate(String timestamp) {
 		Date result = null;
-
-		try {
-			// formatter is not thread safe
-			DateFormat formatter = new SimpleDateFormat(DATE_FORMAT);
-			result = formatter.parse(timestamp);
-		} catch (ParseException e) {
-			logger.warn("Invalid time stamp: " + timestamp);
+		if (epochMillis != TimestampParser.INVALID_TIMESTAMP) {
+			result = new Date(epochMillis);
 		}
-
 		return result;
 	}
 
+	@Override
+	public long getEpochMillis() {
+		return epochMillis;
+	}
+
+	@Override
+	public void setEpochMillis(long epochMillis) {
+		this.epochMillis = epochMillis;
+	}
+
 	@Override
 	public ContentTypeIndicator getContentType() {
-		return ContentType.getContentTypeFromString(
-				getParsedComment().getAction1());
+		return ContentType.getContentType(getParsedComment());
 	}
 
 	@Override
@@ -270,6 +274,16 @@ public class RevisionImpl extends ExtendedMwRevisionImpl implements Revision {
 		return itemDocument;
 	}
 
+	@Override
+	public void setItemSummary(ItemSummary itemSummary) {
+		this.itemSummary = itemSummary;
+	}
+
+	@Override
+	public ItemSummary getItemSummary() {
+		return itemSummary;
+	}
+
 	public static int getItemIdFromString(String str) {
 		int result = -1;
 		if (str != null && str.startsWith("Q")) {
@@ -291,13 +305,13 @@ public class RevisionImpl extends ExtendedMwRevisionImpl implements Revision {
 	}
 
 	@Override
-	public void setFeatureValue(Feature f, FeatureValue v) {
-		featureValues.put(f, v);
+	public void setFeatureVector(FeatureVector featureVector) {
+		this.featureVector = featureVector;
 	}
 
 	@Override
-	public Map<Feature, FeatureValue> getFeatureValues() {
-		return featureValues;
+	public FeatureVector getFeatureVector() {
+		return featureVector;
 	}
 
 	@Override
@@ -341,4 +355,74 @@ public class RevisionImpl extends ExtendedMwRevisionImpl implements Revision {
 		this.prevTextRegex = prevTextRegex;
 	}
 
+	/**
+	 * Writes the revision without the text, the item document, the item
+	 * summary, the previous TextRegex and the reverting revisions. The parsed
+	 * comment, the character statistics and the word tokens are generated
+	 * again from the comment.
+	 */
+	@Override
+	public void writeData(DataOutput out) throws IOException {
+		super.writeData(out);
+		out.writeLong(sessionId);
+		out.writeLong(epochMillis);
+		StateIO.writeString(out, revisionTags);
+
+		out.writeBoolean(geoInformation != null);
+		if (geoInformation != null) {
+			out.writeLong(geoInformation.getStartAdress());
+			out.writeLong(geoInformation.getEndAdress());
+			StateIO.writeString(out, geoInformation.getCountryCode());
+			StateIO.writeString(out, geoInformation.getContinentCode());
+			StateIO.writeString(out, geoInformation.getTimeZone());
+			StateIO.writeString(out, geoInformation.getRegionCode());
+			StateIO.writeString(out, geoInformation.getCityName());
+			StateIO.writeString(out, geoInformation.getCountyName());
+		}
+
+		out.writeBoolean(textRegex != null);
+		if (textRegex != null) {
+			out.writeInt(textRegex.getNumberOfLanguageWords());
+			out.writeInt(textRegex.getNumberOfLinks());
+			out.writeInt(textRegex.getNumberOfQids());
+		}
+
+		out.writeBoolean(featureVector != null);
+		if (featureVector != null) {
+			featureVector.write(out);
+		}
+		out.writeFloat(score);
+	}
+
+	@Override
+	public void readData(DataInput in) throws IOException {
+		super.readData(in);
+		sessionId = in.readLong();
+		epochMillis = in.readLong();
+		revisionTags = StateIO.readString(in);
+
+		geoInformation = null;
+		if (in.readBoolean()) {
+			geoInformation = new GeoInformationImpl(
+					in.readLong(), in.readLong(),
+					StateIO.readString(in), StateIO.readString(in),
+					StateIO.readString(in), StateIO.readString(in),
+					StateIO.readString(in), StateIO.readString(in));
+		}
+
+		textRegex = null;
+		if (in.readBoolean()) {
+			textRegex = new TextRegexImpl();
+			textRegex.setNumberOfLanguageWords(in.readInt());
+			textRegex.setNumberOfLinks(in.readInt());
+			textRegex.setNumberOfQids(in.readInt());
+		}
+
+		featureVector = null;
+		if (in.readBoolean()) {
+			featureVector = FeatureVector.read(in);
+		}
+		score = in.readFloat();
+	}
+
 }
@@ -0,0 +1,154 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.revision.implementation;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Parses the timestamps of revisions to milliseconds since 1970.
+ *
+ * Timestamps of the MediaWiki layout "2016-01-01T12:34:56Z" are parsed
+ * without creating objects. Other timestamps are parsed by a
+ * {@link SimpleDateFormat} with the pattern {@value #DATE_FORMAT}, which
+ * yields the same result for the MediaWiki layout.
+ */
+public final class TimestampParser {
+	static final Logger logger = LoggerFactory.getLogger(TimestampParser.class);
+
+	/**
+	 * Result for an invalid timestamp.
+	 */
+	public static final long INVALID_TIMESTAMP = Long.MIN_VALUE;
+
+	static final String DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ssX";
+
+	private static final String LAYOUT = "0000-00-00T00:00:00Z";
+
+	// SimpleDateFormat uses the Julian calendar before October 15, 1582
+	private static final int FIRST_GREGORIAN_YEAR = 1583;
+
+	private static final long MILLIS_PER_SECOND = 1000;
+	private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+
+	private TimestampParser() {
+	}
+
+	public static long parseEpochMillis(String timestamp) {
+		if (timestamp == null) {
+			return INVALID_TIMESTAMP;
+		}
+
+		if (hasLayout(timestamp)) {
+			int year = parseInt(timestamp, 0, 4);
+			int month = parseInt(timestamp, 5, 7);
+			int day = parseInt(timestamp, 8, 10);
+			int hour = parseInt(timestamp, 11, 13);
+			int minute = parseInt(timestamp, 14, 16);
+			int second = parseInt(timestamp, 17, 19);
+
+			if (year >= FIRST_GREGORIAN_YEAR
+					&& month >= 1 && month <= 12
+					&& day >= 1 && day <= daysInMonth(year, month)
+					&& hour <= 23 && minute <= 59 && second <= 59) {
+				long seconds = daysSinceEpoch(year, month, day) * SECONDS_PER_DAY
+						+ hour * 3600 + minute * 60 + second;
+				return seconds * MILLIS_PER_SECOND;
+			}
+		}
+
+		return parseWithDateFormat(timestamp);
+	}
+
+	private static long parseWithDateFormat(String timestamp) {
+		try {
+			// formatter is not thread safe
+			DateFormat formatter = new SimpleDateFormat(DATE_FORMAT);
+			return formatter.parse(timestamp).getTime();
+		} catch (ParseException e) {
+			logger.warn("Invalid time stamp: " + timestamp);
+			return INVALID_TIMESTAMP;
+		}
+	}
+
+	// Returns whether the timestamp has exactly the MediaWiki layout (with
+	// ASCII digits).
+	private static boolean hasLayout(String timestamp) {
+		if (timestamp.length() != LAYOUT.length()) {
+			return false;
+		}
+		for (int i = 0; i < LAYOUT.length(); i++) {
+			char c = timestamp.charAt(i);
+			char expected = LAYOUT.charAt(i);
+			if (expected == '0' ? c < '0' || c > '9' : c != expected) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int parseInt(String str, int begin, int end) {
+		int result = 0;
+		for (int i = begin; i < end; i++) {
+			result = result * 10 + (str.charAt(i) - '0');
+		}
+		return result;
+	}
+
+	private static boolean isLeapYear(int year) {
+		return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+	}
+
+	private static int daysInMonth(int year, int month) {
+		switch (month) {
+		case 2:
+			return isLeapYear(year) ? 29 : 28;
+		case 4:
+		case 6:
+		case 9:
+		case 11:
+			return 30;
+		default:
+			return 31;
+		}
+	}
+
+	// Days from 1970-01-01 to the given date of the proleptic Gregorian
+	// calendar (compare http://howardhinnant.github.io/date_algorithms.html)
+	private static long daysSinceEpoch(int year, int month, int day) {
+		int y = month <= 2 ? year - 1 : year;
+		int era = y / 400;
+		int yearOfEra = y - era * 400;
+		int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5
+				+ day - 1;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100
+				+ dayOfYear;
+		return era * 146097L + dayOfEra - 719468;
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.revision.implementation;
+
+import java.util.regex.Pattern;
+
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.WordTokens;
+
+public class WordTokensImpl implements WordTokens {
+
+	private static final Pattern SPLIT_PATTERN = Pattern.compile("\\s+");
+
+	private final String[] words;
+	private final String[] lowerCaseWords;
+
+	public WordTokensImpl(String text) {
+		if (text == null) {
+			words = null;
+			lowerCaseWords = null;
+		} else {
+			words = split(text);
+			lowerCaseWords = split(text.toLowerCase());
+		}
+	}
+
+	private static String[] split(String text) {
+		String[] words = SPLIT_PATTERN.split(text.trim());
+		for (int i = 0; i < words.length; i++) {
+			words[i] = words[i].trim();
+		}
+		return words;
+	}
+
+	@Override
+	public boolean isMissing() {
+		return words == null;
+	}
+
+	@Override
+	public String[] getWords() {
+		return words;
+	}
+
+	@Override
+	public String[] getLowerCaseWords() {
+		return lowerCaseWords;
+	}
+
+}
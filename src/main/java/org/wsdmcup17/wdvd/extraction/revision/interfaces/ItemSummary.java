@@ -0,0 +1,97 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.revision.interfaces;
+
+/**
+ * The aggregates of an item document that are needed by the item features.
+ */
+public interface ItemSummary {
+
+	int getItemId();
+
+	void setItemId(int itemId);
+
+	int getNumberOfLabels();
+
+	void setNumberOfLabels(int numberOfLabels);
+
+	int getNumberOfDescriptions();
+
+	void setNumberOfDescriptions(int numberOfDescriptions);
+
+	int getNumberOfAliases();
+
+	void setNumberOfAliases(int numberOfAliases);
+
+	int getNumberOfStatements();
+
+	void setNumberOfStatements(int numberOfStatements);
+
+	int getNumberOfProperties();
+
+	void setNumberOfProperties(int numberOfProperties);
+
+	int getNumberOfQualifiers();
+
+	void setNumberOfQualifiers(int numberOfQualifiers);
+
+	int getNumberOfReferences();
+
+	void setNumberOfReferences(int numberOfReferences);
+
+	int getNumberOfSitelinks();
+
+	void setNumberOfSitelinks(int numberOfSitelinks);
+
+	int getNumberOfBadges();
+
+	void setNumberOfBadges(int numberOfBadges);
+
+	// instance of (P31) human (Q5)
+	boolean isHuman();
+
+	void setHuman(boolean human);
+
+	// date of birth (P569)
+	boolean hasDateOfBirth();
+
+	void setDateOfBirth(boolean dateOfBirth);
+
+	// date of death (P570)
+	boolean hasDateOfDeath();
+
+	void setDateOfDeath(boolean dateOfDeath);
+
+	// null if there is no English label
+	String getEnglishLabel();
+
+	void setEnglishLabel(String englishLabel);
+
+	// null if there is no English Wikipedia sitelink
+	String getEnglishSitelink();
+
+	void setEnglishSitelink(String englishSitelink);
+
+}
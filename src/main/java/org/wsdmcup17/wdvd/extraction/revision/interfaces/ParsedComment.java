@@ -30,8 +30,20 @@ public interface ParsedComment {
 
 	String getAction1();
 
+	/**
+	 * Returns the id of action1 in the ActionTable (OTHER_ACTION if it is not
+	 * predefined).
+	 */
+	int getAction1Id();
+
 	String getAction2();
 
+	/**
+	 * Returns the id of action2 in the ActionTable (OTHER_ACTION if it is not
+	 * predefined).
+	 */
+	int getAction2Id();
+
 	String[] getParameters();
 
 	String getSuffixComment();
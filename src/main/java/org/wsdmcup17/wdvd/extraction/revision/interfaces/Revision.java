@@ -24,13 +24,15 @@
 
 package org.wsdmcup17.wdvd.extraction.revision.interfaces;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Date;
 import java.util.Map;
 
 import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
 import org.wikidata.wdtk.dumpfiles.MwRevision;
-import org.wsdmcup17.wdvd.extraction.features.Feature;
-import org.wsdmcup17.wdvd.extraction.features.FeatureValue;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
 
 public interface Revision extends MwRevision {
 
@@ -38,6 +40,16 @@ public interface Revision extends MwRevision {
 
 	ParsedComment getParsedComment();
 
+	/**
+	 * Returns the character statistics of the suffix comment.
+	 */
+	CharacterStatistics getCharacterStatistics();
+
+	/**
+	 * Returns the words of the suffix comment.
+	 */
+	WordTokens getWordTokens();
+
 	long getSessionId();
 
 	void setRollbackReverted(Revision revertingRevision);
@@ -78,6 +90,14 @@ public interface Revision extends MwRevision {
 
 	Date getDate();
 
+	/**
+	 * Returns the timestamp in milliseconds since 1970, or
+	 * TimestampParser.INVALID_TIMESTAMP if the timestamp is invalid.
+	 */
+	long getEpochMillis();
+
+	void setEpochMillis(long epochMillis);
+
 	ContentTypeIndicator getContentType();
 
 	ItemDocument getItemDocument();
@@ -86,9 +106,13 @@ public interface Revision extends MwRevision {
 
 	void setItemDocument(ItemDocument itemDocument);
 
-	Map<Feature, FeatureValue> getFeatureValues();
+	ItemSummary getItemSummary();
 
-	void setFeatureValue(Feature f, FeatureValue v);
+	void setItemSummary(ItemSummary itemSummary);
+
+	FeatureVector getFeatureVector();
+
+	void setFeatureVector(FeatureVector featureVector);
 
 	void setGeoInformation(GeoInformation geoInformation);
 
@@ -104,4 +128,15 @@ public interface Revision extends MwRevision {
 	TextRegex getPrevTextRegex();
 	void setPrevTextRegex(TextRegex prevTextRegex);
 
+	/**
+	 * Writes the data the revision keeps after its stateless features have
+	 * been calculated (the text and the item document are not written).
+	 */
+	void writeData(DataOutput out) throws IOException;
+
+	/**
+	 * Reads the data written by {@link #writeData(DataOutput)}.
+	 */
+	void readData(DataInput in) throws IOException;
+
 }
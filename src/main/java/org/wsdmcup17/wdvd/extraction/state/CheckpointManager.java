@@ -0,0 +1,144 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.state;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the states of the registered components to a checkpoint file and
+ * restores them from it.
+ *
+ * A checkpoint is first written to a temporary file which then replaces the
+ * previous checkpoint atomically. Hence, a crash while writing a checkpoint
+ * leaves the previous checkpoint intact.
+ */
+public class CheckpointManager {
+	static final Logger logger = LoggerFactory.getLogger(CheckpointManager.class);
+
+	static final String CHECKPOINT_FILE = "checkpoint";
+	static final String TMP_FILE = "checkpoint.tmp";
+
+	static final int MAGIC = 0x57445644; // "WDVD"
+	static final int VERSION = 2;
+
+	static final int BUFFER_SIZE = 1024 * 1024;
+
+	private final File directory;
+
+	private final List<String> names = new ArrayList<>();
+	private final List<Checkpointable> components = new ArrayList<>();
+
+	public CheckpointManager(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Registers a component. The components must be registered in the same
+	 * order when writing and restoring a checkpoint.
+	 */
+	public void register(String name, Checkpointable component) {
+		names.add(name);
+		components.add(component);
+	}
+
+	public boolean exists() {
+		return new File(directory, CHECKPOINT_FILE).exists();
+	}
+
+	/**
+	 * Writes the states of all components and the id of the last revision
+	 * whose processing is reflected by these states.
+	 */
+	public void write(long revisionId) throws IOException {
+		long startTime = System.currentTimeMillis();
+
+		if (!directory.exists() && !directory.mkdirs()) {
+			throw new IOException("Cannot create directory " + directory);
+		}
+
+		File tmpFile = new File(directory, TMP_FILE);
+		try (FileOutputStream fileStream = new FileOutputStream(tmpFile)) {
+			DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(fileStream, BUFFER_SIZE));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(revisionId);
+
+			for (int i = 0; i < components.size(); i++) {
+				out.writeUTF(names.get(i));
+				components.get(i).writeState(out);
+			}
+
+			out.flush();
+			fileStream.getChannel().force(true);
+		}
+
+		Files.move(tmpFile.toPath(),
+				new File(directory, CHECKPOINT_FILE).toPath(),
+				StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+
+		logger.info("Checkpoint after revision " + revisionId + " written ("
+				+ (System.currentTimeMillis() - startTime) + " ms)");
+	}
+
+	/**
+	 * Restores the states of all components and returns the id of the last
+	 * revision processed before the checkpoint.
+	 */
+	public long restore() throws IOException {
+		File file = new File(directory, CHECKPOINT_FILE);
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(file), BUFFER_SIZE))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException("Unknown checkpoint format: " + file);
+			}
+			long revisionId = in.readLong();
+
+			for (int i = 0; i < components.size(); i++) {
+				StateIO.readSection(in, names.get(i));
+				components.get(i).readState(in);
+			}
+
+			logger.info("Checkpoint after revision " + revisionId + " restored");
+			return revisionId;
+		}
+	}
+
+}
@@ -0,0 +1,328 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.state;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import it.unimi.dsi.fastutil.HashCommon;
+
+/**
+ * Hash map from long keys to fixed-size values stored outside of the Java
+ * heap. The map is stored in direct buffers or, if a directory is given, in
+ * a temporary memory-mapped file in that directory. Then, the operating
+ * system can page out the parts of large maps which are not in use.
+ *
+ * Every slot of the map stores a key followed by its value. The values are
+ * accessed by the slot and the offset within the value. Slots are only valid
+ * until the next call of {@link #insert(long)}.
+ *
+ * A buffer cannot exceed 2 GB. Hence, the slots are split into pages of a
+ * power of two slots, each of which is a buffer of at most MAX_PAGE_SIZE
+ * bytes (a mapping of its region of the file, respectively).
+ */
+public class OffHeapLongMap implements Checkpointable {
+
+	static final int INITIAL_CAPACITY = 1024;
+	static final int MAX_CAPACITY = 1 << 30;
+	static final float LOAD_FACTOR = 0.75f;
+
+	static final int KEY_SIZE = 8;
+	static final int COPY_BUFFER_SIZE = 64 * 1024;
+	static final int MAX_PAGE_SIZE = 1 << 30;
+
+	// null for direct buffers
+	private final File directory;
+
+	private final int valueSize;
+	private final int slotSize;
+
+	// slots per page (a power of two)
+	private final int pageShift;
+	private final int pageMask;
+
+	private ByteBuffer[] pages;
+
+	// number of slots (a power of two), the slot with index capacity is
+	// reserved for the key Long.MIN_VALUE
+	private int capacity;
+	private int maxFill;
+	private int size;
+	private boolean containsMinKey;
+
+	public OffHeapLongMap(int valueSize) {
+		this(valueSize, null);
+	}
+
+	/**
+	 * @param directory directory of the memory-mapped file (null for direct
+	 *        buffers)
+	 */
+	public OffHeapLongMap(int valueSize, File directory) {
+		this(valueSize, directory, MAX_PAGE_SIZE);
+	}
+
+	OffHeapLongMap(int valueSize, File directory, int maxPageSize) {
+		this.directory = directory;
+		this.valueSize = valueSize;
+		this.slotSize = KEY_SIZE + valueSize;
+		int slotsPerPage = Integer.highestOneBit(maxPageSize / slotSize);
+		this.pageShift = Integer.numberOfTrailingZeros(slotsPerPage);
+		this.pageMask = slotsPerPage - 1;
+		allocate(INITIAL_CAPACITY);
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Returns the slot of the key or -1 if the map does not contain the key.
+	 */
+	public int find(long key) {
+		if (key == Long.MIN_VALUE) {
+			return containsMinKey ? capacity : -1;
+		}
+
+		long storedKey = key ^ Long.MIN_VALUE;
+		int mask = capacity - 1;
+		int slot = (int) HashCommon.murmurHash3(key) & mask;
+		long current;
+		while ((current = getStoredKey(pages, slot)) != 0) {
+			if (current == storedKey) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the slot of the key, inserting the key with a value of zeros
+	 * if the map does not contain it.
+	 */
+	public int insert(long key) {
+		int slot = find(key);
+		if (slot >= 0) {
+			return slot;
+		}
+
+		if (size >= maxFill) {
+			if (capacity == MAX_CAPACITY) {
+				throw new IllegalStateException(
+						"Off-heap map exceeds " + maxFill + " keys");
+			}
+			rehash(capacity * 2);
+		}
+		size++;
+		return add(key);
+	}
+
+	public int getInt(int slot, int offset) {
+		return page(pages, slot).getInt(valueOffset(slot, offset));
+	}
+
+	public void putInt(int slot, int offset, int value) {
+		page(pages, slot).putInt(valueOffset(slot, offset), value);
+	}
+
+	public long getLong(int slot, int offset) {
+		return page(pages, slot).getLong(valueOffset(slot, offset));
+	}
+
+	public void putLong(int slot, int offset, long value) {
+		page(pages, slot).putLong(valueOffset(slot, offset), value);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the size of the buffers in bytes.
+	 */
+	public long getOffHeapSize() {
+		return (long) (capacity + 1) * slotSize;
+	}
+
+	@Override
+	public void writeState(DataOutputStream out) throws IOException {
+		out.writeInt(valueSize);
+		out.writeInt(capacity);
+		out.writeInt(size);
+		out.writeBoolean(containsMinKey);
+
+		byte[] bytes = new byte[COPY_BUFFER_SIZE];
+		for (ByteBuffer page: pages) {
+			ByteBuffer source = page.duplicate();
+			((Buffer) source).clear();
+			while (source.hasRemaining()) {
+				int length = Math.min(bytes.length, source.remaining());
+				source.get(bytes, 0, length);
+				out.write(bytes, 0, length);
+			}
+		}
+	}
+
+	@Override
+	public void readState(DataInputStream in) throws IOException {
+		int storedValueSize = in.readInt();
+		if (storedValueSize != valueSize) {
+			throw new IOException("Value size " + storedValueSize
+					+ " does not match " + valueSize);
+		}
+
+		allocate(in.readInt());
+		size = in.readInt();
+		containsMinKey = in.readBoolean();
+
+		byte[] bytes = new byte[COPY_BUFFER_SIZE];
+		for (ByteBuffer page: pages) {
+			ByteBuffer target = page.duplicate();
+			((Buffer) target).clear();
+			while (target.hasRemaining()) {
+				int length = Math.min(bytes.length, target.remaining());
+				in.readFully(bytes, 0, length);
+				target.put(bytes, 0, length);
+			}
+		}
+	}
+
+	private int add(long key) {
+		if (key == Long.MIN_VALUE) {
+			containsMinKey = true;
+			return capacity;
+		}
+
+		int mask = capacity - 1;
+		int slot = (int) HashCommon.murmurHash3(key) & mask;
+		while (getStoredKey(pages, slot) != 0) {
+			slot = (slot + 1) & mask;
+		}
+		page(pages, slot).putLong(keyOffset(slot), key ^ Long.MIN_VALUE);
+		return slot;
+	}
+
+	private void rehash(int newCapacity) {
+		ByteBuffer[] oldPages = pages;
+		int oldCapacity = capacity;
+
+		allocate(newCapacity);
+
+		byte[] value = new byte[valueSize];
+		for (int slot = 0; slot < oldCapacity; slot++) {
+			long storedKey = getStoredKey(oldPages, slot);
+			if (storedKey != 0) {
+				int newSlot = add(storedKey ^ Long.MIN_VALUE);
+				copyValue(oldPages, slot, value, newSlot);
+			}
+		}
+		if (containsMinKey) {
+			copyValue(oldPages, oldCapacity, value, capacity);
+		}
+	}
+
+	private void copyValue(
+			ByteBuffer[] oldPages, int oldSlot, byte[] value, int newSlot) {
+		ByteBuffer source = page(oldPages, oldSlot).duplicate();
+		((Buffer) source).position(valueOffset(oldSlot, 0));
+		source.get(value);
+
+		ByteBuffer target = page(pages, newSlot).duplicate();
+		((Buffer) target).position(valueOffset(newSlot, 0));
+		target.put(value);
+	}
+
+	private void allocate(int newCapacity) {
+		long slots = (long) newCapacity + 1;
+		int slotsPerPage = pageMask + 1;
+		int numberOfPages = (int) ((slots + pageMask) >>> pageShift);
+
+		capacity = newCapacity;
+		maxFill = (int) (capacity * LOAD_FACTOR);
+
+		// The old buffers are released by the garbage collector.
+		ByteBuffer[] newPages = new ByteBuffer[numberOfPages];
+		if (directory == null) {
+			for (int i = 0; i < numberOfPages; i++) {
+				newPages[i] = ByteBuffer.allocateDirect(
+						pageSize(i, slots, slotsPerPage));
+			}
+		} else {
+			try {
+				File file = File.createTempFile("state", ".map", directory);
+				try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+					raf.setLength(slots * slotSize);
+					FileChannel channel = raf.getChannel();
+					for (int i = 0; i < numberOfPages; i++) {
+						newPages[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+								(long) i * slotsPerPage * slotSize,
+								pageSize(i, slots, slotsPerPage));
+					}
+				}
+
+				// The mappings stay valid after deleting the file (except on
+				// Windows).
+				if (!file.delete()) {
+					file.deleteOnExit();
+				}
+			} catch (IOException e) {
+				throw new IllegalStateException(
+						"Cannot map state file in " + directory, e);
+			}
+		}
+		pages = newPages;
+	}
+
+	// The last page only holds the remaining slots.
+	private int pageSize(int page, long slots, int slotsPerPage) {
+		long pageSlots = Math.min(
+				slotsPerPage, slots - (long) page * slotsPerPage);
+		return (int) pageSlots * slotSize;
+	}
+
+	private long getStoredKey(ByteBuffer[] buffers, int slot) {
+		return page(buffers, slot).getLong(keyOffset(slot));
+	}
+
+	private ByteBuffer page(ByteBuffer[] buffers, int slot) {
+		return buffers[slot >>> pageShift];
+	}
+
+	private int keyOffset(int slot) {
+		return (slot & pageMask) * slotSize;
+	}
+
+	private int valueOffset(int slot, int offset) {
+		return keyOffset(slot) + KEY_SIZE + offset;
+	}
+
+}
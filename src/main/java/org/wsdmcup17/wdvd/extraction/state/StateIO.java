@@ -0,0 +1,106 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.state;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+
+/**
+ * Helper methods for writing and reading states.
+ */
+public final class StateIO {
+
+	private StateIO() {
+	}
+
+	/**
+	 * Writes a string of arbitrary length which may be null.
+	 */
+	public static void writeString(DataOutput out, String str)
+	throws IOException {
+		if (str == null) {
+			out.writeInt(-1);
+		} else {
+			byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	public static String readString(DataInput in) throws IOException {
+		int length = in.readInt();
+		if (length == -1) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	public static void writeStringMap(
+			DataOutput out, Long2ObjectMap<String> map) throws IOException {
+		out.writeInt(map.size());
+		ObjectIterator<Long2ObjectMap.Entry<String>> iterator =
+				map.long2ObjectEntrySet().iterator();
+		while (iterator.hasNext()) {
+			Long2ObjectMap.Entry<String> entry = iterator.next();
+			out.writeLong(entry.getLongKey());
+			writeString(out, entry.getValue());
+		}
+	}
+
+	/**
+	 * Reads the entries written by
+	 * {@link #writeStringMap(DataOutput, Long2ObjectMap)} into the map.
+	 */
+	public static void readStringMap(
+			DataInput in, Long2ObjectMap<String> map) throws IOException {
+		map.clear();
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			long key = in.readLong();
+			map.put(key, readString(in));
+		}
+	}
+
+	/**
+	 * Reads the name of the next section and fails if it is not the expected
+	 * one, e.g., because the feature list has changed since the checkpoint.
+	 */
+	public static void readSection(DataInput in, String expectedName)
+	throws IOException {
+		String name = in.readUTF();
+		if (!name.equals(expectedName)) {
+			throw new IOException("Checkpoint does not match the pipeline: "
+					+ "found state of " + name + " instead of " + expectedName);
+		}
+	}
+
+}
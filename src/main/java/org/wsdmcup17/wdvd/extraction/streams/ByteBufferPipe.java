@@ -0,0 +1,299 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.streams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-producer single-consumer pipe forwarding slices of pooled byte
+ * buffers from one thread to another without copying them.
+ *
+ * The producer acquires a buffer from the pool, fills it (e.g., directly from
+ * a socket channel) and publishes slices of it. The consumer reads the slices
+ * in the order they have been published through an {@link InputStream}. A
+ * buffer returns to the pool as soon as the producer has released it and the
+ * consumer has read all of its slices. Hence, the pool bounds the memory of
+ * the pipe (as the buffer size of a {@link java.io.PipedInputStream} does).
+ */
+public class ByteBufferPipe {
+
+	private static final int SLICE_CAPACITY = 1024;
+
+	private static final long POOL_TIMEOUT_MS = 100;
+
+	public static class PooledBuffer {
+		// used by the producer only
+		private final ByteBuffer buffer;
+		// used by the consumer only
+		private final ByteBuffer view;
+
+		// The producer holds one reference and every unread slice holds one
+		private final AtomicInteger references = new AtomicInteger();
+
+		private PooledBuffer(int capacity) {
+			buffer = ByteBuffer.allocateDirect(capacity);
+			view = buffer.duplicate();
+		}
+
+		public ByteBuffer getByteBuffer() {
+			return buffer;
+		}
+	}
+
+	private final BlockingQueue<PooledBuffer> pool;
+
+	// Ring of published slices (written by the producer, cleared by the
+	// consumer)
+	private final PooledBuffer[] sliceBuffers = new PooledBuffer[SLICE_CAPACITY];
+	private final int[] sliceOffsets = new int[SLICE_CAPACITY];
+	private final int[] sliceLengths = new int[SLICE_CAPACITY];
+	private final int mask = SLICE_CAPACITY - 1;
+
+	// next slice to be read (only written by the consumer)
+	private volatile long head = 0;
+
+	// next slice to be published (only written by the producer)
+	private volatile long tail = 0;
+
+	private volatile boolean closedByProducer = false;
+	private volatile boolean closedByConsumer = false;
+
+	private volatile Thread consumer;
+	private volatile boolean consumerWaiting = false;
+
+	private volatile Thread producer;
+	private volatile boolean producerWaiting = false;
+
+	private final InputStream inputStream = new PipeInputStream();
+
+	public ByteBufferPipe(int bufferSize, int numberOfBuffers) {
+		pool = new ArrayBlockingQueue<>(numberOfBuffers);
+		for (int i = 0; i < numberOfBuffers; i++) {
+			pool.add(new PooledBuffer(bufferSize));
+		}
+	}
+
+	/**
+	 * Returns an empty buffer from the pool, waiting if necessary until the
+	 * consumer has read one.
+	 */
+	public PooledBuffer acquire() throws IOException, InterruptedException {
+		PooledBuffer result = null;
+		while (result == null) {
+			checkClosedByConsumer();
+			result = pool.poll(POOL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+		}
+
+		((Buffer) result.buffer).clear();
+		result.references.set(1);
+
+		return result;
+	}
+
+	/**
+	 * Releases the producer's reference to the buffer. The buffer must not be
+	 * modified afterwards.
+	 */
+	public void release(PooledBuffer buffer) {
+		if (buffer.references.decrementAndGet() == 0) {
+			pool.offer(buffer);
+		}
+	}
+
+	/**
+	 * Forwards the given bytes of the buffer to the consumer. The bytes must
+	 * not be modified afterwards.
+	 */
+	public void publish(PooledBuffer buffer, int offset, int length)
+			throws IOException {
+		if (length == 0) {
+			return;
+		}
+
+		long t = tail;
+		if (t - head >= SLICE_CAPACITY) {
+			producer = Thread.currentThread();
+			while (t - head >= SLICE_CAPACITY) {
+				checkClosedByConsumer();
+				producerWaiting = true;
+				if (t - head >= SLICE_CAPACITY) {
+					LockSupport.park(this);
+				}
+				producerWaiting = false;
+			}
+		}
+		checkClosedByConsumer();
+
+		buffer.references.incrementAndGet();
+
+		int index = (int) (t & mask);
+		sliceBuffers[index] = buffer;
+		sliceOffsets[index] = offset;
+		sliceLengths[index] = length;
+		tail = t + 1;
+
+		if (consumerWaiting) {
+			LockSupport.unpark(consumer);
+		}
+	}
+
+	/**
+	 * Signals the end of the stream to the consumer.
+	 */
+	public void close() {
+		closedByProducer = true;
+
+		if (consumerWaiting) {
+			LockSupport.unpark(consumer);
+		}
+	}
+
+	public InputStream getInputStream() {
+		return inputStream;
+	}
+
+	private void checkClosedByConsumer() throws IOException {
+		if (closedByConsumer) {
+			throw new IOException("Pipe closed");
+		}
+	}
+
+	private class PipeInputStream extends InputStream {
+		private PooledBuffer current;
+		private int remaining;
+
+		@Override
+		public int read() throws IOException {
+			if (remaining == 0 && !nextSlice()) {
+				return -1;
+			}
+			remaining--;
+			return current.view.get() & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			if (remaining == 0 && !nextSlice()) {
+				return -1;
+			}
+
+			int n = Math.min(len, remaining);
+			current.view.get(b, off, n);
+			remaining -= n;
+
+			return n;
+		}
+
+		@Override
+		public int available() {
+			return remaining;
+		}
+
+		@Override
+		public void close() {
+			if (closedByConsumer) {
+				return;
+			}
+			closedByConsumer = true;
+
+			releaseCurrent();
+			while (head < tail) {
+				takeSlice();
+				releaseCurrent();
+			}
+
+			if (producerWaiting) {
+				LockSupport.unpark(producer);
+			}
+		}
+
+		// Returns false at the end of the stream
+		private boolean nextSlice() throws IOException {
+			if (closedByConsumer) {
+				throw new IOException("Pipe closed");
+			}
+
+			releaseCurrent();
+
+			if (head == tail) {
+				consumer = Thread.currentThread();
+				while (head == tail && !closedByProducer) {
+					consumerWaiting = true;
+					if (head == tail && !closedByProducer) {
+						LockSupport.park(this);
+					}
+					consumerWaiting = false;
+				}
+
+				// All slices are published before the pipe is closed
+				if (head == tail) {
+					return false;
+				}
+			}
+
+			takeSlice();
+
+			if (producerWaiting) {
+				LockSupport.unpark(producer);
+			}
+
+			return true;
+		}
+
+		private void takeSlice() {
+			long h = head;
+			int index = (int) (h & mask);
+			current = sliceBuffers[index];
+			int offset = sliceOffsets[index];
+			remaining = sliceLengths[index];
+			sliceBuffers[index] = null;
+			head = h + 1;
+
+			// Buffer methods (ByteBuffer overrides them only since Java 9)
+			Buffer view = current.view;
+			view.limit(offset + remaining);
+			view.position(offset);
+		}
+
+		private void releaseCurrent() {
+			if (current != null) {
+				release(current);
+				current = null;
+				remaining = 0;
+			}
+		}
+	}
+}
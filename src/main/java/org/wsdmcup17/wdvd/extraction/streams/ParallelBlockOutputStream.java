@@ -0,0 +1,162 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.wsdmcup17.wdvd.extraction.streams;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Output stream compressing independent blocks on a thread pool, as pbzip2
+ * does. The data is split into blocks of a fixed size and every block is
+ * compressed to a complete stream of the compression format. The compressed
+ * blocks are written in their original order, i.e., the output is the
+ * concatenation of the compressed streams (which bzip2 decompresses like a
+ * single stream).
+ */
+public class ParallelBlockOutputStream extends OutputStream {
+
+	/**
+	 * Compresses a block to a complete stream.
+	 */
+	public interface BlockCompressor {
+		byte[] compress(byte[] block, int length) throws IOException;
+	}
+
+	private static final String THREAD_NAME = "Block Compressor %d";
+
+	private static final AtomicInteger threadCount = new AtomicInteger();
+
+	private final OutputStream outputStream;
+	private final BlockCompressor compressor;
+	private final int blockSize;
+	private final ExecutorService executor;
+
+	// compressed blocks in original order (at most maxPending)
+	private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+	private final int maxPending;
+
+	private byte[] block;
+	private int count = 0;
+
+	private boolean closed = false;
+
+	public ParallelBlockOutputStream(OutputStream outputStream,
+			BlockCompressor compressor, int blockSize, int threads) {
+		this.outputStream = outputStream;
+		this.compressor = compressor;
+		this.blockSize = blockSize;
+		this.maxPending = 2 * threads;
+		this.block = new byte[blockSize];
+		this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, String.format(
+					THREAD_NAME, threadCount.incrementAndGet()));
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		block[count++] = (byte) b;
+		if (count == blockSize) {
+			submitBlock();
+		}
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		while (len > 0) {
+			int length = Math.min(len, blockSize - count);
+			System.arraycopy(b, off, block, count, length);
+			count += length;
+			off += length;
+			len -= length;
+			if (count == blockSize) {
+				submitBlock();
+			}
+		}
+	}
+
+	/**
+	 * Writes all blocks compressed so far. The current block is not
+	 * compressed before it is full (or the stream is closed).
+	 */
+	@Override
+	public void flush() throws IOException {
+		while (!pending.isEmpty()) {
+			writeFirstBlock();
+		}
+		outputStream.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+
+		try {
+			if (count > 0) {
+				submitBlock();
+			}
+			flush();
+		} finally {
+			executor.shutdown();
+			outputStream.close();
+		}
+	}
+
+	private void submitBlock() throws IOException {
+		final byte[] data = block;
+		final int length = count;
+		pending.add(executor.submit(() -> compressor.compress(data, length)));
+
+		block = new byte[blockSize];
+		count = 0;
+
+		while (pending.size() > maxPending) {
+			writeFirstBlock();
+		}
+	}
+
+	private void writeFirstBlock() throws IOException {
+		try {
+			outputStream.write(pending.poll().get());
+		} catch (InterruptedException e) {
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+	}
+
+}
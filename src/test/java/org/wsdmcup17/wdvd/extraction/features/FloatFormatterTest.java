@@ -0,0 +1,113 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.wsdmcup17.wdvd.extraction.features;
+
+import static org.junit.Assert.assertEquals;
+
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks that the FloatFormatter produces the same text as the NumberFormat
+ * it replaces.
+ */
+public class FloatFormatterTest {
+
+	// prime such that the sample covers all exponents and many mantissas
+	private static final int SAMPLE_STEP = 10007;
+
+	private static final int RANDOM_VALUES = 100000;
+
+	private final NumberFormat numberFormat = newNumberFormat();
+
+	private static NumberFormat newNumberFormat() {
+		NumberFormat result = NumberFormat.getInstance(Locale.ENGLISH);
+		result.setMaximumFractionDigits(2);
+		result.setGroupingUsed(false);
+		return result;
+	}
+
+	private void assertFormat(float value) {
+		assertEquals("Bits " + Integer.toHexString(Float.floatToRawIntBits(value)),
+				numberFormat.format(value), FloatFormatter.format(value));
+	}
+
+	@Test
+	public void testSpecialValues() {
+		float[] values = {
+			0.0f, -0.0f, Float.NaN,
+			Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY,
+			Float.MIN_VALUE, -Float.MIN_VALUE, Float.MIN_NORMAL,
+			Float.MAX_VALUE, -Float.MAX_VALUE,
+			1.0f, -1.0f, 0.1f, 0.01f, 0.001f, 0.005f, 0.015f, 0.995f,
+			// ties which are exactly representable
+			0.125f, 0.375f, 0.625f, 0.875f, -0.125f, 1.125f, 2.375f,
+			// around the limit of the integer arithmetic
+			0x1p52f, 0x1p53f, -0x1p53f, 0x1p54f, Math.nextDown(0x1p53f),
+			0x1p-62f, 0x1p-63f, 0x1p-64f,
+			(float) Integer.MAX_VALUE, (float) Long.MAX_VALUE,
+		};
+		for (float value: values) {
+			assertFormat(value);
+			assertFormat(Math.nextUp(value));
+			assertFormat(Math.nextDown(value));
+		}
+	}
+
+	@Test
+	public void testSampledBitPatterns() {
+		for (long bits = Integer.MIN_VALUE; bits <= Integer.MAX_VALUE;
+				bits += SAMPLE_STEP) {
+			assertFormat(Float.intBitsToFloat((int) bits));
+		}
+	}
+
+	@Test
+	public void testTypicalFeatureValues() {
+		Random random = new Random(0);
+		for (int i = 0; i < RANDOM_VALUES; i++) {
+			// proportions and ratios
+			assertFormat(random.nextFloat());
+			// logarithms of counts and differences
+			assertFormat((random.nextFloat() - 0.5f) * 100);
+			// multiples of a hundredth hit ties after the float conversion
+			assertFormat(random.nextInt(100000) / 100.0f);
+			assertFormat(random.nextInt(100000) / 1000.0f);
+		}
+	}
+
+	@Test
+	public void testAppendsToBuilder() {
+		StringBuilder builder = new StringBuilder("a,");
+		FloatFormatter.format(1.5f, builder);
+		builder.append(',');
+		FloatFormatter.format(-2.25f, builder);
+		assertEquals("a,1.5,-2.25", builder.toString());
+	}
+}
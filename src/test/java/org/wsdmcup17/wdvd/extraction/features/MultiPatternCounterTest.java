@@ -0,0 +1,144 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.wsdmcup17.wdvd.extraction.features;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+import org.wsdmcup17.wdvd.extraction.features.word.ProportionOfLinksAdded;
+import org.wsdmcup17.wdvd.extraction.features.word.ProportionOfQidAdded;
+import org.wsdmcup17.wdvd.extraction.features.word.misc.ProportionOfLanguageAdded;
+
+/**
+ * Checks that the MultiPatternCounter counts the language, link, and QID
+ * patterns as {@link Matcher#find()} does.
+ */
+public class MultiPatternCounterTest {
+
+	private static final int FUZZED_TEXTS = 50000;
+	private static final int MAX_PARTS = 12;
+
+	// characters occurring in the patterns and some which do not (including
+	// a surrogate pair)
+	private static final String NOISE = "abcdefghijklmnopqrstuvwxyzQ0123456789"
+			+ " ().:/\"wəåк中（😀";
+
+	private static final Pattern[] PATTERNS = {
+		ProportionOfLanguageAdded.pattern,
+		ProportionOfLinksAdded.pattern,
+		ProportionOfQidAdded.pattern,
+	};
+
+	private final List<String> languageWords =
+			FiniteLanguage.expand(PATTERNS[0].pattern());
+
+	// counts "Q\\d{1,8}" by its prefixes as the TextRegexProcessor does
+	private final MultiPatternCounter counter = new MultiPatternCounter(
+			Arrays.asList(
+				languageWords,
+				FiniteLanguage.expand(PATTERNS[1].pattern()),
+				Arrays.asList(
+					"Q0", "Q1", "Q2", "Q3", "Q4", "Q5", "Q6", "Q7", "Q8", "Q9")));
+
+	private static int[] find(String text) {
+		int[] result = new int[PATTERNS.length];
+		for (int i = 0; i < PATTERNS.length; i++) {
+			Matcher matcher = PATTERNS[i].matcher(text);
+			while (matcher.find()) {
+				result[i]++;
+			}
+		}
+		return result;
+	}
+
+	private void assertCounts(String text) {
+		assertArrayEquals(text, find(text), counter.count(text));
+	}
+
+	@Test
+	public void testExamples() {
+		assertArrayEquals(new int[3], counter.count(null));
+		assertCounts("");
+		assertCounts("https://www.wikidata.org/wiki/Q42");
+		assertCounts("http://http://https:/www.www.ww.w");
+		assertCounts("Q1234567890Q Q QQ1 Q123456789Q1");
+		assertCounts("{\"language\":\"en\",\"value\":\"Douglas Adams\"}");
+		for (String word: languageWords) {
+			assertCounts(word);
+			assertCounts(word + word);
+			assertCounts("\"" + word + "\":" + word.substring(1));
+		}
+	}
+
+	@Test
+	public void testFuzzedTexts() {
+		List<String> fragments = new ArrayList<>(languageWords);
+		fragments.addAll(Arrays.asList("http", "https", "://", "www.", "ww",
+				"Q", "Q123456789", "\"Q42\""));
+
+		Random random = new Random(0);
+		for (int i = 0; i < FUZZED_TEXTS; i++) {
+			StringBuilder text = new StringBuilder();
+			int parts = random.nextInt(MAX_PARTS);
+			for (int j = 0; j < parts; j++) {
+				if (random.nextBoolean()) {
+					String fragment = fragments.get(random.nextInt(fragments.size()));
+					if (random.nextInt(3) == 0) {
+						// part of a fragment
+						int from = random.nextInt(fragment.length() + 1);
+						int to = random.nextInt(fragment.length() + 1);
+						fragment = fragment.substring(
+								Math.min(from, to), Math.max(from, to));
+					}
+					text.append(fragment);
+				} else {
+					text.append(NOISE.charAt(random.nextInt(NOISE.length())));
+				}
+			}
+			assertCounts(text.toString());
+		}
+	}
+
+	@Test
+	public void testRanges() {
+		String text = "Q1 https://www.enwiki Q23 \"de\" www.Q4http://fr Q5";
+		for (int from = 0; from <= text.length(); from++) {
+			for (int to = from; to <= text.length(); to++) {
+				int[] counts = new int[counter.getFamilies()];
+				counter.count(text, from, to, counts);
+				String range = text.substring(from, to);
+				assertArrayEquals(range, find(range), counts);
+			}
+		}
+	}
+}
@@ -0,0 +1,279 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.wsdmcup17.wdvd.extraction.processors.controlflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.wikidata.wdtk.dumpfiles.MwRevision;
+import org.wsdmcup17.wdvd.extraction.FeatureListFactory;
+import org.wsdmcup17.wdvd.extraction.features.Feature;
+import org.wsdmcup17.wdvd.extraction.features.FeatureVector;
+import org.wsdmcup17.wdvd.extraction.revision.implementation.RevisionImpl;
+import org.wsdmcup17.wdvd.extraction.revision.implementation.TextRegexImpl;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.Revision;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.TextRegex;
+
+/**
+ * Checks that the SpillingRevisionQueue keeps the order of the revisions
+ * while spilling them and that spilled revisions keep their data.
+ */
+public class SpillingRevisionQueueTest {
+
+	private static final int MEMORY_CAPACITY = 8;
+
+	private static final int SEGMENT_SIZE = 5;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static final List<Feature> FEATURES =
+			FeatureListFactory.getFeatures();
+
+	private static Revision createRevision(final long revisionId) {
+		MwRevision mwRevision = new MwRevision() {
+			@Override
+			public String getPrefixedTitle() {
+				return "Q" + revisionId % 100;
+			}
+
+			@Override
+			public String getTitle() {
+				return getPrefixedTitle();
+			}
+
+			@Override
+			public int getNamespace() {
+				return 0;
+			}
+
+			@Override
+			public int getPageId() {
+				return (int) (revisionId % 100) + 7;
+			}
+
+			@Override
+			public long getRevisionId() {
+				return revisionId;
+			}
+
+			@Override
+			public String getTimeStamp() {
+				return "2016-03-01T00:00:00Z";
+			}
+
+			@Override
+			public String getText() {
+				return "{\"type\":\"item\"}";
+			}
+
+			@Override
+			public String getModel() {
+				return MwRevision.MODEL_WIKIBASE_ITEM;
+			}
+
+			@Override
+			public String getFormat() {
+				return "application/json";
+			}
+
+			@Override
+			public String getComment() {
+				return "/* wbsetlabel-add:1|en */ revision " + revisionId;
+			}
+
+			@Override
+			public String getContributor() {
+				return revisionId % 2 == 0 ? "User " + revisionId : null;
+			}
+
+			@Override
+			public int getContributorId() {
+				return revisionId % 2 == 0 ? (int) revisionId : -1;
+			}
+
+			@Override
+			public boolean hasRegisteredContributor() {
+				return revisionId % 2 == 0;
+			}
+		};
+
+		Revision revision = new RevisionImpl(mwRevision);
+		revision.setSessionId(revisionId / 10);
+		revision.setEpochMillis(1456790400000L + revisionId);
+		revision.setRevisionTags(revisionId % 3 == 0 ? null : "tag");
+
+		TextRegex textRegex = new TextRegexImpl();
+		textRegex.setNumberOfLanguageWords((int) revisionId);
+		textRegex.setNumberOfLinks(1);
+		textRegex.setNumberOfQids(2);
+		revision.setTextRegex(textRegex);
+
+		FeatureVector vector = new FeatureVector(FEATURES.size());
+		vector.setFloat(FEATURES.get(0), revisionId / 3f);
+		vector.setInteger(FEATURES.get(1), (int) revisionId);
+		vector.setString(FEATURES.get(2), "value " + revisionId);
+		vector.setMissing(FEATURES.get(3));
+		revision.setFeatureVector(vector);
+		return revision;
+	}
+
+	private static void assertRevision(long revisionId, Revision actual) {
+		Revision expected = createRevision(revisionId);
+		assertEquals(expected.getRevisionId(), actual.getRevisionId());
+		assertEquals(expected.getPrefixedTitle(), actual.getPrefixedTitle());
+		assertEquals(expected.getPageId(), actual.getPageId());
+		assertEquals(expected.getTimeStamp(), actual.getTimeStamp());
+		assertEquals(expected.getModel(), actual.getModel());
+		assertEquals(expected.getFormat(), actual.getFormat());
+		assertEquals(expected.getComment(), actual.getComment());
+		assertEquals(expected.getContributor(), actual.getContributor());
+		assertEquals(expected.getContributorId(), actual.getContributorId());
+		assertEquals(expected.getItemId(), actual.getItemId());
+		assertEquals(expected.getSessionId(), actual.getSessionId());
+		assertEquals(expected.getEpochMillis(), actual.getEpochMillis());
+		assertEquals(expected.getRevisionTags(), actual.getRevisionTags());
+		assertEquals(
+				expected.getParsedComment().getAction1(),
+				actual.getParsedComment().getAction1());
+		assertEquals(
+				expected.getTextRegex().getNumberOfLanguageWords(),
+				actual.getTextRegex().getNumberOfLanguageWords());
+		assertEquals(
+				expected.getTextRegex().getNumberOfLinks(),
+				actual.getTextRegex().getNumberOfLinks());
+		assertEquals(
+				expected.getTextRegex().getNumberOfQids(),
+				actual.getTextRegex().getNumberOfQids());
+		for (Feature feature: FEATURES) {
+			assertEquals(
+					expected.getFeatureVector().toString(feature),
+					actual.getFeatureVector().toString(feature));
+		}
+	}
+
+	@Test
+	public void testSpilledRevision() throws Exception {
+		File directory = folder.newFolder();
+		SpillingRevisionQueue queue =
+				new SpillingRevisionQueue("test", 0, SEGMENT_SIZE, directory);
+		queue.put(createRevision(42));
+		queue.put(ControlRevisions.DONE_REVISION);
+
+		Revision revision = queue.take();
+		assertRevision(42, revision);
+		assertNull(revision.getText());
+		assertSame(ControlRevisions.DONE_REVISION, queue.take());
+
+		assertEquals(0, directory.list().length);
+		queue.close();
+	}
+
+	@Test
+	public void testOrder() throws Exception {
+		File directory = folder.newFolder();
+		SpillingRevisionQueue queue = new SpillingRevisionQueue(
+				"test", MEMORY_CAPACITY, SEGMENT_SIZE, directory);
+
+		// alternate between spilling and catching up
+		long next = 0;
+		long expected = 0;
+		int[] puts = {100, 3, 40, 1, 7, 0, 50};
+		int[] takes = {50, 30, 2, 40, 20, 6, 53};
+		for (int i = 0; i < puts.length; i++) {
+			for (int j = 0; j < puts[i]; j++) {
+				queue.put(createRevision(next++));
+			}
+			queue.put(ControlRevisions.FLUSH_REVISION);
+			for (int j = 0; j < takes[i]; j++) {
+				Revision revision = queue.take();
+				if (revision != ControlRevisions.FLUSH_REVISION) {
+					assertRevision(expected++, revision);
+				}
+			}
+		}
+		queue.put(ControlRevisions.DONE_REVISION);
+
+		Revision revision;
+		while ((revision = queue.take()) != ControlRevisions.DONE_REVISION) {
+			if (revision != ControlRevisions.FLUSH_REVISION) {
+				assertRevision(expected++, revision);
+			}
+		}
+		assertEquals(next, expected);
+		assertEquals(0, directory.list().length);
+	}
+
+	@Test
+	public void testConcurrent() throws Exception {
+		final int revisions = 10000;
+		final SpillingRevisionQueue queue = new SpillingRevisionQueue(
+				"test", MEMORY_CAPACITY, SEGMENT_SIZE, folder.newFolder());
+
+		final IOException[] failure = new IOException[1];
+		Thread producer = new Thread(() -> {
+			try {
+				for (int i = 0; i < revisions; i++) {
+					queue.put(createRevision(i));
+				}
+				queue.put(ControlRevisions.DONE_REVISION);
+			} catch (IOException e) {
+				failure[0] = e;
+			}
+		});
+		producer.start();
+
+		long expected = 0;
+		Revision revision;
+		while ((revision = queue.take()) != ControlRevisions.DONE_REVISION) {
+			assertEquals(expected++, revision.getRevisionId());
+		}
+		producer.join();
+		assertNull(failure[0]);
+		assertEquals(revisions, expected);
+	}
+
+	@Test
+	public void testClose() throws Exception {
+		File directory = folder.newFolder();
+		SpillingRevisionQueue queue =
+				new SpillingRevisionQueue("test", 0, SEGMENT_SIZE, directory);
+		for (int i = 0; i < 3 * SEGMENT_SIZE + 2; i++) {
+			queue.put(createRevision(i));
+		}
+		queue.take();
+		queue.close();
+		assertEquals(0, directory.list().length);
+	}
+}
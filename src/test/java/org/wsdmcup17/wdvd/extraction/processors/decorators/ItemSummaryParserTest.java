@@ -0,0 +1,340 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.wsdmcup17.wdvd.extraction.processors.decorators;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+import org.wsdmcup17.wdvd.extraction.revision.implementation.ItemSummaryImpl;
+import org.wsdmcup17.wdvd.extraction.revision.interfaces.ItemSummary;
+
+/**
+ * Checks that the ItemSummaryParser computes the same summary as
+ * ItemSummaryImpl.fromItemDocument and that it falls back to the item
+ * document for all documents it does not handle.
+ */
+public class ItemSummaryParserTest {
+
+	private static final String ITEM = "{"
+		+ "'type':'item','id':'Q42','lastrevid':123,"
+		+ "'labels':{"
+		+ "'en':{'language':'en','value':'Douglas Adams'},"
+		+ "'de':{'language':'de','value':'Douglas Adams'}},"
+		+ "'descriptions':{"
+		+ "'en':{'language':'en','value':'English writer'}},"
+		+ "'aliases':{"
+		+ "'en':[{'language':'en','value':'DNA'},"
+		+ "{'language':'en','value':'Douglas Noel Adams'}],"
+		+ "'fr':[{'language':'fr','value':'Adams'}]},"
+		+ "'claims':{"
+		+ "'P31':[{'mainsnak':{'snaktype':'value','property':'P31',"
+		+ "'datatype':'wikibase-item','datavalue':{'type':'wikibase-entityid',"
+		+ "'value':{'entity-type':'item','numeric-id':5}}},"
+		+ "'type':'statement','id':'Q42$1','rank':'normal',"
+		+ "'references':[{'hash':'abc','snaks':{'P143':["
+		+ "{'snaktype':'value','property':'P143','datatype':'wikibase-item',"
+		+ "'datavalue':{'type':'wikibase-entityid','value':"
+		+ "{'entity-type':'item','numeric-id':328}}}]},"
+		+ "'snaks-order':['P143']}]}],"
+		+ "'P569':[{'mainsnak':{'snaktype':'value','property':'P569',"
+		+ "'datatype':'time','datavalue':{'type':'time','value':{"
+		+ "'time':'+1952-03-11T00:00:00Z','timezone':0,'before':0,'after':0,"
+		+ "'precision':11,"
+		+ "'calendarmodel':'http://www.wikidata.org/entity/Q1985727'}}},"
+		+ "'type':'statement','id':'Q42$2','rank':'preferred',"
+		+ "'qualifiers':{'P1480':[{'snaktype':'novalue','property':'P1480'},"
+		+ "{'snaktype':'somevalue','property':'P1480'}]},"
+		+ "'qualifiers-order':['P1480']}],"
+		+ "'P625':[{'mainsnak':{'snaktype':'value','property':'P625',"
+		+ "'datatype':'globe-coordinate','datavalue':{'type':'globecoordinate',"
+		+ "'value':{'latitude':51.5,'longitude':-0.12,'altitude':null,"
+		+ "'precision':0.01,'globe':'http://www.wikidata.org/entity/Q2'}}},"
+		+ "'type':'statement','id':'Q42$3','rank':'normal'},"
+		+ "{'mainsnak':{'snaktype':'value','property':'P625',"
+		+ "'datatype':'globe-coordinate','datavalue':{'type':'globecoordinate',"
+		+ "'value':{'latitude':52,'longitude':13}}},"
+		+ "'type':'statement','id':'Q42$4','rank':'deprecated'}],"
+		+ "'P1082':[{'mainsnak':{'snaktype':'value','property':'P1082',"
+		+ "'datatype':'quantity','datavalue':{'type':'quantity','value':{"
+		+ "'amount':'+1234','unit':'1','upperBound':'+1235',"
+		+ "'lowerBound':'+1233'}}},"
+		+ "'type':'statement','id':'Q42$5','rank':'normal'}],"
+		+ "'P1559':[{'mainsnak':{'snaktype':'value','property':'P1559',"
+		+ "'datatype':'monolingualtext','datavalue':{'type':'monolingualtext',"
+		+ "'value':{'text':'Douglas Adams','language':'en'}}},"
+		+ "'type':'statement','id':'Q42$6','rank':'normal'}],"
+		+ "'P18':[{'mainsnak':{'snaktype':'value','property':'P18',"
+		+ "'datatype':'commonsMedia','datavalue':{'type':'string',"
+		+ "'value':'Douglas adams portrait.jpg'}},"
+		+ "'type':'statement','id':'Q42$7','rank':'normal'}]},"
+		+ "'sitelinks':{"
+		+ "'enwiki':{'site':'enwiki','title':'Douglas Adams',"
+		+ "'badges':['Q17437798']},"
+		+ "'dewiki':{'site':'dewiki','title':'Douglas Adams','badges':[]}}"
+		+ "}";
+
+	private static String json(String text) {
+		return text.replace('\'', '"');
+	}
+
+	private static String item(String fields) {
+		return json("{'type':'item','id':'Q1'" + fields + "}");
+	}
+
+	private static String claim(String property, String statement) {
+		return item(",'claims':{'" + property + "':[" + statement + "]}");
+	}
+
+	private static String statement(String property, String dataValue) {
+		return "{'mainsnak':{'snaktype':'value','property':'" + property
+				+ "','datavalue':" + dataValue + "},"
+				+ "'type':'statement','id':'Q1$1','rank':'normal'}";
+	}
+
+	// Summary computed from the item document or null if there is none
+	private static ItemSummary fromItemDocument(String text) {
+		try {
+			ParsingResult result = JsonProcessor.parseJson(text);
+			if (result.jsonVersion == JsonVersion.REDIRECT) {
+				return null;
+			}
+			return ItemSummaryImpl.fromItemDocument(result.itemDocument);
+		} catch (JSONException | NullPointerException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Checks that the parser either falls back to the item document or
+	 * computes the same summary. Returns the summary of the parser.
+	 */
+	private static ItemSummary assertSameSummary(String text) {
+		ItemSummary actual = ItemSummaryParser.parse(text);
+		if (actual != null) {
+			ItemSummary expected = fromItemDocument(text);
+			assertNotNull(text, expected);
+			assertSummaryEquals(text, expected, actual);
+		}
+		return actual;
+	}
+
+	private static void assertHandled(String text) {
+		assertNotNull(text, assertSameSummary(text));
+	}
+
+	private static void assertNotHandled(String text) {
+		assertNull(text, ItemSummaryParser.parse(text));
+	}
+
+	private static void assertSummaryEquals(
+			String text, ItemSummary expected, ItemSummary actual) {
+		assertEquals(text, expected.getItemId(), actual.getItemId());
+		assertEquals(text, expected.getNumberOfLabels(),
+				actual.getNumberOfLabels());
+		assertEquals(text, expected.getNumberOfDescriptions(),
+				actual.getNumberOfDescriptions());
+		assertEquals(text, expected.getNumberOfAliases(),
+				actual.getNumberOfAliases());
+		assertEquals(text, expected.getNumberOfStatements(),
+				actual.getNumberOfStatements());
+		assertEquals(text, expected.getNumberOfProperties(),
+				actual.getNumberOfProperties());
+		assertEquals(text, expected.getNumberOfQualifiers(),
+				actual.getNumberOfQualifiers());
+		assertEquals(text, expected.getNumberOfReferences(),
+				actual.getNumberOfReferences());
+		assertEquals(text, expected.getNumberOfSitelinks(),
+				actual.getNumberOfSitelinks());
+		assertEquals(text, expected.getNumberOfBadges(),
+				actual.getNumberOfBadges());
+		assertEquals(text, expected.isHuman(), actual.isHuman());
+		assertEquals(text, expected.hasDateOfBirth(), actual.hasDateOfBirth());
+		assertEquals(text, expected.hasDateOfDeath(), actual.hasDateOfDeath());
+		assertEquals(text, expected.getEnglishLabel(),
+				actual.getEnglishLabel());
+		assertEquals(text, expected.getEnglishSitelink(),
+				actual.getEnglishSitelink());
+	}
+
+	@Test
+	public void testTypicalItem() {
+		ItemSummary summary = assertSameSummary(json(ITEM));
+		assertNotNull(summary);
+		assertEquals(42, summary.getItemId());
+		assertEquals(7, summary.getNumberOfStatements());
+		assertEquals(2, summary.getNumberOfQualifiers());
+		assertEquals(1, summary.getNumberOfReferences());
+		assertEquals(1, summary.getNumberOfBadges());
+	}
+
+	@Test
+	public void testEmptyItems() {
+		assertHandled(item(""));
+		assertHandled(item(",'labels':[],'descriptions':[],'aliases':[],"
+				+ "'claims':[],'sitelinks':[]"));
+		assertHandled(item(",'labels':null,'descriptions':null,"
+				+ "'aliases':null,'claims':null,'sitelinks':null"));
+		assertHandled(item(",'aliases':[{'language':'en','value':'x'}]"));
+	}
+
+	@Test
+	public void testFieldOrder() {
+		assertHandled(json("{'id':'Q7','claims':[],'type':'item'}"));
+		assertHandled(json("{'sitelinks':{'enwiki':{'badges':[],"
+				+ "'title':'T','site':'enwiki'}},'id':'Q7','type':'item',"
+				+ "'labels':{'en':{'value':'L','language':'en'}}}"));
+	}
+
+	@Test
+	public void testQualifiersOrder() {
+		String snaks = "'qualifiers':{"
+				+ "'P2':[{'snaktype':'novalue','property':'P2'}],"
+				+ "'P3':[{'snaktype':'novalue','property':'P3'},"
+				+ "{'snaktype':'somevalue','property':'P3'}]}";
+		String mainsnak = "'mainsnak':{'snaktype':'novalue','property':'P1'},"
+				+ "'type':'statement','id':'Q1$1','rank':'normal'";
+		assertHandled(claim("P1", "{" + mainsnak + "," + snaks
+				+ ",'qualifiers-order':['P2','P3']}"));
+		assertHandled(claim("P1", "{" + mainsnak + "," + snaks
+				+ ",'qualifiers-order':['P3']}"));
+		assertSameSummary(claim("P1", "{" + mainsnak + "," + snaks + "}"));
+		assertSameSummary(claim("P1", "{" + mainsnak
+				+ ",'qualifiers-order':['P2']}"));
+		assertSameSummary(claim("P1", "{" + mainsnak + "," + snaks
+				+ ",'qualifiers-order':['P4']}"));
+	}
+
+	@Test
+	public void testDataValues() {
+		String[] dataValues = {
+			"{'type':'string','value':'x'}",
+			"{'type':'string','value':{'text':'x'}}",
+			"{'type':'wikibase-entityid','value':"
+					+ "{'entity-type':'property','numeric-id':5}}",
+			"{'type':'wikibase-entityid','value':"
+					+ "{'entity-type':'item','numeric-id':'5'}}",
+			"{'type':'wikibase-entityid','value':"
+					+ "{'entity-type':'lexeme','numeric-id':5}}",
+			"{'type':'wikibase-entityid','value':"
+					+ "{'entity-type':'item','numeric-id':12345678901}}",
+			"{'type':'monolingualtext','value':{'text':'x'}}",
+			"{'type':'time','value':{'time':'-13798000000-00-00T00:00:00Z',"
+					+ "'precision':3,'calendarmodel':'Q1985727'}}",
+			"{'type':'time','value':{'time':'+2017-13-45T00:00:00Z',"
+					+ "'calendarmodel':'Q1985727'}}",
+			"{'type':'time','value':{'time':'+2017-01-01',"
+					+ "'calendarmodel':'Q1985727'}}",
+			"{'type':'time','value':{'time':'+2017-01-01T00:00:00Z',"
+					+ "'timezone':1.5,'calendarmodel':'Q1985727'}}",
+			"{'type':'time','value':{'time':'+2017-01-01T00:00:00Z'}}",
+			"{'type':'globecoordinate','value':{'latitude':91,'longitude':0}}",
+			"{'type':'globecoordinate','value':{'latitude':0,'longitude':-360,"
+					+ "'precision':0}}",
+			"{'type':'globecoordinate','value':{'latitude':0,'longitude':0,"
+					+ "'precision':null,'globe':'Q2'}}",
+			"{'type':'globecoordinate','value':{'latitude':0,'longitude':0,"
+					+ "'globe':null}}",
+			"{'type':'globecoordinate','value':{'latitude':'0','longitude':0}}",
+			"{'type':'quantity','value':{'amount':'+5','unit':'1',"
+					+ "'upperBound':'+5','lowerBound':'+5'}}",
+			"{'type':'quantity','value':{'amount':'+5','unit':'1',"
+					+ "'upperBound':'+4','lowerBound':'+3'}}",
+			"{'type':'quantity','value':{'amount':5.5,'unit':'1',"
+					+ "'upperBound':6,'lowerBound':'5'}}",
+			"{'type':'quantity','value':{'amount':'+5','unit':'1'}}",
+			"{'type':'quantity','value':{'amount':' ','unit':'1',"
+					+ "'upperBound':'+4','lowerBound':'+3'}}",
+			"{'type':'unknown','value':{}}",
+			"{'type':'string'}",
+		};
+		for (String dataValue: dataValues) {
+			assertSameSummary(claim("P1", statement("P1", dataValue)));
+		}
+		assertHandled(claim("P1", statement("P1", dataValues[0])));
+		assertHandled(claim("P31", statement("P31", dataValues[2])));
+	}
+
+	@Test
+	public void testInconsistentDocuments() {
+		// Language of a term and key of the map differ
+		assertSameSummary(item(",'labels':{'en':{'language':'de',"
+				+ "'value':'x'}}"));
+		// Property of a snak and key of the snak group differ
+		assertSameSummary(claim("P1", statement("P2",
+				"{'type':'string','value':'x'}")));
+		// Empty statement group
+		assertSameSummary(item(",'claims':{'P1':[]}"));
+		// Invalid rank and missing statement id
+		assertSameSummary(claim("P1", "{'mainsnak':{'snaktype':'novalue',"
+				+ "'property':'P1'},'type':'statement','id':'Q1$1',"
+				+ "'rank':'best'}"));
+		assertSameSummary(claim("P1", "{'mainsnak':{'snaktype':'novalue',"
+				+ "'property':'P1'},'type':'statement','rank':'normal'}"));
+		// Sitelink without title
+		assertSameSummary(item(",'sitelinks':{'enwiki':{'site':'enwiki'}}"));
+		// Like the object mapper, the parser ignores trailing content
+		assertHandled(json("{'type':'item','id':'Q1'}x"));
+		// Invalid item and property ids
+		assertSameSummary(json("{'type':'item','id':'P1'}"));
+		assertSameSummary(json("{'type':'item','id':'Qx'}"));
+		assertSameSummary(item(",'claims':{'Q1':[]}"));
+	}
+
+	@Test
+	public void testMalformedDocuments() {
+		String[] texts = {
+			"",
+			"[]",
+			"null",
+			"{",
+			json("{'type':'item'}"),
+			json("{'id':'Q1'}"),
+			json("{'type':'property','id':'P1','datatype':'string'}"),
+			json("{'type':'item','id':'Q1','id':'Q2'}"),
+			json("{'entity':'Q1','redirect':'Q2'}"),
+		};
+		for (String text: texts) {
+			assertNotHandled(text);
+		}
+	}
+
+	/**
+	 * Removes every character and truncates the typical item at every
+	 * position. The parser must never compute a summary that differs from
+	 * the one of the item document.
+	 */
+	@Test
+	public void testCorruptedDocuments() {
+		String text = json(ITEM);
+		for (int i = 0; i < text.length(); i++) {
+			assertSameSummary(text.substring(0, i)
+					+ text.substring(i + 1));
+			assertSameSummary(text.substring(0, i));
+		}
+	}
+}
@@ -0,0 +1,211 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.wsdmcup17.wdvd.extraction.revision.implementation;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.LogManager;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Checks that the keyword check of the ParsedCommentImpl does not change the
+ * results of the robust revert patterns.
+ */
+public class ParsedCommentImplTest {
+
+	private static final int MUTATED_COMMENTS = 50000;
+	private static final int MAX_MUTATIONS = 3;
+
+	private static final String[] USERS = { "Foo", "Bar baz", "x|y", "", "ü" };
+
+	// {u} is replaced by a user name and {n} by a revision id
+	private static final String[] SHAPES = {
+		"Reverted edits by [[Special:Contributions/{u}|{u}]] ([[User talk:{u}|talk]]) to last revision by [[User:V|V]]",
+		"Undid revision {n} by [[Special:Contributions/{u}|{u}]] ([[User talk:{u}|talk]])",
+		"Restored revision {n} by [[Special:Contributions/{u}|{u}]]",
+		"Restore revision {n}",
+		"undo revision{n}",
+		"  reVERTED   edits by[[special:contributions/{u}|x",
+		"Reverted edits by [[Special:Contributions/{u}]]",
+		"/* undo:0||{n}|{u} */ ",
+		"/* restore:0||{n}|{u} */",
+		"/* wbeditentity-update:0| */ Undid revision {n}",
+		"/* wbsetlabel-add:1|en */ revision",
+		"/* wbsetclaim-update:2||1 */ [[Property:P31]]: [[Q5]] #quickstatements",
+		"/* clientsitelink-update:0|enwiki|A|B */",
+		"/* wbmergeitems-from:0||Q1 */",
+		"Created page with {u}",
+		"Protected \"[[Q1]]\"",
+		"Removed protection from [[Q{n}]]",
+		"Changed protection level",
+		"",
+		"   ",
+		"Revision {n}",
+		"rEVERted",
+		"RevertedK",
+		"undone revision 12",
+		"xUndo revision 1",
+		"Restored? revision 3",
+		"restored revision   99 x",
+		// characters whose case folding differs between the regular
+		// expressions and String.regionMatches
+		"Undoİ revision 5",
+		"Undo reviſion 7",
+		"Kverted edits by [[Special:Contributions/{u}|{u}]]",
+	};
+
+	private static final String MUTATION_CHARACTERS =
+			"abcrevtdisonRVEUuURrSs[]/|:()* -#0123456789ſİK\n\t";
+
+	private static final String[] MUTATION_WORDS =
+		{ "revision", "Reverted", "undo", "Undid", "restore", " " };
+
+	// The comparisons with the precise patterns only produce debug messages.
+	// As in the Main class, they are disabled.
+	@BeforeClass
+	public static void setUpLogger() {
+		LogManager.getRootLogger().setLevel(Level.INFO);
+	}
+
+	private static boolean isRollback(String comment) {
+		return ParsedCommentImpl.ROBUST_ROLLBACK_PATTERN
+				.matcher(comment.trim()).matches();
+	}
+
+	private static boolean isUndo(String comment) {
+		return ParsedCommentImpl.ROBUST_UNDO_PATTERN.matcher(comment).matches();
+	}
+
+	private static boolean isRestore(String comment) {
+		return ParsedCommentImpl.ROBUST_RESTORE_PATTERN
+				.matcher(comment.trim()).matches();
+	}
+
+	private static String getRevertedContributor(String comment) {
+		Matcher matcher =
+				ParsedCommentImpl.ROBUST_ROLLBACK_PATTERN.matcher(comment);
+		return matcher.matches() ? matcher.group(1) : "null";
+	}
+
+	private static long getUndoneRevisionId(String comment) {
+		Matcher matcher = ParsedCommentImpl.ROBUST_UNDO_PATTERN.matcher(comment);
+		return matcher.matches() ? Long.parseLong(matcher.group(2)) : -1;
+	}
+
+	private static long getRestoredRevisionId(String comment) {
+		Matcher matcher =
+				ParsedCommentImpl.ROBUST_RESTORE_PATTERN.matcher(comment);
+		return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+	}
+
+	private static void assertClassification(String comment) {
+		assertEquals(comment, isRollback(comment),
+				ParsedCommentImpl.isRollback(comment));
+		assertEquals(comment, isUndo(comment),
+				ParsedCommentImpl.isUndo(comment));
+		assertEquals(comment, isRestore(comment),
+				ParsedCommentImpl.isRestore(comment));
+		assertEquals(comment, getRevertedContributor(comment),
+				ParsedCommentImpl.getRevertedContributor(comment));
+		assertEquals(comment, getUndoneRevisionId(comment),
+				ParsedCommentImpl.getUndoneRevisionId(comment));
+		assertEquals(comment, getRestoredRevisionId(comment),
+				ParsedCommentImpl.getRestoredRevisionId(comment));
+
+		// Other comments are parsed as before (e.g., "/* undo:0||1|A */" by
+		// the Wikibase parser).
+		if (isRollback(comment)) {
+			assertAction1(comment, "rollback");
+		} else if (isUndo(comment)) {
+			assertAction1(comment, "undo");
+		} else if (isRestore(comment)) {
+			assertAction1(comment, "restore");
+		}
+	}
+
+	private static void assertAction1(String comment, String action1) {
+		assertEquals(comment, action1,
+				new ParsedCommentImpl(comment).getAction1());
+	}
+
+	private static List<String> instantiate(Random random) {
+		List<String> result = new ArrayList<>();
+		for (String shape: SHAPES) {
+			String user = USERS[random.nextInt(USERS.length)];
+			String revisionId = Long.toString(
+					(long) (random.nextDouble() * 1000000000000L));
+			result.add(shape.replace("{u}", user).replace("{n}", revisionId));
+		}
+		return result;
+	}
+
+	@Test
+	public void testShapes() {
+		Random random = new Random(0);
+		for (String comment: instantiate(random)) {
+			assertClassification(comment);
+			assertClassification(comment.toUpperCase());
+			assertClassification(comment.toLowerCase());
+		}
+	}
+
+	@Test
+	public void testMutatedShapes() {
+		Random random = new Random(0);
+		for (int i = 0; i < MUTATED_COMMENTS; i++) {
+			List<String> comments = instantiate(random);
+			StringBuilder comment = new StringBuilder(
+					comments.get(random.nextInt(comments.size())));
+			int mutations = random.nextInt(MAX_MUTATIONS + 1);
+			for (int j = 0; j < mutations; j++) {
+				int position = random.nextInt(comment.length() + 1);
+				switch (random.nextInt(3)) {
+				case 0:
+					comment.insert(position, MUTATION_CHARACTERS.charAt(
+							random.nextInt(MUTATION_CHARACTERS.length())));
+					break;
+				case 1:
+					if (position < comment.length()) {
+						comment.deleteCharAt(position);
+					}
+					break;
+				default:
+					comment.insert(position,
+							MUTATION_WORDS[random.nextInt(MUTATION_WORDS.length)]);
+					break;
+				}
+			}
+			assertClassification(comment.toString());
+		}
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * WSDM Cup 2017 Baselines
+ *
+ * Copyright (c) 2017 Stefan Heindorf, Martin Potthast, Gregor Engels, Benno Stein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.wsdmcup17.wdvd.extraction.state;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+
+/**
+ * Checks the OffHeapLongMap against a heap map. The pages are made tiny, so
+ * that the slots of the map are spread over many pages.
+ */
+public class OffHeapLongMapTest {
+
+	private static final int NUMBER_OF_KEYS = 20000;
+
+	private static final int PAGE_SIZE = 256;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static void insertRandomKeys(
+			OffHeapLongMap map, Long2LongMap expected, Random random) {
+		long[] specialKeys = {0, -1, Long.MIN_VALUE, Long.MAX_VALUE};
+		for (long key: specialKeys) {
+			insert(map, expected, key, random.nextLong());
+		}
+		for (int i = 0; i < NUMBER_OF_KEYS; i++) {
+			// small keys, such that some keys are inserted repeatedly
+			insert(map, expected, random.nextInt(2 * NUMBER_OF_KEYS),
+					random.nextLong());
+		}
+	}
+
+	private static void insert(
+			OffHeapLongMap map, Long2LongMap expected, long key, long value) {
+		int slot = map.insert(key);
+		map.putLong(slot, 0, value);
+		map.putInt(slot, 8, (int) key);
+		expected.put(key, value);
+	}
+
+	private static void assertContent(
+			Long2LongMap expected, OffHeapLongMap map) {
+		assertEquals(expected.size(), map.size());
+		for (Long2LongMap.Entry entry: expected.long2LongEntrySet()) {
+			int slot = map.find(entry.getLongKey());
+			assertEquals(entry.getLongValue(), map.getLong(slot, 0));
+			assertEquals((int) entry.getLongKey(), map.getInt(slot, 8));
+		}
+		assertEquals(-1, map.find(-2));
+		assertEquals(-1, map.find(3 * NUMBER_OF_KEYS));
+	}
+
+	@Test
+	public void testPages() {
+		OffHeapLongMap map = new OffHeapLongMap(12, null, PAGE_SIZE);
+		Long2LongMap expected = new Long2LongOpenHashMap();
+		insertRandomKeys(map, expected, new Random(1));
+		assertContent(expected, map);
+	}
+
+	@Test
+	public void testMappedPages() throws IOException {
+		OffHeapLongMap map =
+				new OffHeapLongMap(12, folder.newFolder(), PAGE_SIZE);
+		Long2LongMap expected = new Long2LongOpenHashMap();
+		insertRandomKeys(map, expected, new Random(3));
+		assertContent(expected, map);
+	}
+
+	@Test
+	public void testState() throws IOException {
+		OffHeapLongMap map = new OffHeapLongMap(12, null, PAGE_SIZE);
+		Long2LongMap expected = new Long2LongOpenHashMap();
+		insertRandomKeys(map, expected, new Random(2));
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			map.writeState(out);
+		}
+
+		// The page size is not part of the state.
+		OffHeapLongMap restored = new OffHeapLongMap(12);
+		restored.insert(42);
+		try (DataInputStream in = new DataInputStream(
+				new ByteArrayInputStream(bytes.toByteArray()))) {
+			restored.readState(in);
+		}
+		assertContent(expected, restored);
+	}
+}